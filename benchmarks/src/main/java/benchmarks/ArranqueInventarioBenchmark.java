@@ -0,0 +1,66 @@
+package benchmarks;
+
+import gestores.ComicSistema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.ModoAlmacenamiento;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de inicio de {@link ComicSistema} en cada modo de almacenamiento, con un inventario ya existente.
+ * Cada iteración crea un sistema y lo cierra al terminar, así que en modo {@code MAPEADO} todas las iteraciones
+ * después de la primera conservan el inventario sin leer el CSV. La primera búsqueda por texto, que en ese modo
+ * construye el índice de texto, no se incluye.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ArranqueInventarioBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamano;
+
+    @Param({"OBJETOS", "COMPACTO", "MAPEADO"})
+    public ModoAlmacenamiento modo;
+
+    private EntornoBenchmark entorno;
+    private ComicSistema sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        entorno = new EntornoBenchmark(tamano, 1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarSistema() {
+        sistema.close();
+        sistema = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        entorno.close();
+    }
+
+    @Benchmark
+    public ComicSistema iniciarSistema() {
+        sistema = entorno.crearSistema(modo);
+        return sistema;
+    }
+}
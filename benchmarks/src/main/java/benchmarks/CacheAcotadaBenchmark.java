@@ -0,0 +1,89 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import utilidades.CacheAcotada;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de una lectura de la {@link CacheAcotada} con tráfico concentrado (Zipf) desde cuatro hilos, con la caché
+ * del 1% del catálogo. Cada fallo "carga" la clave sin costo, así que se mide la caché y no la carga. La tasa de
+ * aciertos se informa al terminar; {@code CacheAcotadaTest} verifica que supere el mínimo esperado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheAcotadaBenchmark {
+    private static final int CLAVES = 100_000;
+    private static final int TAMANO_SECUENCIA = 1 << 16;
+
+    @Param({"1000", "10000"})
+    public int capacidad;
+
+    private CacheAcotada<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        cache = new CacheAcotada<>(capacidad);
+    }
+
+    @TearDown(Level.Trial)
+    public void informar() {
+        System.out.println("Caché con capacidad " + capacidad + ": " + cache.getEstadisticas());
+    }
+
+    /**
+     * Secuencia de claves de cada hilo, con probabilidad proporcional a 1 / (posición + 1).
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+        private int[] claves;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void preparar(ThreadParams parametros) {
+            double[] acumulada = new double[CLAVES];
+            double suma = 0;
+            for (int i = 0; i < CLAVES; i++) {
+                suma += 1.0 / (i + 1);
+                acumulada[i] = suma;
+            }
+            Random random = new Random(GeneradorDatos.SEMILLA + parametros.getThreadIndex());
+            claves = new int[TAMANO_SECUENCIA];
+            for (int i = 0; i < claves.length; i++) {
+                int posicion = Arrays.binarySearch(acumulada, random.nextDouble() * suma);
+                claves[i] = posicion >= 0 ? posicion : Math.min(CLAVES - 1, -posicion - 1);
+            }
+        }
+
+        private Integer siguiente() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return claves[cursor];
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer obtener(Hilo hilo) {
+        return cache.obtener(hilo.siguiente(), clave -> clave);
+    }
+}
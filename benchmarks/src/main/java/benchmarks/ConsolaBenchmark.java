@@ -0,0 +1,113 @@
+package benchmarks;
+
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import gestores.OyenteComicSistema;
+import modelos.EstadoComic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.ModoAlmacenamiento;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cuánto cuesta la salida por consola en el camino de una venta: cada operación vende un cómic y lo vuelve a
+ * declarar disponible, con el oyente {@link OyenteComicSistema#CONSOLA} (formatea cada aviso y lo escribe en
+ * {@code System.out}, que el entorno redirige a un flujo nulo) o {@link OyenteComicSistema#SILENCIOSO}.
+ * Con varios hilos, la consola además serializa a los hilos en el bloqueo de {@code PrintStream}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ConsolaBenchmark {
+    private static final int TAMANO_INVENTARIO = 100_000;
+    private static final int TAMANO_SECUENCIA = 1 << 16;
+
+    @Param({"CONSOLA", "SILENCIOSO"})
+    public String oyente;
+
+    private EntornoBenchmark entorno;
+    private ComicSistema sistema;
+    private String idUsuario;
+
+    /**
+     * Secuencia de IDs aleatorios propia de cada hilo.
+     */
+    @State(Scope.Thread)
+    public static class Secuencia {
+        private String[] ids;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            Random random = new Random(Thread.currentThread().getId());
+            ids = new String[TAMANO_SECUENCIA];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = GeneradorDatos.idComic(random.nextInt(TAMANO_INVENTARIO));
+            }
+        }
+
+        private String siguienteId() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return ids[cursor];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        entorno = new EntornoBenchmark(TAMANO_INVENTARIO, 1000);
+        sistema = entorno.crearSistema(ModoAlmacenamiento.OBJETOS,
+                "CONSOLA".equals(oyente) ? OyenteComicSistema.CONSOLA : OyenteComicSistema.SILENCIOSO);
+        idUsuario = GeneradorDatos.idUsuario(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        sistema.close();
+        entorno.close();
+    }
+
+    private void venderYDevolver(Secuencia secuencia) {
+        String id = secuencia.siguienteId();
+        try {
+            // Con la API pública, para que los índices por estado y los conteos sigan al día; después de la primera
+            // venta y devolución el cómic queda disponible, así que solo ocurre una vez por cómic vendido o reservado
+            if (sistema.buscarComicPorId(id).getEstado() != EstadoComic.DISPONIBLE) {
+                sistema.cancelarReservaODeclararDisponible(id);
+            }
+            sistema.registrarVenta(id, idUsuario);
+            sistema.cancelarReservaODeclararDisponible(id);
+        } catch (ComicNoEncontradoException | ComicYaVendidoException e) {
+            // Otro hilo vendió el mismo cómic entre la preparación y la venta
+        }
+    }
+
+    @Benchmark
+    public void venderYDevolver1Hilo(Secuencia secuencia) {
+        venderYDevolver(secuencia);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void venderYDevolver4Hilos(Secuencia secuencia) {
+        venderYDevolver(secuencia);
+    }
+}
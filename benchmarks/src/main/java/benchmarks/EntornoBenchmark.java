@@ -0,0 +1,140 @@
+package benchmarks;
+
+import gestores.ComicSistema;
+import gestores.OyenteComicSistema;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+import utilidades.TipoPersistencia;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Directorio temporal con un conjunto de datos sintético y un {@link ComicSistema} que trabaja sobre él,
+ * en lugar de las rutas fijas de {@code Constantes}. Mientras el entorno está abierto, la salida por consola
+ * se descarta para que los mensajes de {@code ComicSistema} no distorsionen las mediciones.
+ */
+public class EntornoBenchmark implements AutoCloseable {
+    private final Path directorio;
+    private final PrintStream salidaOriginal;
+
+    /**
+     * Crea el directorio temporal y genera en él {@code cantidadComics} cómics y {@code cantidadUsuarios} usuarios.
+     *
+     * @param cantidadComics El número de cómics a generar.
+     * @param cantidadUsuarios El número de usuarios a generar.
+     * @throws IOException Si ocurre un error al generar los datos.
+     */
+    public EntornoBenchmark(int cantidadComics, int cantidadUsuarios) throws IOException {
+        this(cantidadComics, cantidadUsuarios, 0);
+    }
+
+    /**
+     * Crea el directorio temporal y genera en él {@code cantidadComics} cómics, {@code cantidadUsuarios} usuarios
+     * y un log de texto de ventas con {@code cantidadEventos} eventos, que el sistema importa a su libro de ventas al abrirse.
+     *
+     * @param cantidadComics El número de cómics a generar.
+     * @param cantidadUsuarios El número de usuarios a generar.
+     * @param cantidadEventos El número de eventos de venta a generar.
+     * @throws IOException Si ocurre un error al generar los datos.
+     */
+    public EntornoBenchmark(int cantidadComics, int cantidadUsuarios, int cantidadEventos) throws IOException {
+        this.directorio = Files.createTempDirectory("comic-bench-");
+        GeneradorDatos.generarComics(getRutaComics(), cantidadComics, GeneradorDatos.SEMILLA);
+        GeneradorDatos.generarUsuarios(getRutaUsuarios(), cantidadUsuarios, GeneradorDatos.SEMILLA);
+        if (cantidadEventos > 0) {
+            GeneradorDatos.generarLogVentas(getRutaVentasLog(), cantidadEventos, cantidadComics, cantidadUsuarios, GeneradorDatos.SEMILLA);
+        }
+        this.salidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Crea un sistema nuevo que carga los datos del directorio temporal.
+     *
+     * @return El sistema cargado.
+     */
+    public ComicSistema crearSistema() {
+        return new ComicSistema(getRutaComics().toString(), getRutaUsuarios().toString(), getRutaVentasLog().toString());
+    }
+
+    /**
+     * Crea un sistema nuevo que carga los datos del directorio temporal, con el modo de almacenamiento indicado.
+     *
+     * @param modo El modo de almacenamiento del inventario.
+     * @return El sistema cargado.
+     */
+    public ComicSistema crearSistema(ModoAlmacenamiento modo) {
+        return new ComicSistema(getRutaComics().toString(), getRutaUsuarios().toString(), getRutaVentasLog().toString(), modo);
+    }
+
+    /**
+     * Crea un sistema nuevo sobre el directorio temporal con el tipo de persistencia indicado. Con
+     * {@link TipoPersistencia#SQL}, la primera llamada crea la base de datos e importa en ella los archivos generados.
+     *
+     * @param tipo El tipo de persistencia.
+     * @return El sistema cargado.
+     */
+    public ComicSistema crearSistema(TipoPersistencia tipo) {
+        return new ComicSistema(ConfiguracionPersistencia.enDirectorio(tipo, directorio.toString()));
+    }
+
+    /**
+     * Crea un sistema nuevo que carga los datos del directorio temporal y entrega sus avisos al oyente indicado.
+     *
+     * @param modo El modo de almacenamiento del inventario.
+     * @param oyente El oyente de los avisos del sistema.
+     * @return El sistema cargado.
+     */
+    public ComicSistema crearSistema(ModoAlmacenamiento modo, OyenteComicSistema oyente) {
+        return new ComicSistema(ConfiguracionPersistencia.csv(getRutaComics().toString(), getRutaUsuarios().toString(),
+                getRutaVentasLog().toString()), modo, oyente);
+    }
+
+    /**
+     * Obtiene la ruta del CSV de cómics dentro del directorio temporal.
+     *
+     * @return La ruta del archivo.
+     */
+    public Path getRutaComics() {
+        return directorio.resolve("comics.csv");
+    }
+
+    /**
+     * Obtiene la ruta del CSV de usuarios dentro del directorio temporal.
+     *
+     * @return La ruta del archivo.
+     */
+    public Path getRutaUsuarios() {
+        return directorio.resolve("usuarios.csv");
+    }
+
+    /**
+     * Obtiene la ruta del log de ventas dentro del directorio temporal.
+     *
+     * @return La ruta del archivo.
+     */
+    public Path getRutaVentasLog() {
+        return directorio.resolve("ventas_log.txt");
+    }
+
+    /**
+     * Restaura la salida por consola y elimina el directorio temporal.
+     *
+     * @throws IOException Si ocurre un error al borrar los archivos.
+     */
+    @Override
+    public void close() throws IOException {
+        System.setOut(salidaOriginal);
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package benchmarks;
+
+import modelos.EstadoComic;
+import modelos.EventoVenta;
+import utilidades.CsvUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Random;
+
+/**
+ * Generador de conjuntos de datos sintéticos (cómics y usuarios) para los benchmarks.
+ * Los datos son deterministas para una semilla dada, de modo que los resultados son reproducibles en cualquier máquina.
+ */
+public final class GeneradorDatos {
+    public static final long SEMILLA = 20250624L;
+    /** Instante del primer evento de los logs de ventas generados; los siguientes llegan uno por minuto. */
+    public static final long INICIO_LOG_VENTAS = LocalDateTime.of(2024, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    private static final String[] NOMBRES = {"Clark", "Bruce", "Diana", "Barry", "Hal", "Arthur", "Victor", "Selina", "Oliver", "Dinah"};
+    private static final String[] APELLIDOS = {"Kent", "Wayne", "Prince", "Allen", "Jordan", "Curry", "Stone", "Kyle", "Queen", "Lance"};
+
+    /**
+     * Constructor privado para evitar la instanciación de esta clase de utilidades.
+     */
+    private GeneradorDatos() {
+    }
+
+    /**
+     * Formatea el ID del cómic número {@code i} del conjunto sintético.
+     *
+     * @param i El número del cómic.
+     * @return El ID del cómic.
+     */
+    public static String idComic(int i) {
+        return String.format("C%07d", i);
+    }
+
+    /**
+     * Formatea el ID del usuario número {@code i} del conjunto sintético.
+     *
+     * @param i El número del usuario.
+     * @return El ID del usuario.
+     */
+    public static String idUsuario(int i) {
+        return String.format("U%07d", i);
+    }
+
+    /**
+     * Genera un {@code comics.csv} con {@code cantidad} cómics. Alrededor del 80% queda "disponible",
+     * el 15% "vendido" y el 5% "reservado"; los autores se repiten (un autor cada 50 cómics en promedio)
+     * y algunos títulos contienen comas para ejercitar el entrecomillado.
+     *
+     * @param archivo El archivo a generar.
+     * @param cantidad El número de cómics.
+     * @param semilla La semilla del generador aleatorio.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void generarComics(Path archivo, int cantidad, long semilla) throws IOException {
+        Random random = new Random(semilla);
+        int autores = Math.max(1, cantidad / 50);
+        try (BufferedWriter bw = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            bw.write("ID,Titulo,Autor,Estado");
+            bw.newLine();
+            for (int i = 0; i < cantidad; i++) {
+                int sorteo = random.nextInt(100);
+                String estado = sorteo < 80 ? "disponible" : sorteo < 95 ? "vendido" : "reservado";
+                String titulo = (i % 10 == 0) ? "Colección " + i + ", Edición Especial" : "Título " + i + " Vol. " + (1 + random.nextInt(20));
+                bw.write(CsvUtil.formatearLinea(idComic(i), titulo, "Autor " + random.nextInt(autores), estado));
+                bw.newLine();
+            }
+        }
+    }
+
+    /**
+     * Genera un {@code usuarios.csv} con {@code cantidad} usuarios. Los nombres se repiten con frecuencia
+     * y uno de cada cinco usuarios no tiene email.
+     *
+     * @param archivo El archivo a generar.
+     * @param cantidad El número de usuarios.
+     * @param semilla La semilla del generador aleatorio.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void generarUsuarios(Path archivo, int cantidad, long semilla) throws IOException {
+        Random random = new Random(semilla);
+        try (BufferedWriter bw = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            bw.write("ID,Nombre,Email");
+            bw.newLine();
+            for (int i = 0; i < cantidad; i++) {
+                String nombre = NOMBRES[random.nextInt(NOMBRES.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+                String email = (i % 5 == 0) ? null : "usuario" + i + "@tienda.cl";
+                bw.write(CsvUtil.formatearLinea(idUsuario(i), nombre, email));
+                bw.newLine();
+            }
+        }
+    }
+
+    /**
+     * Genera un {@code ventas_log.txt} con {@code cantidad} eventos, uno por minuto desde {@link #INICIO_LOG_VENTAS}.
+     * Cada evento es una venta de un cómic y un usuario al azar o, uno de cada cuatro, la devolución de un cómic.
+     *
+     * @param archivo El archivo a generar.
+     * @param cantidad El número de eventos.
+     * @param cantidadComics El número de cómics del conjunto (ver {@link #idComic}).
+     * @param cantidadUsuarios El número de usuarios del conjunto (ver {@link #idUsuario}).
+     * @param semilla La semilla del generador aleatorio.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void generarLogVentas(Path archivo, int cantidad, int cantidadComics, int cantidadUsuarios, long semilla) throws IOException {
+        Random random = new Random(semilla);
+        try (BufferedWriter bw = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < cantidad; i++) {
+                long instante = INICIO_LOG_VENTAS + i * 60_000L;
+                int comic = random.nextInt(cantidadComics);
+                EventoVenta evento = random.nextInt(4) == 0
+                        ? new EventoVenta(EventoVenta.Tipo.DISPONIBLE, instante, idComic(comic), "Título " + comic, null, null, EstadoComic.VENDIDO)
+                        : new EventoVenta(EventoVenta.Tipo.VENTA, instante, idComic(comic), "Título " + comic,
+                        idUsuario(random.nextInt(cantidadUsuarios)), "Usuario", EstadoComic.DISPONIBLE);
+                bw.write(evento.aLineaLog());
+                bw.newLine();
+            }
+        }
+    }
+
+    /**
+     * Genera en un directorio los archivos {@code comics.csv} y {@code usuarios.csv} de 10K, 100K o 1M registros.
+     * Uso: {@code java -cp benchmarks.jar benchmarks.GeneradorDatos <directorio> <cantidad>}.
+     *
+     * @param args El directorio de salida y la cantidad de registros.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: GeneradorDatos <directorio> <cantidad>");
+            return;
+        }
+        Path directorio = Files.createDirectories(Paths.get(args[0]));
+        int cantidad = Integer.parseInt(args[1]);
+        generarComics(directorio.resolve("comics.csv"), cantidad, SEMILLA);
+        generarUsuarios(directorio.resolve("usuarios.csv"), cantidad, SEMILLA);
+        System.out.println("Se generaron " + cantidad + " cómics y usuarios en " + directorio);
+    }
+}
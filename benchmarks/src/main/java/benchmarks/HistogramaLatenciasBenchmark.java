@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.HistogramaLatencias;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de registrar una latencia en un {@link HistogramaLatencias}, con una duración ya medida y midiéndola con
+ * dos lecturas de {@link System#nanoTime()}. Con {@code -prof gc} se comprueba además que no se reserve memoria.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistogramaLatenciasBenchmark {
+    private final HistogramaLatencias histograma = new HistogramaLatencias();
+    private int contador;
+
+    @Benchmark
+    public void registrar() {
+        histograma.registrar(++contador & 1023);
+    }
+
+    @Benchmark
+    public void registrarDesde() {
+        histograma.registrarDesde(System.nanoTime() - (++contador & 1023));
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import gestores.ComicSistema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las consultas al historial de ventas de {@link ComicSistema}: por cómic, por usuario y por rango de tiempo,
+ * y de los reportes de ventas.
+ * El historial se genera como log de texto (un evento por minuto) y el sistema lo importa a su libro de ventas al abrirse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistorialVentasBenchmark {
+    private static final int COMICS = 10_000;
+    private static final int USUARIOS = 1_000;
+    private static final int TAMANO_SECUENCIA = 1 << 12;
+
+    /**
+     * Sistema con un libro de ventas de {@code eventos} eventos y secuencias de IDs e instantes aleatorios a consultar.
+     */
+    @State(Scope.Thread)
+    public static class Datos {
+        @Param({"100000", "1000000"})
+        public int eventos;
+
+        private EntornoBenchmark entorno;
+        private ComicSistema sistema;
+        private String[] idsComics;
+        private String[] idsUsuarios;
+        private Instant[] inicios;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            entorno = new EntornoBenchmark(COMICS, USUARIOS, eventos);
+            sistema = entorno.crearSistema();
+            Random random = new Random(GeneradorDatos.SEMILLA);
+            idsComics = new String[TAMANO_SECUENCIA];
+            idsUsuarios = new String[TAMANO_SECUENCIA];
+            inicios = new Instant[TAMANO_SECUENCIA];
+            for (int i = 0; i < TAMANO_SECUENCIA; i++) {
+                idsComics[i] = GeneradorDatos.idComic(random.nextInt(COMICS));
+                idsUsuarios[i] = GeneradorDatos.idUsuario(random.nextInt(USUARIOS));
+                inicios[i] = Instant.ofEpochMilli(GeneradorDatos.INICIO_LOG_VENTAS + random.nextInt(eventos) * 60_000L);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void limpiar() throws IOException {
+            sistema.close();
+            entorno.close();
+        }
+
+        private int siguiente() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return cursor;
+        }
+    }
+
+    @Benchmark
+    public long consultarPorComic(Datos datos, Blackhole agujero) throws IOException {
+        return datos.sistema.consultarHistorialVentas(null, null, datos.idsComics[datos.siguiente()], null, agujero::consume);
+    }
+
+    @Benchmark
+    public long consultarPorUsuario(Datos datos, Blackhole agujero) throws IOException {
+        return datos.sistema.consultarHistorialVentas(null, null, null, datos.idsUsuarios[datos.siguiente()], agujero::consume);
+    }
+
+    @Benchmark
+    public long consultarUnaHora(Datos datos, Blackhole agujero) throws IOException {
+        Instant desde = datos.inicios[datos.siguiente()];
+        return datos.sistema.consultarHistorialVentas(desde, desde.plus(Duration.ofHours(1)), null, null, agujero::consume);
+    }
+
+    @Benchmark
+    public List<?> reporteComicsMasVendidos(Datos datos) {
+        return datos.sistema.obtenerComicsMasVendidos(10);
+    }
+
+    @Benchmark
+    public List<?> reporteAutoresMasVendidos(Datos datos) {
+        return datos.sistema.obtenerAutoresMasVendidos(10);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import gestores.ComicSistema;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.ModoAlmacenamiento;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memoria que ocupa el inventario de {@link ComicSistema} en cada modo de almacenamiento.
+ * Cada ejecución carga el inventario una vez y mide el heap ocupado antes y después, tras forzar la recolección
+ * de basura; el resultado secundario {@code bytesPorComic} es la diferencia dividida por el número de cómics.
+ * Incluye los índices por autor, estado y texto (en modo {@code MAPEADO}, el de texto se construye con la primera búsqueda).
+ * El tiempo medido incluye las recolecciones forzadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1) // JMH suma los contadores auxiliares de todas las iteraciones medidas
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class MemoriaInventarioBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamano;
+
+    @Param({"OBJETOS", "COMPACTO", "MAPEADO"})
+    public ModoAlmacenamiento modo;
+
+    private EntornoBenchmark entorno;
+    private ComicSistema sistema;
+
+    /**
+     * Bytes de heap por cómic de la última carga.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+        public long bytesPorComic;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        entorno = new EntornoBenchmark(tamano, 1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarSistema() {
+        sistema.close();
+        sistema = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        entorno.close();
+    }
+
+    @Benchmark
+    public ComicSistema cargarInventario(Memoria memoria) {
+        long antes = heapOcupado();
+        sistema = entorno.crearSistema(modo);
+        memoria.bytesPorComic = (heapOcupado() - antes) / tamano;
+        return sistema;
+    }
+
+    private static long heapOcupado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
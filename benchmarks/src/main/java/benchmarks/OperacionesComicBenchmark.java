@@ -0,0 +1,162 @@
+package benchmarks;
+
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import modelos.Comic;
+import modelos.EstadoComic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.Pagina;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las operaciones por cómic de {@link ComicSistema}: búsqueda, venta y cancelación.
+ * Antes de cada venta (o cancelación) el cómic elegido se lleva al estado de partida con la API pública
+ * (ver {@link ConComicDisponible} y {@link ConComicReservado}), fuera de la medición, de modo que la operación medida
+ * siempre recorre su camino completo, incluida la persistencia, y los índices por estado y los conteos siguen al día.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperacionesComicBenchmark {
+    private static final int TAMANO_SECUENCIA = 1 << 16;
+
+    /**
+     * Sistema cargado con el conjunto de datos sintético y una secuencia de IDs aleatorios a consultar.
+     */
+    @State(Scope.Thread)
+    public static class Datos {
+        @Param({"10000", "100000", "1000000"})
+        public int tamano;
+
+        private EntornoBenchmark entorno;
+        ComicSistema sistema;
+        private String[] idsAleatorios;
+        private String[] consultasTexto;
+        String idUsuario;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            entorno = new EntornoBenchmark(tamano, 1000);
+            sistema = entorno.crearSistema();
+            idUsuario = GeneradorDatos.idUsuario(1);
+            Random random = new Random(GeneradorDatos.SEMILLA);
+            idsAleatorios = new String[TAMANO_SECUENCIA];
+            for (int i = 0; i < idsAleatorios.length; i++) {
+                // Mezcla mayúsculas y minúsculas para ejercitar la búsqueda sin distinción
+                String id = GeneradorDatos.idComic(random.nextInt(tamano));
+                idsAleatorios[i] = random.nextBoolean() ? id : id.toLowerCase();
+            }
+            // Consultas de dos términos: uno muy frecuente y otro selectivo, este último como prefijo la mitad de las veces
+            consultasTexto = new String[TAMANO_SECUENCIA];
+            for (int i = 0; i < consultasTexto.length; i++) {
+                int numero = random.nextInt(tamano);
+                String termino = random.nextBoolean() ? String.valueOf(numero) : String.valueOf(numero / 10);
+                consultasTexto[i] = (numero % 10 == 0 ? "Colección " : "titulo ") + termino;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void limpiar() throws IOException {
+            sistema.close();
+            entorno.close();
+        }
+
+        String siguienteId() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return idsAleatorios[cursor];
+        }
+
+        private String siguienteConsulta() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return consultasTexto[cursor];
+        }
+    }
+
+    /**
+     * Datos con un cómic disponible para la siguiente venta: si está vendido o reservado, se declara disponible
+     * antes de la invocación. Extiende {@link Datos} para preparar el cómic en el mismo sistema que se mide.
+     */
+    @State(Scope.Thread)
+    public static class ConComicDisponible extends Datos {
+        private String id;
+
+        @Setup(Level.Invocation)
+        public void prepararComic() throws ComicNoEncontradoException {
+            id = siguienteId();
+            if (sistema.buscarComicPorId(id).getEstado() != EstadoComic.DISPONIBLE) {
+                sistema.cancelarReservaODeclararDisponible(id);
+            }
+        }
+    }
+
+    /**
+     * Datos con un cómic reservado para la siguiente cancelación: si no lo está, se reserva (declarándolo antes
+     * disponible si estaba vendido) antes de la invocación.
+     */
+    @State(Scope.Thread)
+    public static class ConComicReservado extends Datos {
+        private String id;
+
+        @Setup(Level.Invocation)
+        public void prepararComic() throws ComicNoEncontradoException, ComicYaVendidoException {
+            id = siguienteId();
+            EstadoComic estado = sistema.buscarComicPorId(id).getEstado();
+            if (estado == EstadoComic.RESERVADO) {
+                return;
+            }
+            if (estado == EstadoComic.VENDIDO) {
+                sistema.cancelarReservaODeclararDisponible(id);
+            }
+            sistema.reservar(id, idUsuario);
+        }
+    }
+
+    @Benchmark
+    public Comic buscarComicPorId(Datos datos) {
+        return datos.sistema.buscarComicPorId(datos.siguienteId());
+    }
+
+    @Benchmark
+    public Pagina<Comic> buscarDisponiblesPorAutor(Datos datos) {
+        return datos.sistema.buscarComics("Autor 7", EstadoComic.DISPONIBLE, 1, 20);
+    }
+
+    @Benchmark
+    public Pagina<Comic> buscarPorTexto(Datos datos) {
+        return datos.sistema.buscarPorTexto(datos.siguienteConsulta(), 1, 20);
+    }
+
+    @Benchmark
+    public long contarComicsDisponibles(Datos datos) {
+        return datos.sistema.contarComics(EstadoComic.DISPONIBLE);
+    }
+
+    @Benchmark
+    public void registrarVenta(ConComicDisponible datos) throws ComicNoEncontradoException, ComicYaVendidoException {
+        datos.sistema.registrarVenta(datos.id, datos.idUsuario);
+    }
+
+    @Benchmark
+    public void cancelarReserva(ConComicReservado datos) throws ComicNoEncontradoException {
+        datos.sistema.cancelarReservaODeclararDisponible(datos.id);
+    }
+}
@@ -0,0 +1,150 @@
+package benchmarks;
+
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import gestores.ComicSistemaParticionado;
+import gestores.OyenteComicSistema;
+import modelos.Comic;
+import modelos.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+import utilidades.TipoPersistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escalabilidad de las ventas con el número de particiones ({@link ComicSistemaParticionado}). Todos los hilos
+ * disponibles (uno por núcleo) venden y devuelven cómics al azar; cada hilo usa solo sus propios cómics, así que
+ * no hay ventas rechazadas y lo que se mide es la contención del sistema. Con {@code particiones = 0} se mide un
+ * {@link ComicSistema} sin particionar, como referencia.
+ * <p>
+ * El rendimiento debería crecer casi linealmente con las particiones hasta el número de núcleos; para verlo, se
+ * ejecuta en una máquina con muchos núcleos, e.g., {@code java -jar benchmarks.jar ParticionesBenchmark -t 32}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticionesBenchmark {
+    private static final int COMICS = 100_000;
+    private static final int USUARIOS = 1000;
+    private static final int TAMANO_LOTE = 10_000;
+    private static final int TAMANO_SECUENCIA = 1 << 14;
+
+    @Param({"0", "1", "2", "4", "8", "16", "32"})
+    public int particiones;
+
+    private EntornoBenchmark entorno;
+    private ComicSistemaParticionado particionado;
+    private ComicSistema sinParticionar;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        entorno = new EntornoBenchmark(1, 1);
+        String directorio = entorno.getRutaComics().resolveSibling("particionado").toString();
+        if (particiones == 0) {
+            Files.createDirectories(Path.of(directorio));
+            sinParticionar = new ComicSistema(ConfiguracionPersistencia.enDirectorio(TipoPersistencia.CSV, directorio),
+                    ModoAlmacenamiento.OBJETOS, OyenteComicSistema.SILENCIOSO);
+        } else {
+            particionado = new ComicSistemaParticionado(TipoPersistencia.CSV, directorio, particiones,
+                    ModoAlmacenamiento.OBJETOS, OyenteComicSistema.SILENCIOSO);
+        }
+        for (int inicio = 0; inicio < COMICS; inicio += TAMANO_LOTE) {
+            List<Comic> lote = new ArrayList<>(TAMANO_LOTE);
+            for (int i = inicio; i < Math.min(COMICS, inicio + TAMANO_LOTE); i++) {
+                lote.add(new Comic("Titulo " + i, "Autor " + (i % 100), GeneradorDatos.idComic(i), "disponible"));
+            }
+            if (particionado != null) {
+                particionado.agregarComics(lote);
+            } else {
+                sinParticionar.agregarComics(lote);
+            }
+        }
+        for (int i = 0; i < USUARIOS; i++) {
+            Usuario usuario = new Usuario(GeneradorDatos.idUsuario(i), "Usuario " + i, null);
+            if (particionado != null) {
+                particionado.agregarUsuario(usuario);
+            } else {
+                sinParticionar.agregarUsuario(usuario);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        if (particionado != null) {
+            particionado.close();
+        } else {
+            sinParticionar.close();
+        }
+        entorno.close();
+    }
+
+    /**
+     * Cómics y comprador de cada hilo: los cómics cuyo número módulo el número de hilos es el del hilo.
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+        private String[] idsComics;
+        private String idUsuario;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void preparar(ThreadParams parametros) {
+            int hilos = parametros.getThreadCount();
+            int indice = parametros.getThreadIndex();
+            Random random = new Random(GeneradorDatos.SEMILLA + indice);
+            int propios = (COMICS - indice + hilos - 1) / hilos;
+            idsComics = new String[TAMANO_SECUENCIA];
+            for (int i = 0; i < idsComics.length; i++) {
+                idsComics[i] = GeneradorDatos.idComic(indice + random.nextInt(propios) * hilos);
+            }
+            idUsuario = GeneradorDatos.idUsuario(indice % USUARIOS);
+        }
+
+        private String siguienteId() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return idsComics[cursor];
+        }
+    }
+
+    /**
+     * Vende un cómic y lo devuelve: dos escrituras, cada una con su registro en el diario y en el libro de ventas.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object venderYDevolver(Hilo hilo) throws ComicNoEncontradoException, ComicYaVendidoException {
+        String id = hilo.siguienteId();
+        if (particionado != null) {
+            particionado.registrarVenta(id, hilo.idUsuario);
+            return particionado.cancelarReservaODeclararDisponible(id);
+        }
+        sinParticionar.registrarVenta(id, hilo.idUsuario);
+        return sinParticionar.cancelarReservaODeclararDisponible(id);
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import gestores.ComicSistema;
+import modelos.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utilidades.CsvUtil;
+import utilidades.Pagina;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de carga y guardado de datos: arranque completo (y cierre) de {@link ComicSistema}, lectura del CSV de cómics,
+ * escritura de la instantánea del inventario, listado de usuarios ordenados por nombre y una página de la búsqueda
+ * de usuarios por prefijo del nombre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PersistenciaBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int tamano;
+
+    private EntornoBenchmark entorno;
+    private ComicSistema sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        entorno = new EntornoBenchmark(tamano, tamano);
+        sistema = entorno.crearSistema();
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        sistema.close();
+        entorno.close();
+    }
+
+    /**
+     * Arranca el sistema y lo cierra; sin cerrarlo, cada invocación dejaría registrado su MBean y, con él,
+     * todo el inventario cargado. El cierre no tiene escrituras pendientes que esperar.
+     */
+    @Benchmark
+    public void cargarSistema(Blackhole blackhole) {
+        try (ComicSistema cargado = entorno.crearSistema()) {
+            blackhole.consume(cargado);
+        }
+    }
+
+    @Benchmark
+    public List<String[]> leerCsvComics() throws IOException {
+        return CsvUtil.leerCsv(entorno.getRutaComics().toString(), campos -> campos);
+    }
+
+    @Benchmark
+    public long procesarCsvComics(Blackhole blackhole) throws IOException {
+        return CsvUtil.procesarCsv(entorno.getRutaComics().toString(), fila -> blackhole.consume(fila.getCampo(0)));
+    }
+
+    @Benchmark
+    public void guardarInventario() {
+        sistema.guardarInventario();
+    }
+
+    @Benchmark
+    public List<Usuario> listarUsuariosOrdenadosPorNombre() {
+        return sistema.listarUsuariosOrdenadosPorNombre();
+    }
+
+    @Benchmark
+    public Pagina<Usuario> buscarUsuariosPorNombre() {
+        return sistema.buscarUsuariosPorNombre("Bruce W", 3, 20);
+    }
+}
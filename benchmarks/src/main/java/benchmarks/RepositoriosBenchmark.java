@@ -0,0 +1,121 @@
+package benchmarks;
+
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import modelos.EstadoComic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.TipoPersistencia;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los tipos de persistencia en el camino de una venta: cada operación vende un cómic disponible y lo vuelve
+ * a declarar disponible, de modo que se persisten dos cambios de estado y dos eventos de venta. Con CSV cada cambio
+ * se anexa al diario del inventario; con SQL es un UPDATE en su propia transacción, y los eventos se insertan por lotes.
+ * También mide el guardado del inventario completo en cada tipo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RepositoriosBenchmark {
+    private static final int TAMANO_SECUENCIA = 1 << 16;
+
+    @Param({"CSV", "SQL"})
+    public TipoPersistencia tipo;
+
+    @Param({"10000", "100000"})
+    public int tamano;
+
+    private EntornoBenchmark entorno;
+    private ComicSistema sistema;
+    private String idUsuario;
+
+    /**
+     * Secuencia de IDs aleatorios propia de cada hilo. Los hilos pueden elegir el mismo cómic; esas ventas fallan
+     * y se cuentan igual, pero con miles de cómics son raras.
+     */
+    @State(Scope.Thread)
+    public static class Secuencia {
+        private String[] ids;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void preparar(RepositoriosBenchmark benchmark) {
+            Random random = new Random(Thread.currentThread().getId());
+            ids = new String[TAMANO_SECUENCIA];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = GeneradorDatos.idComic(random.nextInt(benchmark.tamano));
+            }
+        }
+
+        private String siguienteId() {
+            cursor = (cursor + 1) & (TAMANO_SECUENCIA - 1);
+            return ids[cursor];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        entorno = new EntornoBenchmark(tamano, 1000);
+        sistema = entorno.crearSistema(tipo);
+        idUsuario = GeneradorDatos.idUsuario(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        sistema.close();
+        entorno.close();
+    }
+
+    private void venderYDevolver(Secuencia secuencia) {
+        String id = secuencia.siguienteId();
+        try {
+            // Con la API pública, para que los índices por estado y los conteos sigan al día; después de la primera
+            // venta y devolución el cómic queda disponible, así que solo ocurre una vez por cómic vendido o reservado
+            if (sistema.buscarComicPorId(id).getEstado() != EstadoComic.DISPONIBLE) {
+                sistema.cancelarReservaODeclararDisponible(id);
+            }
+            sistema.registrarVenta(id, idUsuario);
+            sistema.cancelarReservaODeclararDisponible(id);
+        } catch (ComicNoEncontradoException | ComicYaVendidoException e) {
+            // Otro hilo vendió el mismo cómic entre la preparación y la venta
+        }
+    }
+
+    @Benchmark
+    public void venderYDevolver1Hilo(Secuencia secuencia) {
+        venderYDevolver(secuencia);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void venderYDevolver4Hilos(Secuencia secuencia) {
+        venderYDevolver(secuencia);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void guardarInventario() {
+        sistema.guardarInventario();
+    }
+}
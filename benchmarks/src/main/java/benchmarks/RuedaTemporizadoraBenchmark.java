@@ -0,0 +1,64 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utilidades.RuedaTemporizadora;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de cada tick de la {@link RuedaTemporizadora} con muchas reservas pendientes. Las claves se reparten por igual
+ * entre los ticks de una vuelta; cada invocación avanza un tick y vuelve a programar las claves vencidas una vuelta
+ * después, así que el número de claves pendientes no cambia. Se mide la distribución del tiempo por tick (incluido
+ * el máximo), que debería depender de las claves que vencen en él y no del total.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuedaTemporizadoraBenchmark {
+    private static final long TICK = 100;
+    private static final int TICKS_POR_VUELTA = 1000;
+    private static final int RANURAS = 1024;
+
+    @Param({"100000", "1000000"})
+    public int claves;
+
+    private RuedaTemporizadora<Integer, String> rueda;
+    private long ahora;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        rueda = new RuedaTemporizadora<>(TICK, RANURAS, 0);
+        for (int i = 0; i < claves; i++) {
+            rueda.programar(i, null, (1 + i % TICKS_POR_VUELTA) * TICK);
+        }
+    }
+
+    /**
+     * Avanza un tick y reprograma sus vencimientos para la vuelta siguiente.
+     */
+    @Benchmark
+    public int avanzarTick() {
+        ahora += TICK;
+        List<Integer> vencidas = rueda.avanzar(ahora);
+        long vencimiento = ahora + TICKS_POR_VUELTA * TICK;
+        for (Integer clave : vencidas) {
+            rueda.programar(clave, null, vencimiento);
+        }
+        return vencidas.size();
+    }
+}
@@ -1,18 +1,52 @@
+import constantes.Constantes;
 import excepciones.ComicNoEncontradoException;
 import excepciones.ComicYaVendidoException;
+import excepciones.ReservaNoEncontradaException;
 import gestores.ComicSistema;
+import gestores.OyenteComicSistema;
 import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.ResultadoLote;
 import modelos.Usuario;
+import servidor.ServidorHttp;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.CsvUtil;
+import utilidades.Pagina;
+import utilidades.ResultadoEscritura;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Objects;
 import java.util.Scanner;
 
 /**
  * Clase principal que ejecuta el sistema ComicSistema.
- * Proporciona una interfaz de consola para interactuar con la gestión de cómics y usuarios.
+ * Proporciona una interfaz de consola para interactuar con la gestión de cómics y usuarios:
+ * muestra los resultados de cada operación y, a través de {@link OyenteComicSistema#CONSOLA}, los avisos del sistema.
+ * Con el argumento {@code --servidor [puerto]}, en lugar del menú inicia el servidor HTTP/JSON (ver {@link ServidorHttp}).
  */
 public class Main {
+    private static final int TAMANO_PAGINA = 10;
+
     public static void main(String[] args) {
-        ComicSistema miSistema = new ComicSistema();
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            ejecutarServidor(args.length > 1 ? Integer.parseInt(args[1]) : Constantes.PUERTO_SERVIDOR_HTTP);
+            return;
+        }
+        ComicSistema miSistema = new ComicSistema(ConfiguracionPersistencia.desdePropiedadesSistema(),
+                Constantes.MODO_ALMACENAMIENTO, OyenteComicSistema.CONSOLA);
         Scanner scanner = new Scanner(System.in);
 
         int opcion = -1;
@@ -25,7 +59,8 @@ public class Main {
 
                 switch (opcion) {
                     case 1:
-                        miSistema.listarComics();
+                        mostrarListado("Listado de Cómics en Inventario", miSistema.listarComics(),
+                                "El inventario de cómics está vacío.");
                         break;
                     case 2:
                         buscarComic(scanner, miSistema);
@@ -43,14 +78,43 @@ public class Main {
                         eliminarComicDelInventario(scanner, miSistema);
                         break;
                     case 7:
-                        miSistema.listarUsuarios();
+                        mostrarListado("Listado de Usuarios (por ID)", miSistema.listarUsuarios(),
+                                "No hay usuarios registrados en el sistema.");
                         break;
                     case 8:
-                        miSistema.listarUsuariosOrdenadosPorNombre();
+                        mostrarListado("Listado de Usuarios (ordenados por nombre)", miSistema.listarUsuariosOrdenadosPorNombre(),
+                                "No hay usuarios registrados en el sistema.");
                         break;
                     case 9:
                         agregarNuevoUsuario(scanner, miSistema);
                         break;
+                    case 10:
+                        buscarComicsPorAutorYEstado(scanner, miSistema);
+                        break;
+                    case 11:
+                        buscarComicsPorTexto(scanner, miSistema);
+                        break;
+                    case 12:
+                        consultarHistorialVentas(scanner, miSistema);
+                        break;
+                    case 13:
+                        mostrarReportesVentas(miSistema);
+                        break;
+                    case 14:
+                        importarComicsDesdeCsv(scanner, miSistema);
+                        break;
+                    case 15:
+                        reservarComic(scanner, miSistema);
+                        break;
+                    case 16:
+                        confirmarReserva(scanner, miSistema);
+                        break;
+                    case 17:
+                        volcarMetricas(miSistema);
+                        break;
+                    case 18:
+                        buscarUsuariosPorNombre(scanner, miSistema);
+                        break;
                     case 0:
                         System.out.println("Saliendo del ComicSistema. ¡Hasta pronto!");
                         break;
@@ -70,6 +134,48 @@ public class Main {
         } while (opcion != 0);
 
         scanner.close();
+        miSistema.close(); // Escribe las líneas pendientes del log de ventas
+    }
+
+    /**
+     * Inicia el servidor HTTP/JSON sobre un ComicSistema y lo mantiene hasta que se presione Enter o termine el proceso.
+     * En la consola solo se muestran las advertencias y los errores del sistema, no cada operación.
+     *
+     * @param puerto El puerto en el que escucha el servidor.
+     */
+    private static void ejecutarServidor(int puerto) {
+        ComicSistema miSistema = new ComicSistema(ConfiguracionPersistencia.desdePropiedadesSistema(), Constantes.MODO_ALMACENAMIENTO,
+                evento -> {
+                    if (evento.getNivel() != EventoSistema.Nivel.INFORMACION) {
+                        System.out.println(evento.getMensaje());
+                    }
+                });
+        ServidorHttp servidor;
+        try {
+            servidor = new ServidorHttp(miSistema, puerto);
+        } catch (IOException e) {
+            System.out.println("No se pudo iniciar el servidor en el puerto " + puerto + ": " + e.getMessage());
+            miSistema.close();
+            return;
+        }
+        Thread cierre = new Thread(() -> {
+            servidor.close();
+            miSistema.close(); // Escribe las líneas pendientes del log de ventas
+        });
+        Runtime.getRuntime().addShutdownHook(cierre);
+        servidor.iniciar();
+        System.out.println("Servidor HTTP escuchando en http://localhost:" + servidor.getPuerto() + "/ ("
+                + (servidor.isHilosVirtuales() ? "hilos virtuales" : Constantes.HILOS_SERVIDOR_HTTP + " hilos") + ")."
+                + " Presione Enter para detenerlo.");
+        try {
+            if (new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine() == null) {
+                Thread.currentThread().join(); // Sin consola: se detiene al terminar el proceso
+            }
+        } catch (IOException | InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Runtime.getRuntime().removeShutdownHook(cierre);
+        cierre.run();
     }
 
     /**
@@ -83,10 +189,19 @@ public class Main {
         System.out.println("4. Marcar Cómic como Disponible (Cancelar Reserva/Devolución)");
         System.out.println("5. Agregar Nuevo Cómic al Inventario");
         System.out.println("6. Eliminar Cómic del Inventario");
+        System.out.println("10. Buscar Cómics por Autor y/o Estado");
+        System.out.println("11. Buscar Cómics por Título o Autor (texto libre)");
+        System.out.println("12. Consultar Historial de Ventas");
+        System.out.println("13. Ver Reportes de Ventas");
+        System.out.println("14. Importar Cómics desde un Archivo CSV");
+        System.out.println("15. Reservar Cómic (vence si no se confirma)");
+        System.out.println("16. Confirmar Reserva de Cómic");
+        System.out.println("17. Volcar Métricas (formato Prometheus)");
         System.out.println("------------------------------------");
         System.out.println("7. Listar Usuarios (por ID)");
         System.out.println("8. Listar Usuarios (ordenados por nombre)");
         System.out.println("9. Agregar Nuevo Usuario");
+        System.out.println("18. Buscar Usuarios por Nombre (inicio del nombre)");
         System.out.println("0. Salir");
         System.out.print("Seleccione una opción: ");
     }
@@ -116,6 +231,49 @@ public class Main {
         }
     }
 
+    /**
+     * Permite al usuario importar un lote de cómics desde un archivo CSV con el formato de {@code comics.csv}
+     * ({@code ID,Titulo,Autor,Estado}). El lote se agrega de una sola vez; se muestran solo los cómics rechazados.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void importarComicsDesdeCsv(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese la ruta del archivo CSV a importar: ");
+        String ruta = scanner.nextLine();
+        List<Comic> lote;
+        try {
+            lote = CsvUtil.leerCsv(ruta, campos -> campos.length < 4 ? null : new Comic(campos[1], campos[2], campos[0], campos[3]));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+            return;
+        }
+        lote.removeIf(Objects::isNull); // Líneas mal formadas
+        ResultadoLote resultado = miSistema.agregarComics(lote);
+        for (ResultadoLote.Elemento elemento : resultado.getElementos()) {
+            if (!elemento.isAplicado()) {
+                System.out.println("Rechazado " + elemento);
+            }
+        }
+        System.out.println("Importación terminada: " + resultado + ".");
+    }
+
+    /**
+     * Escribe las métricas del sistema en el archivo {@link Constantes#ARCHIVO_METRICAS}, junto al CSV de cómics,
+     * en el formato de texto de Prometheus (e.g., para el recolector de archivos de texto de node_exporter).
+     *
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void volcarMetricas(ComicSistema miSistema) {
+        Path destino = Paths.get(miSistema.getConfiguracionPersistencia().getRutaComicsCsv()).resolveSibling(Constantes.ARCHIVO_METRICAS);
+        try {
+            ResultadoEscritura resultado = miSistema.getMetricas().volcarPrometheus(destino);
+            System.out.println("Métricas escritas en " + destino + " (" + resultado + ").");
+        } catch (IOException e) {
+            System.out.println("Error al escribir las métricas: " + e.getMessage());
+        }
+    }
+
     /**
      * Permite al usuario eliminar un cómic del inventario por su ID.
      *
@@ -150,6 +308,169 @@ public class Main {
         }
     }
 
+    /**
+     * Permite al usuario buscar cómics por autor, por estado, o por ambos.
+     * Los resultados se muestran por páginas; el usuario decide si ver la siguiente.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void buscarComicsPorAutorYEstado(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese el autor (deje vacío para cualquiera): ");
+        String autor = scanner.nextLine();
+        System.out.print("Ingrese el estado: disponible, reservado o vendido (deje vacío para cualquiera): ");
+        String textoEstado = scanner.nextLine();
+
+        EstadoComic estado;
+        try {
+            estado = textoEstado.isBlank() ? null : EstadoComic.desdeTexto(textoEstado);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+
+        int numeroPagina = 1;
+        while (true) {
+            Pagina<Comic> pagina = miSistema.buscarComics(autor.isBlank() ? null : autor, estado, numeroPagina, TAMANO_PAGINA);
+            if (pagina.getTotalElementos() == 0) {
+                System.out.println("No se encontraron cómics con esos criterios.");
+                return;
+            }
+            System.out.println("\n--- Página " + numeroPagina + " de " + pagina.getTotalPaginas() + " (" + pagina.getTotalElementos() + " cómics) ---");
+            for (Comic comic : pagina.getElementos()) {
+                System.out.println(comic);
+            }
+            if (!pagina.haySiguiente()) {
+                return;
+            }
+            System.out.print("¿Ver la siguiente página? (s/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                return;
+            }
+            numeroPagina++;
+        }
+    }
+
+    /**
+     * Permite al usuario buscar usuarios por el inicio de su nombre, mostrando los resultados por páginas.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void buscarUsuariosPorNombre(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese el inicio del nombre (deje vacío para todos): ");
+        String prefijo = scanner.nextLine().trim();
+
+        int numeroPagina = 1;
+        while (true) {
+            Pagina<Usuario> pagina = miSistema.buscarUsuariosPorNombre(prefijo, numeroPagina, TAMANO_PAGINA);
+            if (pagina.getTotalElementos() == 0) {
+                System.out.println("No se encontraron usuarios cuyo nombre empiece con '" + prefijo + "'.");
+                return;
+            }
+            System.out.println("\n--- Página " + numeroPagina + " de " + pagina.getTotalPaginas() + " (" + pagina.getTotalElementos() + " usuarios) ---");
+            for (Usuario usuario : pagina.getElementos()) {
+                System.out.println(usuario);
+            }
+            if (!pagina.haySiguiente()) {
+                return;
+            }
+            System.out.print("¿Ver la siguiente página? (s/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                return;
+            }
+            numeroPagina++;
+        }
+    }
+
+    /**
+     * Permite al usuario buscar cómics escribiendo palabras (o inicios de palabras) de su título o autor.
+     * Muestra la primera página de resultados, ordenados por relevancia.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void buscarComicsPorTexto(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese el texto a buscar: ");
+        String consulta = scanner.nextLine();
+        Pagina<Comic> pagina = miSistema.buscarPorTexto(consulta, 1, TAMANO_PAGINA);
+        if (pagina.getTotalElementos() == 0) {
+            System.out.println("No se encontraron cómics para '" + consulta + "'.");
+            return;
+        }
+        System.out.println("\n--- " + pagina.getTotalElementos() + " cómics encontrados (mostrando los " + pagina.getElementos().size() + " más relevantes) ---");
+        for (Comic comic : pagina.getElementos()) {
+            System.out.println(comic);
+        }
+    }
+
+    /**
+     * Permite al usuario consultar el historial de ventas y devoluciones, filtrado por cómic, usuario y/o fechas.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void consultarHistorialVentas(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese el ID del cómic (deje vacío para cualquiera): ");
+        String idComic = scanner.nextLine().trim();
+        System.out.print("Ingrese el ID del usuario (deje vacío para cualquiera): ");
+        String idUsuario = scanner.nextLine().trim();
+        System.out.print("Desde la fecha AAAA-MM-DD (deje vacío para cualquiera): ");
+        String textoDesde = scanner.nextLine().trim();
+        System.out.print("Hasta la fecha AAAA-MM-DD, incluida (deje vacío para cualquiera): ");
+        String textoHasta = scanner.nextLine().trim();
+
+        Instant desde;
+        Instant hasta;
+        try {
+            desde = textoDesde.isEmpty() ? null : LocalDate.parse(textoDesde).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            hasta = textoHasta.isEmpty() ? null : LocalDate.parse(textoHasta).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            System.out.println("Fecha inválida. Use el formato AAAA-MM-DD.");
+            return;
+        }
+
+        try {
+            long encontrados = miSistema.consultarHistorialVentas(desde, hasta,
+                    idComic.isEmpty() ? null : idComic, idUsuario.isEmpty() ? null : idUsuario, System.out::println);
+            System.out.println(encontrados == 0 ? "No hay eventos con esos criterios." : "--- " + encontrados + " eventos ---");
+        } catch (IOException e) {
+            System.out.println("Error al consultar el historial de ventas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Muestra los cómics y autores más vendidos y los usuarios con más compras.
+     *
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void mostrarListado(String titulo, List<?> elementos, String mensajeVacio) {
+        if (elementos.isEmpty()) {
+            System.out.println(mensajeVacio);
+            return;
+        }
+        String encabezado = "--- " + titulo + " ---";
+        System.out.println("\n" + encabezado);
+        elementos.forEach(System.out::println);
+        System.out.println("-".repeat(encabezado.length()));
+    }
+
+    private static void mostrarReportesVentas(ComicSistema miSistema) {
+        mostrarReporte("Cómics más vendidos", miSistema.obtenerComicsMasVendidos(TAMANO_PAGINA));
+        mostrarReporte("Autores más vendidos", miSistema.obtenerAutoresMasVendidos(TAMANO_PAGINA));
+        mostrarReporte("Usuarios con más compras", miSistema.obtenerUsuariosConMasCompras(TAMANO_PAGINA));
+    }
+
+    private static void mostrarReporte(String titulo, List<EstadisticaVentas> estadisticas) {
+        System.out.println("\n--- " + titulo + " ---");
+        if (estadisticas.isEmpty()) {
+            System.out.println("Sin ventas registradas.");
+        }
+        for (int i = 0; i < estadisticas.size(); i++) {
+            System.out.println((i + 1) + ". " + estadisticas.get(i));
+        }
+    }
+
     /**
      * Permite al usuario registrar una venta o reserva de un cómic.
      * Solicita el ID del cómic y el ID del usuario.
@@ -170,6 +491,47 @@ public class Main {
         }
     }
 
+    /**
+     * Permite al usuario reservar un cómic. La reserva vence si no se confirma dentro del plazo del sistema.
+     * Solicita el ID del cómic y el ID del usuario.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void reservarComic(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese el ID del cómic a reservar: ");
+        String idComic = scanner.nextLine();
+        System.out.print("Ingrese el ID del usuario que reserva: ");
+        String idUsuario = scanner.nextLine();
+
+        try {
+            miSistema.reservar(idComic, idUsuario);
+            System.out.println("La reserva vence en " + miSistema.getDuracionReservas().toMinutes() + " minutos si no se confirma.");
+        } catch (ComicNoEncontradoException | ComicYaVendidoException | IllegalArgumentException e) {
+            System.out.println("Error al registrar la reserva: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Permite al usuario confirmar la reserva de un cómic, que queda vendido al titular de la reserva.
+     * Solicita el ID del cómic y el ID del usuario.
+     *
+     * @param scanner El objeto Scanner para la entrada del usuario.
+     * @param miSistema La instancia de ComicSistema.
+     */
+    private static void confirmarReserva(Scanner scanner, ComicSistema miSistema) {
+        System.out.print("Ingrese el ID del cómic reservado: ");
+        String idComic = scanner.nextLine();
+        System.out.print("Ingrese el ID del usuario que hizo la reserva: ");
+        String idUsuario = scanner.nextLine();
+
+        try {
+            miSistema.confirmarReserva(idComic, idUsuario);
+        } catch (ComicNoEncontradoException | ReservaNoEncontradaException | IllegalArgumentException e) {
+            System.out.println("Error al confirmar la reserva: " + e.getMessage());
+        }
+    }
+
     /**
      * Permite al usuario marcar un cómic previamente vendido/reservado como "disponible" nuevamente.
      * Útil para cancelaciones de reservas o gestión de devoluciones.
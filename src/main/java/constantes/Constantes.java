@@ -1,5 +1,11 @@
 package constantes;
 
+import utilidades.ModoAlmacenamiento;
+import utilidades.PoliticaSincronizacion;
+import utilidades.TipoPersistencia;
+
+import java.time.Duration;
+
 /**
  * Clase que contiene constantes globales utilizadas en el sistema ComicSistema.
  * Incluye rutas de archivos CSV y otras configuraciones.
@@ -10,7 +16,75 @@ public final class Constantes {
      */
     private Constantes() {}
 
-    public static final String COMICS_CSV = "src/main/resources/comics.csv";
-    public static final String USUARIOS_CSV = "src/main/resources/usuarios.csv";
-    public static final String VENTAS_LOG_TXT = "src/main/resources/ventas_log.txt";
-}
\ No newline at end of file
+    /** Directorio de datos usado si no se indica otro con la propiedad {@link #PROPIEDAD_DIRECTORIO_DATOS}. */
+    public static final String DIRECTORIO_DATOS = "src/main/resources";
+    /** Propiedad del sistema ({@code -Dcomicgestion.datos=...}) con el directorio de datos. */
+    public static final String PROPIEDAD_DIRECTORIO_DATOS = "comicgestion.datos";
+    /** Propiedad del sistema ({@code -Dcomicgestion.persistencia=csv|sql}) con el tipo de persistencia. */
+    public static final String PROPIEDAD_TIPO_PERSISTENCIA = "comicgestion.persistencia";
+    /** Tipo de persistencia usado si no se indica otro con la propiedad {@link #PROPIEDAD_TIPO_PERSISTENCIA}. */
+    public static final TipoPersistencia TIPO_PERSISTENCIA = TipoPersistencia.CSV;
+
+    public static final String ARCHIVO_COMICS_CSV = "comics.csv";
+    public static final String ARCHIVO_USUARIOS_CSV = "usuarios.csv";
+    public static final String ARCHIVO_VENTAS_LOG_TXT = "ventas_log.txt";
+    /** Archivo, junto al CSV de cómics, en que el menú de consola vuelca las métricas en el formato de texto de Prometheus. */
+    public static final String ARCHIVO_METRICAS = "metricas.prom";
+    /** Nombre de la base de datos SQL dentro del directorio de datos; H2 le agrega la extensión {@code .mv.db}. */
+    public static final String BASE_DATOS_SQL = "comicgestion";
+    /** Número de filas por lote de JDBC en las escrituras masivas a la base de datos SQL. */
+    public static final int LOTE_ESCRITURA_SQL = 1000;
+
+    /** Extensión que se añade a la ruta del CSV de cómics para obtener la ruta de su diario de cambios. */
+    public static final String EXTENSION_DIARIO = ".diario";
+    /** Número de registros en el diario a partir del cual se compacta el inventario en el CSV. */
+    public static final int UMBRAL_COMPACTACION_DIARIO = 1000;
+    /** Política de sincronización con el disco usada por defecto para instantáneas CSV y el diario. */
+    public static final PoliticaSincronizacion POLITICA_SINCRONIZACION = PoliticaSincronizacion.POR_LOTES;
+    /** Número de registros del diario entre sincronizaciones cuando la política es {@code POR_LOTES}. */
+    public static final int LOTE_SINCRONIZACION_DIARIO = 32;
+    /** Tamaño mínimo, en bytes, de un CSV para cargarlo en paralelo por rangos en lugar de secuencialmente. */
+    public static final long UMBRAL_CARGA_PARALELA_BYTES = 8L * 1024 * 1024;
+    /** Modo en que se guarda el inventario de cómics en memoria si no se indica otro al crear el sistema. */
+    public static final ModoAlmacenamiento MODO_ALMACENAMIENTO = ModoAlmacenamiento.OBJETOS;
+    /** Extensión que se añade a la ruta del CSV de cómics para obtener la ruta del almacenamiento mapeado del inventario. */
+    public static final String EXTENSION_ALMACEN_MAPEADO = ".mapa";
+    /** Número de franjas de bloqueo para los cambios de estado de los cómics. Debe ser potencia de dos. */
+    public static final int NUMERO_BLOQUEOS_COMICS = 64;
+    /** Número máximo de líneas del log de ventas pendientes de escribir antes de que los registros esperen. */
+    public static final int CAPACIDAD_COLA_LOG_VENTAS = 4096;
+    /** Tiempo máximo, en milisegundos, que el escritor del log de ventas reúne líneas antes de escribirlas juntas. */
+    public static final long INTERVALO_VACIADO_LOG_VENTAS_MS = 10;
+    /** Extensión que se añade a la ruta del log de ventas para obtener la ruta del libro de ventas binario. */
+    public static final String EXTENSION_LIBRO_VENTAS = ".libro";
+    /** Extensión que se añade a la ruta del libro de ventas para obtener la ruta de su índice disperso. */
+    public static final String EXTENSION_INDICE_LIBRO_VENTAS = ".idx";
+    /** Número de registros del libro de ventas que cubre cada entrada de su índice disperso. */
+    public static final int REGISTROS_POR_BLOQUE_LIBRO_VENTAS = 64;
+    /** Puerto en el que escucha el servidor HTTP si no se indica otro. */
+    public static final int PUERTO_SERVIDOR_HTTP = 8080;
+    /** Número de hilos del servidor HTTP cuando la JVM no tiene hilos virtuales (anteriores a Java 21). */
+    public static final int HILOS_SERVIDOR_HTTP = 200;
+    /** Número máximo de conexiones pendientes de aceptar por el servidor HTTP. */
+    public static final int COLA_CONEXIONES_HTTP = 1024;
+    /** Tamaño de página de los listados del servidor HTTP si la petición no indica otro. */
+    public static final int TAMANO_PAGINA_HTTP = 20;
+    /** Tamaño de página máximo que acepta el servidor HTTP. */
+    public static final int TAMANO_MAXIMO_PAGINA_HTTP = 1000;
+    /** Tamaño máximo, en bytes, del cuerpo de una petición al servidor HTTP. */
+    public static final int TAMANO_MAXIMO_CUERPO_HTTP = 64 * 1024;
+    /** Tiempo que dura una reserva si no se confirma, salvo que se indique otro al sistema. */
+    public static final Duration DURACION_RESERVAS = Duration.ofMinutes(15);
+    /** Duración, en milisegundos, de cada tick de la rueda que vence las reservas. */
+    public static final long TICK_RESERVAS_MS = 100;
+    /** Número de ranuras de la rueda de reservas (potencia de dos); con ticks de 100 ms abarca unos 27 minutos. */
+    public static final int RANURAS_RESERVAS = 16384;
+    /** Número máximo de cómics en la caché de lecturas por ID del almacenamiento mapeado. */
+    public static final int CAPACIDAD_CACHE_COMICS = 10_000;
+    /** Prefijo de los subdirectorios de datos de las particiones de un sistema particionado, seguido del número de partición. */
+    public static final String PREFIJO_DIRECTORIO_PARTICION = "particion-";
+    /** Archivo, en el directorio de datos de un sistema particionado, con su número de particiones. */
+    public static final String ARCHIVO_PARTICIONES = "particiones.txt";
+    /** Dominio de los MBeans de JMX con las métricas de cada ComicSistema abierto. */
+    public static final String DOMINIO_JMX = "comicgestion";
+}
@@ -0,0 +1,18 @@
+package excepciones;
+
+/**
+ * Excepción lanzada cuando se intenta confirmar la reserva de un cómic que no está reservado,
+ * o cuya reserva pertenece a otro usuario (e.g., porque venció y otro usuario volvió a reservarlo).
+ */
+public class ReservaNoEncontradaException extends Exception {
+
+    /**
+     * Construye una nueva ReservaNoEncontradaException con el mensaje de detalle especificado.
+     *
+     * @param mensaje El mensaje de detalle. El mensaje se guarda para ser recuperado posteriormente
+     *                por el metodo {@link Throwable#getMessage()}.
+     */
+    public ReservaNoEncontradaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,20 @@
+package excepciones;
+
+/**
+ * Excepción lanzada cuando se intenta cambiar el estado de un cómic a un estado que no es alcanzable
+ * desde el actual (e.g., reservar un cómic ya vendido).
+ * Es una excepción no comprobada porque el sistema verifica el estado antes de cambiarlo;
+ * si ocurre, indica un error de programación.
+ */
+public class TransicionEstadoInvalidaException extends IllegalStateException {
+
+    /**
+     * Construye una nueva TransicionEstadoInvalidaException con el mensaje de detalle especificado.
+     *
+     * @param mensaje El mensaje de detalle. El mensaje se guarda para ser recuperado posteriormente
+     *                por el metodo {@link Throwable#getMessage()}.
+     */
+    public TransicionEstadoInvalidaException(String mensaje) {
+        super(mensaje);
+    }
+}
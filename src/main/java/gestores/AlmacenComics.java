@@ -0,0 +1,139 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.Pagina;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Almacenamiento del inventario de {@link ComicSistema}: el índice primario por ID normalizado
+ * (ver {@link utilidades.TextoUtil#normalizarId}) y las consultas por autor y estado.
+ * <p>
+ * Las implementaciones no son seguras para hilos por sí mismas, salvo lo indicado en cada método:
+ * ComicSistema hace los cambios estructurales (altas y bajas) con el bloqueo de escritura del inventario,
+ * y las consultas y los cambios de estado con el de lectura.
+ * <p>
+ * Los almacenamientos en disco pueden conservar el inventario entre ejecuciones (ver {@link #restaurar});
+ * si no pueden escribir en el disco, sus métodos lanzan {@link java.io.UncheckedIOException}.
+ */
+interface AlmacenComics {
+
+    /**
+     * Obtiene un cómic por su ID normalizado.
+     *
+     * @param clave El ID normalizado.
+     * @return El cómic, o null si no existe.
+     */
+    Comic obtener(String clave);
+
+    /**
+     * Indica si existe un cómic con el ID normalizado indicado.
+     *
+     * @param clave El ID normalizado.
+     * @return true si el cómic existe.
+     */
+    boolean contiene(String clave);
+
+    /**
+     * Agrega un cómic al final del inventario. Si ya existe uno con la misma clave, lo reemplaza en su posición.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param comic El cómic.
+     * @return El cómic tal como quedó guardado: el mismo objeto o una vista sobre sus datos.
+     */
+    Comic agregar(String clave, Comic comic);
+
+    /**
+     * Quita un cómic del inventario.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @return El cómic eliminado, o null si no existía.
+     */
+    Comic eliminar(String clave);
+
+    /**
+     * Actualiza las consultas por estado después de que un cómic del inventario cambió de estado.
+     * Puede llamarse desde varios hilos a la vez para cómics distintos.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param comic El cómic guardado, ya con su nuevo estado.
+     * @param estadoAnterior El estado que tenía antes del cambio.
+     */
+    void estadoCambiado(String clave, Comic comic, EstadoComic estadoAnterior);
+
+    /**
+     * Obtiene todos los cómics, en orden de inserción. La colección refleja los cambios posteriores.
+     *
+     * @return Los cómics del inventario.
+     */
+    Collection<Comic> comics();
+
+    /**
+     * Consulta los cómics de un autor, de un estado, o de ambos.
+     * Si no se indica estado, se devuelven los cómics del autor agrupados por estado
+     * (primero los disponibles, luego los reservados y al final los vendidos).
+     *
+     * @param autor El autor a buscar, sin distinguir mayúsculas ni espacios repetidos; null para no filtrar por autor.
+     * @param estado El estado a buscar; null para no filtrar por estado.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de resultados.
+     * @throws IllegalArgumentException Si no se indica ni autor ni estado, o si la página no es válida.
+     */
+    Pagina<Comic> consultar(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina);
+
+    /**
+     * Cuenta los cómics del inventario que están en un estado.
+     * Por defecto recorre el inventario; los almacenamientos en disco guardan los conteos.
+     *
+     * @param estado El estado a contar.
+     * @return El número de cómics en ese estado.
+     */
+    default long contar(EstadoComic estado) {
+        long total = 0;
+        for (Comic comic : comics()) {
+            if (comic.getEstado() == estado) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Vacía el inventario.
+     */
+    void limpiar();
+
+    /**
+     * Intenta conservar el inventario que el almacenamiento guardó en la ejecución anterior, en lugar de volver a
+     * cargarlo desde el CSV. Solo es posible si el almacenamiento se cerró correctamente y los archivos del inventario
+     * no cambiaron desde entonces, lo que se comprueba con su firma.
+     *
+     * @param firma La firma actual del CSV de cómics y su diario.
+     * @return true si el inventario se conservó; false si hay que cargarlo (los almacenamientos en memoria siempre retornan false).
+     * @throws IOException Si ocurre un error al leer el almacenamiento.
+     */
+    default boolean restaurar(long firma) throws IOException {
+        return false;
+    }
+
+    /**
+     * Espera a que los cambios hechos hasta ahora lleguen al disco, en los almacenamientos en disco.
+     *
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    default void sincronizar() throws IOException {
+    }
+
+    /**
+     * Cierra el almacenamiento. Los almacenamientos en disco guardan la firma indicada, que {@link #restaurar}
+     * comparará en la siguiente ejecución.
+     *
+     * @param firma La firma del CSV de cómics y su diario al cerrar.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    default void cerrar(long firma) throws IOException {
+    }
+}
@@ -0,0 +1,514 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.Pagina;
+import utilidades.TextoUtil;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Almacenamiento compacto del inventario, por columnas (ver {@link utilidades.ModoAlmacenamiento#COMPACTO}).
+ * <p>
+ * Cada alta ocupa una fila. Los IDs y títulos se guardan en UTF-8, uno tras otro, en un solo arreglo de bytes,
+ * y cada fila guarda dónde empiezan y terminan. Los autores se codifican con un diccionario (cada autor distinto
+ * se guarda una sola vez y la fila guarda su código) y los estados con su ordinal en un byte. Así, un cómic ocupa
+ * unas pocas decenas de bytes además de sus textos, en lugar de cuatro objetos con sus cabeceras y sus arreglos.
+ * <p>
+ * Los cómics que se entregan son vistas ({@link Vista}) que leen las columnas de su fila al consultarlas;
+ * cambiar el estado de una vista cambia el de la fila. El índice primario es una tabla hash de direccionamiento
+ * abierto sobre los números de fila, y la consulta por autor recorre la lista de filas de ese autor.
+ * Las filas de cada estado se guardan en un conjunto de bits con conteos por bloque, así que la consulta solo por
+ * estado salta a su página sin recorrer la columna de estados y un cambio de estado solo mueve un bit.
+ * <p>
+ * Las filas de los cómics eliminados no se reutilizan, para que las vistas entregadas sigan apuntando a su cómic:
+ * su espacio se libera la próxima vez que se carga el inventario.
+ */
+final class AlmacenComicsCompacto implements AlmacenComics {
+    private static final VarHandle ESTADO = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final EstadoComic[] ESTADOS = EstadoComic.values();
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final int MAX_TEXTOS = Integer.MAX_VALUE - 8;
+
+    // Columnas, indexadas por fila
+    private byte[] textos = new byte[CAPACIDAD_INICIAL * 32]; // ID y título de cada fila, en UTF-8
+    private int finTextos;
+    private int[] inicios = new int[CAPACIDAD_INICIAL]; // Inicio del ID en 'textos'
+    private int[] finesId = new int[CAPACIDAD_INICIAL]; // Fin del ID e inicio del título
+    private int[] finesTitulo = new int[CAPACIDAD_INICIAL];
+    private int[] autores = new int[CAPACIDAD_INICIAL]; // Código del autor en el diccionario
+    private byte[] estados = new byte[CAPACIDAD_INICIAL]; // Ordinal del estado; se lee y escribe con ESTADO
+    private int[] hashes = new int[CAPACIDAD_INICIAL]; // Hash del ID normalizado
+    private long[] eliminadas = new long[1]; // Un bit por fila
+    private int filas; // Filas usadas, incluidas las eliminadas
+    private int vivas;
+
+    // Índice primario: posición -> fila + 1, o 0 si está libre. Las posiciones de filas eliminadas se liberan al redimensionar
+    private int[] tabla = new int[CAPACIDAD_INICIAL * 2];
+    private int posicionesOcupadas;
+
+    // Diccionario de autores: cada autor distinto (tal como se escribió) tiene un código
+    private final Map<String, Integer> codigosAutor = new HashMap<>();
+    private final List<String> nombresAutor = new ArrayList<>();
+    // Filas de cada autor normalizado (ver TextoUtil#normalizarTexto), en orden; 'listasAutor' las indexa por código
+    private final Map<String, ListaFilas> filasPorAutor = new HashMap<>();
+    private final List<ListaFilas> listasAutor = new ArrayList<>();
+    // Filas vivas de cada estado, por ordinal; también es el bloqueo de los cambios de estado concurrentes
+    private final ConjuntoFilas[] filasPorEstado = nuevosConjuntosEstado();
+
+    @Override
+    public Comic obtener(String clave) {
+        int fila = buscarFila(clave);
+        return fila < 0 ? null : new Vista(fila);
+    }
+
+    @Override
+    public boolean contiene(String clave) {
+        return buscarFila(clave) >= 0;
+    }
+
+    @Override
+    public Comic agregar(String clave, Comic comic) {
+        int fila = buscarFila(clave);
+        if (fila < 0) {
+            fila = nuevaFila();
+            hashes[fila] = dispersar(clave.hashCode());
+            insertarEnTabla(fila);
+        } else {
+            listasAutor.get(autores[fila]).eliminar(fila);
+        }
+        escribirTextos(fila, comic.getId(), comic.getTitulo());
+        int autor = codigoAutor(comic.getAutor());
+        autores[fila] = autor;
+        listasAutor.get(autor).agregar(fila);
+        synchronized (filasPorEstado) {
+            filasPorEstado[(byte) ESTADO.getVolatile(estados, fila)].eliminar(fila);
+            ESTADO.setVolatile(estados, fila, (byte) comic.getEstado().ordinal());
+            filasPorEstado[comic.getEstado().ordinal()].agregar(fila);
+        }
+        return new Vista(fila);
+    }
+
+    @Override
+    public Comic eliminar(String clave) {
+        int fila = buscarFila(clave);
+        if (fila < 0) {
+            return null;
+        }
+        eliminadas[fila >>> 6] |= 1L << fila;
+        vivas--;
+        listasAutor.get(autores[fila]).eliminar(fila);
+        synchronized (filasPorEstado) {
+            filasPorEstado[(byte) ESTADO.getVolatile(estados, fila)].eliminar(fila);
+        }
+        return new Vista(fila);
+    }
+
+    /**
+     * Mueve la fila del cómic al conjunto de su nuevo estado; la vista ya lo escribió en la columna.
+     */
+    @Override
+    public void estadoCambiado(String clave, Comic comic, EstadoComic estadoAnterior) {
+        int fila = buscarFila(clave);
+        synchronized (filasPorEstado) {
+            filasPorEstado[estadoAnterior.ordinal()].eliminar(fila);
+            filasPorEstado[comic.getEstado().ordinal()].agregar(fila);
+        }
+    }
+
+    @Override
+    public Collection<Comic> comics() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Comic> iterator() {
+                return new Iterator<>() {
+                    private int fila = siguienteViva(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return fila < filas;
+                    }
+
+                    @Override
+                    public Comic next() {
+                        if (fila >= filas) {
+                            throw new NoSuchElementException();
+                        }
+                        Comic comic = new Vista(fila);
+                        fila = siguienteViva(fila + 1);
+                        return comic;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return vivas;
+            }
+        };
+    }
+
+    @Override
+    public Pagina<Comic> consultar(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        if (autor == null && estado == null) {
+            throw new IllegalArgumentException("Debe indicar un autor o un estado.");
+        }
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser mayores que 0.");
+        }
+        long saltar = (long) (numeroPagina - 1) * tamanoPagina;
+        List<Comic> elementos = new ArrayList<>();
+        long total = 0;
+        if (autor == null) {
+            synchronized (filasPorEstado) {
+                ConjuntoFilas conjunto = filasPorEstado[estado.ordinal()];
+                for (int fila = conjunto.buscar(saltar); fila >= 0 && elementos.size() < tamanoPagina; fila = conjunto.siguiente(fila + 1)) {
+                    elementos.add(new Vista(fila));
+                }
+                return new Pagina<>(elementos, numeroPagina, tamanoPagina, conjunto.tamano);
+            }
+        }
+        ListaFilas lista = filasPorAutor.get(TextoUtil.normalizarTexto(autor));
+        if (lista == null) {
+            return new Pagina<>(elementos, numeroPagina, tamanoPagina, 0);
+        }
+        // Sin estado, se agrupan por estado en el orden de EstadoComic, como IndiceComics
+        for (EstadoComic grupo : ESTADOS) {
+            if (estado != null && grupo != estado) {
+                continue;
+            }
+            for (int i = 0; i < lista.tamano; i++) {
+                int fila = lista.filas[i];
+                if ((byte) ESTADO.getVolatile(estados, fila) == grupo.ordinal()) {
+                    if (total++ >= saltar && elementos.size() < tamanoPagina) {
+                        elementos.add(new Vista(fila));
+                    }
+                }
+            }
+        }
+        return new Pagina<>(elementos, numeroPagina, tamanoPagina, total);
+    }
+
+    @Override
+    public long contar(EstadoComic estado) {
+        synchronized (filasPorEstado) {
+            return filasPorEstado[estado.ordinal()].tamano;
+        }
+    }
+
+    @Override
+    public void limpiar() {
+        textos = new byte[CAPACIDAD_INICIAL * 32];
+        finTextos = 0;
+        inicios = new int[CAPACIDAD_INICIAL];
+        finesId = new int[CAPACIDAD_INICIAL];
+        finesTitulo = new int[CAPACIDAD_INICIAL];
+        autores = new int[CAPACIDAD_INICIAL];
+        estados = new byte[CAPACIDAD_INICIAL];
+        hashes = new int[CAPACIDAD_INICIAL];
+        eliminadas = new long[1];
+        filas = 0;
+        vivas = 0;
+        tabla = new int[CAPACIDAD_INICIAL * 2];
+        posicionesOcupadas = 0;
+        codigosAutor.clear();
+        nombresAutor.clear();
+        filasPorAutor.clear();
+        listasAutor.clear();
+        synchronized (filasPorEstado) {
+            ConjuntoFilas[] vacios = nuevosConjuntosEstado();
+            System.arraycopy(vacios, 0, filasPorEstado, 0, vacios.length);
+        }
+    }
+
+    private static ConjuntoFilas[] nuevosConjuntosEstado() {
+        ConjuntoFilas[] conjuntos = new ConjuntoFilas[ESTADOS.length];
+        for (int i = 0; i < conjuntos.length; i++) {
+            conjuntos[i] = new ConjuntoFilas();
+        }
+        return conjuntos;
+    }
+
+    private boolean estaEliminada(int fila) {
+        return (eliminadas[fila >>> 6] & (1L << fila)) != 0;
+    }
+
+    private int siguienteViva(int fila) {
+        while (fila < filas && estaEliminada(fila)) {
+            fila++;
+        }
+        return fila;
+    }
+
+    private String texto(int inicio, int fin) {
+        return new String(textos, inicio, fin - inicio, StandardCharsets.UTF_8);
+    }
+
+    private static int dispersar(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Busca la fila viva de una clave. Las filas con el mismo hash se confirman comparando su ID normalizado.
+     */
+    private int buscarFila(String clave) {
+        if (clave == null) {
+            return -1;
+        }
+        int hash = dispersar(clave.hashCode());
+        int mascara = tabla.length - 1;
+        for (int i = hash & mascara; tabla[i] != 0; i = (i + 1) & mascara) {
+            int fila = tabla[i] - 1;
+            if (hashes[fila] == hash && !estaEliminada(fila)
+                    && clave.equals(TextoUtil.normalizarId(texto(inicios[fila], finesId[fila])))) {
+                return fila;
+            }
+        }
+        return -1;
+    }
+
+    private void insertarEnTabla(int fila) {
+        if ((posicionesOcupadas + 1) * 2 > tabla.length) {
+            // Al redimensionar solo se conservan las filas vivas
+            int capacidad = Integer.highestOneBit(Math.max(CAPACIDAD_INICIAL, vivas + 1) * 4 - 1);
+            tabla = new int[capacidad];
+            posicionesOcupadas = 0;
+            for (int f = siguienteViva(0); f < filas; f = siguienteViva(f + 1)) {
+                if (f != fila) {
+                    ocuparPosicion(f);
+                }
+            }
+        }
+        ocuparPosicion(fila);
+    }
+
+    private void ocuparPosicion(int fila) {
+        int mascara = tabla.length - 1;
+        int i = hashes[fila] & mascara;
+        while (tabla[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        tabla[i] = fila + 1;
+        posicionesOcupadas++;
+    }
+
+    private int nuevaFila() {
+        if (filas == inicios.length) {
+            int capacidad = filas * 2;
+            inicios = Arrays.copyOf(inicios, capacidad);
+            finesId = Arrays.copyOf(finesId, capacidad);
+            finesTitulo = Arrays.copyOf(finesTitulo, capacidad);
+            autores = Arrays.copyOf(autores, capacidad);
+            estados = Arrays.copyOf(estados, capacidad);
+            hashes = Arrays.copyOf(hashes, capacidad);
+            eliminadas = Arrays.copyOf(eliminadas, (capacidad + 63) >>> 6);
+        }
+        vivas++;
+        return filas++;
+    }
+
+    private void escribirTextos(int fila, String id, String titulo) {
+        byte[] bytesId = id.getBytes(StandardCharsets.UTF_8);
+        byte[] bytesTitulo = titulo.getBytes(StandardCharsets.UTF_8);
+        long fin = (long) finTextos + bytesId.length + bytesTitulo.length;
+        if (fin > MAX_TEXTOS) {
+            throw new IllegalStateException("El almacenamiento compacto no admite más de " + MAX_TEXTOS + " bytes de IDs y títulos.");
+        }
+        if (fin > textos.length) {
+            textos = Arrays.copyOf(textos, (int) Math.min(MAX_TEXTOS, Math.max(fin, textos.length * 2L)));
+        }
+        inicios[fila] = finTextos;
+        System.arraycopy(bytesId, 0, textos, finTextos, bytesId.length);
+        finTextos += bytesId.length;
+        finesId[fila] = finTextos;
+        System.arraycopy(bytesTitulo, 0, textos, finTextos, bytesTitulo.length);
+        finTextos += bytesTitulo.length;
+        finesTitulo[fila] = finTextos;
+    }
+
+    private int codigoAutor(String autor) {
+        Integer codigo = codigosAutor.get(autor);
+        if (codigo == null) {
+            codigo = nombresAutor.size();
+            codigosAutor.put(autor, codigo);
+            nombresAutor.add(autor);
+            listasAutor.add(filasPorAutor.computeIfAbsent(TextoUtil.normalizarTexto(autor), normalizado -> new ListaFilas()));
+        }
+        return codigo;
+    }
+
+    /**
+     * Lista ordenada de números de fila.
+     */
+    private static final class ListaFilas {
+        private int[] filas = new int[4];
+        private int tamano;
+
+        void agregar(int fila) {
+            int i = tamano == 0 || filas[tamano - 1] < fila ? tamano : -Arrays.binarySearch(filas, 0, tamano, fila) - 1;
+            if (tamano == filas.length) {
+                filas = Arrays.copyOf(filas, tamano * 2);
+            }
+            System.arraycopy(filas, i, filas, i + 1, tamano - i);
+            filas[i] = fila;
+            tamano++;
+        }
+
+        void eliminar(int fila) {
+            int i = Arrays.binarySearch(filas, 0, tamano, fila);
+            if (i >= 0) {
+                System.arraycopy(filas, i + 1, filas, i, tamano - i - 1);
+                tamano--;
+            }
+        }
+    }
+
+    /**
+     * Conjunto de números de fila en un arreglo de bits, con el número de filas de cada bloque de
+     * {@code 1 << BITS_BLOQUE} filas para llegar a la n-ésima sin contar todos los bits anteriores.
+     */
+    private static final class ConjuntoFilas {
+        private static final int BITS_BLOQUE = 12; // 64 palabras por bloque
+
+        private long[] palabras = new long[1];
+        private int[] conteos = new int[1]; // Filas de cada bloque
+        private int tamano;
+
+        void agregar(int fila) {
+            int i = fila >>> 6;
+            if (i >= palabras.length) {
+                palabras = Arrays.copyOf(palabras, Math.max(i + 1, palabras.length * 2));
+                conteos = Arrays.copyOf(conteos, ((palabras.length - 1) >>> (BITS_BLOQUE - 6)) + 1);
+            }
+            if ((palabras[i] & (1L << fila)) == 0) {
+                palabras[i] |= 1L << fila;
+                conteos[fila >>> BITS_BLOQUE]++;
+                tamano++;
+            }
+        }
+
+        void eliminar(int fila) {
+            int i = fila >>> 6;
+            if (i < palabras.length && (palabras[i] & (1L << fila)) != 0) {
+                palabras[i] &= ~(1L << fila);
+                conteos[fila >>> BITS_BLOQUE]--;
+                tamano--;
+            }
+        }
+
+        /**
+         * Obtiene la fila del conjunto con la posición indicada, en orden de fila, o -1 si no hay tantas.
+         */
+        int buscar(long posicion) {
+            if (posicion >= tamano) {
+                return -1;
+            }
+            int restantes = (int) posicion;
+            int bloque = 0;
+            while (restantes >= conteos[bloque]) {
+                restantes -= conteos[bloque++];
+            }
+            int i = bloque << (BITS_BLOQUE - 6);
+            while (restantes >= Long.bitCount(palabras[i])) {
+                restantes -= Long.bitCount(palabras[i++]);
+            }
+            long palabra = palabras[i];
+            for (; restantes > 0; restantes--) {
+                palabra &= palabra - 1; // Quita la fila más baja
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(palabra);
+        }
+
+        /**
+         * Obtiene la primera fila del conjunto mayor o igual que la indicada, o -1 si no hay.
+         */
+        int siguiente(int fila) {
+            int i = fila >>> 6;
+            if (i >= palabras.length) {
+                return -1;
+            }
+            long palabra = palabras[i] & (-1L << fila);
+            while (palabra == 0) {
+                if (++i == palabras.length) {
+                    return -1;
+                }
+                palabra = palabras[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(palabra);
+        }
+    }
+
+    /**
+     * Un cómic del almacenamiento: lee sus datos de las columnas de su fila cada vez que se consultan.
+     * Dos vistas de la misma fila son iguales.
+     */
+    private final class Vista extends Comic {
+        private final int fila;
+
+        Vista(int fila) {
+            this.fila = fila;
+        }
+
+        @Override
+        public String getTitulo() {
+            return texto(finesId[fila], finesTitulo[fila]);
+        }
+
+        @Override
+        public String getAutor() {
+            return nombresAutor.get(autores[fila]);
+        }
+
+        @Override
+        public EstadoComic getEstado() {
+            return ESTADOS[(byte) ESTADO.getVolatile(estados, fila)];
+        }
+
+        @Override
+        public String getId() {
+            return texto(inicios[fila], finesId[fila]);
+        }
+
+        @Override
+        public void restablecerEstado(EstadoComic estado) {
+            Objects.requireNonNull(estado, "Debe ingresar el estado del cómic.");
+            ESTADO.setVolatile(estados, fila, (byte) estado.ordinal());
+        }
+
+        /**
+         * El ID de un cómic del almacenamiento compacto no puede cambiarse.
+         *
+         * @throws UnsupportedOperationException Siempre.
+         */
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("El ID de un cómic del inventario no se puede cambiar.");
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Vista && ((Vista) otro).fila == fila && ((Vista) otro).almacen() == almacen();
+        }
+
+        @Override
+        public int hashCode() {
+            return fila;
+        }
+
+        private AlmacenComicsCompacto almacen() {
+            return AlmacenComicsCompacto.this;
+        }
+    }
+}
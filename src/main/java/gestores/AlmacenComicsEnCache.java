@@ -0,0 +1,180 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.CacheAcotada;
+import utilidades.Pagina;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Caché de lecturas por ID delante de un almacenamiento en disco (ver {@link AlmacenComicsMapeado}), para que
+ * {@link #obtener} no lea ni decodifique el archivo cuando el cómic es de los más consultados.
+ * <p>
+ * La caché es acotada y usa la política W-TinyLFU de {@link CacheAcotada}: un cómic solo desplaza a otro si se
+ * consulta con más frecuencia, así que las novedades que concentran el tráfico se quedan en memoria aunque haya
+ * recorridos ocasionales del catálogo. Cada entrada guarda el ID, el título y el autor ya decodificados,
+ * pero su estado se lee y se escribe siempre en el almacenamiento (escritura directa), de modo que la caché
+ * nunca tiene un estado desactualizado. Las altas y bajas invalidan su clave; los recorridos y las consultas
+ * por autor o estado van directo al almacenamiento para no desalojar el conjunto frecuente.
+ */
+final class AlmacenComicsEnCache implements AlmacenComics {
+    private final AlmacenComics almacen;
+    private final CacheAcotada<String, Comic> cache;
+
+    /**
+     * Constructor de AlmacenComicsEnCache.
+     *
+     * @param almacen El almacenamiento en disco.
+     * @param capacidad El número máximo de cómics en la caché.
+     */
+    AlmacenComicsEnCache(AlmacenComics almacen, int capacidad) {
+        this.almacen = almacen;
+        this.cache = new CacheAcotada<>(capacidad);
+    }
+
+    /**
+     * Obtiene los contadores de aciertos, fallos y desalojos de la caché.
+     *
+     * @return Los contadores de la caché.
+     */
+    CacheAcotada.Estadisticas getEstadisticas() {
+        return cache.getEstadisticas();
+    }
+
+    @Override
+    public Comic obtener(String clave) {
+        return cache.obtener(clave, k -> {
+            Comic comic = almacen.obtener(k);
+            return comic == null ? null : new ComicEnCache(comic);
+        });
+    }
+
+    @Override
+    public boolean contiene(String clave) {
+        return obtener(clave) != null;
+    }
+
+    @Override
+    public Comic agregar(String clave, Comic comic) {
+        cache.invalidar(clave);
+        return almacen.agregar(clave, comic);
+    }
+
+    @Override
+    public Comic eliminar(String clave) {
+        cache.invalidar(clave);
+        return almacen.eliminar(clave);
+    }
+
+    @Override
+    public void estadoCambiado(String clave, Comic comic, EstadoComic estadoAnterior) {
+        almacen.estadoCambiado(clave, comic, estadoAnterior);
+    }
+
+    @Override
+    public Collection<Comic> comics() {
+        return almacen.comics();
+    }
+
+    @Override
+    public Pagina<Comic> consultar(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        return almacen.consultar(autor, estado, numeroPagina, tamanoPagina);
+    }
+
+    @Override
+    public long contar(EstadoComic estado) {
+        return almacen.contar(estado);
+    }
+
+    @Override
+    public void limpiar() {
+        cache.limpiar();
+        almacen.limpiar();
+    }
+
+    @Override
+    public boolean restaurar(long firma) throws IOException {
+        cache.limpiar();
+        return almacen.restaurar(firma);
+    }
+
+    @Override
+    public void sincronizar() throws IOException {
+        almacen.sincronizar();
+    }
+
+    @Override
+    public void cerrar(long firma) throws IOException {
+        almacen.cerrar(firma);
+    }
+
+    @Override
+    public String toString() {
+        return almacen.toString();
+    }
+
+    /**
+     * Un cómic de la caché: conserva el ID, el título y el autor decodificados, y delega el estado en el cómic del
+     * almacenamiento. Es igual al cómic del almacenamiento que envuelve.
+     */
+    private static final class ComicEnCache extends Comic {
+        private final Comic guardado;
+        private final String id;
+        private final String titulo;
+        private final String autor;
+
+        ComicEnCache(Comic guardado) {
+            this.guardado = guardado;
+            this.id = guardado.getId();
+            this.titulo = guardado.getTitulo();
+            this.autor = guardado.getAutor();
+        }
+
+        @Override
+        public String getTitulo() {
+            return titulo;
+        }
+
+        @Override
+        public String getAutor() {
+            return autor;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public EstadoComic getEstado() {
+            return guardado.getEstado();
+        }
+
+        @Override
+        public void restablecerEstado(EstadoComic estado) {
+            guardado.restablecerEstado(estado);
+        }
+
+        /**
+         * El ID de un cómic del almacenamiento en disco no puede cambiarse.
+         *
+         * @throws UnsupportedOperationException Siempre.
+         */
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("El ID de un cómic del inventario no se puede cambiar.");
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return guardado.equals(otro instanceof ComicEnCache ? ((ComicEnCache) otro).guardado : otro);
+        }
+
+        @Override
+        public int hashCode() {
+            return guardado.hashCode();
+        }
+    }
+}
@@ -0,0 +1,783 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.ArchivoMapeado;
+import utilidades.Pagina;
+import utilidades.TextoUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Almacenamiento del inventario en archivos mapeados en memoria (ver {@link utilidades.ModoAlmacenamiento#MAPEADO}).
+ * <p>
+ * Usa cuatro archivos con la misma ruta base:
+ * <ul>
+ *     <li>La ruta base: una cabecera y una fila de tamaño fijo por cómic, con la posición y el largo de sus textos,
+ *     el hash de su ID normalizado, su estado, una marca de eliminado y los enlaces a las filas anterior y siguiente
+ *     de su autor y de su estado.</li>
+ *     <li>{@code .textos}: los IDs, títulos y autores en UTF-8, uno tras otro. Mientras el almacenamiento está abierto,
+ *     un autor que se repite se escribe una sola vez.</li>
+ *     <li>{@code .hash}: el índice primario, una tabla hash de direccionamiento abierto con los números de fila.</li>
+ *     <li>{@code .cadenas}: la primera y la última fila de cada estado, seguidas de una tabla hash de direccionamiento
+ *     abierto con la primera y la última fila de cada autor normalizado (ver {@link TextoUtil#normalizarTexto}).</li>
+ * </ul>
+ * Nada del inventario se copia al heap: cada cómic es una vista ({@link Vista}) que lee su fila al consultarla,
+ * y los cambios de estado se escriben en su lugar. Así, el tamaño del inventario queda limitado por el disco y no
+ * por el heap, y al iniciar basta con mapear los archivos.
+ * <p>
+ * Las filas de cada autor y de cada estado forman listas doblemente enlazadas dentro del archivo de filas: las de un
+ * autor en orden de alta y las de un estado en el orden en que llegaron a él. Una consulta por autor recorre solo las
+ * filas de ese autor, y una solo por estado sigue la cadena de su estado hasta completar la página; un cambio de
+ * estado mueve la fila al final de la cadena de su nuevo estado sin recorrer nada.
+ * <p>
+ * Los archivos solo se conservan entre ejecuciones si se cerraron correctamente: al abrirlos se marcan como abiertos
+ * en la cabecera, y al cerrarlos se marcan como limpios junto con la firma del CSV y su diario (ver {@link #restaurar}).
+ * Si el proceso terminó sin cerrarlos, o si el CSV o el diario cambiaron después, el inventario se vuelve a importar
+ * desde ellos, que siguen siendo la copia durable. Un bloqueo sobre el archivo de filas impide que dos sistemas
+ * usen los mismos archivos a la vez.
+ * <p>
+ * Como en el almacenamiento compacto, las filas de los cómics eliminados no se reutilizan; su espacio se libera
+ * la próxima vez que se importa el inventario.
+ */
+final class AlmacenComicsMapeado implements AlmacenComics {
+    private static final int MAGIA = 0x434D4150; // "CMAP"
+    private static final int VERSION = 2;
+    private static final String EXTENSION_TEXTOS = ".textos";
+    private static final String EXTENSION_TABLA = ".hash";
+    private static final String EXTENSION_CADENAS = ".cadenas";
+
+    // Cabecera del archivo de filas
+    private static final long POS_MAGIA = 0;
+    private static final long POS_VERSION = 4;
+    private static final long POS_LIMPIO = 8;
+    private static final long POS_FILAS = 16;
+    private static final long POS_VIVAS = 24;
+    private static final long POS_FIN_TEXTOS = 32;
+    private static final long POS_CAPACIDAD_TABLA = 40;
+    private static final long POS_POSICIONES_OCUPADAS = 48;
+    private static final long POS_FIRMA = 56;
+    private static final long POS_CONTEOS = 64; // Un long por estado
+    private static final long POS_CAPACIDAD_AUTORES = 88;
+    private static final long POS_AUTORES = 96;
+    private static final long TAMANO_CABECERA = 128;
+
+    // Campos de cada fila, alineados a su tamaño
+    private static final int TAMANO_FILA = 56;
+    private static final int INICIO_TEXTO = 0; // long: el ID y a continuación el título
+    private static final int INICIO_AUTOR = 8; // long
+    private static final int LARGO_ID = 16;
+    private static final int LARGO_TITULO = 20;
+    private static final int LARGO_AUTOR = 24;
+    private static final int HASH = 28;
+    private static final int ESTADO = 32; // Ordinal; se lee y escribe con semántica volátil
+    private static final int ELIMINADA = 36;
+    // Enlaces de las cadenas (fila + 1, o 0 si no hay); el de la fila anterior va justo después del de la siguiente
+    private static final int SIGUIENTE_AUTOR = 40;
+    private static final int SIGUIENTE_ESTADO = 48;
+    private static final int ANTERIOR = 4;
+
+    // Archivo de cadenas: la cabeza de cada estado y luego la tabla de autores. Cada cabeza guarda
+    // la primera y la última fila + 1 (0 si la cadena está vacía); las entradas de autores empiezan con su cabeza
+    private static final int PRIMERA = 0;
+    private static final int ULTIMA = 4;
+    private static final long TAMANO_CABECERA_CADENAS = 32;
+    private static final int TAMANO_ENTRADA_AUTOR = 32;
+    private static final int INICIO_AUTOR_ENTRADA = 8; // long: bytes del autor tal como se escribió en su primera fila
+    private static final int LARGO_AUTOR_ENTRADA = 16;
+    private static final int HASH_AUTOR = 20; // Hash del autor normalizado
+    private static final int OCUPADA = 24;
+
+    private static final EstadoComic[] ESTADOS = EstadoComic.values();
+    private static final int CAPACIDAD_INICIAL_TABLA = 1024;
+    private static final int CAPACIDAD_INICIAL_AUTORES = 256;
+    private static final int MAX_AUTORES_RECORDADOS = 1 << 16;
+
+    private final String rutaBase;
+    private final ArchivoMapeado filasArchivo;
+    private final ArchivoMapeado textosArchivo;
+    private final ArchivoMapeado tablaArchivo;
+    private final ArchivoMapeado cadenasArchivo;
+
+    // Copia en memoria de la cabecera; se escribe en el archivo al cerrar
+    private int filas; // Filas usadas, incluidas las eliminadas
+    private int vivas;
+    private long finTextos;
+    private int capacidadTabla;
+    private int posicionesOcupadas;
+    private int capacidadAutores;
+    private int autoresOcupados;
+    private final AtomicLongArray conteos = new AtomicLongArray(ESTADOS.length); // Cómics por estado
+    private final Map<String, Long> autoresEscritos = new HashMap<>(); // Autor -> posición de sus bytes en el archivo de textos
+    // Bloqueo de las cadenas de estados, que cambian con las ventas concurrentes; las de autores solo cambian con altas y bajas
+    private final Object bloqueoEstados = new Object();
+
+    /**
+     * Abre (o crea) los archivos del almacenamiento y toma el bloqueo sobre ellos.
+     * El inventario queda sin cargar hasta llamar a {@link #restaurar} o a {@link #limpiar}.
+     *
+     * @param rutaBase La ruta del archivo de filas; los demás archivos agregan una extensión a ella.
+     * @throws IOException Si ocurre un error al abrir los archivos o si otro sistema los está usando.
+     */
+    AlmacenComicsMapeado(String rutaBase) throws IOException {
+        this.rutaBase = rutaBase;
+        ArchivoMapeado filasAbierto = new ArchivoMapeado(rutaBase);
+        ArchivoMapeado textosAbierto = null;
+        ArchivoMapeado tablaAbierta = null;
+        try {
+            FileLock bloqueo;
+            try {
+                bloqueo = filasAbierto.getCanal().tryLock();
+            } catch (OverlappingFileLockException e) {
+                bloqueo = null; // Otro sistema de esta misma JVM ya lo tiene
+            }
+            if (bloqueo == null) {
+                throw new IOException("El archivo " + rutaBase + " está siendo usado por otro sistema.");
+            }
+            textosAbierto = new ArchivoMapeado(rutaBase + EXTENSION_TEXTOS);
+            tablaAbierta = new ArchivoMapeado(rutaBase + EXTENSION_TABLA);
+            this.cadenasArchivo = new ArchivoMapeado(rutaBase + EXTENSION_CADENAS);
+        } catch (IOException | RuntimeException e) {
+            filasAbierto.close(); // Libera también el bloqueo
+            if (textosAbierto != null) {
+                textosAbierto.close();
+            }
+            if (tablaAbierta != null) {
+                tablaAbierta.close();
+            }
+            throw e;
+        }
+        this.filasArchivo = filasAbierto;
+        this.textosArchivo = textosAbierto;
+        this.tablaArchivo = tablaAbierta;
+    }
+
+    @Override
+    public Comic obtener(String clave) {
+        int fila = buscarFila(clave);
+        return fila < 0 ? null : new Vista(fila);
+    }
+
+    @Override
+    public boolean contiene(String clave) {
+        return buscarFila(clave) >= 0;
+    }
+
+    @Override
+    public Comic agregar(String clave, Comic comic) {
+        int fila = buscarFila(clave);
+        EstadoComic estado = comic.getEstado();
+        if (fila < 0) {
+            fila = filas;
+            asegurarTamano(filasArchivo, posicionFila(fila + 1));
+            long posicion = posicionFila(fila);
+            filasArchivo.putInt(posicion + HASH, dispersar(clave.hashCode()));
+            filasArchivo.putInt(posicion + ELIMINADA, 0);
+            escribirTextos(fila, comic);
+            filasArchivo.putIntVolatile(posicion + ESTADO, estado.ordinal());
+            filas++;
+            vivas++;
+            insertarEnTabla(fila);
+            anexarACadena(entradaAutor(comic.getAutor(), fila, true), fila, SIGUIENTE_AUTOR);
+            synchronized (bloqueoEstados) {
+                anexarACadena(cabezaEstado(estado), fila, SIGUIENTE_ESTADO);
+                conteos.incrementAndGet(estado.ordinal());
+            }
+        } else {
+            // Al reproducir el diario, el alta de un cómic que no cambió no vuelve a escribir sus textos
+            String autorAnterior = autor(fila);
+            if (!comic.getId().equals(id(fila)) || !comic.getTitulo().equals(titulo(fila)) || !comic.getAutor().equals(autorAnterior)) {
+                long entradaAnterior = entradaAutor(autorAnterior, fila, false);
+                escribirTextos(fila, comic);
+                long entrada = entradaAutor(comic.getAutor(), fila, true);
+                if (entrada != entradaAnterior) {
+                    quitarDeCadena(entradaAnterior, fila, SIGUIENTE_AUTOR);
+                    anexarACadena(entrada, fila, SIGUIENTE_AUTOR);
+                }
+            }
+            synchronized (bloqueoEstados) {
+                EstadoComic anterior = estadoDe(fila);
+                filasArchivo.putIntVolatile(posicionFila(fila) + ESTADO, estado.ordinal());
+                moverDeEstado(fila, anterior, estado);
+            }
+        }
+        return new Vista(fila);
+    }
+
+    @Override
+    public Comic eliminar(String clave) {
+        int fila = buscarFila(clave);
+        if (fila < 0) {
+            return null;
+        }
+        quitarDeCadena(entradaAutor(autor(fila), fila, false), fila, SIGUIENTE_AUTOR);
+        synchronized (bloqueoEstados) {
+            EstadoComic estado = estadoDe(fila);
+            quitarDeCadena(cabezaEstado(estado), fila, SIGUIENTE_ESTADO);
+            conteos.decrementAndGet(estado.ordinal());
+        }
+        filasArchivo.putInt(posicionFila(fila) + ELIMINADA, 1);
+        vivas--;
+        return new Vista(fila);
+    }
+
+    /**
+     * Mueve la fila del cómic al final de la cadena de su nuevo estado; la vista ya lo escribió en su fila.
+     */
+    @Override
+    public void estadoCambiado(String clave, Comic comic, EstadoComic estadoAnterior) {
+        int fila = buscarFila(clave);
+        synchronized (bloqueoEstados) {
+            moverDeEstado(fila, estadoAnterior, comic.getEstado());
+        }
+    }
+
+    @Override
+    public Collection<Comic> comics() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Comic> iterator() {
+                return new Iterator<>() {
+                    private int fila = siguienteViva(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return fila < filas;
+                    }
+
+                    @Override
+                    public Comic next() {
+                        if (fila >= filas) {
+                            throw new NoSuchElementException();
+                        }
+                        Comic comic = new Vista(fila);
+                        fila = siguienteViva(fila + 1);
+                        return comic;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return vivas;
+            }
+        };
+    }
+
+    @Override
+    public Pagina<Comic> consultar(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        if (autor == null && estado == null) {
+            throw new IllegalArgumentException("Debe indicar un autor o un estado.");
+        }
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser mayores que 0.");
+        }
+        long saltar = (long) (numeroPagina - 1) * tamanoPagina;
+        List<Comic> elementos = new ArrayList<>();
+        if (autor == null) {
+            synchronized (bloqueoEstados) {
+                int fila = primeraDeCadena(cabezaEstado(estado));
+                for (long i = 0; i < saltar && fila >= 0; i++) {
+                    fila = siguienteEnCadena(fila, SIGUIENTE_ESTADO);
+                }
+                for (; fila >= 0 && elementos.size() < tamanoPagina; fila = siguienteEnCadena(fila, SIGUIENTE_ESTADO)) {
+                    elementos.add(new Vista(fila));
+                }
+                return new Pagina<>(elementos, numeroPagina, tamanoPagina, conteos.get(estado.ordinal()));
+            }
+        }
+        long entrada = buscarAutor(TextoUtil.normalizarTexto(autor));
+        if (entrada < 0) {
+            return new Pagina<>(elementos, numeroPagina, tamanoPagina, 0);
+        }
+        long total = 0;
+        // Sin estado, se agrupan por estado en el orden de EstadoComic, como IndiceComics
+        for (EstadoComic grupo : ESTADOS) {
+            if (estado != null && grupo != estado) {
+                continue;
+            }
+            for (int fila = primeraDeCadena(entrada); fila >= 0; fila = siguienteEnCadena(fila, SIGUIENTE_AUTOR)) {
+                if (filasArchivo.getIntVolatile(posicionFila(fila) + ESTADO) == grupo.ordinal()
+                        && total++ >= saltar && elementos.size() < tamanoPagina) {
+                    elementos.add(new Vista(fila));
+                }
+            }
+        }
+        return new Pagina<>(elementos, numeroPagina, tamanoPagina, total);
+    }
+
+    @Override
+    public long contar(EstadoComic estado) {
+        return conteos.get(estado.ordinal());
+    }
+
+    @Override
+    public void limpiar() {
+        filas = 0;
+        vivas = 0;
+        finTextos = 0;
+        posicionesOcupadas = 0;
+        capacidadTabla = CAPACIDAD_INICIAL_TABLA;
+        capacidadAutores = CAPACIDAD_INICIAL_AUTORES;
+        autoresOcupados = 0;
+        for (int i = 0; i < conteos.length(); i++) {
+            conteos.set(i, 0);
+        }
+        autoresEscritos.clear();
+        asegurarTamano(filasArchivo, TAMANO_CABECERA);
+        asegurarTamano(tablaArchivo, capacidadTabla * 4L);
+        tablaArchivo.borrar(0, capacidadTabla * 4L);
+        asegurarTamano(cadenasArchivo, posicionEntradaAutor(capacidadAutores));
+        cadenasArchivo.borrar(0, posicionEntradaAutor(capacidadAutores));
+        filasArchivo.putInt(POS_MAGIA, MAGIA);
+        filasArchivo.putInt(POS_VERSION, VERSION);
+        marcarAbierto();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Además de la marca de cierre y la firma, se verifica que la cabecera sea coherente con el tamaño de los archivos.
+     */
+    @Override
+    public boolean restaurar(long firma) {
+        if (filasArchivo.getTamano() < TAMANO_CABECERA || filasArchivo.getInt(POS_MAGIA) != MAGIA
+                || filasArchivo.getInt(POS_VERSION) != VERSION || filasArchivo.getInt(POS_LIMPIO) != 1
+                || filasArchivo.getLong(POS_FIRMA) != firma) {
+            return false;
+        }
+        long filasGuardadas = filasArchivo.getLong(POS_FILAS);
+        long capacidad = filasArchivo.getLong(POS_CAPACIDAD_TABLA);
+        long fin = filasArchivo.getLong(POS_FIN_TEXTOS);
+        long autores = filasArchivo.getLong(POS_CAPACIDAD_AUTORES);
+        if (filasGuardadas < 0 || filasGuardadas > Integer.MAX_VALUE || posicionFila((int) filasGuardadas) > filasArchivo.getTamano()
+                || capacidad < CAPACIDAD_INICIAL_TABLA || capacidad > 1 << 30 || Long.bitCount(capacidad) != 1
+                || capacidad * 4 > tablaArchivo.getTamano() || fin < 0 || fin > textosArchivo.getTamano()
+                || autores < CAPACIDAD_INICIAL_AUTORES || autores > 1 << 26 || Long.bitCount(autores) != 1
+                || posicionEntradaAutor((int) autores) > cadenasArchivo.getTamano()) {
+            return false;
+        }
+        filas = (int) filasGuardadas;
+        vivas = (int) filasArchivo.getLong(POS_VIVAS);
+        finTextos = fin;
+        capacidadTabla = (int) capacidad;
+        posicionesOcupadas = (int) filasArchivo.getLong(POS_POSICIONES_OCUPADAS);
+        capacidadAutores = (int) autores;
+        autoresOcupados = (int) filasArchivo.getLong(POS_AUTORES);
+        for (int i = 0; i < conteos.length(); i++) {
+            conteos.set(i, filasArchivo.getLong(POS_CONTEOS + 8L * i));
+        }
+        autoresEscritos.clear();
+        marcarAbierto();
+        return true;
+    }
+
+    @Override
+    public void sincronizar() {
+        textosArchivo.forzar();
+        tablaArchivo.forzar();
+        cadenasArchivo.forzar();
+        filasArchivo.forzar();
+    }
+
+    /**
+     * {@inheritDoc}
+     * La marca de cierre se escribe después de que todo lo demás llegó al disco.
+     */
+    @Override
+    public void cerrar(long firma) throws IOException {
+        try {
+            filasArchivo.putLong(POS_FILAS, filas);
+            filasArchivo.putLong(POS_VIVAS, vivas);
+            filasArchivo.putLong(POS_FIN_TEXTOS, finTextos);
+            filasArchivo.putLong(POS_CAPACIDAD_TABLA, capacidadTabla);
+            filasArchivo.putLong(POS_POSICIONES_OCUPADAS, posicionesOcupadas);
+            filasArchivo.putLong(POS_CAPACIDAD_AUTORES, capacidadAutores);
+            filasArchivo.putLong(POS_AUTORES, autoresOcupados);
+            for (int i = 0; i < conteos.length(); i++) {
+                filasArchivo.putLong(POS_CONTEOS + 8L * i, conteos.get(i));
+            }
+            filasArchivo.putLong(POS_FIRMA, firma);
+            sincronizar();
+            filasArchivo.putInt(POS_LIMPIO, 1);
+            filasArchivo.forzar();
+        } finally {
+            cadenasArchivo.close();
+            tablaArchivo.close();
+            textosArchivo.close();
+            filasArchivo.close();
+        }
+    }
+
+    /**
+     * Marca los archivos como abiertos y espera a que la marca llegue al disco antes de cualquier cambio,
+     * para que una caída posterior nunca deje una marca de cierre limpio sobre datos a medio escribir.
+     */
+    private void marcarAbierto() {
+        filasArchivo.putInt(POS_LIMPIO, 0);
+        filasArchivo.forzar();
+    }
+
+    private static long posicionFila(int fila) {
+        return TAMANO_CABECERA + (long) fila * TAMANO_FILA;
+    }
+
+    private static int dispersar(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static void asegurarTamano(ArchivoMapeado archivo, long minimo) {
+        try {
+            archivo.asegurarTamano(minimo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo extender el archivo " + archivo + ".", e);
+        }
+    }
+
+    private boolean estaEliminada(int fila) {
+        return filasArchivo.getInt(posicionFila(fila) + ELIMINADA) != 0;
+    }
+
+    private int siguienteViva(int fila) {
+        while (fila < filas && estaEliminada(fila)) {
+            fila++;
+        }
+        return fila;
+    }
+
+    private EstadoComic estadoDe(int fila) {
+        return ESTADOS[filasArchivo.getIntVolatile(posicionFila(fila) + ESTADO)];
+    }
+
+    private String texto(long inicio, int largo) {
+        byte[] bytes = new byte[largo];
+        textosArchivo.leer(inicio, bytes, 0, largo);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String id(int fila) {
+        long posicion = posicionFila(fila);
+        return texto(filasArchivo.getLong(posicion + INICIO_TEXTO), filasArchivo.getInt(posicion + LARGO_ID));
+    }
+
+    private String titulo(int fila) {
+        long posicion = posicionFila(fila);
+        return texto(filasArchivo.getLong(posicion + INICIO_TEXTO) + filasArchivo.getInt(posicion + LARGO_ID),
+                filasArchivo.getInt(posicion + LARGO_TITULO));
+    }
+
+    private String autor(int fila) {
+        long posicion = posicionFila(fila);
+        return texto(filasArchivo.getLong(posicion + INICIO_AUTOR), filasArchivo.getInt(posicion + LARGO_AUTOR));
+    }
+
+    /**
+     * Busca la fila viva de una clave. Las filas con el mismo hash se confirman comparando su ID normalizado.
+     */
+    private int buscarFila(String clave) {
+        if (clave == null || capacidadTabla == 0) {
+            return -1;
+        }
+        int hash = dispersar(clave.hashCode());
+        int mascara = capacidadTabla - 1;
+        for (int i = hash & mascara; ; i = (i + 1) & mascara) {
+            int entrada = tablaArchivo.getInt(i * 4L);
+            if (entrada == 0) {
+                return -1;
+            }
+            int fila = entrada - 1;
+            long posicion = posicionFila(fila);
+            if (filasArchivo.getInt(posicion + HASH) == hash && filasArchivo.getInt(posicion + ELIMINADA) == 0
+                    && clave.equals(TextoUtil.normalizarId(id(fila)))) {
+                return fila;
+            }
+        }
+    }
+
+    /**
+     * Agrega una fila al índice primario. Si la tabla supera la mitad de su capacidad, se reconstruye
+     * con solo las filas vivas, a partir de los hashes guardados en las filas.
+     */
+    private void insertarEnTabla(int fila) {
+        if ((posicionesOcupadas + 1) * 2L <= capacidadTabla) {
+            ocuparPosicion(fila);
+            return;
+        }
+        int capacidad = (int) Math.min(1 << 30, Long.highestOneBit(Math.max(CAPACIDAD_INICIAL_TABLA, (long) vivas) * 4 - 1));
+        asegurarTamano(tablaArchivo, capacidad * 4L);
+        tablaArchivo.borrar(0, capacidad * 4L);
+        capacidadTabla = capacidad;
+        posicionesOcupadas = 0;
+        for (int f = siguienteViva(0); f < filas; f = siguienteViva(f + 1)) {
+            ocuparPosicion(f);
+        }
+    }
+
+    private void ocuparPosicion(int fila) {
+        int mascara = capacidadTabla - 1;
+        int i = filasArchivo.getInt(posicionFila(fila) + HASH) & mascara;
+        while (tablaArchivo.getInt(i * 4L) != 0) {
+            i = (i + 1) & mascara;
+        }
+        tablaArchivo.putInt(i * 4L, fila + 1);
+        posicionesOcupadas++;
+    }
+
+    private static long cabezaEstado(EstadoComic estado) {
+        return 8L * estado.ordinal();
+    }
+
+    private static long posicionEntradaAutor(int entrada) {
+        return TAMANO_CABECERA_CADENAS + (long) entrada * TAMANO_ENTRADA_AUTOR;
+    }
+
+    private int primeraDeCadena(long cabeza) {
+        return cadenasArchivo.getInt(cabeza + PRIMERA) - 1;
+    }
+
+    private int siguienteEnCadena(int fila, int siguiente) {
+        return filasArchivo.getInt(posicionFila(fila) + siguiente) - 1;
+    }
+
+    /**
+     * Anexa una fila al final de una cadena.
+     *
+     * @param cabeza La posición de la cabeza de la cadena en el archivo de cadenas.
+     * @param siguiente El campo de la fila con el enlace a la siguiente de la cadena.
+     */
+    private void anexarACadena(long cabeza, int fila, int siguiente) {
+        long posicion = posicionFila(fila);
+        int ultima = cadenasArchivo.getInt(cabeza + ULTIMA);
+        filasArchivo.putInt(posicion + siguiente, 0);
+        filasArchivo.putInt(posicion + siguiente + ANTERIOR, ultima);
+        if (ultima == 0) {
+            cadenasArchivo.putInt(cabeza + PRIMERA, fila + 1);
+        } else {
+            filasArchivo.putInt(posicionFila(ultima - 1) + siguiente, fila + 1);
+        }
+        cadenasArchivo.putInt(cabeza + ULTIMA, fila + 1);
+    }
+
+    /**
+     * Quita una fila de una cadena, uniendo sus vecinas.
+     */
+    private void quitarDeCadena(long cabeza, int fila, int siguiente) {
+        long posicion = posicionFila(fila);
+        int posterior = filasArchivo.getInt(posicion + siguiente);
+        int anterior = filasArchivo.getInt(posicion + siguiente + ANTERIOR);
+        if (anterior == 0) {
+            cadenasArchivo.putInt(cabeza + PRIMERA, posterior);
+        } else {
+            filasArchivo.putInt(posicionFila(anterior - 1) + siguiente, posterior);
+        }
+        if (posterior == 0) {
+            cadenasArchivo.putInt(cabeza + ULTIMA, anterior);
+        } else {
+            filasArchivo.putInt(posicionFila(posterior - 1) + siguiente + ANTERIOR, anterior);
+        }
+    }
+
+    /**
+     * Mueve una fila de la cadena de un estado al final de la de otro y actualiza los conteos. Requiere {@code bloqueoEstados}.
+     */
+    private void moverDeEstado(int fila, EstadoComic anterior, EstadoComic nuevo) {
+        if (anterior == nuevo) {
+            return;
+        }
+        quitarDeCadena(cabezaEstado(anterior), fila, SIGUIENTE_ESTADO);
+        anexarACadena(cabezaEstado(nuevo), fila, SIGUIENTE_ESTADO);
+        conteos.decrementAndGet(anterior.ordinal());
+        conteos.incrementAndGet(nuevo.ordinal());
+    }
+
+    /**
+     * Obtiene la entrada de la tabla de autores del autor de una fila, cuyos bytes ya apunta la fila.
+     *
+     * @param crear Si se crea la entrada cuando el autor no tiene una.
+     * @return La posición de la entrada en el archivo de cadenas, o -1 si no existe y no se creó.
+     */
+    private long entradaAutor(String autor, int fila, boolean crear) {
+        String normalizado = TextoUtil.normalizarTexto(autor);
+        long entrada = buscarAutor(normalizado);
+        if (entrada >= 0 || !crear) {
+            return entrada;
+        }
+        if ((autoresOcupados + 1) * 2L > capacidadAutores) {
+            redimensionarAutores();
+        }
+        long posicion = posicionFila(fila);
+        entrada = posicionEntradaAutor(posicionLibreAutor(dispersar(normalizado.hashCode())));
+        cadenasArchivo.putInt(entrada + PRIMERA, 0);
+        cadenasArchivo.putInt(entrada + ULTIMA, 0);
+        cadenasArchivo.putLong(entrada + INICIO_AUTOR_ENTRADA, filasArchivo.getLong(posicion + INICIO_AUTOR));
+        cadenasArchivo.putInt(entrada + LARGO_AUTOR_ENTRADA, filasArchivo.getInt(posicion + LARGO_AUTOR));
+        cadenasArchivo.putInt(entrada + HASH_AUTOR, dispersar(normalizado.hashCode()));
+        cadenasArchivo.putInt(entrada + OCUPADA, 1);
+        autoresOcupados++;
+        return entrada;
+    }
+
+    /**
+     * Busca la entrada de un autor normalizado. Las entradas con el mismo hash se confirman comparando su autor normalizado.
+     *
+     * @return La posición de la entrada en el archivo de cadenas, o -1 si no existe.
+     */
+    private long buscarAutor(String normalizado) {
+        int hash = dispersar(normalizado.hashCode());
+        int mascara = capacidadAutores - 1;
+        for (int i = hash & mascara; ; i = (i + 1) & mascara) {
+            long entrada = posicionEntradaAutor(i);
+            if (cadenasArchivo.getInt(entrada + OCUPADA) == 0) {
+                return -1;
+            }
+            if (cadenasArchivo.getInt(entrada + HASH_AUTOR) == hash && normalizado.equals(TextoUtil.normalizarTexto(
+                    texto(cadenasArchivo.getLong(entrada + INICIO_AUTOR_ENTRADA), cadenasArchivo.getInt(entrada + LARGO_AUTOR_ENTRADA))))) {
+                return entrada;
+            }
+        }
+    }
+
+    private int posicionLibreAutor(int hash) {
+        int mascara = capacidadAutores - 1;
+        int i = hash & mascara;
+        while (cadenasArchivo.getInt(posicionEntradaAutor(i) + OCUPADA) != 0) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    /**
+     * Duplica la tabla de autores. Las entradas (unas pocas por autor distinto, no por cómic) se copian al heap
+     * mientras se reubican; las cadenas no cambian porque las filas no apuntan a su entrada.
+     */
+    private void redimensionarAutores() {
+        byte[] anteriores = new byte[capacidadAutores * TAMANO_ENTRADA_AUTOR];
+        cadenasArchivo.leer(TAMANO_CABECERA_CADENAS, anteriores, 0, anteriores.length);
+        int capacidad = capacidadAutores * 2;
+        asegurarTamano(cadenasArchivo, posicionEntradaAutor(capacidad));
+        cadenasArchivo.borrar(TAMANO_CABECERA_CADENAS, posicionEntradaAutor(capacidad));
+        capacidadAutores = capacidad;
+        ByteBuffer entradas = ByteBuffer.wrap(anteriores);
+        for (int desde = 0; desde < anteriores.length; desde += TAMANO_ENTRADA_AUTOR) {
+            if (entradas.getInt(desde + OCUPADA) != 0) {
+                long entrada = posicionEntradaAutor(posicionLibreAutor(entradas.getInt(desde + HASH_AUTOR)));
+                cadenasArchivo.escribir(entrada, anteriores, desde, TAMANO_ENTRADA_AUTOR);
+            }
+        }
+    }
+
+    /**
+     * Anexa el ID, el título y (si no se escribió ya) el autor de un cómic al archivo de textos, y los apunta desde su fila.
+     */
+    private void escribirTextos(int fila, Comic comic) {
+        byte[] id = comic.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] titulo = comic.getTitulo().getBytes(StandardCharsets.UTF_8);
+        long posicion = posicionFila(fila);
+        filasArchivo.putLong(posicion + INICIO_TEXTO, anexarTexto(id, titulo));
+        filasArchivo.putInt(posicion + LARGO_ID, id.length);
+        filasArchivo.putInt(posicion + LARGO_TITULO, titulo.length);
+
+        String autor = comic.getAutor();
+        byte[] bytesAutor = autor.getBytes(StandardCharsets.UTF_8);
+        Long inicioAutor = autoresEscritos.get(autor);
+        if (inicioAutor == null) {
+            inicioAutor = anexarTexto(bytesAutor, new byte[0]);
+            if (autoresEscritos.size() >= MAX_AUTORES_RECORDADOS) {
+                autoresEscritos.clear();
+            }
+            autoresEscritos.put(autor, inicioAutor);
+        }
+        filasArchivo.putLong(posicion + INICIO_AUTOR, inicioAutor);
+        filasArchivo.putInt(posicion + LARGO_AUTOR, bytesAutor.length);
+    }
+
+    private long anexarTexto(byte[] primero, byte[] segundo) {
+        long inicio = finTextos;
+        asegurarTamano(textosArchivo, inicio + primero.length + segundo.length);
+        textosArchivo.escribir(inicio, primero, 0, primero.length);
+        textosArchivo.escribir(inicio + primero.length, segundo, 0, segundo.length);
+        finTextos = inicio + primero.length + segundo.length;
+        return inicio;
+    }
+
+    @Override
+    public String toString() {
+        return rutaBase;
+    }
+
+    /**
+     * Un cómic del almacenamiento: lee sus datos de su fila en el archivo cada vez que se consultan.
+     * Dos vistas de la misma fila son iguales.
+     */
+    private final class Vista extends Comic {
+        private final int fila;
+
+        Vista(int fila) {
+            this.fila = fila;
+        }
+
+        @Override
+        public String getTitulo() {
+            return titulo(fila);
+        }
+
+        @Override
+        public String getAutor() {
+            return autor(fila);
+        }
+
+        @Override
+        public EstadoComic getEstado() {
+            return estadoDe(fila);
+        }
+
+        @Override
+        public String getId() {
+            return id(fila);
+        }
+
+        @Override
+        public void restablecerEstado(EstadoComic estado) {
+            Objects.requireNonNull(estado, "Debe ingresar el estado del cómic.");
+            filasArchivo.putIntVolatile(posicionFila(fila) + ESTADO, estado.ordinal());
+        }
+
+        /**
+         * El ID de un cómic del almacenamiento mapeado no puede cambiarse.
+         *
+         * @throws UnsupportedOperationException Siempre.
+         */
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("El ID de un cómic del inventario no se puede cambiar.");
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Vista && ((Vista) otro).fila == fila && ((Vista) otro).almacen() == almacen();
+        }
+
+        @Override
+        public int hashCode() {
+            return fila;
+        }
+
+        private AlmacenComicsMapeado almacen() {
+            return AlmacenComicsMapeado.this;
+        }
+    }
+}
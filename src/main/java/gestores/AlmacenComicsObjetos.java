@@ -0,0 +1,67 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.Pagina;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+
+/**
+ * Almacenamiento del inventario como objetos {@link Comic} (ver {@link utilidades.ModoAlmacenamiento#OBJETOS}):
+ * un mapa ID normalizado -> cómic que conserva el orden de inserción, más los índices secundarios de {@link IndiceComics}.
+ */
+final class AlmacenComicsObjetos implements AlmacenComics {
+    private final LinkedHashMap<String, Comic> comics = new LinkedHashMap<>();
+    private final IndiceComics indiceComics = new IndiceComics();
+
+    @Override
+    public Comic obtener(String clave) {
+        return comics.get(clave);
+    }
+
+    @Override
+    public boolean contiene(String clave) {
+        return comics.containsKey(clave);
+    }
+
+    @Override
+    public Comic agregar(String clave, Comic comic) {
+        Comic anterior = comics.put(clave, comic);
+        if (anterior != null) {
+            indiceComics.eliminar(clave, anterior);
+        }
+        indiceComics.agregar(clave, comic);
+        return comic;
+    }
+
+    @Override
+    public Comic eliminar(String clave) {
+        Comic comic = comics.remove(clave);
+        if (comic != null) {
+            indiceComics.eliminar(clave, comic);
+        }
+        return comic;
+    }
+
+    @Override
+    public void estadoCambiado(String clave, Comic comic, EstadoComic estadoAnterior) {
+        indiceComics.cambiarEstado(clave, comic, estadoAnterior);
+    }
+
+    @Override
+    public Collection<Comic> comics() {
+        return comics.values();
+    }
+
+    @Override
+    public Pagina<Comic> consultar(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        return indiceComics.consultar(autor, estado, numeroPagina, tamanoPagina);
+    }
+
+    @Override
+    public void limpiar() {
+        comics.clear();
+        indiceComics.limpiar();
+    }
+}
@@ -0,0 +1,262 @@
+package gestores;
+
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoVenta;
+import utilidades.TextoUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reportes de ventas de {@link ComicSistema}: cómics y autores más vendidos, y compras por usuario.
+ * <p>
+ * Al iniciar, los acumuladores se llenan con un solo recorrido del libro de ventas (ver
+ * {@link LibroVentas#recorrerEnParalelo}); después se actualizan con cada venta y devolución,
+ * de modo que consultar un reporte nunca vuelve a leer el historial.
+ * <p>
+ * Cada tabla asigna a cada clave (ID de cómic, autor o ID de usuario) una posición fija la primera vez que aparece,
+ * y guarda los conteos en arreglos de primitivos indexados por esa posición; el mapa de claves solo se consulta
+ * una vez por evento. Los N primeros de un reporte se eligen con un montículo acotado a N elementos, sin ordenar
+ * la tabla completa.
+ * <p>
+ * El autor de cada cómic se fija la primera vez que el cómic aparece en un evento. Los eventos de cómics que ya no
+ * están en el inventario al recorrer el libro, y cuyo autor por lo tanto se desconoce, no cuentan para ningún autor.
+ * Los métodos están sincronizados, ya que ComicSistema registra ventas desde varios hilos.
+ */
+final class AnaliticaVentas {
+    private final Tabla comics = new Tabla();
+    private final Tabla autores = new Tabla();
+    private final Tabla usuarios = new Tabla();
+    private int[] autorDeComic = new int[16]; // Posición de cómic -> posición de autor, o -1 si se desconoce
+
+    /**
+     * Acumula un evento.
+     *
+     * @param evento El evento del historial. Solo las ventas y las devoluciones de cómics vendidos cuentan para
+     *               los reportes; las reservas, su cancelación y su vencimiento no son ventas.
+     * @param autor El autor del cómic, o null si se desconoce.
+     */
+    synchronized void registrar(EventoVenta evento, String autor) {
+        int comic = posicionComic(evento.getIdComic(), evento.getTituloComic(), autor);
+        int autorComic = autorDeComic[comic];
+        if (evento.getTipo() == EventoVenta.Tipo.VENTA) {
+            comics.sumar(comic, 1, 0);
+            if (autorComic >= 0) {
+                autores.sumar(autorComic, 1, 0);
+            }
+            usuarios.sumar(usuarios.posicion(evento.getIdUsuario(), evento.getIdUsuario(), evento.getNombreUsuario()), 1, 0);
+        } else if (evento.getTipo() == EventoVenta.Tipo.DISPONIBLE && evento.getEstadoAnterior() == EstadoComic.VENDIDO) {
+            comics.sumar(comic, 0, 1);
+            if (autorComic >= 0) {
+                autores.sumar(autorComic, 0, 1);
+            }
+        }
+    }
+
+    /**
+     * Suma a este acumulador los conteos de otro que recorrió eventos posteriores del libro.
+     * Los títulos y nombres del otro acumulador reemplazan a los de este, por ser más recientes.
+     *
+     * @param otro El otro acumulador.
+     * @return Este acumulador.
+     */
+    synchronized AnaliticaVentas combinar(AnaliticaVentas otro) {
+        synchronized (otro) {
+            for (int i = 0; i < otro.comics.tamano; i++) {
+                int autorOtro = otro.autorDeComic[i];
+                int comic = posicionComic(otro.comics.claves[i], otro.comics.nombres[i],
+                        autorOtro < 0 ? null : otro.autores.claves[autorOtro]);
+                comics.sumar(comic, otro.comics.ventas[i], otro.comics.devoluciones[i]);
+            }
+            for (int i = 0; i < otro.autores.tamano; i++) {
+                String autor = otro.autores.claves[i];
+                autores.sumar(autores.posicion(TextoUtil.normalizarTexto(autor), autor, autor), otro.autores.ventas[i], otro.autores.devoluciones[i]);
+            }
+            for (int i = 0; i < otro.usuarios.tamano; i++) {
+                usuarios.sumar(usuarios.posicion(otro.usuarios.claves[i], otro.usuarios.claves[i], otro.usuarios.nombres[i]),
+                        otro.usuarios.ventas[i], otro.usuarios.devoluciones[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Obtiene los cómics con más ventas netas.
+     *
+     * @param cantidad El número máximo de cómics del reporte.
+     * @return Los cómics, de más a menos ventas netas; a igualdad, primero el que se vendió antes.
+     */
+    synchronized List<EstadisticaVentas> comicsMasVendidos(int cantidad) {
+        return comics.mejores(cantidad);
+    }
+
+    /**
+     * Obtiene los autores con más ventas netas.
+     *
+     * @param cantidad El número máximo de autores del reporte.
+     * @return Los autores, de más a menos ventas netas.
+     */
+    synchronized List<EstadisticaVentas> autoresMasVendidos(int cantidad) {
+        return autores.mejores(cantidad);
+    }
+
+    /**
+     * Obtiene los usuarios con más compras.
+     *
+     * @param cantidad El número máximo de usuarios del reporte.
+     * @return Los usuarios, de más a menos compras.
+     */
+    synchronized List<EstadisticaVentas> usuariosConMasCompras(int cantidad) {
+        return usuarios.mejores(cantidad);
+    }
+
+    /**
+     * Obtiene las compras de un usuario.
+     *
+     * @param idUsuario El ID del usuario.
+     * @return Las compras del usuario, o null si no tiene ninguna.
+     */
+    synchronized EstadisticaVentas comprasDe(String idUsuario) {
+        return usuarios.obtener(idUsuario);
+    }
+
+    private int posicionComic(String idComic, String titulo, String autor) {
+        int antes = comics.tamano;
+        int comic = comics.posicion(TextoUtil.normalizarId(idComic), idComic, titulo);
+        if (comics.tamano > antes) {
+            if (comic == autorDeComic.length) {
+                autorDeComic = Arrays.copyOf(autorDeComic, comic * 2);
+            }
+            autorDeComic[comic] = -1;
+        }
+        if (autorDeComic[comic] < 0 && autor != null) {
+            autorDeComic[comic] = autores.posicion(TextoUtil.normalizarTexto(autor), autor, autor);
+        }
+        return comic;
+    }
+
+    /**
+     * Conteos de ventas y devoluciones por clave, en arreglos paralelos indexados por la posición de cada clave.
+     */
+    private static final class Tabla {
+        private final Map<String, Integer> posiciones = new HashMap<>(); // Clave normalizada -> posición
+        private String[] claves = new String[16];
+        private String[] nombres = new String[16];
+        private long[] ventas = new long[16];
+        private long[] devoluciones = new long[16];
+        private int tamano;
+
+        /**
+         * Obtiene la posición de una clave, agregándola si no existe. Si se indica un nombre, reemplaza al anterior.
+         */
+        int posicion(String claveNormalizada, String clave, String nombre) {
+            Integer posicion = posiciones.get(claveNormalizada);
+            if (posicion == null) {
+                if (tamano == claves.length) {
+                    int capacidad = tamano * 2;
+                    claves = Arrays.copyOf(claves, capacidad);
+                    nombres = Arrays.copyOf(nombres, capacidad);
+                    ventas = Arrays.copyOf(ventas, capacidad);
+                    devoluciones = Arrays.copyOf(devoluciones, capacidad);
+                }
+                posicion = tamano++;
+                posiciones.put(claveNormalizada, posicion);
+                claves[posicion] = clave;
+            }
+            if (nombre != null) {
+                nombres[posicion] = nombre;
+            }
+            return posicion;
+        }
+
+        void sumar(int posicion, long ventasNuevas, long devolucionesNuevas) {
+            ventas[posicion] += ventasNuevas;
+            devoluciones[posicion] += devolucionesNuevas;
+        }
+
+        EstadisticaVentas obtener(String claveNormalizada) {
+            Integer posicion = posiciones.get(claveNormalizada);
+            return posicion == null ? null : estadistica(posicion);
+        }
+
+        /**
+         * Elige las posiciones con más ventas netas (positivas) con un montículo de mínimos de tamaño {@code cantidad}.
+         * Cada elemento del montículo guarda las ventas netas y la posición en un solo long, ordenable como número:
+         * a igual venta, gana la posición menor.
+         */
+        List<EstadisticaVentas> mejores(int cantidad) {
+            if (cantidad < 1) {
+                throw new IllegalArgumentException("La cantidad del reporte debe ser mayor que 0.");
+            }
+            long[] monticulo = new long[Math.min(cantidad, tamano)];
+            int elementos = 0;
+            for (int i = 0; i < tamano; i++) {
+                long netas = ventas[i] - devoluciones[i];
+                if (netas <= 0) {
+                    continue;
+                }
+                long clave = Math.min(netas, Integer.MAX_VALUE) << 32 | (Integer.MAX_VALUE - i);
+                if (elementos < monticulo.length) {
+                    monticulo[elementos] = clave;
+                    subir(monticulo, elementos++);
+                } else if (clave > monticulo[0]) {
+                    monticulo[0] = clave;
+                    bajar(monticulo, elementos);
+                }
+            }
+            long[] ordenados = Arrays.copyOf(monticulo, elementos);
+            Arrays.sort(ordenados);
+            List<EstadisticaVentas> resultado = new ArrayList<>(elementos);
+            for (int i = elementos - 1; i >= 0; i--) {
+                resultado.add(estadistica(Integer.MAX_VALUE - (int) ordenados[i]));
+            }
+            return resultado;
+        }
+
+        private EstadisticaVentas estadistica(int posicion) {
+            String nombre = nombres[posicion] == null ? claves[posicion] : nombres[posicion];
+            return new EstadisticaVentas(claves[posicion], nombre, ventas[posicion], devoluciones[posicion]);
+        }
+
+        private static void subir(long[] monticulo, int i) {
+            while (i > 0) {
+                int padre = (i - 1) >>> 1;
+                if (monticulo[padre] <= monticulo[i]) {
+                    return;
+                }
+                intercambiar(monticulo, padre, i);
+                i = padre;
+            }
+        }
+
+        private static void bajar(long[] monticulo, int elementos) {
+            int i = 0;
+            while (true) {
+                int menor = i;
+                int izquierdo = 2 * i + 1;
+                int derecho = izquierdo + 1;
+                if (izquierdo < elementos && monticulo[izquierdo] < monticulo[menor]) {
+                    menor = izquierdo;
+                }
+                if (derecho < elementos && monticulo[derecho] < monticulo[menor]) {
+                    menor = derecho;
+                }
+                if (menor == i) {
+                    return;
+                }
+                intercambiar(monticulo, i, menor);
+                i = menor;
+            }
+        }
+
+        private static void intercambiar(long[] monticulo, int i, int j) {
+            long temporal = monticulo[i];
+            monticulo[i] = monticulo[j];
+            monticulo[j] = temporal;
+        }
+    }
+}
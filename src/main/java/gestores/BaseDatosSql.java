@@ -0,0 +1,265 @@
+package gestores;
+
+import constantes.Constantes;
+import modelos.EventoSistema;
+import utilidades.PoliticaSincronizacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base de datos H2 embebida en un archivo, sin servidor, compartida por los repositorios SQL de un {@link ComicSistema}.
+ * <p>
+ * Esquema:
+ * <ul>
+ *     <li>{@code comics}: una fila por cómic con su ID normalizado ({@code clave}, único) y una columna {@code orden}
+ *     autoincremental que conserva el orden de inserción. Las consultas por autor y estado se resuelven con los índices
+ *     en memoria de ComicSistema, así que la tabla no los repite: cada índice más encarecería cada venta.</li>
+ *     <li>{@code usuarios}: una fila por usuario, con el ID como clave primaria.</li>
+ *     <li>{@code ventas}: el historial, con índices por instante, por cómic e instante y por usuario e instante para
+ *     las consultas por rango de fechas.</li>
+ * </ul>
+ * Cada repositorio abre su propia conexión, de modo que las transacciones de uno no se mezclan con las de otro.
+ * La base se cierra cuando se cierra la última conexión.
+ */
+final class BaseDatosSql implements Closeable {
+    /** Extensión que H2 agrega al archivo de la base de datos. */
+    static final String EXTENSION_ARCHIVO = ".mv.db";
+
+    private static final String[] ESQUEMA = {
+            "CREATE TABLE IF NOT EXISTS comics ("
+                    + "orden BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "clave VARCHAR NOT NULL, id VARCHAR NOT NULL, titulo VARCHAR NOT NULL, autor VARCHAR NOT NULL, "
+                    + "estado CHAR(1) NOT NULL, CONSTRAINT uq_comics_clave UNIQUE (clave))",
+            "CREATE TABLE IF NOT EXISTS usuarios (id VARCHAR PRIMARY KEY, nombre VARCHAR NOT NULL, email VARCHAR)",
+            "CREATE TABLE IF NOT EXISTS ventas ("
+                    + "numero BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "tipo CHAR(1) NOT NULL, instante BIGINT NOT NULL, id_comic VARCHAR NOT NULL, clave_comic VARCHAR NOT NULL, "
+                    + "titulo_comic VARCHAR NOT NULL, id_usuario VARCHAR, nombre_usuario VARCHAR, estado_anterior CHAR(1) NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_instante ON ventas (instante)",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_comic ON ventas (clave_comic, instante)",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_usuario ON ventas (id_usuario, instante)"
+    };
+
+    /**
+     * Trabajo que se ejecuta dentro de una transacción.
+     */
+    @FunctionalInterface
+    interface Transaccion {
+        void ejecutar() throws SQLException;
+    }
+
+    /**
+     * Asigna los parámetros de una fila a una sentencia preparada.
+     *
+     * @param <T> El tipo de los elementos que se guardan.
+     */
+    @FunctionalInterface
+    interface AsignacionFila<T> {
+        void asignar(PreparedStatement sentencia, T elemento) throws SQLException;
+    }
+
+    private final String ruta;
+    private final String url;
+    private final boolean nueva;
+    private final OyenteComicSistema oyente;
+    private Connection conexion; // Mantiene la base abierta y aplica la configuración global
+    private long firma;
+
+    /**
+     * Abre la base de datos (o la crea si no existe) y crea las tablas que falten.
+     *
+     * @param ruta La ruta de la base de datos, sin la extensión {@value #EXTENSION_ARCHIVO}.
+     * @param oyente El oyente de los avisos de la base y de sus repositorios.
+     * @throws IOException Si no se puede abrir la base (e.g., otro proceso la está usando).
+     */
+    BaseDatosSql(String ruta, OyenteComicSistema oyente) throws IOException {
+        this.ruta = ruta;
+        this.oyente = oyente;
+        this.url = "jdbc:h2:file:" + ruta;
+        // La firma se toma antes de conectar: abrir la base puede escribir en el archivo
+        this.firma = calcularFirma();
+        this.nueva = !Files.exists(archivo());
+        try {
+            conexion = DriverManager.getConnection(url);
+            try (Statement sentencia = conexion.createStatement()) {
+                for (String ddl : ESQUEMA) {
+                    sentencia.execute(ddl);
+                }
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IOException("No se pudo abrir la base de datos " + ruta + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Abre una conexión nueva a la base, en modo de confirmación automática.
+     *
+     * @return La conexión; el llamador debe cerrarla.
+     * @throws SQLException Si no se puede conectar.
+     */
+    Connection conectar() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    /**
+     * Ejecuta un trabajo en una sola transacción: si falla, se deshace completo. Al terminar, la conexión vuelve
+     * al modo de confirmación automática.
+     *
+     * @param conexion La conexión.
+     * @param transaccion El trabajo.
+     * @throws SQLException Si el trabajo o el commit fallan.
+     */
+    static void enTransaccion(Connection conexion, Transaccion transaccion) throws SQLException {
+        conexion.setAutoCommit(false);
+        try {
+            transaccion.ejecutar();
+            conexion.commit();
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conexion.rollback();
+            } catch (SQLException errorRollback) {
+                e.addSuppressed(errorRollback);
+            }
+            throw e;
+        } finally {
+            conexion.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia preparada (una inserción o una actualización) una vez por elemento, enviándolos en lotes
+     * de JDBC de {@link Constantes#LOTE_ESCRITURA_SQL} filas. Debe llamarse dentro de una transacción.
+     *
+     * @param sentencia La sentencia.
+     * @param elementos Los elementos.
+     * @param asignacion Asigna los parámetros de cada fila.
+     * @param <T> El tipo de los elementos.
+     * @return El número de filas enviadas.
+     * @throws SQLException Si falla algún lote.
+     */
+    static <T> int ejecutarEnLotes(PreparedStatement sentencia, Iterable<T> elementos, AsignacionFila<T> asignacion) throws SQLException {
+        int total = 0;
+        int enLote = 0;
+        try {
+            for (T elemento : elementos) {
+                asignacion.asignar(sentencia, elemento);
+                sentencia.addBatch();
+                total++;
+                if (++enLote == Constantes.LOTE_ESCRITURA_SQL) {
+                    sentencia.executeBatch();
+                    enLote = 0;
+                }
+            }
+            if (enLote > 0) {
+                sentencia.executeBatch();
+            }
+        } finally {
+            sentencia.clearBatch();
+        }
+        return total;
+    }
+
+    /**
+     * Indica si el archivo de la base de datos no existía al abrirla.
+     *
+     * @return true si la base se creó vacía al abrirla.
+     */
+    boolean esNueva() {
+        return nueva;
+    }
+
+    /**
+     * Obtiene la firma del archivo de la base (tamaño y fecha de modificación): la que tenía antes de abrirla,
+     * o la que tiene después de cerrarla.
+     *
+     * @return La firma.
+     */
+    synchronized long firma() {
+        return firma;
+    }
+
+    /**
+     * Aplica la política de sincronización a toda la base: con {@link PoliticaSincronizacion#SIEMPRE} cada commit se
+     * escribe al archivo antes de retornar; con las demás, H2 agrupa las escrituras de los commits de hasta medio segundo.
+     *
+     * @param politica La política.
+     * @throws IOException Si no se puede aplicar.
+     */
+    synchronized void setPoliticaSincronizacion(PoliticaSincronizacion politica) throws IOException {
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("SET WRITE_DELAY " + (politica == PoliticaSincronizacion.SIEMPRE ? 0 : 500));
+        } catch (SQLException e) {
+            throw new IOException("No se pudo aplicar la política de sincronización: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Obtiene el oyente de los avisos de la base, que también usan sus repositorios.
+     *
+     * @return El oyente.
+     */
+    OyenteComicSistema getOyente() {
+        return oyente;
+    }
+
+    /**
+     * Obtiene el tamaño actual del archivo de la base de datos.
+     *
+     * @return El tamaño en bytes, o 0 si no se puede leer.
+     */
+    long tamanoArchivo() {
+        try {
+            return Files.size(archivo());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Cierra la conexión propia y, si era la última abierta, la base; después vuelve a calcular la firma.
+     * Los repositorios deben cerrarse antes.
+     */
+    @Override
+    public synchronized void close() {
+        if (conexion != null) {
+            try {
+                conexion.close();
+            } catch (SQLException e) {
+                oyente.notificar(EventoSistema.error("Error al cerrar la base de datos " + ruta + ": " + e.getMessage()));
+            }
+            conexion = null;
+        }
+        firma = calcularFirma();
+    }
+
+    private Path archivo() {
+        return Paths.get(ruta + EXTENSION_ARCHIVO);
+    }
+
+    private long calcularFirma() {
+        long tamano = -1;
+        long modificado = -1;
+        try {
+            tamano = Files.size(archivo());
+            modificado = Files.getLastModifiedTime(archivo()).toMillis();
+        } catch (IOException e) {
+            // El archivo no existe o no se puede leer
+        }
+        return 31 * (31 * 17 + tamano) + modificado;
+    }
+
+    @Override
+    public String toString() {
+        return archivo().toString();
+    }
+}
@@ -2,59 +2,530 @@ package gestores;
 
 import constantes.Constantes;
 import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import modelos.ResultadoLote;
 import modelos.Usuario;
 import excepciones.ComicNoEncontradoException;
 import excepciones.ComicYaVendidoException;
-import utilidades.CsvUtil;
+import excepciones.ReservaNoEncontradaException;
+import utilidades.CacheAcotada;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.EscritorLotesAsincrono;
+import utilidades.HistogramaLatencias;
+import utilidades.ModoAlmacenamiento;
+import utilidades.Pagina;
+import utilidades.PoliticaSincronizacion;
+import utilidades.RegistroMetricas;
+import utilidades.ResultadoEscritura;
+import utilidades.RuedaTemporizadora;
+import utilidades.TextoUtil;
+import utilidades.TipoPersistencia;
 
-import java.io.FileWriter;
+import javax.management.JMException;
+import javax.management.MBeanRegistrationException;
+import javax.management.ObjectName;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Clase principal que gestiona el inventario de cómics y la información de usuarios en el sistema ComicSistema.
  * Se encarga de las operaciones de agregar, eliminar, buscar, vender/reservar cómics,
- * así como de gestionar usuarios y la persistencia de datos a través de archivos CSV y logs.
+ * así como de gestionar usuarios y la persistencia de datos.
+ * <p>
+ * Los datos de trabajo viven en memoria; cada cambio se persiste a través de los repositorios de cómics, usuarios y
+ * ventas, que guardan los datos en archivos CSV o en una base de datos SQL embebida según la
+ * {@link ConfiguracionPersistencia} (ver {@link TipoPersistencia}).
+ * <p>
+ * La clase no escribe en la consola: las operaciones retornan sus resultados y los avisos (cómic agregado,
+ * ID duplicado, archivo que no se pudo leer...) se entregan como {@link EventoSistema} a un {@link OyenteComicSistema}.
+ * Los constructores sin oyente usan {@link OyenteComicSistema#CONSOLA}; para usarla como biblioteca o detrás de un
+ * servicio, se indica otro oyente (e.g., {@link OyenteComicSistema#SILENCIOSO}).
+ * <p>
+ * La clase es segura para uso concurrente:
+ * <ul>
+ *     <li>Los cambios estructurales del inventario (agregar, eliminar, compactar) toman el bloqueo de escritura
+ *     de {@code bloqueoInventario}; las búsquedas, ventas y cancelaciones toman el de lectura, así que no se
+ *     bloquean entre sí.</li>
+ *     <li>Los cambios de estado de un cómic se serializan con un bloqueo por franjas ({@code bloqueosComics}),
+ *     elegido según el ID normalizado: ventas de cómics distintos avanzan en paralelo y un mismo cómic
+ *     nunca puede venderse dos veces.</li>
+ *     <li>Los usuarios se guardan en mapas concurrentes; las altas y bajas se serializan con {@code bloqueoUsuarios}.</li>
+ *     <li>Los listados leen versiones inmutables: los de usuarios, índices persistentes que cada alta o baja
+ *     reemplaza (ver {@link IndiceUsuarios}); el de cómics, el estado de cada cómic al abrir el listado (ver {@link VersionesEstadoComics}).
+ *     Ninguno detiene las ventas ni ve cambios a medias.</li>
+ * </ul>
+ * <p>
+ * Las reservas ({@link #reservar}) vencen si no se confirman a tiempo. Sus vencimientos se guardan en una
+ * {@link RuedaTemporizadora} que un único hilo en segundo plano avanza cada {@link Constantes#TICK_RESERVAS_MS}
+ * milisegundos; las reservas vencidas en un tick vuelven a estar disponibles juntas, como un lote.
  */
-public class ComicSistema {
-    private ArrayList<Comic> comics;
-    private HashMap<String, Usuario> usuarios;
-    private HashSet<String> idsComicsRegistrados;
-    private HashSet<String> emailsRegistrados;
+public class ComicSistema implements AutoCloseable {
+    // Numera los sistemas abiertos en la JVM, para el nombre de su MBean de métricas
+    private static final AtomicInteger INSTANCIAS = new AtomicInteger();
+
+    // Índice primario por ID normalizado (ver TextoUtil#normalizarId) e índices por autor y estado.
+    // Conserva el orden de inserción para los listados.
+    private final AlmacenComics comics;
+    private final ConcurrentHashMap<String, Usuario> usuarios;
+    private final Set<String> emailsRegistrados;
+    // Índices inmutables de los usuarios por ID y por nombre, para los listados; se reemplazan con cada alta o baja
+    private volatile IndiceUsuarios indiceUsuarios = IndiceUsuarios.VACIO;
+    // Busca a los compradores de las ventas y reservas; en un sistema particionado, en la partición del usuario
+    private volatile Function<String, Usuario> directorioUsuarios = this::buscarUsuarioPorId;
+    // Estados anteriores de los cómics que cambian mientras se lista el inventario (ver listarComics)
+    private final VersionesEstadoComics versionesEstado = new VersionesEstadoComics();
+
+    private final ReentrantReadWriteLock bloqueoInventario = new ReentrantReadWriteLock();
+    private final ReentrantLock[] bloqueosComics;
+    private final ReentrantLock bloqueoUsuarios = new ReentrantLock();
+    // Número de cómics en cada estado, indexado por EstadoComic#ordinal(); se actualiza con cada cambio
+    private final AtomicLongArray comicsPorEstado = new AtomicLongArray(EstadoComic.values().length);
+    // Índice invertido de títulos y autores; se modifica solo con el bloqueo de escritura del inventario.
+    // Si el inventario se restauró de un almacenamiento en disco, se construye con la primera búsqueda por texto.
+    private final IndiceTexto indiceTexto = new IndiceTexto();
+    private volatile boolean indiceTextoConstruido;
+
+    private final ConfiguracionPersistencia configuracion;
+    private final Repositorios repositorios;
+    private final RepositorioComics repositorioComics;
+    private final RepositorioUsuarios repositorioUsuarios;
+    private final RepositorioVentas repositorioVentas;
+    // Reportes de ventas; se llenan recorriendo el libro al iniciar y se actualizan con cada venta y devolución
+    private final AnaliticaVentas analiticaVentas = new AnaliticaVentas();
+    private volatile OyenteComicSistema oyente;
+    // Vencimientos de las reservas: clave del cómic -> ID del titular. Se modifica con el bloqueo del cómic tomado
+    // (o el de escritura del inventario), de modo que una reserva no cambia mientras se decide si venció.
+    private final RuedaTemporizadora<String, String> reservas =
+            new RuedaTemporizadora<>(Constantes.TICK_RESERVAS_MS, Constantes.RANURAS_RESERVAS, System.currentTimeMillis());
+    private volatile Duration duracionReservas = Constantes.DURACION_RESERVAS;
+    private ScheduledExecutorService temporizadorReservas; // Se crea con la primera reserva; protegido por reservas
+    private PoliticaSincronizacion politicaSincronizacion;
+    private volatile ResultadoEscritura ultimaInstantaneaInventario;
+    private volatile ResultadoEscritura ultimaInstantaneaUsuarios;
+    // Se activa en close con los bloqueos del inventario y de los usuarios tomados (ver comprobarAbierto)
+    private volatile boolean cerrado;
+
+    // Métricas de las operaciones (ver getMetricas). Registrar una latencia no reserva memoria ni toma bloqueos.
+    private final RegistroMetricas metricas = new RegistroMetricas();
+    private final HistogramaLatencias latenciaVentas = metricas.histograma("comicgestion_venta_segundos",
+            "Duración de registrarVenta, incluidas las ventas rechazadas.");
+    private final LongAdder ventasRechazadas = metricas.contador("comicgestion_ventas_rechazadas_total",
+            "Ventas rechazadas: cómic inexistente u ocupado, o usuario inexistente.");
+    private final HistogramaLatencias latenciaDisponibles = metricas.histograma("comicgestion_disponible_segundos",
+            "Duración de cancelarReservaODeclararDisponible.");
+    private final HistogramaLatencias latenciaBusquedas = metricas.histograma("comicgestion_busqueda_id_segundos",
+            "Duración de buscarComicPorId.");
+    private final LongAdder busquedasSinResultado = metricas.contador("comicgestion_busquedas_id_sin_resultado_total",
+            "Búsquedas por ID de cómics que no existen.");
+    private final LongAdder eventosVenta = metricas.contador("comicgestion_eventos_venta_total",
+            "Eventos registrados en el historial de ventas (ventas, devoluciones, reservas y vencimientos).");
+    private final HistogramaLatencias latenciaInstantaneas = metricas.histograma("comicgestion_instantanea_inventario_segundos",
+            "Duración de guardarInventario: escritura de la instantánea del inventario completo.");
+    private final LongAdder errores = metricas.contador("comicgestion_errores_total",
+            "Avisos de error (escrituras fallidas, datos inválidos).");
+    private volatile long nanosCargaComics;
+    private volatile long nanosCargaUsuarios;
+    private volatile long nanosCargaHistorial;
+    private final ObjectName nombreJmx;
 
     /**
      * Constructor de ComicSistema.
-     * Inicializa las colecciones de cómics y usuarios, y carga los datos existentes
-     * desde los archivos CSV al iniciar el sistema.
+     * Inicializa las colecciones de cómics y usuarios, y carga los datos existentes al iniciar el sistema,
+     * con la persistencia indicada por las propiedades del sistema (ver {@link ConfiguracionPersistencia#desdePropiedadesSistema()}).
      */
     public ComicSistema() {
-        this.comics = new ArrayList<>();
-        this.usuarios = new HashMap<>();
-        this.idsComicsRegistrados = new HashSet<>();
-        this.emailsRegistrados = new HashSet<>();
-        cargarComicsDesdeCSV();
-        cargarUsuariosDesdeCSV();
+        this(ConfiguracionPersistencia.desdePropiedadesSistema());
+    }
+
+    /**
+     * Constructor de ComicSistema que permite indicar las rutas de los archivos de datos.
+     * Útil para pruebas o para trabajar con un directorio de datos distinto al de {@link Constantes}.
+     *
+     * @param rutaComicsCsv La ruta del archivo CSV de cómics.
+     * @param rutaUsuariosCsv La ruta del archivo CSV de usuarios.
+     * @param rutaVentasLog La ruta del archivo de log de ventas.
+     */
+    public ComicSistema(String rutaComicsCsv, String rutaUsuariosCsv, String rutaVentasLog) {
+        this(rutaComicsCsv, rutaUsuariosCsv, rutaVentasLog, Constantes.MODO_ALMACENAMIENTO);
+    }
+
+    /**
+     * Constructor de ComicSistema que permite indicar las rutas de los archivos de datos y cómo se guarda
+     * el inventario en memoria.
+     *
+     * @param rutaComicsCsv La ruta del archivo CSV de cómics.
+     * @param rutaUsuariosCsv La ruta del archivo CSV de usuarios.
+     * @param rutaVentasLog La ruta del archivo de log de ventas.
+     * @param modoAlmacenamiento El modo de almacenamiento del inventario (ver {@link ModoAlmacenamiento}).
+     */
+    public ComicSistema(String rutaComicsCsv, String rutaUsuariosCsv, String rutaVentasLog, ModoAlmacenamiento modoAlmacenamiento) {
+        this(ConfiguracionPersistencia.csv(rutaComicsCsv, rutaUsuariosCsv, rutaVentasLog), modoAlmacenamiento);
+    }
+
+    /**
+     * Constructor de ComicSistema que persiste los datos según la configuración indicada.
+     *
+     * @param configuracion El tipo de persistencia y la ubicación de los datos.
+     * @throws UncheckedIOException Si no se puede abrir la base de datos SQL.
+     */
+    public ComicSistema(ConfiguracionPersistencia configuracion) {
+        this(configuracion, Constantes.MODO_ALMACENAMIENTO);
+    }
+
+    /**
+     * Constructor de ComicSistema que persiste los datos según la configuración indicada y guarda el inventario
+     * en memoria en el modo indicado.
+     *
+     * @param configuracion El tipo de persistencia y la ubicación de los datos.
+     * @param modoAlmacenamiento El modo de almacenamiento del inventario (ver {@link ModoAlmacenamiento}).
+     * @throws UncheckedIOException Si no se puede abrir la base de datos SQL.
+     */
+    public ComicSistema(ConfiguracionPersistencia configuracion, ModoAlmacenamiento modoAlmacenamiento) {
+        this(configuracion, modoAlmacenamiento, OyenteComicSistema.CONSOLA);
+    }
+
+    /**
+     * Constructor de ComicSistema que persiste los datos según la configuración indicada, guarda el inventario
+     * en memoria en el modo indicado y entrega sus avisos al oyente indicado, incluidos los de la carga inicial.
+     *
+     * @param configuracion El tipo de persistencia y la ubicación de los datos.
+     * @param modoAlmacenamiento El modo de almacenamiento del inventario (ver {@link ModoAlmacenamiento}).
+     * @param oyente El oyente de los avisos del sistema.
+     * @throws UncheckedIOException Si no se puede abrir la base de datos SQL.
+     */
+    public ComicSistema(ConfiguracionPersistencia configuracion, ModoAlmacenamiento modoAlmacenamiento, OyenteComicSistema oyente) {
+        this.configuracion = Objects.requireNonNull(configuracion, "La configuración de persistencia no puede ser nula.");
+        Objects.requireNonNull(modoAlmacenamiento, "El modo de almacenamiento no puede ser nulo.");
+        this.oyente = Objects.requireNonNull(oyente, "El oyente no puede ser nulo.");
+        this.politicaSincronizacion = Constantes.POLITICA_SINCRONIZACION;
+        this.repositorios = abrirRepositorios(configuracion, politicaSincronizacion, this::notificar);
+        this.repositorioComics = repositorios.comics;
+        this.repositorioUsuarios = repositorios.usuarios;
+        this.repositorioVentas = repositorios.ventas;
+        this.comics = crearAlmacen(modoAlmacenamiento, configuracion.getRutaAlmacenMapeado(), this::notificar);
+        this.usuarios = new ConcurrentHashMap<>();
+        this.emailsRegistrados = ConcurrentHashMap.newKeySet();
+        this.bloqueosComics = new ReentrantLock[Constantes.NUMERO_BLOQUEOS_COMICS];
+        for (int i = 0; i < bloqueosComics.length; i++) {
+            bloqueosComics[i] = new ReentrantLock();
+        }
+        cargarDatos();
+        long inicio = System.nanoTime();
+        cargarHistorial();
+        nanosCargaHistorial = System.nanoTime() - inicio;
+        registrarMedidores();
+        this.nombreJmx = registrarJmx();
+    }
+
+    /**
+     * Registra los medidores: duración de las cargas, tamaño de las instantáneas, cómics por estado, usuarios,
+     * reservas, profundidad de la cola del log de ventas y, si el inventario la usa, la caché de cómics.
+     */
+    private void registrarMedidores() {
+        metricas.medidor("comicgestion_carga_comics_segundos", "Duración de la carga del inventario al iniciar.",
+                () -> nanosCargaComics / 1e9);
+        metricas.medidor("comicgestion_carga_usuarios_segundos", "Duración de la carga de los usuarios al iniciar.",
+                () -> nanosCargaUsuarios / 1e9);
+        metricas.medidor("comicgestion_carga_historial_segundos", "Duración del recorrido del historial de ventas al iniciar.",
+                () -> nanosCargaHistorial / 1e9);
+        metricas.medidor("comicgestion_instantanea_inventario_bytes", "Tamaño de la última instantánea del inventario.",
+                () -> ultimaInstantaneaInventario == null ? 0 : ultimaInstantaneaInventario.getBytesEscritos());
+        metricas.medidor("comicgestion_instantanea_usuarios_bytes", "Tamaño de la última instantánea de los usuarios.",
+                () -> ultimaInstantaneaUsuarios == null ? 0 : ultimaInstantaneaUsuarios.getBytesEscritos());
+        for (EstadoComic estado : EstadoComic.values()) {
+            metricas.medidor("comicgestion_comics_" + estado.name().toLowerCase(), "Cómics del inventario en estado " + estado + ".",
+                    () -> comicsPorEstado.get(estado.ordinal()));
+        }
+        metricas.medidor("comicgestion_usuarios", "Usuarios registrados.", usuarios::size);
+        metricas.medidor("comicgestion_reservas_vigentes", "Reservas pendientes de confirmar o vencer.", reservas::tamano);
+        EscritorLotesAsincrono<?> log = repositorioVentas.getEscritor();
+        if (log != null) {
+            metricas.medidor("comicgestion_cola_log_ventas", "Eventos de venta encolados pendientes de escribir.",
+                    log::getRegistrosPendientes);
+            metricas.medidor("comicgestion_cola_log_ventas_esperas", "Registros que esperaron por la cola del log llena.",
+                    log::getEsperasPorColaLlena);
+        }
+        if (comics instanceof AlmacenComicsEnCache) {
+            AlmacenComicsEnCache cache = (AlmacenComicsEnCache) comics;
+            metricas.medidor("comicgestion_cache_comics_aciertos", "Búsquedas por ID resueltas por la caché de cómics.",
+                    () -> cache.getEstadisticas().getAciertos());
+            metricas.medidor("comicgestion_cache_comics_fallos", "Búsquedas por ID que leyeron el almacenamiento.",
+                    () -> cache.getEstadisticas().getFallos());
+            metricas.medidor("comicgestion_cache_comics_desalojos", "Cómics desalojados de la caché o no admitidos.",
+                    () -> cache.getEstadisticas().getDesalojos());
+        }
+    }
+
+    /**
+     * Registra las métricas como un MBean de JMX, con un nombre distinto por cada sistema abierto en la JVM.
+     *
+     * @return El nombre del MBean, o null si no se pudo registrar.
+     */
+    private ObjectName registrarJmx() {
+        try {
+            ObjectName nombre = new ObjectName(Constantes.DOMINIO_JMX + ":type=ComicSistema,name=" + INSTANCIAS.incrementAndGet());
+            metricas.registrarJmx(nombre);
+            return nombre;
+        } catch (JMException e) {
+            notificar(EventoSistema.advertencia("Advertencia: No se pudieron registrar las métricas en JMX. Mensaje: " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Abre los repositorios del tipo de persistencia configurado.
+     *
+     * @param configuracion La configuración de persistencia.
+     * @param politica La política de sincronización inicial.
+     * @param oyente El oyente de los avisos de los repositorios.
+     * @return Los repositorios.
+     * @throws UncheckedIOException Si no se puede abrir la base de datos SQL. No se recurre a los archivos CSV,
+     * porque sus datos pueden no coincidir con los de la base.
+     */
+    private static Repositorios abrirRepositorios(ConfiguracionPersistencia configuracion, PoliticaSincronizacion politica,
+                                                  OyenteComicSistema oyente) {
+        if (configuracion.getTipo() != TipoPersistencia.SQL) {
+            return Repositorios.abrirCsv(configuracion, politica, oyente);
+        }
+        try {
+            return Repositorios.abrirSql(configuracion, politica, oyente);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Crea el almacenamiento del inventario para el modo indicado. Si el almacenamiento mapeado no se puede abrir
+     * (e.g., otro sistema está usando sus archivos), el inventario se guarda en memoria en modo compacto.
+     *
+     * @param modo El modo de almacenamiento.
+     * @param rutaMapa La ruta base de los archivos mapeados.
+     * @param oyente El oyente al que se avisa si se usa el modo compacto en lugar del mapeado.
+     * @return El almacenamiento, aún sin cargar.
+     */
+    private static AlmacenComics crearAlmacen(ModoAlmacenamiento modo, String rutaMapa, OyenteComicSistema oyente) {
+        switch (modo) {
+            case COMPACTO:
+                return new AlmacenComicsCompacto();
+            case MAPEADO:
+                try {
+                    return new AlmacenComicsEnCache(new AlmacenComicsMapeado(rutaMapa), Constantes.CAPACIDAD_CACHE_COMICS);
+                } catch (IOException e) {
+                    oyente.notificar(EventoSistema.advertencia("Advertencia: No se pudo abrir el almacenamiento mapeado " + rutaMapa
+                            + ". El inventario se guardará en memoria en modo compacto. Mensaje: " + e.getMessage()));
+                    return new AlmacenComicsCompacto();
+                }
+            default:
+                return new AlmacenComicsObjetos();
+        }
+    }
+
+    /**
+     * Establece la política de sincronización con el disco para las escrituras de cómics y usuarios
+     * (con persistencia CSV, las instantáneas y el diario del inventario).
+     *
+     * @param politicaSincronizacion La nueva política de sincronización.
+     */
+    public void setPoliticaSincronizacion(PoliticaSincronizacion politicaSincronizacion) {
+        this.politicaSincronizacion = Objects.requireNonNull(politicaSincronizacion, "La política de sincronización no puede ser nula.");
+        repositorioComics.setPoliticaSincronizacion(politicaSincronizacion);
+        repositorioUsuarios.setPoliticaSincronizacion(politicaSincronizacion);
+    }
+
+    /**
+     * Establece el oyente que recibe los avisos del sistema a partir de ahora.
+     *
+     * @param oyente El nuevo oyente; {@link OyenteComicSistema#SILENCIOSO} para no recibir avisos.
+     */
+    public void setOyente(OyenteComicSistema oyente) {
+        this.oyente = Objects.requireNonNull(oyente, "El oyente no puede ser nulo.");
+    }
+
+    /**
+     * Entrega un aviso al oyente actual.
+     *
+     * @param evento El aviso.
+     */
+    private void notificar(EventoSistema evento) {
+        if (evento.getNivel() == EventoSistema.Nivel.ERROR) {
+            errores.increment();
+        }
+        oyente.notificar(evento);
+    }
+
+    /**
+     * Establece cuánto dura una reserva si no se confirma. Se aplica a las reservas hechas a partir de ahora;
+     * las restauradas del historial al iniciar usan {@link Constantes#DURACION_RESERVAS}.
+     *
+     * @param duracionReservas La nueva duración.
+     * @throws IllegalArgumentException Si la duración no es positiva.
+     */
+    public void setDuracionReservas(Duration duracionReservas) {
+        Objects.requireNonNull(duracionReservas, "La duración de las reservas no puede ser nula.");
+        if (duracionReservas.isNegative() || duracionReservas.isZero()) {
+            throw new IllegalArgumentException("La duración de las reservas debe ser positiva.");
+        }
+        this.duracionReservas = duracionReservas;
+    }
+
+    /**
+     * Obtiene cuánto dura una reserva si no se confirma.
+     *
+     * @return La duración de las reservas nuevas.
+     */
+    public Duration getDuracionReservas() {
+        return duracionReservas;
+    }
+
+    /**
+     * Obtiene la configuración de persistencia con la que se creó el sistema.
+     *
+     * @return La configuración.
+     */
+    public ConfiguracionPersistencia getConfiguracionPersistencia() {
+        return configuracion;
+    }
+
+    /**
+     * Obtiene las métricas del sistema: latencias de las ventas, devoluciones, búsquedas por ID e instantáneas,
+     * contadores de eventos y errores, y medidores del inventario y de la cola del log de ventas.
+     * Se exportan también como un MBean de JMX del dominio {@link Constantes#DOMINIO_JMX} mientras el sistema esté abierto.
+     *
+     * @return El registro de métricas.
+     */
+    public RegistroMetricas getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Obtiene los contadores de la caché de lecturas por ID que se usa delante del almacenamiento mapeado
+     * (ver {@link ModoAlmacenamiento#MAPEADO}).
+     *
+     * @return Los aciertos, fallos y desalojos de la caché, o null si el inventario no usa caché (está en memoria).
+     */
+    public CacheAcotada.Estadisticas getEstadisticasCacheComics() {
+        return comics instanceof AlmacenComicsEnCache ? ((AlmacenComicsEnCache) comics).getEstadisticas() : null;
+    }
+
+    /**
+     * Obtiene el resultado (bytes escritos y duración) de la última instantánea del inventario guardada.
+     *
+     * @return El resultado de la última escritura del inventario completo, o null si aún no se ha guardado ninguna.
+     */
+    public ResultadoEscritura getUltimaInstantaneaInventario() {
+        return ultimaInstantaneaInventario;
+    }
+
+    /**
+     * Obtiene el resultado (bytes escritos y duración) de la última instantánea de usuarios guardada.
+     *
+     * @return El resultado de la última escritura de todos los usuarios, o null si aún no se ha guardado ninguna.
+     */
+    public ResultadoEscritura getUltimaInstantaneaUsuarios() {
+        return ultimaInstantaneaUsuarios;
     }
 
     // --- Métodos de Gestión de Cómics ---
 
     /**
      * Agrega un nuevo cómic al inventario del sistema.
-     * Si ya existe un cómic con el mismo ID, no se añade y se imprime un mensaje.
+     * Si ya existe un cómic con el mismo ID, no se añade y se avisa con {@link EventoSistema.Tipo#COMIC_DUPLICADO}.
      *
      * @param comic El objeto Comic a agregar.
+     * @return true si el cómic se agregó, false si su ID ya existía.
      */
-    public void agregarComic(Comic comic) {
-        if (idsComicsRegistrados.contains(comic.getId())) {
-            System.out.println("El cómic con ID: " + comic.getId() + " ya existe. No se puede registrar el mismo ID nuevamente.");
-            return;
+    public boolean agregarComic(Comic comic) {
+        String clave = TextoUtil.normalizarId(comic.getId());
+        boolean compactar;
+        bloqueoInventario.writeLock().lock();
+        try {
+            comprobarAbierto();
+            if (comics.contiene(clave)) {
+                notificar(EventoSistema.deComic(EventoSistema.Tipo.COMIC_DUPLICADO, comic));
+                return false;
+            }
+            Comic guardado = comics.agregar(clave, comic);
+            comicsPorEstado.incrementAndGet(comic.getEstado().ordinal());
+            if (indiceTextoConstruido) {
+                indiceTexto.agregar(guardado);
+            }
+            compactar = registrarCambio(() -> repositorioComics.registrarAlta(comic));
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+        notificar(EventoSistema.deComic(EventoSistema.Tipo.COMIC_AGREGADO, comic));
+        if (compactar) {
+            compactarInventario();
         }
-        this.comics.add(comic);
-        this.idsComicsRegistrados.add(comic.getId());
-        System.out.println("Cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") agregado al inventario.");
-        guardarInventario(); // Guarda los cambios inmediatamente
+        return true;
+    }
+
+    /**
+     * Agrega varios cómics al inventario como un solo cambio.
+     * Primero se valida el lote completo: se rechazan los cómics nulos, los que tienen el ID de un cómic del inventario
+     * y los que repiten el ID de otro cómic del lote (sin distinguir mayúsculas). Los demás se agregan juntos, bajo el
+     * bloqueo de escritura del inventario, así que ninguna búsqueda ve el lote a medias, y se persisten con una sola
+     * escritura: un lote del diario (o, si el lote alcanza el umbral de compactación, una instantánea completa).
+     * No avisa al oyente por cada cómic; el resultado informa qué se agregó.
+     *
+     * @param nuevos Los cómics a agregar.
+     * @return El resultado de cada cómic, en el orden del lote.
+     */
+    public ResultadoLote agregarComics(Collection<Comic> nuevos) {
+        Objects.requireNonNull(nuevos, "El lote de cómics no puede ser nulo.");
+        List<ResultadoLote.Elemento> resultados = new ArrayList<>(nuevos.size());
+        bloqueoInventario.writeLock().lock();
+        try {
+            comprobarAbierto();
+            Map<String, Comic> aceptados = new LinkedHashMap<>();
+            for (Comic comic : nuevos) {
+                if (comic == null) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(null, "El cómic es nulo."));
+                    continue;
+                }
+                String clave = TextoUtil.normalizarId(comic.getId());
+                if (comics.contiene(clave)) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(comic.getId(), "Ya existe un cómic con ese ID."));
+                } else if (aceptados.putIfAbsent(clave, comic) != null) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(comic.getId(), "El ID está repetido en el lote."));
+                } else {
+                    resultados.add(ResultadoLote.Elemento.aplicado(comic.getId()));
+                }
+            }
+            if (aceptados.isEmpty()) {
+                return new ResultadoLote(resultados);
+            }
+            for (Map.Entry<String, Comic> entrada : aceptados.entrySet()) {
+                Comic guardado = comics.agregar(entrada.getKey(), entrada.getValue());
+                comicsPorEstado.incrementAndGet(guardado.getEstado().ordinal());
+                if (indiceTextoConstruido) {
+                    indiceTexto.agregar(guardado);
+                }
+            }
+            registrarLote(aceptados.size(), () -> repositorioComics.registrarAltas(aceptados.values()));
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+        return new ResultadoLote(resultados);
     }
 
     /**
@@ -64,198 +535,1077 @@ public class ComicSistema {
      * @return true si el cómic fue encontrado y eliminado, false en caso contrario.
      */
     public boolean eliminarComic(String id) {
-        Comic comicAEliminar = null;
-        for (Comic comic : comics) {
-            if (comic.getId().equalsIgnoreCase(id)) {
-                comicAEliminar = comic;
-                break;
+        Comic comicAEliminar;
+        boolean compactar;
+        // El bloqueo de escritura excluye ventas y cancelaciones, así que el estado no cambia entre la verificación y la baja
+        bloqueoInventario.writeLock().lock();
+        try {
+            comprobarAbierto();
+            comicAEliminar = buscarComicPorId(id);
+            if (comicAEliminar == null) {
+                notificar(EventoSistema.deIdComic(EventoSistema.Tipo.COMIC_NO_ENCONTRADO, id));
+                return false;
             }
-        }
-
-        if (comicAEliminar != null) {
             // Verificar si el cómic está vendido/reservado antes de eliminar (opcional, dependiendo de la lógica de negocio)
-            if ("vendido".equalsIgnoreCase(comicAEliminar.getEstado()) || "reservado".equalsIgnoreCase(comicAEliminar.getEstado())) {
-                System.out.println("No se puede eliminar el cómic con ID '" + id + "' porque está actualmente vendido/reservado.");
+            if (comicAEliminar.getEstado().estaOcupado()) {
+                notificar(EventoSistema.deIdComic(EventoSistema.Tipo.COMIC_OCUPADO, id));
                 return false;
             }
 
-            comics.remove(comicAEliminar);
-            idsComicsRegistrados.remove(comicAEliminar.getId());
-            System.out.println("Cómic '" + comicAEliminar.getTitulo() + "' (ID: " + comicAEliminar.getId() + ") eliminado del inventario.");
-            guardarInventario(); // Guarda los cambios inmediatamente
-            return true;
-        } else {
-            System.out.println("Cómic con ID '" + id + "' no encontrado para eliminar.");
-            return false;
+            String clave = TextoUtil.normalizarId(comicAEliminar.getId());
+            // El índice de texto guarda los cómics tal como los retorna el almacenamiento, no los de la caché
+            Comic eliminado = comics.eliminar(clave);
+            comicsPorEstado.decrementAndGet(comicAEliminar.getEstado().ordinal());
+            if (indiceTextoConstruido) {
+                indiceTexto.eliminar(eliminado);
+            }
+            compactar = registrarCambio(() -> repositorioComics.registrarBaja(comicAEliminar.getId()));
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+        notificar(EventoSistema.deComic(EventoSistema.Tipo.COMIC_ELIMINADO, comicAEliminar));
+        if (compactar) {
+            compactarInventario();
         }
+        return true;
     }
 
     /**
-     * Busca un cómic por su ID.
+     * Busca un cómic por su ID, sin distinguir mayúsculas de minúsculas.
+     * La búsqueda se resuelve en tiempo constante a través del índice por ID normalizado.
      *
      * @param id El ID del cómic a buscar.
      * @return El objeto Comic si es encontrado, o null si no existe.
      */
     public Comic buscarComicPorId(String id) {
-        for (Comic comic : comics) {
-            if (comic.getId().equalsIgnoreCase(id)) {
-                return comic;
+        if (id == null) {
+            return null;
+        }
+        long inicio = System.nanoTime();
+        String clave = TextoUtil.normalizarId(id);
+        Comic comic;
+        bloqueoInventario.readLock().lock();
+        try {
+            comic = comics.obtener(clave);
+        } finally {
+            bloqueoInventario.readLock().unlock();
+        }
+        if (comic == null) {
+            busquedasSinResultado.increment();
+        }
+        latenciaBusquedas.registrarDesde(inicio);
+        return comic;
+    }
+
+    /**
+     * Obtiene el bloqueo de la franja que protege los cambios de estado del cómic con la clave indicada.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @return El bloqueo de la franja correspondiente.
+     */
+    private ReentrantLock bloqueoComic(String clave) {
+        int h = clave.hashCode();
+        return bloqueosComics[(h ^ (h >>> 16)) & (bloqueosComics.length - 1)];
+    }
+
+    /**
+     * Cambia el estado de un cómic del inventario y actualiza los conteos y los índices por estado.
+     * Debe llamarse con el bloqueo del cómic tomado.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param comic El cómic a modificar.
+     * @param nuevoEstado El nuevo estado.
+     */
+    private void cambiarEstado(String clave, Comic comic, EstadoComic nuevoEstado) {
+        EstadoComic anterior = comic.getEstado();
+        VersionesEstadoComics.Cambio cambio = versionesEstado.antesDeCambiar(clave, anterior);
+        try {
+            comic.setEstado(nuevoEstado);
+        } finally {
+            versionesEstado.despuesDeCambiar(clave, cambio);
+        }
+        comicsPorEstado.decrementAndGet(anterior.ordinal());
+        comicsPorEstado.incrementAndGet(nuevoEstado.ordinal());
+        comics.estadoCambiado(clave, comic, anterior);
+    }
+
+    /**
+     * Obtiene el número de cómics del inventario que están en el estado indicado, sin recorrer el inventario.
+     *
+     * @param estado El estado a contar.
+     * @return El número de cómics en ese estado.
+     */
+    public long contarComics(EstadoComic estado) {
+        return comicsPorEstado.get(estado.ordinal());
+    }
+
+    /**
+     * Busca cómics por autor, por estado, o por ambos, y retorna una página de resultados.
+     * Las búsquedas usan índices secundarios, por lo que su costo depende del número de resultados
+     * y no del tamaño del inventario. Sin filtros, se recorre el inventario en orden de inserción.
+     *
+     * @param autor El autor a buscar, sin distinguir mayúsculas ni espacios repetidos; null para no filtrar por autor.
+     * @param estado El estado a buscar; null para no filtrar por estado.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de cómics que cumplen los filtros.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public Pagina<Comic> buscarComics(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        bloqueoInventario.readLock().lock();
+        try {
+            if (autor == null && estado == null) {
+                return Pagina.desde(List.of(comics.comics()), numeroPagina, tamanoPagina);
             }
+            return comics.consultar(autor, estado, numeroPagina, tamanoPagina);
+        } finally {
+            bloqueoInventario.readLock().unlock();
         }
-        return null;
     }
 
     /**
-     * Lista todos los cómics disponibles en el inventario.
-     * Si no hay cómics, imprime un mensaje indicándolo.
+     * Busca cómics por texto en su título y su autor, sin distinguir mayúsculas ni acentos.
+     * Cada palabra de la consulta debe aparecer en el título o en el autor, completa o como inicio de una palabra
+     * (e.g., "sand prel" encuentra "Sandman Vol. 1: Preludios y Nocturnos"). Los resultados se ordenan por relevancia:
+     * primero las coincidencias exactas y las del título.
+     *
+     * @param consulta El texto a buscar.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de cómics que coinciden con la consulta.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
      */
-    public void listarComics() {
-        if (comics.isEmpty()) {
-            System.out.println("El inventario de cómics está vacío.");
-            return;
+    public Pagina<Comic> buscarPorTexto(String consulta, int numeroPagina, int tamanoPagina) {
+        if (!indiceTextoConstruido) {
+            construirIndiceTexto();
         }
-        System.out.println("\n--- Listado de Cómics en Inventario ---");
-        for (Comic comic : comics) {
-            System.out.println(comic);
+        bloqueoInventario.readLock().lock();
+        try {
+            return indiceTexto.buscar(consulta, numeroPagina, tamanoPagina);
+        } finally {
+            bloqueoInventario.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca cómics por texto como {@link #buscarPorTexto}, pero retorna los primeros resultados con sus puntajes,
+     * para que {@link ComicSistemaParticionado} combine por relevancia los resultados de sus particiones.
+     *
+     * @param consulta El texto a buscar.
+     * @param limite El número máximo de resultados.
+     * @return Los primeros resultados, sus puntajes y el total de coincidencias.
+     */
+    IndiceTexto.Puntuados buscarPorTextoPuntuados(String consulta, int limite) {
+        if (!indiceTextoConstruido) {
+            construirIndiceTexto();
+        }
+        bloqueoInventario.readLock().lock();
+        try {
+            return indiceTexto.buscarPuntuados(consulta, limite);
+        } finally {
+            bloqueoInventario.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lista todos los cómics del inventario, en orden de inserción, tal como estaban al llamar al método.
+     * Las ventas y cancelaciones pueden seguir mientras se arma el listado: no lo modifican, porque el estado de
+     * cada cómic se lee en la versión abierta al inicio (ver {@link VersionesEstadoComics}). Sí esperan los cambios
+     * estructurales (agregar, eliminar), como en las búsquedas.
+     *
+     * @return Una lista inmutable de copias inmutables de los cómics; vacía si el inventario está vacío.
+     */
+    public List<Comic> listarComics() {
+        bloqueoInventario.readLock().lock();
+        long version = versionesEstado.abrir();
+        try {
+            Collection<Comic> guardados = comics.comics();
+            List<Comic> listado = new ArrayList<>(guardados.size());
+            for (Comic comic : guardados) {
+                EstadoComic estado = comic.getEstado(); // Se lee antes que los cambios que lo deshacen
+                if (versionesEstado.hayCambios()) {
+                    estado = versionesEstado.estadoEn(TextoUtil.normalizarId(comic.getId()), estado, version);
+                }
+                listado.add(VersionesEstadoComics.congelar(comic, estado));
+            }
+            return Collections.unmodifiableList(listado);
+        } finally {
+            versionesEstado.cerrar(version);
+            bloqueoInventario.readLock().unlock();
         }
-        System.out.println("---------------------------------------");
     }
 
     /**
-     * Registra una venta o reserva de un cómic a un usuario.
+     * Registra la venta de un cómic a un usuario.
      * Cambia el estado del cómic a "vendido" y registra la transacción.
+     * La verificación del estado y el cambio se hacen bajo el bloqueo del cómic, por lo que si dos compradores
+     * intentan comprar el mismo cómic a la vez, exactamente uno lo consigue y el otro recibe {@link ComicYaVendidoException}.
      *
-     * @param idComic El ID del cómic a vender/reservar.
-     * @param idUsuario El ID del usuario que realiza la compra/reserva.
+     * @param idComic El ID del cómic a vender.
+     * @param idUsuario El ID del usuario que realiza la compra.
+     * @return El evento de venta registrado en el historial.
      * @throws ComicNoEncontradoException Si el cómic no existe en el inventario.
      * @throws ComicYaVendidoException Si el cómic ya ha sido vendido o reservado.
      * @throws IllegalArgumentException Si el usuario no existe.
      */
-    public void registrarVenta(String idComic, String idUsuario) throws ComicNoEncontradoException, ComicYaVendidoException {
-        Comic comic = buscarComicPorId(idComic);
-        if (comic == null) {
-            throw new ComicNoEncontradoException("El cómic con ID '" + idComic + "' no se encuentra en el inventario.");
+    public EventoVenta registrarVenta(String idComic, String idUsuario) throws ComicNoEncontradoException, ComicYaVendidoException {
+        long inicio = System.nanoTime();
+        try {
+            return ocuparComic(idComic, idUsuario, EstadoComic.VENDIDO);
+        } catch (ComicNoEncontradoException | ComicYaVendidoException | IllegalArgumentException e) {
+            ventasRechazadas.increment();
+            throw e;
+        } finally {
+            latenciaVentas.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Reserva un cómic a un usuario por el tiempo indicado con {@link #setDuracionReservas}.
+     * Cambia el estado del cómic a "reservado" y registra la reserva en el historial. Si no se confirma
+     * con {@link #confirmarReserva} ni se cancela antes de vencer, el cómic vuelve a estar disponible solo,
+     * y el vencimiento queda en el historial como un evento {@link EventoVenta.Tipo#EXPIRACION}.
+     *
+     * @param idComic El ID del cómic a reservar.
+     * @param idUsuario El ID del usuario que realiza la reserva.
+     * @return El evento de reserva registrado en el historial.
+     * @throws ComicNoEncontradoException Si el cómic no existe en el inventario.
+     * @throws ComicYaVendidoException Si el cómic ya ha sido vendido o reservado.
+     * @throws IllegalArgumentException Si el usuario no existe.
+     */
+    public EventoVenta reservar(String idComic, String idUsuario) throws ComicNoEncontradoException, ComicYaVendidoException {
+        return ocuparComic(idComic, idUsuario, EstadoComic.RESERVADO);
+    }
+
+    /**
+     * Vende o reserva un cómic disponible a un usuario (ver {@link #registrarVenta} y {@link #reservar}).
+     *
+     * @param idComic El ID del cómic.
+     * @param idUsuario El ID del usuario.
+     * @param nuevoEstado {@link EstadoComic#VENDIDO} o {@link EstadoComic#RESERVADO}.
+     * @return El evento de venta o de reserva registrado en el historial.
+     */
+    private EventoVenta ocuparComic(String idComic, String idUsuario, EstadoComic nuevoEstado)
+            throws ComicNoEncontradoException, ComicYaVendidoException {
+        String clave = idComic == null ? null : TextoUtil.normalizarId(idComic);
+        Comic comic;
+        Usuario usuario;
+        EventoVenta evento;
+        boolean compactar;
+        bloqueoInventario.readLock().lock();
+        try {
+            comprobarAbierto();
+            comic = clave == null ? null : comics.obtener(clave);
+            if (comic == null) {
+                throw new ComicNoEncontradoException("El cómic con ID '" + idComic + "' no se encuentra en el inventario.");
+            }
+
+            ReentrantLock bloqueo = bloqueoComic(clave);
+            bloqueo.lock();
+            try {
+                if (comic.getEstado().estaOcupado()) {
+                    throw new ComicYaVendidoException("El cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") ya ha sido vendido o reservado.");
+                }
+
+                usuario = directorioUsuarios.apply(idUsuario);
+                if (usuario == null) {
+                    throw new IllegalArgumentException("El usuario con ID '" + idUsuario + "' no existe. Por favor, registre al usuario primero.");
+                }
+
+                cambiarEstado(clave, comic, nuevoEstado);
+                if (nuevoEstado == EstadoComic.RESERVADO) {
+                    programarVencimiento(clave, usuario.getId(), System.currentTimeMillis() + duracionReservas.toMillis());
+                }
+                compactar = registrarCambio(() -> repositorioComics.registrarCambioEstado(comic.getId(), nuevoEstado));
+                evento = nuevoEstado == EstadoComic.VENDIDO ? EventoVenta.venta(comic, usuario) : EventoVenta.reserva(comic, usuario);
+                guardarEventoVenta(evento, comic.getAutor());
+            } finally {
+                bloqueo.unlock();
+            }
+        } finally {
+            bloqueoInventario.readLock().unlock();
+        }
+        if (compactar) {
+            compactarInventario();
+        }
+
+        notificar(nuevoEstado == EstadoComic.VENDIDO ? EventoSistema.venta(comic, usuario) : EventoSistema.reserva(comic, usuario));
+        return evento;
+    }
+
+    /**
+     * Confirma la reserva de un cómic: lo vende al usuario que lo reservó y cancela el vencimiento de la reserva.
+     * Las reservas anteriores a los vencimientos (cómics que ya estaban reservados en el CSV, sin un evento de reserva
+     * en el historial) no tienen titular conocido y las puede confirmar cualquier usuario.
+     *
+     * @param idComic El ID del cómic reservado.
+     * @param idUsuario El ID del usuario que hizo la reserva.
+     * @return El evento de venta registrado en el historial.
+     * @throws ComicNoEncontradoException Si el cómic no existe en el inventario.
+     * @throws ReservaNoEncontradaException Si el cómic no está reservado (e.g., la reserva ya venció) o lo reservó otro usuario.
+     * @throws IllegalArgumentException Si el usuario no existe.
+     */
+    public EventoVenta confirmarReserva(String idComic, String idUsuario) throws ComicNoEncontradoException, ReservaNoEncontradaException {
+        String clave = idComic == null ? null : TextoUtil.normalizarId(idComic);
+        Comic comic;
+        Usuario usuario;
+        EventoVenta evento;
+        boolean compactar;
+        bloqueoInventario.readLock().lock();
+        try {
+            comprobarAbierto();
+            comic = clave == null ? null : comics.obtener(clave);
+            if (comic == null) {
+                throw new ComicNoEncontradoException("El cómic con ID '" + idComic + "' no se encuentra en el inventario.");
+            }
+            usuario = directorioUsuarios.apply(idUsuario);
+            if (usuario == null) {
+                throw new IllegalArgumentException("El usuario con ID '" + idUsuario + "' no existe. Por favor, registre al usuario primero.");
+            }
+
+            ReentrantLock bloqueo = bloqueoComic(clave);
+            bloqueo.lock();
+            try {
+                if (comic.getEstado() != EstadoComic.RESERVADO) {
+                    throw new ReservaNoEncontradaException("El cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") no está reservado.");
+                }
+                String titular = reservas.obtener(clave);
+                if (titular != null && !titular.equals(usuario.getId())) {
+                    throw new ReservaNoEncontradaException("La reserva del cómic '" + comic.getTitulo() + "' (ID: " + comic.getId()
+                            + ") pertenece a otro usuario.");
+                }
+                reservas.cancelar(clave);
+                cambiarEstado(clave, comic, EstadoComic.VENDIDO);
+                compactar = registrarCambio(() -> repositorioComics.registrarCambioEstado(comic.getId(), EstadoComic.VENDIDO));
+                evento = EventoVenta.venta(comic, usuario);
+                guardarEventoVenta(evento, comic.getAutor());
+            } finally {
+                bloqueo.unlock();
+            }
+        } finally {
+            bloqueoInventario.readLock().unlock();
+        }
+        if (compactar) {
+            compactarInventario();
+        }
+
+        notificar(EventoSistema.venta(comic, usuario));
+        return evento;
+    }
+
+    /**
+     * Obtiene el número de reservas con vencimiento pendiente.
+     *
+     * @return El número de reservas vigentes que vencerán si no se confirman.
+     */
+    public int contarReservasVigentes() {
+        return reservas.tamano();
+    }
+
+    /**
+     * Devuelve al estado "disponible" los cómics cuyas reservas vencieron. El hilo de las reservas lo llama
+     * en cada tick; puede llamarse directamente (e.g., en pruebas) para no esperar al siguiente tick.
+     * Todos los cómics vencidos se cambian bajo un solo bloqueo de escritura del inventario, se persisten
+     * con una sola escritura y se registra un evento {@link EventoVenta.Tipo#EXPIRACION} por cada uno.
+     *
+     * @return El número de reservas liberadas.
+     */
+    public int liberarReservasVencidas() {
+        if (reservas.tamano() == 0) {
+            return 0;
+        }
+        List<Comic> liberados = new ArrayList<>();
+        bloqueoInventario.writeLock().lock();
+        try {
+            comprobarAbierto();
+            // Se avanza con el bloqueo tomado: ninguna reserva puede confirmarse ni renovarse entre el vencimiento y el cambio
+            List<String> vencidas = reservas.avanzar(System.currentTimeMillis());
+            List<String> ids = new ArrayList<>(vencidas.size());
+            for (String clave : vencidas) {
+                Comic comic = comics.obtener(clave);
+                if (comic != null && comic.getEstado() == EstadoComic.RESERVADO) {
+                    cambiarEstado(clave, comic, EstadoComic.DISPONIBLE);
+                    ids.add(comic.getId());
+                    liberados.add(comic);
+                }
+            }
+            if (!ids.isEmpty()) {
+                registrarLote(ids.size(), () -> repositorioComics.registrarCambiosEstado(ids, EstadoComic.DISPONIBLE));
+            }
+            // Los eventos se encolan antes de soltar el bloqueo: una nueva reserva de un cómic liberado queda después
+            // de su vencimiento en el historial, que es lo que restaura cargarHistorial
+            for (Comic comic : liberados) {
+                guardarEventoVenta(EventoVenta.expiracion(comic), comic.getAutor());
+            }
+        } finally {
+            bloqueoInventario.writeLock().unlock();
         }
+        if (!liberados.isEmpty()) {
+            notificar(EventoSistema.informacion("Se liberaron " + liberados.size() + " reservas vencidas."));
+        }
+        return liberados.size();
+    }
 
-        if ("vendido".equalsIgnoreCase(comic.getEstado()) || "reservado".equalsIgnoreCase(comic.getEstado())) {
-            throw new ComicYaVendidoException("El cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") ya ha sido vendido o reservado.");
+    /**
+     * Programa el vencimiento de una reserva y, si aún no existe, crea el hilo que avanza la rueda de reservas.
+     *
+     * @param clave El ID normalizado del cómic reservado.
+     * @param idUsuario El ID del titular de la reserva.
+     * @param vencimiento La hora de vencimiento, en milisegundos desde la época.
+     */
+    private void programarVencimiento(String clave, String idUsuario, long vencimiento) {
+        reservas.programar(clave, idUsuario, vencimiento);
+        synchronized (reservas) {
+            if (temporizadorReservas == null) {
+                ScheduledThreadPoolExecutor temporizador = new ScheduledThreadPoolExecutor(1, tarea -> {
+                    Thread hilo = new Thread(tarea, "comic-reservas");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+                temporizador.scheduleAtFixedRate(this::vencerReservas, Constantes.TICK_RESERVAS_MS,
+                        Constantes.TICK_RESERVAS_MS, TimeUnit.MILLISECONDS);
+                temporizadorReservas = temporizador;
+            }
         }
+    }
 
-        Usuario usuario = buscarUsuarioPorId(idUsuario);
+    /**
+     * Tarea del hilo de las reservas. Un error no debe detenerla: el ejecutor cancela las tareas periódicas que lanzan.
+     * Un tick que empieza mientras se cierra el sistema no libera nada y no es un error.
+     */
+    private void vencerReservas() {
+        try {
+            liberarReservasVencidas();
+        } catch (RuntimeException e) {
+            if (!cerrado) {
+                notificar(EventoSistema.error("Error al liberar las reservas vencidas: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Registra la venta o reserva de varios cómics a un usuario como un solo cambio.
+     * Primero se valida el lote completo: se rechazan los IDs que no están en el inventario, los repetidos en el lote
+     * y los cómics ya vendidos o reservados. Los demás se venden juntos, bajo el bloqueo de escritura del inventario
+     * (ninguna otra venta puede intercalarse), se persisten con una sola escritura y se registra un evento de venta por cómic.
+     * No avisa al oyente por cada cómic; el resultado informa qué se vendió.
+     *
+     * @param idUsuario El ID del usuario que realiza la compra/reserva.
+     * @param idsComics Los IDs de los cómics a vender/reservar.
+     * @return El resultado de cada cómic, en el orden del lote.
+     * @throws IllegalArgumentException Si el usuario no existe; en ese caso no se vende ningún cómic.
+     */
+    public ResultadoLote registrarVentas(String idUsuario, Collection<String> idsComics) {
+        Objects.requireNonNull(idsComics, "El lote de IDs no puede ser nulo.");
+        Usuario usuario = directorioUsuarios.apply(idUsuario);
         if (usuario == null) {
             throw new IllegalArgumentException("El usuario con ID '" + idUsuario + "' no existe. Por favor, registre al usuario primero.");
         }
+        return cambiarEstadoEnLote(idsComics, EstadoComic.VENDIDO, usuario);
+    }
 
-        comic.setEstado("vendido"); // O "reservado" dependiendo de la lógica de negocio
-        guardarInventario(); // Guarda el cambio de estado del cómic
+    /**
+     * Marca varios cómics como disponibles (cancelación de reservas o devoluciones) como un solo cambio.
+     * Se rechazan los IDs que no están en el inventario, los repetidos en el lote y los cómics que ya están disponibles;
+     * los demás se cambian juntos, se persisten con una sola escritura y se registra un evento de disponibilidad por cómic.
+     * No avisa al oyente por cada cómic; el resultado informa qué se cambió.
+     *
+     * @param idsComics Los IDs de los cómics a marcar como disponibles.
+     * @return El resultado de cada cómic, en el orden del lote.
+     */
+    public ResultadoLote declararDisponibles(Collection<String> idsComics) {
+        Objects.requireNonNull(idsComics, "El lote de IDs no puede ser nulo.");
+        return cambiarEstadoEnLote(idsComics, EstadoComic.DISPONIBLE, null);
+    }
 
-        guardarDetallesVenta(comic, usuario);
-        System.out.println("Venta/Reserva registrada exitosamente: '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") a " + usuario.getNombre() + " (ID: " + usuario.getId() + ").");
+    /**
+     * Cambia el estado de varios cómics como un solo cambio (ver {@link #registrarVentas} y {@link #declararDisponibles}).
+     * El bloqueo de escritura del inventario excluye a todas las ventas y cancelaciones, que toman el de lectura antes
+     * del bloqueo de su cómic, así que no hace falta tomar los bloqueos por franjas.
+     *
+     * @param idsComics Los IDs de los cómics.
+     * @param nuevoEstado {@link EstadoComic#VENDIDO} o {@link EstadoComic#DISPONIBLE}.
+     * @param usuario El comprador, para las ventas; null para marcar como disponibles.
+     * @return El resultado de cada cómic, en el orden del lote.
+     */
+    private ResultadoLote cambiarEstadoEnLote(Collection<String> idsComics, EstadoComic nuevoEstado, Usuario usuario) {
+        List<ResultadoLote.Elemento> resultados = new ArrayList<>(idsComics.size());
+        List<EventoVenta> eventos = new ArrayList<>();
+        List<String> autores = new ArrayList<>();
+        bloqueoInventario.writeLock().lock();
+        try {
+            comprobarAbierto();
+            Map<String, Comic> aceptados = new LinkedHashMap<>();
+            for (String id : idsComics) {
+                String clave = id == null ? null : TextoUtil.normalizarId(id);
+                Comic comic = clave == null ? null : comics.obtener(clave);
+                if (comic == null) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(id, "El cómic no se encuentra en el inventario."));
+                } else if (aceptados.containsKey(clave)) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(id, "El ID está repetido en el lote."));
+                } else if (usuario != null && comic.getEstado().estaOcupado()) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(id, "El cómic ya ha sido vendido o reservado."));
+                } else if (usuario == null && comic.getEstado() == EstadoComic.DISPONIBLE) {
+                    resultados.add(ResultadoLote.Elemento.rechazado(id, "El cómic ya está disponible."));
+                } else {
+                    aceptados.put(clave, comic);
+                    resultados.add(ResultadoLote.Elemento.aplicado(id));
+                }
+            }
+            if (aceptados.isEmpty()) {
+                return new ResultadoLote(resultados);
+            }
+            List<String> ids = new ArrayList<>(aceptados.size());
+            for (Map.Entry<String, Comic> entrada : aceptados.entrySet()) {
+                Comic comic = entrada.getValue();
+                EstadoComic estadoAnterior = comic.getEstado();
+                if (estadoAnterior == EstadoComic.RESERVADO) {
+                    reservas.cancelar(entrada.getKey());
+                }
+                cambiarEstado(entrada.getKey(), comic, nuevoEstado);
+                ids.add(comic.getId());
+                eventos.add(usuario != null ? EventoVenta.venta(comic, usuario) : EventoVenta.disponible(comic, estadoAnterior));
+                autores.add(comic.getAutor());
+            }
+            registrarLote(ids.size(), () -> repositorioComics.registrarCambiosEstado(ids, nuevoEstado));
+            for (int i = 0; i < eventos.size(); i++) {
+                guardarEventoVenta(eventos.get(i), autores.get(i));
+            }
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+        return new ResultadoLote(resultados);
     }
 
     /**
      * Cancela una reserva o marca un cómic como disponible después de una devolución.
-     * Cambia el estado del cómic a "disponible".
+     * Cambia el estado del cómic a "disponible"; si estaba reservado, la reserva ya no vence.
      *
      * @param idComic El ID del cómic a marcar como disponible.
+     * @return El evento de disponibilidad registrado en el historial, o null si el cómic ya estaba disponible
+     * (se avisa con {@link EventoSistema.Tipo#COMIC_YA_DISPONIBLE}).
      * @throws ComicNoEncontradoException Si el cómic no existe en el inventario.
-     * @throws IllegalArgumentException Si el cómic ya está disponible.
      */
-    public void cancelarReservaODeclararDisponible(String idComic) throws ComicNoEncontradoException {
-        Comic comic = buscarComicPorId(idComic);
-        if (comic == null) {
-            throw new ComicNoEncontradoException("El cómic con ID '" + idComic + "' no se encuentra en el inventario.");
+    public EventoVenta cancelarReservaODeclararDisponible(String idComic) throws ComicNoEncontradoException {
+        long inicio = System.nanoTime();
+        try {
+            return declararDisponible(idComic);
+        } finally {
+            latenciaDisponibles.registrarDesde(inicio);
         }
+    }
 
-        if ("disponible".equalsIgnoreCase(comic.getEstado())) {
-            System.out.println("El cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") ya está disponible.");
-            return;
-        }
+    /**
+     * Cancela la reserva o registra la devolución de un cómic (ver {@link #cancelarReservaODeclararDisponible}).
+     *
+     * @param idComic El ID del cómic.
+     * @return El evento registrado, o null si el cómic ya estaba disponible.
+     */
+    private EventoVenta declararDisponible(String idComic) throws ComicNoEncontradoException {
+        String clave = idComic == null ? null : TextoUtil.normalizarId(idComic);
+        Comic comic;
+        EventoVenta evento;
+        boolean compactar;
+        bloqueoInventario.readLock().lock();
+        try {
+            comprobarAbierto();
+            comic = clave == null ? null : comics.obtener(clave);
+            if (comic == null) {
+                throw new ComicNoEncontradoException("El cómic con ID '" + idComic + "' no se encuentra en el inventario.");
+            }
+
+            ReentrantLock bloqueo = bloqueoComic(clave);
+            bloqueo.lock();
+            try {
+                EstadoComic estadoAnterior = comic.getEstado();
+                if (estadoAnterior == EstadoComic.DISPONIBLE) {
+                    notificar(EventoSistema.deComic(EventoSistema.Tipo.COMIC_YA_DISPONIBLE, comic));
+                    return null;
+                }
 
-        comic.setEstado("disponible");
-        guardarInventario(); // Guarda el cambio de estado
-        guardarDetallesDevolucion(comic); // Adaptar este log si es necesario
-        System.out.println("Cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") ahora está 'disponible'.");
+                if (estadoAnterior == EstadoComic.RESERVADO) {
+                    reservas.cancelar(clave);
+                }
+                cambiarEstado(clave, comic, EstadoComic.DISPONIBLE);
+                compactar = registrarCambio(() -> repositorioComics.registrarCambioEstado(comic.getId(), EstadoComic.DISPONIBLE));
+                evento = EventoVenta.disponible(comic, estadoAnterior);
+                guardarEventoVenta(evento, comic.getAutor());
+            } finally {
+                bloqueo.unlock();
+            }
+        } finally {
+            bloqueoInventario.readLock().unlock();
+        }
+        if (compactar) {
+            compactarInventario();
+        }
+        notificar(EventoSistema.deComic(EventoSistema.Tipo.COMIC_DISPONIBLE, comic));
+        return evento;
     }
 
 
-    // --- Métodos de Persistencia de Datos (CSV y Logs) ---
+    // --- Métodos de Persistencia de Datos ---
 
     /**
-     * Carga el inventario de cómics desde el archivo CSV especificado en {@link Constantes#COMICS_CSV}.
-     * Limpia el inventario actual y los IDs registrados antes de cargar.
+     * Carga cómics y usuarios al mismo tiempo: los usuarios en un hilo del pool común y los cómics en el hilo actual.
+     * Ambas cargas trabajan sobre colecciones distintas, por lo que no comparten estado mutable.
      */
-    private void cargarComicsDesdeCSV() {
-        comics.clear();
-        idsComicsRegistrados.clear();
+    private void cargarDatos() {
+        CompletableFuture<Void> cargaUsuarios = CompletableFuture.runAsync(() -> {
+            long inicio = System.nanoTime();
+            cargarUsuarios();
+            nanosCargaUsuarios = System.nanoTime() - inicio;
+        }, ForkJoinPool.commonPool());
+        long inicio = System.nanoTime();
+        cargarComics();
+        nanosCargaComics = System.nanoTime() - inicio;
+        cargaUsuarios.join();
+    }
+
+    /**
+     * Construye el índice de texto con el inventario actual, si aún no está construido.
+     */
+    private void construirIndiceTexto() {
+        bloqueoInventario.writeLock().lock();
         try {
-            List<Comic> comicsCargados = CsvUtil.leerCsv(Constantes.COMICS_CSV, campos -> {
-                if (campos.length >= 4) {
-                    String id = campos[0].trim();
-                    String titulo = campos[1].trim();
-                    String autor = campos[2].trim();
-                    String estado = campos[3].trim();
-                    idsComicsRegistrados.add(id);
-                    return new Comic(titulo, autor, id, estado);
+            if (!indiceTextoConstruido) {
+                indiceTexto.reconstruir(comics.comics());
+                indiceTextoConstruido = true;
+            }
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Carga el inventario de cómics desde su repositorio (por defecto, el CSV {@link Constantes#ARCHIVO_COMICS_CSV}
+     * del directorio de datos). Limpia el inventario actual antes de cargar.
+     * Si los datos contienen IDs repetidos (sin distinguir mayúsculas), se conserva la primera aparición.
+     * Después de cargar la instantánea se reproducen los cambios pendientes del repositorio (el diario del inventario).
+     */
+    private void cargarComics() {
+        if (restaurarInventario()) {
+            return;
+        }
+        comics.limpiar();
+        try {
+            // El repositorio entrega los cómics en el orden del inventario
+            repositorioComics.cargar(comic -> {
+                String clave = TextoUtil.normalizarId(comic.getId());
+                if (!comics.contiene(clave)) {
+                    comics.agregar(clave, comic);
+                } else {
+                    notificar(EventoSistema.advertencia("Advertencia: ID de cómic duplicado '" + comic.getId() + "' en " + repositorioComics + ". Se ignora."));
                 }
-                return null; // En caso de línea mal formada
             });
-            // Filtrar nulos si existen y añadir a la lista principal
-            comicsCargados.stream().filter(Objects::nonNull).forEach(comics::add);
-            System.out.println("Inventario de cómics cargado exitosamente desde " + Constantes.COMICS_CSV);
+            notificar(EventoSistema.informacion("Inventario de cómics cargado exitosamente desde " + repositorioComics));
         } catch (IOException e) {
-            System.out.println("Advertencia: No se pudo cargar el inventario de cómics desde " + Constantes.COMICS_CSV + ". Se iniciará con el inventario vacío. Mensaje: " + e.getMessage());
+            notificar(EventoSistema.advertencia("Advertencia: No se pudo cargar el inventario de cómics desde " + repositorioComics + ". Se iniciará con el inventario vacío. Mensaje: " + e.getMessage()));
         } catch (IllegalArgumentException e) {
-            System.out.println("Error de datos en " + Constantes.COMICS_CSV + ": " + e.getMessage());
+            notificar(EventoSistema.error("Error de datos en " + repositorioComics + ": " + e.getMessage()));
+        }
+        try {
+            int reproducidos = repositorioComics.reproducirCambios(new CambiosAlCargar());
+            if (reproducidos > 0) {
+                notificar(EventoSistema.informacion("Se reprodujeron " + reproducidos + " cambios pendientes del diario del inventario."));
+            }
+        } catch (IOException e) {
+            notificar(EventoSistema.advertencia("Advertencia: No se pudo leer el diario del inventario. Mensaje: " + e.getMessage()));
         }
+        // Los conteos y el índice de texto se construyen una sola vez, con el inventario ya completo
+        contarComicsPorEstado();
+        indiceTexto.reconstruir(comics.comics());
+        indiceTextoConstruido = true;
     }
 
     /**
-     * Guarda el inventario actual de cómics en el archivo CSV especificado en {@link Constantes#COMICS_CSV}.
+     * Intenta conservar el inventario que el almacenamiento en disco guardó al cerrarse, sin leer el CSV.
+     * Los cambios pendientes del repositorio no se aplican: ya están en el almacenamiento, y la firma garantiza que
+     * no cambiaron desde entonces. Solo se leen para saber cuántos registros quedan hasta la próxima compactación.
+     *
+     * @return true si el inventario se restauró.
      */
-    public void guardarInventario() {
+    private boolean restaurarInventario() {
         try {
-            CsvUtil.escribirCsv(Constantes.COMICS_CSV, comics, comic ->
-                            comic.getId() + "," + comic.getTitulo() + "," + comic.getAutor() + "," + comic.getEstado(),
-                    "ID,Titulo,Autor,Estado"
-            );
+            if (!comics.restaurar(repositorioComics.firma())) {
+                return false;
+            }
+            repositorioComics.reproducirCambios(new RepositorioComics.Cambios() {});
         } catch (IOException e) {
-            System.out.println("Error al guardar el inventario de cómics: " + e.getMessage());
+            notificar(EventoSistema.advertencia("Advertencia: No se pudo restaurar el almacenamiento del inventario. Se cargará desde " + repositorioComics + ". Mensaje: " + e.getMessage()));
+            return false;
+        }
+        contarComicsPorEstado();
+        indiceTextoConstruido = false;
+        notificar(EventoSistema.informacion("Inventario de cómics restaurado desde " + comics + " (" + comics.comics().size() + " cómics)."));
+        return true;
+    }
+
+    private void contarComicsPorEstado() {
+        for (EstadoComic estado : EstadoComic.values()) {
+            comicsPorEstado.set(estado.ordinal(), comics.contar(estado));
         }
     }
 
     /**
-     * Registra los detalles de una venta o reserva de cómic en un archivo de log.
+     * Aplica sobre el inventario en memoria los cambios pendientes que entrega el repositorio al cargar.
+     * Las operaciones son idempotentes: reproducir un cambio ya reflejado en la instantánea no altera el resultado.
+     * Por eso los cambios de estado se aplican sin validar la transición: el estado de la instantánea puede ser
+     * posterior al del cambio.
+     */
+    private final class CambiosAlCargar implements RepositorioComics.Cambios {
+        @Override
+        public void alta(Comic comic) {
+            comics.agregar(TextoUtil.normalizarId(comic.getId()), comic);
+        }
+
+        @Override
+        public void baja(String id) {
+            comics.eliminar(TextoUtil.normalizarId(id));
+        }
+
+        @Override
+        public void cambioEstado(String id, EstadoComic estado) {
+            String clave = TextoUtil.normalizarId(id);
+            Comic comic = comics.obtener(clave);
+            if (comic != null) {
+                EstadoComic anterior = comic.getEstado();
+                comic.restablecerEstado(estado);
+                comics.estadoCambiado(clave, comic, anterior);
+            }
+        }
+    }
+
+    /**
+     * Persiste un lote de cambios ya aplicado en memoria con una sola escritura. Un lote que por sí solo alcanza el umbral
+     * de compactación del diario se persiste directamente como una instantánea completa, en lugar de escribirlo en el
+     * diario y compactar enseguida. Se llama con el bloqueo de escritura del inventario tomado, con el que
+     * el sistema sigue abierto.
      *
-     * @param comic El cómic que fue vendido/reservado.
-     * @param usuario El usuario que realizó la compra/reserva.
+     * @param tamano El número de cambios del lote.
+     * @param escritura La escritura del lote en el repositorio.
      */
-    private void guardarDetallesVenta(Comic comic, Usuario usuario) {
-        try (FileWriter writer = new FileWriter(Constantes.VENTAS_LOG_TXT, true)) { // 'true' para modo append
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            String fechaHora = LocalDateTime.now().format(formatter);
-            String logEntry = String.format("VENTA/RESERVA - Fecha/Hora: %s, Cómic ID: %s, Título: %s, Usuario ID: %s, Nombre Usuario: %s%n",
-                    fechaHora, comic.getId(), comic.getTitulo(), usuario.getId(), usuario.getNombre());
-            writer.write(logEntry);
+    private void registrarLote(int tamano, EscrituraCambio escritura) {
+        if (tamano >= Constantes.UMBRAL_COMPACTACION_DIARIO || registrarCambio(escritura)) {
+            escribirInstantaneaInventario();
+        }
+    }
+
+    /**
+     * Operación de escritura de un cambio en un repositorio.
+     */
+    @FunctionalInterface
+    private interface EscrituraCambio {
+        void escribir() throws IOException;
+    }
+
+    /**
+     * Persiste un cambio del inventario ya aplicado en memoria a través del repositorio de cómics
+     * (con persistencia CSV, anexándolo al diario del inventario).
+     * Se llama con el bloqueo del inventario tomado; como la compactación necesita el bloqueo de escritura,
+     * no se hace aquí: el llamador debe invocar {@link #compactarInventario()} después de liberar sus bloqueos
+     * cuando este método retorna true.
+     *
+     * @param escritura La escritura del cambio.
+     * @return true si hay que guardar el inventario completo, porque el repositorio alcanzó su umbral de compactación
+     * o porque no se pudo escribir el cambio.
+     */
+    private boolean registrarCambio(EscrituraCambio escritura) {
+        try {
+            escritura.escribir();
         } catch (IOException e) {
-            System.out.println("Error al registrar detalles de venta/reserva: " + e.getMessage());
+            notificar(EventoSistema.error("Error al registrar el cambio en " + repositorioComics + ": " + e.getMessage() + ". Se guardará el inventario completo."));
+            return true;
+        }
+        return repositorioComics.requiereCompactacion();
+    }
+
+    /**
+     * Guarda el inventario actual de cómics completo en su repositorio: con persistencia CSV, escribe el CSV
+     * de cómics y vacía el diario del inventario (compactación); con SQL, reemplaza la tabla en una transacción.
+     * La escritura es atómica, de modo que una caída durante la escritura no deja el inventario vacío ni a medio escribir.
+     * Mientras se escribe, el bloqueo de escritura detiene los demás cambios para que ningún registro del diario
+     * quede fuera de la instantánea al vaciarlo.
+     */
+    public void guardarInventario() {
+        bloqueoInventario.writeLock().lock();
+        try {
+            comprobarAbierto();
+            escribirInstantaneaInventario();
+        } finally {
+            bloqueoInventario.writeLock().unlock();
         }
     }
 
     /**
-     * Registra los detalles de una devolución o cambio de estado a "disponible" de un cómic en un archivo de log.
+     * Compacta el inventario después de un cambio que alcanzó el umbral del diario (ver {@link #registrarCambio}).
+     * Si el sistema se cerró después del cambio, no hace nada: el cambio ya está en el diario, que se reproduce
+     * al volver a abrir, y la operación que lo hizo no debe fallar por eso.
+     */
+    private void compactarInventario() {
+        bloqueoInventario.writeLock().lock();
+        try {
+            if (!cerrado) {
+                escribirInstantaneaInventario();
+            }
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe la instantánea del inventario completo (ver {@link #guardarInventario}). Se llama con el bloqueo
+     * de escritura del inventario tomado.
+     */
+    private void escribirInstantaneaInventario() {
+        long inicio = System.nanoTime();
+        try {
+            ultimaInstantaneaInventario = repositorioComics.guardarTodos(comics.comics());
+            comics.sincronizar();
+            latenciaInstantaneas.registrarDesde(inicio);
+        } catch (IOException | UncheckedIOException e) {
+            notificar(EventoSistema.error("Error al guardar el inventario de cómics: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Recorre el historial de ventas completo una sola vez al iniciar, en paralelo por segmentos si el repositorio
+     * lo permite: llena los reportes de ventas y restaura los vencimientos de las reservas vigentes.
+     * El autor de cada cómic se obtiene del inventario ya cargado.
+     * <p>
+     * Una reserva sigue vigente si el cómic está reservado y su último evento en el historial es una reserva;
+     * vence {@link Constantes#DURACION_RESERVAS} después de esa reserva (si ya pasó ese plazo, vence en el primer tick).
+     */
+    private void cargarHistorial() {
+        HistorialAlCargar historial;
+        try {
+            // Durante la construcción nadie modifica el inventario, así que los segmentos pueden leerlo en paralelo
+            historial = repositorioVentas.recorrer(HistorialAlCargar::new, (parcial, evento) -> {
+                String clave = TextoUtil.normalizarId(evento.getIdComic());
+                Comic comic = comics.obtener(clave);
+                parcial.analitica.registrar(evento, comic == null ? null : comic.getAutor());
+                if (comic != null && comic.getEstado() == EstadoComic.RESERVADO) {
+                    parcial.reservas.put(clave, evento.getTipo() == EventoVenta.Tipo.RESERVA ? evento : null);
+                }
+            }, HistorialAlCargar::combinar, ForkJoinPool.commonPool());
+        } catch (IOException e) {
+            notificar(EventoSistema.advertencia("Advertencia: No se pudo leer el historial de ventas para los reportes. Mensaje: " + e.getMessage()));
+            return;
+        }
+        analiticaVentas.combinar(historial.analitica);
+        int restauradas = 0;
+        for (Map.Entry<String, EventoVenta> reserva : historial.reservas.entrySet()) {
+            if (reserva.getValue() != null) {
+                programarVencimiento(reserva.getKey(), reserva.getValue().getIdUsuario(),
+                        reserva.getValue().getInstanteMillis() + duracionReservas.toMillis());
+                restauradas++;
+            }
+        }
+        if (restauradas > 0) {
+            notificar(EventoSistema.informacion("Se restauraron " + restauradas + " reservas vigentes del historial de ventas."));
+        }
+    }
+
+    /**
+     * Acumulador del recorrido del historial al iniciar. Los segmentos se combinan en orden, así que los datos
+     * del segmento posterior reemplazan a los del anterior.
+     */
+    private static final class HistorialAlCargar {
+        final AnaliticaVentas analitica = new AnaliticaVentas();
+        // Clave de un cómic reservado -> su última reserva, o null si un evento posterior la cerró
+        final Map<String, EventoVenta> reservas = new HashMap<>();
+
+        HistorialAlCargar combinar(HistorialAlCargar posterior) {
+            analitica.combinar(posterior.analitica);
+            reservas.putAll(posterior.reservas);
+            return this;
+        }
+    }
+
+    /**
+     * Registra un evento de venta o disponibilidad en el repositorio de ventas y lo suma a los reportes.
+     * Con persistencia CSV, la línea de texto se encola para el log y el registro binario se anexa al libro de ventas;
+     * con SQL, el evento se encola para insertarlo en el siguiente lote.
+     * Se llama con el bloqueo del cómic (o el de escritura del inventario) tomado, para que el orden de los eventos
+     * en el historial sea el de los cambios de estado: al volver a abrir, {@link #cargarHistorial} toma el último
+     * evento de cada cómic como el vigente.
      *
-     * @param comic El cómic que se marcó como disponible.
+     * @param evento El evento a registrar.
+     * @param autor El autor del cómic del evento.
      */
-    private void guardarDetallesDevolucion(Comic comic) {
-        try (FileWriter writer = new FileWriter(Constantes.VENTAS_LOG_TXT, true)) { // 'true' para modo append
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            String fechaHora = LocalDateTime.now().format(formatter);
-            String logEntry = String.format("DISPONIBLE - Fecha/Hora: %s, Cómic ID: %s, Título: %s, Estado anterior: %s, Estado actual: %s%n",
-                    fechaHora, comic.getId(), comic.getTitulo(), "vendido/reservado", comic.getEstado()); // Asume estado anterior
-            writer.write(logEntry);
+    private void guardarEventoVenta(EventoVenta evento, String autor) {
+        eventosVenta.increment();
+        try {
+            repositorioVentas.registrar(evento);
         } catch (IOException e) {
-            System.out.println("Error al registrar detalles de disponibilidad: " + e.getMessage());
+            notificar(EventoSistema.error("Error al registrar el evento de venta en " + repositorioVentas + ": " + e.getMessage()));
+        }
+        analiticaVentas.registrar(evento, autor);
+    }
+
+    /**
+     * Obtiene los cómics con más ventas netas (ventas menos devoluciones) de todo el historial.
+     * El reporte se mantiene al día con cada operación, por lo que obtenerlo no recorre el historial.
+     *
+     * @param cantidad El número máximo de cómics del reporte.
+     * @return Los cómics, de más a menos ventas netas.
+     * @throws IllegalArgumentException Si la cantidad es menor que 1.
+     */
+    public List<EstadisticaVentas> obtenerComicsMasVendidos(int cantidad) {
+        return analiticaVentas.comicsMasVendidos(cantidad);
+    }
+
+    /**
+     * Obtiene los autores con más ventas netas de todo el historial.
+     *
+     * @param cantidad El número máximo de autores del reporte.
+     * @return Los autores, de más a menos ventas netas.
+     * @throws IllegalArgumentException Si la cantidad es menor que 1.
+     */
+    public List<EstadisticaVentas> obtenerAutoresMasVendidos(int cantidad) {
+        return analiticaVentas.autoresMasVendidos(cantidad);
+    }
+
+    /**
+     * Obtiene los usuarios con más compras o reservas de todo el historial.
+     *
+     * @param cantidad El número máximo de usuarios del reporte.
+     * @return Los usuarios, de más a menos compras.
+     * @throws IllegalArgumentException Si la cantidad es menor que 1.
+     */
+    public List<EstadisticaVentas> obtenerUsuariosConMasCompras(int cantidad) {
+        return analiticaVentas.usuariosConMasCompras(cantidad);
+    }
+
+    /**
+     * Obtiene los acumuladores de los reportes de ventas, para que {@link ComicSistemaParticionado} combine los
+     * de sus particiones. Sus métodos están sincronizados.
+     *
+     * @return Los acumuladores de este sistema.
+     */
+    AnaliticaVentas getAnaliticaVentas() {
+        return analiticaVentas;
+    }
+
+    /**
+     * Indica dónde buscar a los compradores de las ventas y reservas. Por omisión, entre los usuarios de este
+     * sistema; {@link ComicSistemaParticionado} los busca en la partición de cada usuario.
+     * La búsqueda se hace con el bloqueo del cómic tomado, así que no debe esperar a otras operaciones.
+     *
+     * @param directorio Función que retorna el usuario de un ID, o null si no existe.
+     */
+    void setDirectorioUsuarios(Function<String, Usuario> directorio) {
+        this.directorioUsuarios = Objects.requireNonNull(directorio, "El directorio de usuarios no puede ser nulo.");
+    }
+
+    /**
+     * Obtiene el número de compras o reservas de un usuario en todo el historial.
+     * El detalle de cada compra se obtiene con {@link #consultarHistorialVentas}.
+     *
+     * @param idUsuario El ID del usuario.
+     * @return El número de compras del usuario; 0 si no tiene ninguna.
+     */
+    public long contarComprasUsuario(String idUsuario) {
+        EstadisticaVentas compras = idUsuario == null ? null : analiticaVentas.comprasDe(idUsuario);
+        return compras == null ? 0 : compras.getVentas();
+    }
+
+    /**
+     * Consulta el historial de ventas y devoluciones en el repositorio de ventas.
+     * Los eventos se entregan en orden cronológico a medida que se leen, sin cargar el historial completo en memoria;
+     * con persistencia CSV, gracias al índice disperso del libro de ventas solo se leen los bloques que pueden
+     * contener resultados, y con SQL la consulta usa los índices de la tabla.
+     *
+     * @param desde El inicio del rango de tiempo (incluido); null para no limitar el inicio.
+     * @param hasta El final del rango de tiempo (excluido); null para no limitar el final.
+     * @param idComic El ID del cómic, sin distinguir mayúsculas; null para no filtrar por cómic.
+     * @param idUsuario El ID del usuario; null para no filtrar por usuario.
+     * @param consumidor Función que recibe cada evento.
+     * @return El número de eventos entregados.
+     * @throws IOException Si el historial de ventas no está disponible o no se puede leer.
+     */
+    public long consultarHistorialVentas(Instant desde, Instant hasta, String idComic, String idUsuario,
+                                         Consumer<EventoVenta> consumidor) throws IOException {
+        return repositorioVentas.consultar(desde == null ? Long.MIN_VALUE : desde.toEpochMilli(),
+                hasta == null ? Long.MAX_VALUE : hasta.toEpochMilli(), idComic, idUsuario, consumidor);
+    }
+
+    /**
+     * Obtiene el escritor en segundo plano del historial de ventas (el del log de texto con persistencia CSV),
+     * para consultar sus métricas (lotes escritos, esperas por cola llena, errores).
+     *
+     * @return El escritor del historial de ventas.
+     */
+    public EscritorLotesAsincrono<?> getLogVentas() {
+        return repositorioVentas.getEscritor();
+    }
+
+    /**
+     * Detiene el hilo de las reservas (las reservas vigentes se restauran del historial al volver a abrir),
+     * espera a que se escriban los eventos de venta pendientes, cierra los repositorios (y la base de datos SQL, si se usa)
+     * y cierra el almacenamiento del inventario (el mapeado guarda la firma de los datos durables para la próxima ejecución).
+     * Debe llamarse al terminar de usar el sistema; después de cerrar, las operaciones que cambian el inventario
+     * o los usuarios (ventas, reservas, devoluciones, altas, bajas e instantáneas) fallan con {@link IllegalStateException}
+     * sin cambiar nada. Las operaciones en curso terminan antes de cerrar los repositorios. Cerrar un sistema ya
+     * cerrado no hace nada.
+     */
+    @Override
+    public void close() {
+        // Con los bloqueos tomados, para que las operaciones en curso terminen y las siguientes vean el sistema cerrado;
+        // desde aquí, un tick de las reservas tampoco cambia nada
+        bloqueoInventario.writeLock().lock();
+        bloqueoUsuarios.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+        } finally {
+            bloqueoUsuarios.unlock();
+            bloqueoInventario.writeLock().unlock();
+        }
+        ScheduledExecutorService temporizador;
+        synchronized (reservas) {
+            temporizador = temporizadorReservas;
+        }
+        if (temporizador != null) {
+            // Se espera al tick en curso sin interrumpirlo (una escritura interrumpida en un FileChannel cierra el canal);
+            // shutdown cancela las ejecuciones periódicas pendientes
+            temporizador.shutdown();
+            try {
+                temporizador.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (nombreJmx != null) {
+            try {
+                RegistroMetricas.retirarJmx(nombreJmx);
+            } catch (MBeanRegistrationException e) {
+                notificar(EventoSistema.advertencia("Advertencia: No se pudieron retirar las métricas de JMX. Mensaje: " + e.getMessage()));
+            }
+        }
+        repositorios.close();
+        bloqueoInventario.writeLock().lock();
+        try {
+            comics.cerrar(repositorioComics.firma());
+        } catch (IOException | UncheckedIOException e) {
+            notificar(EventoSistema.error("Error al cerrar el almacenamiento del inventario: " + e.getMessage()));
+        } finally {
+            bloqueoInventario.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica que el sistema no esté cerrado. Las operaciones que cambian el inventario o los usuarios la llaman
+     * con su bloqueo tomado, antes de cambiar el estado en memoria o escribir en el diario: después de {@link #close()}
+     * un cambio no debe aplicarse en memoria ni reabrir el diario si el historial de ventas ya no puede registrarlo.
+     *
+     * @throws IllegalStateException Si el sistema ya está cerrado.
+     */
+    private void comprobarAbierto() {
+        if (cerrado) {
+            throw new IllegalStateException("El sistema ya está cerrado.");
         }
     }
 
@@ -266,65 +1616,95 @@ public class ComicSistema {
      * Valida que el ID y el email del usuario (si se proporciona) no estén ya registrados.
      *
      * @param usuario El objeto Usuario a agregar.
+     * @return true si el usuario se agregó, false si su ID o su email ya estaban registrados.
      */
-    public void agregarUsuario(Usuario usuario) {
-        if (usuarios.containsKey(usuario.getId())) {
-            System.out.println("El usuario con ID: " + usuario.getId() + " ya existe. No se puede agregar.");
-            return;
-        }
-        if (usuario.getEmail() != null && !usuario.getEmail().isEmpty() && emailsRegistrados.contains(usuario.getEmail())) {
-            System.out.println("El email: " + usuario.getEmail() + " ya está registrado por otro usuario. No se puede agregar.");
-            return;
-        }
+    public boolean agregarUsuario(Usuario usuario) {
+        bloqueoUsuarios.lock();
+        try {
+            comprobarAbierto();
+            if (usuarios.containsKey(usuario.getId())) {
+                notificar(EventoSistema.deUsuario(EventoSistema.Tipo.USUARIO_DUPLICADO, usuario));
+                return false;
+            }
+            if (usuario.getEmail() != null && !usuario.getEmail().isEmpty() && emailsRegistrados.contains(usuario.getEmail())) {
+                notificar(EventoSistema.deUsuario(EventoSistema.Tipo.EMAIL_DUPLICADO, usuario));
+                return false;
+            }
 
-        usuarios.put(usuario.getId(), usuario);
-        if (usuario.getEmail() != null && !usuario.getEmail().isEmpty()) {
-            emailsRegistrados.add(usuario.getEmail());
+            usuarios.put(usuario.getId(), usuario);
+            indiceUsuarios = indiceUsuarios.con(usuario);
+            if (usuario.getEmail() != null && !usuario.getEmail().isEmpty()) {
+                emailsRegistrados.add(usuario.getEmail());
+            }
+            notificar(EventoSistema.deUsuario(EventoSistema.Tipo.USUARIO_AGREGADO, usuario));
+            registrarCambioUsuarios(() -> repositorioUsuarios.registrarAlta(usuario, usuarios.values())); // Guarda los cambios inmediatamente
+            return true;
+        } finally {
+            bloqueoUsuarios.unlock();
         }
-        System.out.println("Usuario '" + usuario.getNombre() + "' (ID: " + usuario.getId() + ") agregado.");
-        guardarUsuarios(); // Guarda los cambios inmediatamente
     }
 
     /**
-     * Carga la información de los usuarios desde el archivo CSV especificado en {@link Constantes#USUARIOS_CSV}.
-     * Limpia la colección de usuarios y emails registrados antes de cargar.
+     * Carga la información de los usuarios desde su repositorio (por defecto, el CSV {@link Constantes#ARCHIVO_USUARIOS_CSV}
+     * del directorio de datos). Limpia la colección de usuarios y emails registrados antes de cargar.
      */
-    private void cargarUsuariosDesdeCSV() {
+    private void cargarUsuarios() {
         usuarios.clear();
         emailsRegistrados.clear();
+        indiceUsuarios = IndiceUsuarios.VACIO;
         try {
-            List<Usuario> usuariosCargados = CsvUtil.leerCsv(Constantes.USUARIOS_CSV, campos -> {
-                if (campos.length >= 2) { // ID, Nombre, Email (opcional)
-                    String id = campos[0].trim();
-                    String nombre = campos[1].trim();
-                    String email = campos.length > 2 && !campos[2].trim().isEmpty() ? campos[2].trim() : null;
-                    if (email != null) {
-                        emailsRegistrados.add(email);
-                    }
-                    return new Usuario(id, nombre, email);
+            repositorioUsuarios.cargar(usuario -> {
+                if (usuario.getEmail() != null) {
+                    emailsRegistrados.add(usuario.getEmail());
                 }
-                return null;
+                usuarios.put(usuario.getId(), usuario);
             });
-            usuariosCargados.stream().filter(Objects::nonNull).forEach(usuario -> usuarios.put(usuario.getId(), usuario));
-            System.out.println("Usuarios cargados exitosamente desde " + Constantes.USUARIOS_CSV);
+            indiceUsuarios = IndiceUsuarios.de(usuarios);
+            notificar(EventoSistema.informacion("Usuarios cargados exitosamente desde " + repositorioUsuarios));
         } catch (IOException e) {
-            System.out.println("Advertencia: No se pudo cargar usuarios desde " + Constantes.USUARIOS_CSV + ". Se iniciará con usuarios vacíos. Mensaje: " + e.getMessage());
+            notificar(EventoSistema.advertencia("Advertencia: No se pudo cargar usuarios desde " + repositorioUsuarios + ". Se iniciará con usuarios vacíos. Mensaje: " + e.getMessage()));
         } catch (IllegalArgumentException e) {
-            System.out.println("Error de datos en " + Constantes.USUARIOS_CSV + ": " + e.getMessage());
+            notificar(EventoSistema.error("Error de datos en " + repositorioUsuarios + ": " + e.getMessage()));
         }
     }
 
     /**
-     * Guarda la información actual de los usuarios en el archivo CSV especificado en {@link Constantes#USUARIOS_CSV}.
+     * Operación de escritura de un cambio de usuarios que puede retornar la instantánea escrita.
+     */
+    @FunctionalInterface
+    private interface EscrituraUsuarios {
+        ResultadoEscritura escribir() throws IOException;
+    }
+
+    /**
+     * Persiste un alta o baja de usuario ya aplicada en memoria. Se llama con {@code bloqueoUsuarios} tomado.
+     *
+     * @param escritura La escritura del cambio.
+     */
+    private void registrarCambioUsuarios(EscrituraUsuarios escritura) {
+        try {
+            ResultadoEscritura instantanea = escritura.escribir();
+            if (instantanea != null) {
+                ultimaInstantaneaUsuarios = instantanea;
+            }
+        } catch (IOException e) {
+            notificar(EventoSistema.error("Error al guardar usuarios: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Guarda la información actual de todos los usuarios en su repositorio.
+     * La escritura es atómica, igual que la del inventario.
      */
     public void guardarUsuarios() {
+        bloqueoUsuarios.lock();
         try {
-            CsvUtil.escribirCsv(Constantes.USUARIOS_CSV, new ArrayList<>(usuarios.values()), usuario ->
-                            usuario.getId() + "," + usuario.getNombre() + "," + (usuario.getEmail() != null ? usuario.getEmail() : ""),
-                    "ID,Nombre,Email"
-            );
+            comprobarAbierto();
+            ultimaInstantaneaUsuarios = repositorioUsuarios.guardarTodos(usuarios.values());
         } catch (IOException e) {
-            System.out.println("Error al guardar usuarios: " + e.getMessage());
+            notificar(EventoSistema.error("Error al guardar usuarios: " + e.getMessage()));
+        } finally {
+            bloqueoUsuarios.unlock();
         }
     }
 
@@ -346,50 +1726,74 @@ public class ComicSistema {
      * @return true si el usuario fue encontrado y eliminado, false en caso contrario.
      */
     public boolean eliminarUsuario(String id) {
-        Usuario usuarioEliminado = usuarios.remove(id); // Elimina del HashMap
-        if (usuarioEliminado != null) {
-            if (usuarioEliminado.getEmail() != null && !usuarioEliminado.getEmail().isEmpty()) {
-                emailsRegistrados.remove(usuarioEliminado.getEmail()); // Elimina el email del HashSet de emails registrados
+        bloqueoUsuarios.lock();
+        try {
+            comprobarAbierto();
+            Usuario usuarioEliminado = usuarios.remove(id); // Elimina del mapa de usuarios
+            if (usuarioEliminado != null) {
+                indiceUsuarios = indiceUsuarios.sin(usuarioEliminado);
+                if (usuarioEliminado.getEmail() != null && !usuarioEliminado.getEmail().isEmpty()) {
+                    emailsRegistrados.remove(usuarioEliminado.getEmail()); // Elimina el email del conjunto de emails registrados
+                }
+                notificar(EventoSistema.deUsuario(EventoSistema.Tipo.USUARIO_ELIMINADO, usuarioEliminado));
+                registrarCambioUsuarios(() -> repositorioUsuarios.registrarBaja(usuarioEliminado, usuarios.values())); // Guarda los cambios inmediatamente
+                return true;
+            } else {
+                notificar(EventoSistema.usuarioNoEncontrado(id));
+                return false;
             }
-            System.out.println("Usuario '" + usuarioEliminado.getNombre() + "' (ID: " + usuarioEliminado.getId() + ") eliminado.");
-            guardarUsuarios(); // Guarda los cambios inmediatamente
-            return true;
-        } else {
-            System.out.println("Usuario con ID '" + id + "' no encontrado para eliminar.");
-            return false;
+        } finally {
+            bloqueoUsuarios.unlock();
         }
     }
 
     /**
      * Lista todos los usuarios registrados en el sistema, ordenados por su ID.
-     * Si no hay usuarios, imprime un mensaje indicándolo.
+     * Lee el índice publicado por la última alta o baja, sin bloqueos ni ordenar: las altas y bajas concurrentes
+     * no lo cambian.
+     *
+     * @return Una lista inmutable de usuarios; vacía si no hay usuarios registrados.
      */
-    public void listarUsuarios() {
-        if (usuarios.isEmpty()) {
-            System.out.println("No hay usuarios registrados en el sistema.");
-            return;
-        }
-        System.out.println("\n--- Listado de Usuarios (por ID) ---");
-        usuarios.values().stream()
-                .sorted(Comparator.comparing(Usuario::getId)) // Ordena por ID
-                .forEach(System.out::println);
-        System.out.println("------------------------------------");
+    public List<Usuario> listarUsuarios() {
+        return indiceUsuarios.porId();
     }
 
     /**
-     * Lista todos los usuarios registrados en el sistema, ordenados alfabéticamente por su nombre.
-     * Utiliza un TreeSet para mantener el orden.
-     * Si no hay usuarios, imprime un mensaje indicándolo.
+     * Lista una página de los usuarios registrados, ordenados por su ID.
+     * Cuesta {@code O(log n + tamanoPagina)}: el índice ubica el inicio de la página sin recorrer las anteriores.
+     *
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de usuarios por página.
+     * @return La página de usuarios.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
      */
-    public void listarUsuariosOrdenadosPorNombre() {
-        if (usuarios.isEmpty()) {
-            System.out.println("No hay usuarios registrados en el sistema.");
-            return;
-        }
-        System.out.println("\n--- Listado de Usuarios (ordenados por nombre) ---");
-        TreeSet<Usuario> usuariosOrdenados = new TreeSet<>(Comparator.comparing(Usuario::getNombre));
-        usuariosOrdenados.addAll(usuarios.values()); // Añade todos los usuarios al TreeSet para que se ordenen
-        usuariosOrdenados.forEach(System.out::println);
-        System.out.println("-----------------------------------------------");
+    public Pagina<Usuario> listarUsuarios(int numeroPagina, int tamanoPagina) {
+        return indiceUsuarios.paginaPorId(numeroPagina, tamanoPagina);
+    }
+
+    /**
+     * Lista todos los usuarios registrados en el sistema, ordenados alfabéticamente por su nombre (sin distinguir
+     * mayúsculas) y, si comparten el nombre, por su ID. Lee un índice que se mantiene con cada alta o baja.
+     *
+     * @return Una lista inmutable de usuarios; vacía si no hay usuarios registrados.
+     */
+    public List<Usuario> listarUsuariosOrdenadosPorNombre() {
+        return indiceUsuarios.porNombre();
+    }
+
+    /**
+     * Busca los usuarios cuyo nombre empieza con un prefijo (e.g., "Br" encuentra a "Bruce Wayne" y a "brenda"),
+     * ordenados por nombre y por ID, y retorna una página de resultados.
+     * Cuesta {@code O(log n + tamanoPagina)}: el índice por nombre ubica el rango del prefijo y el inicio de la página.
+     *
+     * @param prefijo El inicio del nombre, sin distinguir mayúsculas ni espacios repetidos; vacío o null para
+     *                todos los usuarios.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de usuarios por página.
+     * @return La página de usuarios; su total es el número de usuarios con el prefijo.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public Pagina<Usuario> buscarUsuariosPorNombre(String prefijo, int numeroPagina, int tamanoPagina) {
+        return indiceUsuarios.paginaPorNombre(prefijo, numeroPagina, tamanoPagina);
     }
-}
\ No newline at end of file
+}
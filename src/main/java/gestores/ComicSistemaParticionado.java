@@ -0,0 +1,955 @@
+package gestores;
+
+import constantes.Constantes;
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import excepciones.ReservaNoEncontradaException;
+import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import modelos.ResultadoLote;
+import modelos.Usuario;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+import utilidades.Pagina;
+import utilidades.TextoUtil;
+import utilidades.TipoPersistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sistema de gestión de cómics repartido en varias particiones independientes, para que las ventas escalen con
+ * el número de núcleos.
+ * <p>
+ * Cada partición es un {@link ComicSistema} completo con su propio subdirectorio de datos
+ * ({@link Constantes#PREFIJO_DIRECTORIO_PARTICION} seguido de su número): su inventario, sus índices, su diario,
+ * su libro de ventas y sus usuarios. Los cómics se reparten según el hash de su ID normalizado y los usuarios según
+ * el hash de su ID, así que cada operación sobre un cómic o un usuario toca una sola partición. El número de
+ * particiones queda registrado en {@link Constantes#ARCHIVO_PARTICIONES}: los datos no se pueden abrir con otro.
+ * <p>
+ * Cada partición tiene un único hilo escritor; todos los cambios de una partición se encolan en él, de modo que
+ * las escrituras de una partición no compiten entre sí por sus bloqueos ni por su diario, y las de particiones
+ * distintas avanzan en paralelo. Las reservas vencen en el hilo de reservas de cada partición. Las lecturas no pasan
+ * por los escritores: las que tocan una partición se le delegan directamente, y los listados, búsquedas y reportes
+ * consultan todas las particiones y combinan sus resultados (scatter-gather). Cada partición responde con una
+ * versión consistente de sus datos, pero un listado combinado no es una foto de todas las particiones en el mismo
+ * instante.
+ * <p>
+ * Una venta registra el evento en la partición del cómic aunque el comprador esté en otra: la partición busca al
+ * comprador en la suya sin bloqueos. Los emails de los usuarios son únicos entre todas las particiones.
+ */
+public class ComicSistemaParticionado implements AutoCloseable {
+
+    /**
+     * Un cambio que se ejecuta en el hilo escritor de una partición.
+     */
+    @FunctionalInterface
+    private interface Escritura<T, X extends Exception> {
+        T aplicar(ComicSistema particion) throws X;
+    }
+
+    /**
+     * Un cómic de una búsqueda por texto, con su puntaje en su partición.
+     */
+    private record Puntuado(Comic comic, int puntaje) {
+    }
+
+    private final ComicSistema[] particiones;
+    private final ExecutorService[] escritores;
+    private final OyenteComicSistema oyente;
+    // Email -> ID del usuario que lo registró, en todas las particiones; se modifica desde los escritores
+    private final ConcurrentHashMap<String, String> emails = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de ComicSistemaParticionado con una partición por procesador disponible, el modo de almacenamiento
+     * por defecto y los avisos en la consola.
+     *
+     * @param tipo El tipo de persistencia de cada partición.
+     * @param directorio El directorio de datos; se crea si no existe.
+     * @throws IllegalStateException Si el directorio tiene datos con otro número de particiones.
+     * @throws UncheckedIOException Si no se puede crear el directorio o leer su número de particiones.
+     */
+    public ComicSistemaParticionado(TipoPersistencia tipo, String directorio) {
+        this(tipo, directorio, Runtime.getRuntime().availableProcessors(), Constantes.MODO_ALMACENAMIENTO, OyenteComicSistema.CONSOLA);
+    }
+
+    /**
+     * Constructor de ComicSistemaParticionado. Las particiones se cargan en paralelo, cada una en su hilo escritor.
+     *
+     * @param tipo El tipo de persistencia de cada partición.
+     * @param directorio El directorio de datos; se crea si no existe.
+     * @param numeroParticiones El número de particiones.
+     * @param modoAlmacenamiento El modo de almacenamiento del inventario de cada partición.
+     * @param oyente El oyente de los avisos de todas las particiones.
+     * @throws IllegalArgumentException Si el número de particiones es menor que 1.
+     * @throws IllegalStateException Si el directorio tiene datos con otro número de particiones.
+     * @throws UncheckedIOException Si no se puede crear el directorio o leer su número de particiones.
+     */
+    public ComicSistemaParticionado(TipoPersistencia tipo, String directorio, int numeroParticiones,
+                                    ModoAlmacenamiento modoAlmacenamiento, OyenteComicSistema oyente) {
+        Objects.requireNonNull(tipo, "El tipo de persistencia no puede ser nulo.");
+        Objects.requireNonNull(directorio, "El directorio de datos no puede ser nulo.");
+        Objects.requireNonNull(modoAlmacenamiento, "El modo de almacenamiento no puede ser nulo.");
+        this.oyente = Objects.requireNonNull(oyente, "El oyente no puede ser nulo.");
+        if (numeroParticiones < 1) {
+            throw new IllegalArgumentException("El número de particiones debe ser mayor que 0.");
+        }
+        fijarNumeroParticiones(Paths.get(directorio), numeroParticiones);
+
+        this.particiones = new ComicSistema[numeroParticiones];
+        this.escritores = new ExecutorService[numeroParticiones];
+        List<Future<ComicSistema>> cargas = new ArrayList<>(numeroParticiones);
+        for (int i = 0; i < numeroParticiones; i++) {
+            String nombreHilo = "comic-particion-" + i;
+            escritores[i] = Executors.newSingleThreadExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, nombreHilo);
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            String directorioParticion = Paths.get(directorio, Constantes.PREFIJO_DIRECTORIO_PARTICION + i).toString();
+            cargas.add(escritores[i].submit(() -> {
+                Files.createDirectories(Paths.get(directorioParticion));
+                return new ComicSistema(ConfiguracionPersistencia.enDirectorio(tipo, directorioParticion), modoAlmacenamiento, oyente);
+            }));
+        }
+        RuntimeException error = null;
+        for (int i = 0; i < numeroParticiones; i++) {
+            try {
+                particiones[i] = this.<ComicSistema, IOException>esperar(cargas.get(i));
+            } catch (RuntimeException e) {
+                error = error == null ? e : error;
+            } catch (IOException e) {
+                error = error == null ? new UncheckedIOException("No se pudo crear el directorio de la partición " + i, e) : error;
+            }
+        }
+        if (error != null) {
+            close();
+            throw error;
+        }
+
+        for (ComicSistema particion : particiones) {
+            particion.setDirectorioUsuarios(this::buscarUsuarioPorId);
+            for (Usuario usuario : particion.listarUsuarios()) {
+                if (usuario.getEmail() != null && !usuario.getEmail().isEmpty()) {
+                    emails.putIfAbsent(usuario.getEmail(), usuario.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra el número de particiones en el directorio de datos, o verifica que coincida con el registrado.
+     */
+    private static void fijarNumeroParticiones(Path directorio, int numeroParticiones) {
+        Path archivo = directorio.resolve(Constantes.ARCHIVO_PARTICIONES);
+        try {
+            if (Files.exists(archivo)) {
+                int registrado = Integer.parseInt(Files.readString(archivo, StandardCharsets.UTF_8).trim());
+                if (registrado != numeroParticiones) {
+                    throw new IllegalStateException("El directorio '" + directorio + "' tiene " + registrado
+                            + " particiones; no se puede abrir con " + numeroParticiones + ".");
+                }
+                return;
+            }
+            Files.createDirectories(directorio);
+            Files.writeString(archivo, numeroParticiones + System.lineSeparator(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar el número de particiones en " + archivo, e);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("El archivo " + archivo + " no contiene un número de particiones válido.", e);
+        }
+    }
+
+    /**
+     * Obtiene el número de particiones.
+     *
+     * @return El número de particiones.
+     */
+    public int getNumeroParticiones() {
+        return particiones.length;
+    }
+
+    /**
+     * Obtiene las particiones, e.g., para consultar sus métricas. Los cambios deben hacerse con este sistema,
+     * no directamente en una partición.
+     *
+     * @return Una lista inmutable con las particiones, por número.
+     */
+    public List<ComicSistema> getParticiones() {
+        return List.of(particiones);
+    }
+
+    /**
+     * Obtiene la partición a la que pertenece un cómic.
+     *
+     * @param idComic El ID del cómic, sin distinguir mayúsculas.
+     * @return El número de la partición, desde 0.
+     */
+    public int particionDeComic(String idComic) {
+        return idComic == null ? 0 : particion(TextoUtil.normalizarId(idComic).hashCode());
+    }
+
+    /**
+     * Obtiene la partición a la que pertenece un usuario.
+     *
+     * @param idUsuario El ID del usuario.
+     * @return El número de la partición, desde 0.
+     */
+    public int particionDeUsuario(String idUsuario) {
+        return idUsuario == null ? 0 : particion(idUsuario.hashCode());
+    }
+
+    /**
+     * Elige una partición con los bits altos del hash mezclado. Las franjas de bloqueo de cada partición se eligen
+     * con los bits bajos, así que no quedan correlacionadas con la partición.
+     */
+    private int particion(int hash) {
+        int mezcla = (hash ^ (hash >>> 16)) * 0x9E3779B9;
+        return (int) (((mezcla & 0xFFFFFFFFL) * particiones.length) >>> 32);
+    }
+
+    // --- Escrituras: en el hilo escritor de la partición ---
+
+    /**
+     * Ejecuta un cambio en el hilo escritor de una partición y espera su resultado.
+     *
+     * @param particion El número de la partición.
+     * @param escritura El cambio.
+     * @return El resultado del cambio.
+     * @throws X La excepción que lanza el cambio.
+     * @throws IllegalStateException Si el sistema está cerrado o el hilo que espera es interrumpido.
+     */
+    private <T, X extends Exception> T escribir(int particion, Escritura<T, X> escritura) throws X {
+        return this.<T, X>esperar(enviar(particion, escritura));
+    }
+
+    private <T> Future<T> enviar(int particion, Escritura<T, ?> escritura) {
+        ComicSistema sistema = particiones[particion];
+        try {
+            return escritores[particion].submit(() -> escritura.aplicar(sistema));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("El sistema particionado está cerrado.", e);
+        }
+    }
+
+    /**
+     * Espera el resultado de un cambio y relanza la excepción que haya lanzado.
+     */
+    @SuppressWarnings("unchecked")
+    private <T, X extends Exception> T esperar(Future<T> futuro) throws X {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera de una escritura.", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            // La escritura solo puede lanzar excepciones de tipo X
+            throw (X) causa;
+        }
+    }
+
+    /**
+     * Ejecuta un cambio en todas las particiones a la vez y espera a que terminen.
+     *
+     * @return Los resultados, por número de partición.
+     */
+    private <T> List<T> escribirEnTodas(Escritura<T, RuntimeException> escritura) {
+        List<Future<T>> futuros = new ArrayList<>(particiones.length);
+        for (int i = 0; i < particiones.length; i++) {
+            futuros.add(enviar(i, escritura));
+        }
+        List<T> resultados = new ArrayList<>(particiones.length);
+        for (Future<T> futuro : futuros) {
+            resultados.add(this.<T, RuntimeException>esperar(futuro));
+        }
+        return resultados;
+    }
+
+    /**
+     * Reparte un lote entre las particiones, aplica cada parte en su partición (todas a la vez) y rearma el
+     * resultado en el orden del lote.
+     */
+    private <E> ResultadoLote escribirLote(Collection<E> lote, ToIntFunction<E> particionDe,
+                                           Function<ComicSistema, Function<List<E>, ResultadoLote>> operacion) {
+        List<List<E>> partes = new ArrayList<>(particiones.length);
+        List<List<Integer>> posiciones = new ArrayList<>(particiones.length);
+        for (int i = 0; i < particiones.length; i++) {
+            partes.add(new ArrayList<>());
+            posiciones.add(new ArrayList<>());
+        }
+        int posicion = 0;
+        for (E elemento : lote) {
+            int particion = particionDe.applyAsInt(elemento);
+            partes.get(particion).add(elemento);
+            posiciones.get(particion).add(posicion++);
+        }
+        List<Future<ResultadoLote>> futuros = new ArrayList<>(particiones.length);
+        for (int i = 0; i < particiones.length; i++) {
+            List<E> parte = partes.get(i);
+            futuros.add(parte.isEmpty() ? null : enviar(i, sistema -> operacion.apply(sistema).apply(parte)));
+        }
+        ResultadoLote.Elemento[] elementos = new ResultadoLote.Elemento[posicion];
+        for (int i = 0; i < particiones.length; i++) {
+            if (futuros.get(i) == null) {
+                continue;
+            }
+            List<ResultadoLote.Elemento> resultados = this.<ResultadoLote, RuntimeException>esperar(futuros.get(i)).getElementos();
+            for (int j = 0; j < resultados.size(); j++) {
+                elementos[posiciones.get(i).get(j)] = resultados.get(j);
+            }
+        }
+        return new ResultadoLote(List.of(elementos));
+    }
+
+    // --- Cómics ---
+
+    /**
+     * Agrega un cómic a su partición (ver {@link ComicSistema#agregarComic}).
+     *
+     * @param comic El cómic a agregar.
+     * @return true si el cómic se agregó, false si su ID ya existía.
+     */
+    public boolean agregarComic(Comic comic) {
+        return escribir(particionDeComic(comic.getId()), particion -> particion.agregarComic(comic));
+    }
+
+    /**
+     * Agrega varios cómics (ver {@link ComicSistema#agregarComics}). El lote se reparte entre las particiones y
+     * cada parte se agrega como un solo cambio en la suya, en paralelo; el lote no es atómico entre particiones.
+     *
+     * @param nuevos Los cómics a agregar.
+     * @return El resultado de cada cómic, en el orden del lote.
+     */
+    public ResultadoLote agregarComics(Collection<Comic> nuevos) {
+        Objects.requireNonNull(nuevos, "El lote de cómics no puede ser nulo.");
+        return escribirLote(nuevos, comic -> comic == null ? 0 : particionDeComic(comic.getId()),
+                particion -> particion::agregarComics);
+    }
+
+    /**
+     * Elimina un cómic de su partición (ver {@link ComicSistema#eliminarComic}).
+     *
+     * @param id El ID del cómic a eliminar.
+     * @return true si el cómic fue encontrado y eliminado, false en caso contrario.
+     */
+    public boolean eliminarComic(String id) {
+        return escribir(particionDeComic(id), particion -> particion.eliminarComic(id));
+    }
+
+    /**
+     * Busca un cómic por su ID en su partición, sin distinguir mayúsculas.
+     *
+     * @param id El ID del cómic.
+     * @return El cómic, o null si no existe.
+     */
+    public Comic buscarComicPorId(String id) {
+        return particiones[particionDeComic(id)].buscarComicPorId(id);
+    }
+
+    /**
+     * Obtiene el número de cómics en un estado, sumando los de todas las particiones.
+     *
+     * @param estado El estado a contar.
+     * @return El número de cómics en ese estado.
+     */
+    public long contarComics(EstadoComic estado) {
+        long total = 0;
+        for (ComicSistema particion : particiones) {
+            total += particion.contarComics(estado);
+        }
+        return total;
+    }
+
+    /**
+     * Busca cómics por autor, por estado, o por ambos (ver {@link ComicSistema#buscarComics}). Los resultados son los
+     * de cada partición en su orden, una partición tras otra. Se pide a cada partición su total y solo se leen las
+     * páginas de las particiones que aportan elementos a la pedida.
+     *
+     * @param autor El autor a buscar; null para no filtrar por autor.
+     * @param estado El estado a buscar; null para no filtrar por estado.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de cómics que cumplen los filtros.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public Pagina<Comic> buscarComics(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        validarPagina(numeroPagina, tamanoPagina);
+        long[] totales = new long[particiones.length];
+        long total = 0;
+        for (int i = 0; i < particiones.length; i++) {
+            totales[i] = particiones[i].buscarComics(autor, estado, 1, 1).getTotalElementos();
+            total += totales[i];
+        }
+        long saltar = (long) (numeroPagina - 1) * tamanoPagina;
+        List<Comic> elementos = new ArrayList<>();
+        for (int i = 0; i < particiones.length && elementos.size() < tamanoPagina; i++) {
+            if (saltar >= totales[i]) {
+                saltar -= totales[i];
+                continue;
+            }
+            // El tramo [saltar, saltar + faltantes) cae en a lo más dos páginas de la partición
+            int faltantes = tamanoPagina - elementos.size();
+            long pagina = saltar / tamanoPagina;
+            int desde = (int) (saltar % tamanoPagina);
+            for (int leidas = 0; leidas < 2 && elementos.size() < tamanoPagina; leidas++, desde = 0) {
+                List<Comic> parte = particiones[i].buscarComics(autor, estado, (int) (pagina + leidas + 1), tamanoPagina).getElementos();
+                for (int j = desde; j < parte.size() && faltantes > 0; j++, faltantes--) {
+                    elementos.add(parte.get(j));
+                }
+                if (parte.size() < tamanoPagina) {
+                    break;
+                }
+            }
+            saltar = 0;
+        }
+        return new Pagina<>(elementos, numeroPagina, tamanoPagina, total);
+    }
+
+    /**
+     * Busca cómics por texto en su título y su autor (ver {@link ComicSistema#buscarPorTexto}). Cada partición
+     * retorna sus mejores resultados hasta el final de la página pedida con sus puntajes, y se combinan por puntaje;
+     * a igual puntaje, primero los de la partición de menor número.
+     *
+     * @param consulta El texto a buscar.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de cómics que coinciden con la consulta.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public Pagina<Comic> buscarPorTexto(String consulta, int numeroPagina, int tamanoPagina) {
+        int limite = validarPagina(numeroPagina, tamanoPagina);
+        List<List<Puntuado>> resultados = new ArrayList<>(particiones.length);
+        long total = 0;
+        for (ComicSistema particion : particiones) {
+            IndiceTexto.Puntuados puntuados = particion.buscarPorTextoPuntuados(consulta, limite);
+            List<Puntuado> lista = new ArrayList<>(puntuados.comics().size());
+            for (int i = 0; i < puntuados.comics().size(); i++) {
+                lista.add(new Puntuado(puntuados.comics().get(i), puntuados.puntajes()[i]));
+            }
+            resultados.add(lista);
+            total += puntuados.total();
+        }
+        List<Comic> elementos = new ArrayList<>();
+        for (Puntuado puntuado : mezclar(resultados, Comparator.comparingInt(Puntuado::puntaje).reversed(),
+                (long) (numeroPagina - 1) * tamanoPagina, tamanoPagina)) {
+            elementos.add(puntuado.comic());
+        }
+        return new Pagina<>(elementos, numeroPagina, tamanoPagina, total);
+    }
+
+    /**
+     * Lista todos los cómics: los de cada partición en orden de inserción, una partición tras otra. Cada partición
+     * se lista tal como estaba al leerla (ver {@link ComicSistema#listarComics}).
+     *
+     * @return Una lista inmutable de copias inmutables de los cómics.
+     */
+    public List<Comic> listarComics() {
+        List<Comic> comics = new ArrayList<>();
+        for (ComicSistema particion : particiones) {
+            comics.addAll(particion.listarComics());
+        }
+        return Collections.unmodifiableList(comics);
+    }
+
+    // --- Ventas y reservas: en la partición del cómic ---
+
+    /**
+     * Registra la venta de un cómic (ver {@link ComicSistema#registrarVenta}). El comprador puede estar en cualquier partición.
+     *
+     * @param idComic El ID del cómic a vender.
+     * @param idUsuario El ID del usuario que compra el cómic.
+     * @return El evento de venta registrado en el historial.
+     * @throws ComicNoEncontradoException Si el cómic no existe.
+     * @throws ComicYaVendidoException Si el cómic ya está vendido o reservado.
+     * @throws IllegalArgumentException Si el usuario no existe.
+     */
+    public EventoVenta registrarVenta(String idComic, String idUsuario) throws ComicNoEncontradoException, ComicYaVendidoException {
+        try {
+            return escribir(particionDeComic(idComic), particion -> particion.registrarVenta(idComic, idUsuario));
+        } catch (ComicNoEncontradoException | ComicYaVendidoException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // El cambio no lanza otras excepciones
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Vende varios cómics a un usuario (ver {@link ComicSistema#registrarVentas}). Cada partición vende su parte
+     * del lote como un solo cambio; el lote no es atómico entre particiones.
+     *
+     * @param idUsuario El ID del comprador.
+     * @param idsComics Los IDs de los cómics.
+     * @return El resultado de cada cómic, en el orden del lote.
+     * @throws IllegalArgumentException Si el usuario no existe; en ese caso no se vende ningún cómic.
+     */
+    public ResultadoLote registrarVentas(String idUsuario, Collection<String> idsComics) {
+        Objects.requireNonNull(idsComics, "El lote de IDs no puede ser nulo.");
+        if (buscarUsuarioPorId(idUsuario) == null) {
+            throw new IllegalArgumentException("El usuario con ID '" + idUsuario + "' no existe. Por favor, registre al usuario primero.");
+        }
+        return escribirLote(idsComics, this::particionDeComic, particion -> ids -> particion.registrarVentas(idUsuario, ids));
+    }
+
+    /**
+     * Reserva un cómic para un usuario (ver {@link ComicSistema#reservar}).
+     *
+     * @param idComic El ID del cómic a reservar.
+     * @param idUsuario El ID del usuario que lo reserva.
+     * @return El evento de reserva registrado en el historial.
+     * @throws ComicNoEncontradoException Si el cómic no existe.
+     * @throws ComicYaVendidoException Si el cómic ya está vendido o reservado.
+     * @throws IllegalArgumentException Si el usuario no existe.
+     */
+    public EventoVenta reservar(String idComic, String idUsuario) throws ComicNoEncontradoException, ComicYaVendidoException {
+        try {
+            return escribir(particionDeComic(idComic), particion -> particion.reservar(idComic, idUsuario));
+        } catch (ComicNoEncontradoException | ComicYaVendidoException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // El cambio no lanza otras excepciones
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Confirma la reserva de un cómic como venta (ver {@link ComicSistema#confirmarReserva}).
+     *
+     * @param idComic El ID del cómic reservado.
+     * @param idUsuario El ID del usuario que lo reservó.
+     * @return El evento de venta registrado en el historial.
+     * @throws ComicNoEncontradoException Si el cómic no existe.
+     * @throws ReservaNoEncontradaException Si el cómic no tiene una reserva vigente de ese usuario.
+     */
+    public EventoVenta confirmarReserva(String idComic, String idUsuario) throws ComicNoEncontradoException, ReservaNoEncontradaException {
+        try {
+            return escribir(particionDeComic(idComic), particion -> particion.confirmarReserva(idComic, idUsuario));
+        } catch (ComicNoEncontradoException | ReservaNoEncontradaException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // El cambio no lanza otras excepciones
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cancela una reserva o marca un cómic como disponible (ver {@link ComicSistema#cancelarReservaODeclararDisponible}).
+     *
+     * @param idComic El ID del cómic.
+     * @return El evento registrado, o null si el cómic ya estaba disponible.
+     * @throws ComicNoEncontradoException Si el cómic no existe.
+     */
+    public EventoVenta cancelarReservaODeclararDisponible(String idComic) throws ComicNoEncontradoException {
+        return escribir(particionDeComic(idComic), particion -> particion.cancelarReservaODeclararDisponible(idComic));
+    }
+
+    /**
+     * Marca varios cómics como disponibles (ver {@link ComicSistema#declararDisponibles}), cada parte del lote
+     * como un solo cambio en su partición.
+     *
+     * @param idsComics Los IDs de los cómics.
+     * @return El resultado de cada cómic, en el orden del lote.
+     */
+    public ResultadoLote declararDisponibles(Collection<String> idsComics) {
+        Objects.requireNonNull(idsComics, "El lote de IDs no puede ser nulo.");
+        return escribirLote(idsComics, this::particionDeComic, particion -> particion::declararDisponibles);
+    }
+
+    /**
+     * Indica cuánto dura una reserva sin confirmar en todas las particiones.
+     *
+     * @param duracionReservas La duración de las reservas nuevas.
+     */
+    public void setDuracionReservas(Duration duracionReservas) {
+        for (ComicSistema particion : particiones) {
+            particion.setDuracionReservas(duracionReservas);
+        }
+    }
+
+    /**
+     * Obtiene el número de reservas vigentes en todas las particiones.
+     *
+     * @return El número de reservas vigentes.
+     */
+    public int contarReservasVigentes() {
+        int total = 0;
+        for (ComicSistema particion : particiones) {
+            total += particion.contarReservasVigentes();
+        }
+        return total;
+    }
+
+    /**
+     * Libera las reservas vencidas de todas las particiones (ver {@link ComicSistema#liberarReservasVencidas}).
+     *
+     * @return El número de reservas liberadas.
+     */
+    public int liberarReservasVencidas() {
+        int total = 0;
+        for (int liberadas : escribirEnTodas(ComicSistema::liberarReservasVencidas)) {
+            total += liberadas;
+        }
+        return total;
+    }
+
+    // --- Persistencia ---
+
+    /**
+     * Guarda una instantánea del inventario de cada partición, todas a la vez.
+     */
+    public void guardarInventario() {
+        escribirEnTodas(particion -> {
+            particion.guardarInventario();
+            return null;
+        });
+    }
+
+    /**
+     * Guarda los usuarios de cada partición, todas a la vez.
+     */
+    public void guardarUsuarios() {
+        escribirEnTodas(particion -> {
+            particion.guardarUsuarios();
+            return null;
+        });
+    }
+
+    // --- Reportes: se combinan los de todas las particiones ---
+
+    /**
+     * Combina los acumuladores de los reportes de todas las particiones en uno nuevo.
+     */
+    private AnaliticaVentas analiticaCombinada() {
+        AnaliticaVentas combinada = new AnaliticaVentas();
+        for (ComicSistema particion : particiones) {
+            combinada.combinar(particion.getAnaliticaVentas());
+        }
+        return combinada;
+    }
+
+    /**
+     * Obtiene los cómics con más ventas netas de todas las particiones.
+     *
+     * @param cantidad El número máximo de cómics del reporte.
+     * @return Los cómics, de más a menos ventas netas.
+     * @throws IllegalArgumentException Si la cantidad es menor que 1.
+     */
+    public List<EstadisticaVentas> obtenerComicsMasVendidos(int cantidad) {
+        return analiticaCombinada().comicsMasVendidos(cantidad);
+    }
+
+    /**
+     * Obtiene los autores con más ventas netas, sumando sus ventas en todas las particiones.
+     *
+     * @param cantidad El número máximo de autores del reporte.
+     * @return Los autores, de más a menos ventas netas.
+     * @throws IllegalArgumentException Si la cantidad es menor que 1.
+     */
+    public List<EstadisticaVentas> obtenerAutoresMasVendidos(int cantidad) {
+        return analiticaCombinada().autoresMasVendidos(cantidad);
+    }
+
+    /**
+     * Obtiene los usuarios con más compras, sumando sus compras en todas las particiones.
+     *
+     * @param cantidad El número máximo de usuarios del reporte.
+     * @return Los usuarios, de más a menos compras.
+     * @throws IllegalArgumentException Si la cantidad es menor que 1.
+     */
+    public List<EstadisticaVentas> obtenerUsuariosConMasCompras(int cantidad) {
+        return analiticaCombinada().usuariosConMasCompras(cantidad);
+    }
+
+    /**
+     * Obtiene el número de compras o reservas de un usuario en todas las particiones.
+     *
+     * @param idUsuario El ID del usuario.
+     * @return El número de compras del usuario; 0 si no tiene ninguna.
+     */
+    public long contarComprasUsuario(String idUsuario) {
+        long total = 0;
+        for (ComicSistema particion : particiones) {
+            total += particion.contarComprasUsuario(idUsuario);
+        }
+        return total;
+    }
+
+    /**
+     * Consulta el historial de ventas de todas las particiones (ver {@link ComicSistema#consultarHistorialVentas}).
+     * Los eventos de cada partición se reúnen en memoria y se entregan mezclados en orden cronológico.
+     *
+     * @param desde El inicio del rango de tiempo (incluido); null para no limitar el inicio.
+     * @param hasta El final del rango de tiempo (excluido); null para no limitar el final.
+     * @param idComic El ID del cómic; null para no filtrar por cómic. Con un cómic, solo se consulta su partición.
+     * @param idUsuario El ID del usuario; null para no filtrar por usuario.
+     * @param consumidor Función que recibe cada evento.
+     * @return El número de eventos entregados.
+     * @throws IOException Si el historial de alguna partición no está disponible o no se puede leer.
+     */
+    public long consultarHistorialVentas(Instant desde, Instant hasta, String idComic, String idUsuario,
+                                         Consumer<EventoVenta> consumidor) throws IOException {
+        if (idComic != null) {
+            return particiones[particionDeComic(idComic)].consultarHistorialVentas(desde, hasta, idComic, idUsuario, consumidor);
+        }
+        List<List<EventoVenta>> eventos = new ArrayList<>(particiones.length);
+        for (ComicSistema particion : particiones) {
+            List<EventoVenta> deParticion = new ArrayList<>();
+            particion.consultarHistorialVentas(desde, hasta, null, idUsuario, deParticion::add);
+            eventos.add(deParticion);
+        }
+        List<EventoVenta> mezclados = mezclar(eventos, Comparator.comparingLong(EventoVenta::getInstanteMillis), 0, Integer.MAX_VALUE);
+        mezclados.forEach(consumidor);
+        return mezclados.size();
+    }
+
+    // --- Usuarios: en la partición del usuario ---
+
+    /**
+     * Agrega un usuario a su partición (ver {@link ComicSistema#agregarUsuario}). El email debe ser único entre
+     * todas las particiones; si otro usuario ya lo registró, se avisa con {@link EventoSistema.Tipo#EMAIL_DUPLICADO}.
+     *
+     * @param usuario El usuario a agregar.
+     * @return true si el usuario se agregó, false si su ID o su email ya estaban registrados.
+     */
+    public boolean agregarUsuario(Usuario usuario) {
+        Objects.requireNonNull(usuario, "El usuario no puede ser nulo.");
+        return escribir(particionDeUsuario(usuario.getId()), particion -> {
+            if (particion.buscarUsuarioPorId(usuario.getId()) != null) {
+                return particion.agregarUsuario(usuario); // Avisa del ID duplicado
+            }
+            String email = usuario.getEmail();
+            boolean conEmail = email != null && !email.isEmpty();
+            // Se reserva el email antes del alta, para que dos particiones no lo acepten a la vez
+            if (conEmail && emails.putIfAbsent(email, usuario.getId()) != null) {
+                oyente.notificar(EventoSistema.deUsuario(EventoSistema.Tipo.EMAIL_DUPLICADO, usuario));
+                return false;
+            }
+            boolean agregado = particion.agregarUsuario(usuario);
+            if (!agregado && conEmail) {
+                emails.remove(email, usuario.getId());
+            }
+            return agregado;
+        });
+    }
+
+    /**
+     * Elimina un usuario de su partición (ver {@link ComicSistema#eliminarUsuario}) y libera su email.
+     *
+     * @param id El ID del usuario a eliminar.
+     * @return true si el usuario fue encontrado y eliminado, false en caso contrario.
+     */
+    public boolean eliminarUsuario(String id) {
+        return escribir(particionDeUsuario(id), particion -> {
+            Usuario usuario = particion.buscarUsuarioPorId(id);
+            boolean eliminado = particion.eliminarUsuario(id);
+            if (eliminado && usuario.getEmail() != null) {
+                emails.remove(usuario.getEmail(), usuario.getId());
+            }
+            return eliminado;
+        });
+    }
+
+    /**
+     * Busca un usuario por su ID en su partición.
+     *
+     * @param id El ID del usuario.
+     * @return El usuario, o null si no existe.
+     */
+    public Usuario buscarUsuarioPorId(String id) {
+        return id == null ? null : particiones[particionDeUsuario(id)].buscarUsuarioPorId(id);
+    }
+
+    /**
+     * Lista todos los usuarios ordenados por ID, mezclando los listados de las particiones.
+     *
+     * @return Una lista inmutable de usuarios.
+     */
+    public List<Usuario> listarUsuarios() {
+        List<List<Usuario>> listas = new ArrayList<>(particiones.length);
+        for (ComicSistema particion : particiones) {
+            listas.add(particion.listarUsuarios());
+        }
+        return Collections.unmodifiableList(mezclar(listas, Comparator.comparing(Usuario::getId), 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Obtiene una página de los usuarios ordenados por ID. Cada partición aporta sus primeros usuarios hasta el
+     * final de la página pedida, así que las páginas lejanas cuestan más que las primeras.
+     *
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de usuarios por página.
+     * @return La página de usuarios.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public Pagina<Usuario> listarUsuarios(int numeroPagina, int tamanoPagina) {
+        int limite = validarPagina(numeroPagina, tamanoPagina);
+        List<Pagina<Usuario>> paginas = new ArrayList<>(particiones.length);
+        for (ComicSistema particion : particiones) {
+            paginas.add(particion.listarUsuarios(1, limite));
+        }
+        return combinarPaginas(paginas, Comparator.comparing(Usuario::getId), numeroPagina, tamanoPagina);
+    }
+
+    /**
+     * Lista todos los usuarios ordenados por nombre y, con el mismo nombre, por ID.
+     *
+     * @return Una lista inmutable de usuarios.
+     */
+    public List<Usuario> listarUsuariosOrdenadosPorNombre() {
+        List<List<Usuario>> listas = new ArrayList<>(particiones.length);
+        for (ComicSistema particion : particiones) {
+            listas.add(particion.listarUsuariosOrdenadosPorNombre());
+        }
+        return Collections.unmodifiableList(mezclar(listas, IndiceUsuarios.ORDEN_USUARIOS_POR_NOMBRE, 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Busca los usuarios cuyo nombre empieza con un prefijo (ver {@link ComicSistema#buscarUsuariosPorNombre}),
+     * mezclando las búsquedas de las particiones.
+     *
+     * @param prefijo El inicio del nombre; vacío o null para todos los usuarios.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de usuarios por página.
+     * @return La página de usuarios; su total es el número de usuarios con el prefijo.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public Pagina<Usuario> buscarUsuariosPorNombre(String prefijo, int numeroPagina, int tamanoPagina) {
+        int limite = validarPagina(numeroPagina, tamanoPagina);
+        List<Pagina<Usuario>> paginas = new ArrayList<>(particiones.length);
+        for (ComicSistema particion : particiones) {
+            paginas.add(particion.buscarUsuariosPorNombre(prefijo, 1, limite));
+        }
+        return combinarPaginas(paginas, IndiceUsuarios.ORDEN_USUARIOS_POR_NOMBRE, numeroPagina, tamanoPagina);
+    }
+
+    // --- Combinación de resultados ---
+
+    /**
+     * Valida una página y obtiene el número de elementos hasta su final, que cada partición debe aportar.
+     */
+    private static int validarPagina(int numeroPagina, int tamanoPagina) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser mayores que 0.");
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) numeroPagina * tamanoPagina);
+    }
+
+    /**
+     * Combina las primeras páginas de las particiones, ordenadas, en la página pedida; su total es la suma de los totales.
+     */
+    private static <T> Pagina<T> combinarPaginas(List<Pagina<T>> paginas, Comparator<? super T> orden,
+                                                 int numeroPagina, int tamanoPagina) {
+        List<List<T>> listas = new ArrayList<>(paginas.size());
+        long total = 0;
+        for (Pagina<T> pagina : paginas) {
+            listas.add(pagina.getElementos());
+            total += pagina.getTotalElementos();
+        }
+        return new Pagina<>(mezclar(listas, orden, (long) (numeroPagina - 1) * tamanoPagina, tamanoPagina),
+                numeroPagina, tamanoPagina, total);
+    }
+
+    /**
+     * Mezcla listas ordenadas en una sola con un montículo de sus cabezas, en {@code O(k log p)} para k elementos
+     * y p listas. A igual orden, primero el elemento de la lista de menor posición.
+     *
+     * @param listas Las listas, cada una ordenada.
+     * @param orden El orden de las listas.
+     * @param saltar El número de elementos del inicio de la mezcla que se descartan.
+     * @param cantidad El número máximo de elementos del resultado.
+     * @return Los elementos mezclados.
+     */
+    private static <T> List<T> mezclar(List<? extends List<? extends T>> listas, Comparator<? super T> orden,
+                                       long saltar, int cantidad) {
+        // Cada cabeza es {lista, posición en la lista}
+        PriorityQueue<int[]> cabezas = new PriorityQueue<>(Math.max(1, listas.size()), (a, b) -> {
+            int comparacion = orden.compare(listas.get(a[0]).get(a[1]), listas.get(b[0]).get(b[1]));
+            return comparacion != 0 ? comparacion : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < listas.size(); i++) {
+            if (!listas.get(i).isEmpty()) {
+                cabezas.add(new int[]{i, 0});
+            }
+        }
+        List<T> mezclados = new ArrayList<>();
+        while (!cabezas.isEmpty() && mezclados.size() < cantidad) {
+            int[] cabeza = cabezas.poll();
+            List<? extends T> lista = listas.get(cabeza[0]);
+            if (saltar > 0) {
+                saltar--;
+            } else {
+                mezclados.add(lista.get(cabeza[1]));
+            }
+            if (++cabeza[1] < lista.size()) {
+                cabezas.add(cabeza);
+            }
+        }
+        return mezclados;
+    }
+
+    /**
+     * Espera a que los escritores terminen los cambios encolados y cierra todas las particiones
+     * (ver {@link ComicSistema#close}). Después de cerrar, los cambios fallan con {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService escritor : escritores) {
+            if (escritor != null) {
+                escritor.shutdown();
+            }
+        }
+        boolean interrumpido = false;
+        for (ExecutorService escritor : escritores) {
+            while (escritor != null) {
+                try {
+                    if (escritor.awaitTermination(1, TimeUnit.MINUTES)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+        }
+        for (ComicSistema particion : particiones) {
+            if (particion != null) {
+                particion.close();
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
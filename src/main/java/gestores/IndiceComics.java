@@ -0,0 +1,130 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.Pagina;
+import utilidades.TextoUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices secundarios del inventario de {@link ComicSistema}: por estado y por autor y estado.
+ * <p>
+ * Cada índice agrupa los cómics por clave en mapas ID normalizado -> cómic, de modo que una consulta
+ * recorre solo los cómics que la cumplen. Dentro de un grupo los cómics aparecen en el orden en que
+ * llegaron a él: un cómic que cambia de estado pasa al final del grupo de su nuevo estado.
+ * <p>
+ * Los métodos están sincronizados, ya que ComicSistema cambia estados de cómics distintos en paralelo.
+ */
+final class IndiceComics {
+    private final Map<EstadoComic, LinkedHashMap<String, Comic>> porEstado = new EnumMap<>(EstadoComic.class);
+    // Autor normalizado (ver TextoUtil#normalizarTexto) -> estado -> cómics
+    private final Map<String, Map<EstadoComic, LinkedHashMap<String, Comic>>> porAutor = new HashMap<>();
+
+    IndiceComics() {
+        for (EstadoComic estado : EstadoComic.values()) {
+            porEstado.put(estado, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Agrega un cómic a los índices, según su estado actual.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param comic El cómic.
+     */
+    synchronized void agregar(String clave, Comic comic) {
+        porEstado.get(comic.getEstado()).put(clave, comic);
+        porAutor.computeIfAbsent(TextoUtil.normalizarTexto(comic.getAutor()), autor -> new EnumMap<>(EstadoComic.class))
+                .computeIfAbsent(comic.getEstado(), estado -> new LinkedHashMap<>())
+                .put(clave, comic);
+    }
+
+    /**
+     * Quita un cómic de los índices.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param comic El cómic, con el estado con el que está indexado.
+     */
+    synchronized void eliminar(String clave, Comic comic) {
+        quitar(clave, comic, comic.getEstado());
+    }
+
+    /**
+     * Mueve un cómic al grupo de su nuevo estado. Debe llamarse después de cambiar el estado del cómic.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param comic El cómic, ya con su nuevo estado.
+     * @param estadoAnterior El estado con el que estaba indexado.
+     */
+    synchronized void cambiarEstado(String clave, Comic comic, EstadoComic estadoAnterior) {
+        quitar(clave, comic, estadoAnterior);
+        agregar(clave, comic);
+    }
+
+    /**
+     * Vacía los índices.
+     */
+    synchronized void limpiar() {
+        porEstado.values().forEach(Map::clear);
+        porAutor.clear();
+    }
+
+    /**
+     * Consulta los cómics de un autor, de un estado, o de ambos.
+     * Si no se indica estado, se devuelven los cómics del autor agrupados por estado
+     * (primero los disponibles, luego los reservados y al final los vendidos).
+     *
+     * @param autor El autor a buscar, sin distinguir mayúsculas ni espacios repetidos; null para no filtrar por autor.
+     * @param estado El estado a buscar; null para no filtrar por estado.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de resultados.
+     * @throws IllegalArgumentException Si no se indica ni autor ni estado, o si la página no es válida.
+     */
+    synchronized Pagina<Comic> consultar(String autor, EstadoComic estado, int numeroPagina, int tamanoPagina) {
+        List<Collection<Comic>> grupos = new ArrayList<>();
+        if (autor == null) {
+            if (estado == null) {
+                throw new IllegalArgumentException("Debe indicar un autor o un estado.");
+            }
+            grupos.add(porEstado.get(estado).values());
+        } else {
+            Map<EstadoComic, LinkedHashMap<String, Comic>> delAutor = porAutor.get(TextoUtil.normalizarTexto(autor));
+            if (delAutor != null) {
+                for (Map.Entry<EstadoComic, LinkedHashMap<String, Comic>> entrada : delAutor.entrySet()) {
+                    if (estado == null || entrada.getKey() == estado) {
+                        grupos.add(entrada.getValue().values());
+                    }
+                }
+            }
+        }
+        // Se copian los elementos de la página dentro del bloqueo; la lista resultante no depende de los índices
+        return Pagina.desde(grupos, numeroPagina, tamanoPagina);
+    }
+
+    private void quitar(String clave, Comic comic, EstadoComic estado) {
+        porEstado.get(estado).remove(clave);
+        String autor = TextoUtil.normalizarTexto(comic.getAutor());
+        Map<EstadoComic, LinkedHashMap<String, Comic>> delAutor = porAutor.get(autor);
+        if (delAutor == null) {
+            return;
+        }
+        LinkedHashMap<String, Comic> grupo = delAutor.get(estado);
+        if (grupo != null) {
+            grupo.remove(clave);
+            if (grupo.isEmpty()) {
+                delAutor.remove(estado);
+                if (delAutor.isEmpty()) {
+                    porAutor.remove(autor);
+                }
+            }
+        }
+    }
+}
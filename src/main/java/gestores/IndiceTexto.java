@@ -0,0 +1,377 @@
+package gestores;
+
+import modelos.Comic;
+import utilidades.Pagina;
+import utilidades.TextoUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido sobre los títulos y autores del inventario de {@link ComicSistema}, para búsquedas de texto completo.
+ * <p>
+ * Los textos se dividen en términos con {@link TextoUtil#tokenizar}. Cada término apunta a la lista ordenada de
+ * documentos (cómics) que lo contienen, junto con el campo donde aparece. Un término de la consulta coincide con
+ * todos los términos que empiezan con él ("sand" encuentra "sandman"); para encontrarlos, el vocabulario se mantiene
+ * en un arreglo ordenado donde se busca por bisección. Los términos nuevos se acumulan aparte y se incorporan
+ * al arreglo por lotes, porque insertarlos uno a uno en un árbol ordenado domina el tiempo de carga de inventarios grandes.
+ * Una consulta con varios términos devuelve los cómics que coinciden con todos ellos (AND).
+ * <p>
+ * Puntaje de cada término de la consulta en un cómic (se toma el mejor y se suman los de todos los términos):
+ * coincidencia exacta en el título 4, por prefijo en el título 2, exacta en el autor 2 y por prefijo en el autor 1.
+ * A igual puntaje, primero los cómics indexados antes.
+ * <p>
+ * La clase no es segura para hilos por sí misma: ComicSistema la modifica solo con el bloqueo de escritura
+ * del inventario y la consulta con el de lectura.
+ */
+final class IndiceTexto {
+    private static final byte TITULO = 1;
+    private static final byte AUTOR = 2;
+    // Con más expansiones que esto, un término se evalúa armando su unión completa en lugar de buscar documento por documento
+    private static final int MAX_EXPANSIONES_POR_BUSQUEDA = 32;
+    // Términos nuevos que se acumulan antes de incorporarlos al vocabulario ordenado
+    private static final int MAX_TERMINOS_NUEVOS = 1024;
+
+    private final Map<String, Postings> terminos = new HashMap<>();
+    private String[] vocabulario = new String[0]; // Ordenado; puede contener términos ya eliminados de 'terminos'
+    private final List<String> terminosNuevos = new ArrayList<>(); // Términos que aún no están en 'vocabulario'
+    private final List<Comic> documentos = new ArrayList<>(); // Número de documento -> cómic; null si se eliminó
+
+    /**
+     * Indexa el título y el autor de un cómic.
+     *
+     * @param comic El cómic.
+     */
+    void agregar(Comic comic) {
+        indexar(comic);
+        if (terminosNuevos.size() > MAX_TERMINOS_NUEVOS) {
+            ordenarVocabulario();
+        }
+    }
+
+    /**
+     * Reemplaza el contenido del índice por los cómics indicados. El vocabulario se ordena una sola vez al final.
+     *
+     * @param comics Los cómics a indexar.
+     */
+    void reconstruir(Collection<Comic> comics) {
+        terminos.clear();
+        vocabulario = new String[0];
+        terminosNuevos.clear();
+        documentos.clear();
+        for (Comic comic : comics) {
+            indexar(comic);
+        }
+        ordenarVocabulario();
+    }
+
+    /**
+     * Quita un cómic del índice.
+     * Su número de documento se busca en la lista del término menos frecuente de su título y autor,
+     * para no mantener un mapa de cómic a documento solo para las bajas.
+     *
+     * @param comic El cómic: el mismo objeto que se indexó, o uno igual a él según {@code equals}.
+     */
+    void eliminar(Comic comic) {
+        List<String> terminosComic = TextoUtil.tokenizar(comic.getTitulo());
+        terminosComic.addAll(TextoUtil.tokenizar(comic.getAutor()));
+        Postings menor = null;
+        for (String termino : terminosComic) {
+            Postings postings = terminos.get(termino);
+            if (postings != null && (menor == null || postings.tamano < menor.tamano)) {
+                menor = postings;
+            }
+        }
+        int documento = -1;
+        for (int i = 0; menor != null && i < menor.tamano && documento < 0; i++) {
+            if (comic.equals(documentos.get(menor.documento(i)))) {
+                documento = menor.documento(i);
+            }
+        }
+        if (documento < 0) {
+            return;
+        }
+        documentos.set(documento, null);
+        for (String termino : terminosComic) {
+            Postings postings = terminos.get(termino);
+            if (postings != null && postings.eliminar(documento) && postings.tamano == 0) {
+                terminos.remove(termino);
+            }
+        }
+    }
+
+    /**
+     * Busca los cómics cuyo título o autor contienen todos los términos de la consulta (o términos que empiezan con ellos),
+     * ordenados por puntaje.
+     *
+     * @param consulta El texto a buscar.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de cómics por página.
+     * @return La página de resultados; vacía si la consulta no tiene términos o nada coincide.
+     */
+    Pagina<Comic> buscar(String consulta, int numeroPagina, int tamanoPagina) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser mayores que 0.");
+        }
+        long[] ordenados = puntuar(consulta);
+        long desde = (long) (numeroPagina - 1) * tamanoPagina;
+        List<Comic> elementos = new ArrayList<>();
+        for (long i = desde; i < ordenados.length && elementos.size() < tamanoPagina; i++) {
+            elementos.add(documentos.get((int) ordenados[(int) i]));
+        }
+        return new Pagina<>(elementos, numeroPagina, tamanoPagina, ordenados.length);
+    }
+
+    /**
+     * Los mejores resultados de una búsqueda con sus puntajes, para combinarlos con los de otros índices.
+     *
+     * @param comics Los cómics, ordenados por puntaje.
+     * @param puntajes El puntaje de cada cómic, en el mismo orden.
+     * @param total El número de cómics que coinciden con la consulta.
+     */
+    record Puntuados(List<Comic> comics, int[] puntajes, int total) {
+    }
+
+    /**
+     * Busca como {@link #buscar}, pero retorna los primeros resultados junto con sus puntajes.
+     *
+     * @param consulta El texto a buscar.
+     * @param limite El número máximo de resultados.
+     * @return Los primeros resultados y el total de coincidencias.
+     */
+    Puntuados buscarPuntuados(String consulta, int limite) {
+        long[] ordenados = puntuar(consulta);
+        int cantidad = Math.min(limite, ordenados.length);
+        List<Comic> comics = new ArrayList<>(cantidad);
+        int[] puntajes = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            comics.add(documentos.get((int) ordenados[i]));
+            puntajes[i] = (int) -(ordenados[i] >> 32);
+        }
+        return new Puntuados(comics, puntajes, ordenados.length);
+    }
+
+    /**
+     * Obtiene los documentos que coinciden con la consulta, ordenados por puntaje descendente y, a igual puntaje,
+     * por documento: cada uno es {@code (-puntaje << 32) | documento}.
+     */
+    private long[] puntuar(String consulta) {
+        List<Termino> consultaTerminos = new ArrayList<>();
+        for (String texto : new LinkedHashSet<>(TextoUtil.tokenizar(consulta))) {
+            Termino termino = new Termino(texto, expandir(texto));
+            if (termino.estimacion == 0) {
+                return new long[0];
+            }
+            consultaTerminos.add(termino);
+        }
+        if (consultaTerminos.isEmpty()) {
+            return new long[0];
+        }
+
+        // Se parte del término con menos documentos y se filtra con el resto, así el costo depende del resultado
+        consultaTerminos.sort((a, b) -> Long.compare(a.estimacion, b.estimacion));
+        Map<Integer, Integer> puntajes = consultaTerminos.get(0).unir();
+        for (int i = 1; i < consultaTerminos.size() && !puntajes.isEmpty(); i++) {
+            Termino termino = consultaTerminos.get(i);
+            if (termino.expansiones.size() > MAX_EXPANSIONES_POR_BUSQUEDA) {
+                Map<Integer, Integer> delTermino = termino.unir();
+                puntajes.entrySet().removeIf(e -> !delTermino.containsKey(e.getKey()));
+                puntajes.replaceAll((documento, puntaje) -> puntaje + delTermino.get(documento));
+            } else {
+                puntajes.entrySet().removeIf(e -> {
+                    int puntaje = termino.puntaje(e.getKey());
+                    e.setValue(e.getValue() + puntaje);
+                    return puntaje == 0;
+                });
+            }
+        }
+
+        long[] ordenados = new long[puntajes.size()];
+        int n = 0;
+        for (Map.Entry<Integer, Integer> entrada : puntajes.entrySet()) {
+            // Puntaje descendente y, a igual puntaje, documento ascendente, en un solo long ordenable
+            ordenados[n++] = ((long) -entrada.getValue() << 32) | entrada.getKey();
+        }
+        Arrays.sort(ordenados);
+        return ordenados;
+    }
+
+    private void indexar(Comic comic) {
+        int documento = documentos.size();
+        documentos.add(comic);
+        for (String termino : TextoUtil.tokenizar(comic.getTitulo())) {
+            postingsDe(termino).agregar(documento, TITULO);
+        }
+        for (String termino : TextoUtil.tokenizar(comic.getAutor())) {
+            postingsDe(termino).agregar(documento, AUTOR);
+        }
+    }
+
+    private Postings postingsDe(String termino) {
+        Postings postings = terminos.get(termino);
+        if (postings == null) {
+            postings = new Postings();
+            terminos.put(termino, postings);
+            terminosNuevos.add(termino);
+        }
+        return postings;
+    }
+
+    /**
+     * Incorpora los términos nuevos al vocabulario ordenado y descarta los que ya no tienen documentos.
+     */
+    private void ordenarVocabulario() {
+        List<String> vigentes = new ArrayList<>(vocabulario.length + terminosNuevos.size());
+        for (String termino : vocabulario) {
+            if (terminos.containsKey(termino)) {
+                vigentes.add(termino);
+            }
+        }
+        for (String termino : terminosNuevos) {
+            // Un término eliminado y vuelto a agregar puede seguir en el vocabulario
+            if (Arrays.binarySearch(vocabulario, termino) < 0) {
+                vigentes.add(termino);
+            }
+        }
+        String[] ordenado = vigentes.toArray(new String[0]);
+        Arrays.parallelSort(ordenado);
+        vocabulario = ordenado;
+        terminosNuevos.clear();
+    }
+
+    /**
+     * Obtiene los términos del índice que empiezan con el prefijo indicado (incluido el propio prefijo).
+     */
+    private List<Map.Entry<String, Postings>> expandir(String prefijo) {
+        List<Map.Entry<String, Postings>> expansiones = new ArrayList<>();
+        int i = Arrays.binarySearch(vocabulario, prefijo);
+        for (i = i < 0 ? -i - 1 : i; i < vocabulario.length && vocabulario[i].startsWith(prefijo); i++) {
+            Postings postings = terminos.get(vocabulario[i]);
+            if (postings != null) {
+                expansiones.add(Map.entry(vocabulario[i], postings));
+            }
+        }
+        for (String termino : terminosNuevos) {
+            Postings postings = terminos.get(termino);
+            if (postings != null && termino.startsWith(prefijo) && Arrays.binarySearch(vocabulario, termino) < 0) {
+                expansiones.add(Map.entry(termino, postings));
+            }
+        }
+        return expansiones;
+    }
+
+    private static int peso(byte campos, boolean exacto) {
+        if ((campos & TITULO) != 0) {
+            return exacto ? 4 : 2;
+        }
+        return exacto ? 2 : 1;
+    }
+
+    /**
+     * Un término de la consulta y los términos del diccionario con los que coincide.
+     */
+    private static final class Termino {
+        private final String texto;
+        private final List<Map.Entry<String, Postings>> expansiones;
+        private final long estimacion; // Suma de los documentos de todas las expansiones
+
+        Termino(String texto, List<Map.Entry<String, Postings>> expansiones) {
+            this.texto = texto;
+            this.expansiones = expansiones;
+            long total = 0;
+            for (Map.Entry<String, Postings> expansion : expansiones) {
+                total += expansion.getValue().tamano;
+            }
+            this.estimacion = total;
+        }
+
+        /**
+         * Une los documentos de todas las expansiones con el mejor puntaje de cada uno.
+         */
+        Map<Integer, Integer> unir() {
+            Map<Integer, Integer> puntajes = new HashMap<>((int) Math.min(Integer.MAX_VALUE, estimacion * 4 / 3 + 1));
+            for (Map.Entry<String, Postings> expansion : expansiones) {
+                boolean exacto = expansion.getKey().equals(texto);
+                Postings postings = expansion.getValue();
+                for (int i = 0; i < postings.tamano; i++) {
+                    puntajes.merge(postings.documento(i), peso(postings.campos(i), exacto), Math::max);
+                }
+            }
+            return puntajes;
+        }
+
+        /**
+         * Obtiene el mejor puntaje del término en un documento, o 0 si el documento no lo contiene.
+         */
+        int puntaje(int documento) {
+            int mejor = 0;
+            for (Map.Entry<String, Postings> expansion : expansiones) {
+                Postings postings = expansion.getValue();
+                int i = postings.buscar(documento);
+                if (i >= 0) {
+                    mejor = Math.max(mejor, peso(postings.campos(i), expansion.getKey().equals(texto)));
+                }
+            }
+            return mejor;
+        }
+    }
+
+    /**
+     * Lista ordenada de los documentos que contienen un término y los campos donde aparece en cada uno.
+     * Cada entrada guarda el número de documento y los campos en un solo int ({@code documento << 2 | campos}),
+     * y la lista empieza con capacidad 1: la mayoría de los términos (números de volumen, apellidos poco comunes)
+     * aparecen en pocos cómics, y así cuestan un solo arreglo pequeño.
+     */
+    private static final class Postings {
+        private int[] entradas = new int[1];
+        private int tamano;
+
+        int documento(int i) {
+            return entradas[i] >>> 2;
+        }
+
+        byte campos(int i) {
+            return (byte) (entradas[i] & 3);
+        }
+
+        /**
+         * Agrega un documento. Los documentos se numeran en orden creciente, así que basta con anexar.
+         */
+        void agregar(int documento, byte campo) {
+            if (tamano > 0 && documento(tamano - 1) == documento) {
+                entradas[tamano - 1] |= campo;
+                return;
+            }
+            if (tamano == entradas.length) {
+                entradas = Arrays.copyOf(entradas, tamano * 2);
+            }
+            entradas[tamano++] = documento << 2 | campo;
+        }
+
+        /**
+         * Busca la posición de un documento en la lista.
+         *
+         * @return La posición, o -1 si el documento no está.
+         */
+        int buscar(int documento) {
+            int i = Arrays.binarySearch(entradas, 0, tamano, documento << 2);
+            i = i < 0 ? -i - 1 : i; // La clave buscada tiene los campos en 0, así que queda justo antes de la entrada
+            return i < tamano && documento(i) == documento ? i : -1;
+        }
+
+        boolean eliminar(int documento) {
+            int i = buscar(documento);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(entradas, i + 1, entradas, i, tamano - i - 1);
+            tamano--;
+            return true;
+        }
+    }
+}
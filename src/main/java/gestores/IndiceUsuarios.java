@@ -0,0 +1,154 @@
+package gestores;
+
+import modelos.Usuario;
+import utilidades.ArbolPersistente;
+import utilidades.Pagina;
+import utilidades.TextoUtil;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices ordenados de los usuarios, por ID y por nombre, en una versión inmutable.
+ * <p>
+ * Ambos son árboles persistentes ({@link ArbolPersistente}): cada alta o baja retorna un índice nuevo que copia solo
+ * los {@code O(log n)} nodos del camino modificado, así que ComicSistema los mantiene al día con cada cambio en vez
+ * de ordenar los usuarios en cada listado, y los lectores usan la versión que leyeron sin bloqueos. El índice por
+ * nombre ordena por el nombre normalizado (sin distinguir mayúsculas ni espacios repetidos, ver
+ * {@link TextoUtil#normalizarTexto}) y desempata por ID, de modo que los usuarios con el mismo nombre aparecen todos.
+ * Las páginas y las búsquedas por prefijo ubican su inicio con el tamaño de cada subárbol: cuestan
+ * {@code O(log n + k)}, con k el tamaño de la página.
+ */
+final class IndiceUsuarios {
+    /**
+     * Clave del índice por nombre: el nombre normalizado y el ID que desempata.
+     */
+    private record ClaveNombre(String nombre, String id) {
+    }
+
+    private static final Comparator<ClaveNombre> ORDEN_NOMBRE =
+            Comparator.comparing(ClaveNombre::nombre).thenComparing(ClaveNombre::id);
+    /** Orden de {@link #porNombre()}, para combinar listados de usuarios ordenados por nombre. */
+    static final Comparator<Usuario> ORDEN_USUARIOS_POR_NOMBRE = Comparator.comparing(IndiceUsuarios::clave, ORDEN_NOMBRE);
+    // Mayor que cualquier ID: con un nombre, ubica el fin de los usuarios que lo tienen como prefijo
+    private static final String FIN_PREFIJO = String.valueOf(Character.MAX_VALUE);
+
+    /** Índice sin usuarios. */
+    static final IndiceUsuarios VACIO = new IndiceUsuarios(
+            ArbolPersistente.vacio(Comparator.naturalOrder()), ArbolPersistente.vacio(ORDEN_NOMBRE));
+
+    private final ArbolPersistente<String, Usuario> porId;
+    private final ArbolPersistente<ClaveNombre, Usuario> porNombre;
+
+    private IndiceUsuarios(ArbolPersistente<String, Usuario> porId, ArbolPersistente<ClaveNombre, Usuario> porNombre) {
+        this.porId = porId;
+        this.porNombre = porNombre;
+    }
+
+    /**
+     * Crea los índices de una colección completa de usuarios, ordenándolos una sola vez.
+     *
+     * @param usuarios Los usuarios por ID; el mapa no debe cambiar mientras se copia.
+     * @return Los índices.
+     */
+    static IndiceUsuarios de(Map<String, Usuario> usuarios) {
+        Map<ClaveNombre, Usuario> porNombre = new HashMap<>(usuarios.size() * 2);
+        for (Usuario usuario : usuarios.values()) {
+            porNombre.put(clave(usuario), usuario);
+        }
+        return new IndiceUsuarios(ArbolPersistente.de(Comparator.naturalOrder(), usuarios),
+                ArbolPersistente.de(ORDEN_NOMBRE, porNombre));
+    }
+
+    /**
+     * Retorna los índices con un usuario agregado.
+     *
+     * @param usuario El usuario; su ID no debe estar en los índices.
+     * @return Los índices nuevos; estos no cambian.
+     */
+    IndiceUsuarios con(Usuario usuario) {
+        return new IndiceUsuarios(porId.con(usuario.getId(), usuario), porNombre.con(clave(usuario), usuario));
+    }
+
+    /**
+     * Retorna los índices sin un usuario.
+     *
+     * @param usuario El usuario a quitar.
+     * @return Los índices nuevos; estos no cambian.
+     */
+    IndiceUsuarios sin(Usuario usuario) {
+        return new IndiceUsuarios(porId.sin(usuario.getId()), porNombre.sin(clave(usuario)));
+    }
+
+    /**
+     * Obtiene todos los usuarios ordenados por ID.
+     *
+     * @return Una lista inmutable de usuarios.
+     */
+    List<Usuario> porId() {
+        return porId.valores();
+    }
+
+    /**
+     * Obtiene todos los usuarios ordenados por nombre y, con el mismo nombre, por ID.
+     *
+     * @return Una lista inmutable de usuarios.
+     */
+    List<Usuario> porNombre() {
+        return porNombre.valores();
+    }
+
+    /**
+     * Obtiene una página de los usuarios ordenados por ID.
+     *
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de usuarios por página.
+     * @return La página de usuarios.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    Pagina<Usuario> paginaPorId(int numeroPagina, int tamanoPagina) {
+        int inicio = inicio(numeroPagina, tamanoPagina, porId.tamano());
+        return new Pagina<>(porId.valores(inicio, tamanoPagina), numeroPagina, tamanoPagina, porId.tamano());
+    }
+
+    /**
+     * Obtiene una página de los usuarios cuyo nombre empieza con un prefijo, ordenados por nombre y por ID.
+     *
+     * @param prefijo El inicio del nombre, sin distinguir mayúsculas ni espacios repetidos; vacío o null para
+     *                todos los usuarios.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de usuarios por página.
+     * @return La página de usuarios; su total es el número de usuarios con el prefijo.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    Pagina<Usuario> paginaPorNombre(String prefijo, int numeroPagina, int tamanoPagina) {
+        int desde = 0;
+        int hasta = porNombre.tamano();
+        String normalizado = prefijo == null ? "" : TextoUtil.normalizarTexto(prefijo);
+        if (!normalizado.isEmpty()) {
+            // El rango va de (prefijo, "") a (prefijo seguido de Character.MAX_VALUE, FIN_PREFIJO), sin incluirlo
+            desde = porNombre.posicion(new ClaveNombre(normalizado, ""));
+            hasta = porNombre.posicion(new ClaveNombre(normalizado + FIN_PREFIJO, FIN_PREFIJO));
+        }
+        int total = hasta - desde;
+        int inicio = inicio(numeroPagina, tamanoPagina, total);
+        return new Pagina<>(porNombre.valores(desde + inicio, Math.min(tamanoPagina, total - inicio)),
+                numeroPagina, tamanoPagina, total);
+    }
+
+    /**
+     * Obtiene la posición del primer elemento de una página dentro de un rango, validando la página.
+     */
+    private static int inicio(int numeroPagina, int tamanoPagina, int total) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser mayores que 0.");
+        }
+        return (int) Math.min(total, (long) (numeroPagina - 1) * tamanoPagina);
+    }
+
+    private static ClaveNombre clave(Usuario usuario) {
+        return new ClaveNombre(TextoUtil.normalizarTexto(usuario.getNombre()), usuario.getId());
+    }
+}
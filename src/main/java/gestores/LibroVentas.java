@@ -0,0 +1,704 @@
+package gestores;
+
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import utilidades.TextoUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Libro de ventas: historial binario de solo anexado de los eventos de venta y disponibilidad,
+ * con un índice disperso que permite consultar por rango de tiempo, cómic o usuario sin recorrer todo el archivo.
+ * <p>
+ * Formato del archivo del libro: una cabecera ({@code LVEN} y la versión) seguida de registros con prefijo de longitud.
+ * Cada registro es {@code longitud (int), CRC32 (int)} y los datos: tipo, instante en milisegundos, estado anterior
+ * y los textos (ID del cómic, ID del usuario, título y nombre del usuario) en UTF-8 con su longitud delante.
+ * Los IDs van antes que los textos largos para poder descartar un registro sin decodificarlo completo.
+ * Los instantes nunca decrecen dentro del libro: un evento con una hora anterior a la del último se guarda con la del último.
+ * <p>
+ * Los registros se agrupan en bloques de {@code registrosPorBloque}. Al completarse un bloque se anexa una entrada de
+ * tamaño fijo al archivo de índice: posiciones de inicio y fin del bloque, instantes del primer y último registro,
+ * y dos filtros de Bloom de 1024 bits con los IDs de cómic y de usuario del bloque. Una consulta busca por bisección
+ * el primer bloque del rango de tiempo y salta los bloques cuyos filtros descartan el ID buscado; solo lee los bloques
+ * que pueden contener resultados, más los registros del bloque en curso, que aún no tiene entrada.
+ * <p>
+ * Al abrir, se descarta un registro final incompleto o dañado (por ejemplo, tras una caída) y las entradas del índice
+ * que apuntan más allá del libro; los bloques completos que no tengan entrada se vuelven a indexar.
+ * <p>
+ * Los registros se escriben al sistema operativo por lotes ({@link #registrarLote}, una escritura por lote), sin
+ * forzarlos al disco salvo al cerrar, igual que el log de texto. Los métodos de escritura están sincronizados; las consultas solo toman el bloqueo para copiar el estado
+ * del índice y luego leen sin bloquear, ya que los registros escritos no cambian.
+ */
+final class LibroVentas implements Closeable {
+    private static final int MAGIA = 0x4C56454E; // "LVEN"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 8;
+    private static final int TAMANO_CABECERA_REGISTRO = 8; // Longitud y CRC32
+    private static final int MAX_LONGITUD_REGISTRO = 1 << 20;
+    private static final int PALABRAS_FILTRO = 16; // 1024 bits por filtro: con 64 IDs por bloque, menos de 1% de falsos positivos
+    private static final int BITS_FILTRO = PALABRAS_FILTRO * Long.BYTES * 8;
+    private static final int FUNCIONES_HASH_FILTRO = 3;
+    private static final int DESPLAZAMIENTO_TEXTOS = 1 + Long.BYTES + 1; // Tipo, instante y estado anterior
+    private static final int TAMANO_ENTRADA_INDICE = Long.BYTES * (4 + 2 * PALABRAS_FILTRO);
+    // Recorridos completos: bloques consecutivos se leen juntos hasta este tamaño, y cada segmento paralelo tiene al menos estos bloques
+    private static final int TAMANO_LECTURA_RECORRIDO = 1 << 18;
+    private static final int MIN_BLOQUES_POR_SEGMENTO = 256;
+    private static final int SEGMENTOS_POR_HILO = 4;
+
+    private final Path ruta;
+    private final Path rutaIndice;
+    private final int registrosPorBloque;
+    private final OyenteComicSistema oyente;
+    private FileChannel canal;
+    private FileChannel canalIndice;
+
+    private Bloque[] bloques = new Bloque[16]; // Solo se anexan: las entradas ya publicadas no cambian
+    private int numeroBloques;
+    private long longitud; // Fin del último registro válido
+
+    // Bloque en curso, todavía sin entrada en el índice
+    private long inicioBloqueActual;
+    private int registrosBloqueActual;
+    private long primerInstanteBloqueActual;
+    private long ultimoInstante = Long.MIN_VALUE;
+    private long[] filtroComicsActual = new long[PALABRAS_FILTRO];
+    private long[] filtroUsuariosActual = new long[PALABRAS_FILTRO];
+
+    /**
+     * Constructor de LibroVentas. El libro no se abre hasta llamar a {@link #abrir()}.
+     *
+     * @param rutaArchivo La ruta del archivo del libro.
+     * @param rutaIndice La ruta del archivo del índice disperso.
+     * @param registrosPorBloque El número de registros por bloque del índice.
+     * @param oyente El oyente de la advertencia si al abrir se descartan registros dañados.
+     */
+    LibroVentas(String rutaArchivo, String rutaIndice, int registrosPorBloque, OyenteComicSistema oyente) {
+        this.ruta = Paths.get(rutaArchivo);
+        this.rutaIndice = Paths.get(rutaIndice);
+        this.registrosPorBloque = Math.max(1, registrosPorBloque);
+        this.oyente = oyente;
+    }
+
+    /**
+     * Abre el libro (o lo crea si no existe), carga el índice y recupera los registros posteriores a su última entrada.
+     *
+     * @return true si el libro se creó vacío en esta llamada.
+     * @throws IOException Si ocurre un error al abrir los archivos o si el archivo no es un libro de ventas.
+     */
+    synchronized boolean abrir() throws IOException {
+        canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean nuevo = canal.size() == 0;
+        if (nuevo) {
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA).putInt(MAGIA).putInt(VERSION).flip();
+            escribirCompleto(canal, cabecera, 0);
+        } else {
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA);
+            leerCompleto(canal, cabecera, 0);
+            if (cabecera.getInt(0) != MAGIA || cabecera.getInt(4) != VERSION) {
+                canal.close();
+                canal = null;
+                throw new IOException(ruta + " no es un libro de ventas válido.");
+            }
+        }
+        canalIndice = FileChannel.open(rutaIndice, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (nuevo) {
+            canalIndice.truncate(0);
+        }
+        cargarIndice();
+        recuperarRegistros();
+        return nuevo;
+    }
+
+    /**
+     * Anexa un evento al libro.
+     *
+     * @param evento El evento.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    synchronized void registrar(EventoVenta evento) throws IOException {
+        registrarLote(List.of(evento));
+    }
+
+    /**
+     * Anexa varios eventos al libro con una sola escritura y luego actualiza el índice registro por registro.
+     *
+     * @param eventos Los eventos, en el orden en que se registraron.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    synchronized void registrarLote(List<EventoVenta> eventos) throws IOException {
+        comprobarAbierto();
+        ByteBuffer[] registros = new ByteBuffer[eventos.size()];
+        long[] instantes = new long[eventos.size()];
+        long instante = ultimoInstante;
+        int total = 0;
+        for (int i = 0; i < registros.length; i++) {
+            instante = Math.max(eventos.get(i).getInstanteMillis(), instante);
+            instantes[i] = instante;
+            registros[i] = codificar(eventos.get(i), instante);
+            total += registros[i].remaining();
+        }
+        ByteBuffer lote = ByteBuffer.allocate(total);
+        for (ByteBuffer registro : registros) {
+            lote.put(registro.duplicate());
+        }
+        escribirCompleto(canal, lote.flip(), longitud);
+        for (int i = 0; i < registros.length; i++) {
+            agregarAlBloque(longitud, eventos.get(i), instantes[i]);
+            longitud += registros[i].remaining();
+            if (registrosBloqueActual == registrosPorBloque) {
+                cerrarBloque();
+            }
+        }
+    }
+
+    /**
+     * Importa al libro los eventos de un log de texto de ventas (ver {@link EventoVenta#desdeLineaLog}).
+     * Las líneas que no tienen el formato esperado se ignoran.
+     *
+     * @param rutaLog La ruta del log de texto.
+     * @return El número de eventos importados.
+     * @throws IOException Si ocurre un error al leer el log o al escribir en el libro.
+     */
+    synchronized int importarLogTexto(String rutaLog) throws IOException {
+        int importados = 0;
+        List<EventoVenta> lote = new ArrayList<>(registrosPorBloque);
+        try (BufferedReader lector = Files.newBufferedReader(Paths.get(rutaLog), StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                EventoVenta evento = EventoVenta.desdeLineaLog(linea);
+                if (evento != null) {
+                    lote.add(evento);
+                    importados++;
+                }
+                if (lote.size() == registrosPorBloque) {
+                    registrarLote(lote);
+                    lote.clear();
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            registrarLote(lote);
+        }
+        return importados;
+    }
+
+    /**
+     * Entrega, en orden cronológico, los eventos que cumplen todos los filtros indicados.
+     *
+     * @param desde El primer instante del rango, en milisegundos (incluido).
+     * @param hasta El final del rango, en milisegundos (excluido).
+     * @param idComic El ID del cómic, sin distinguir mayúsculas; null para no filtrar por cómic.
+     * @param idUsuario El ID del usuario; null para no filtrar por usuario.
+     * @param consumidor Función que recibe cada evento.
+     * @return El número de eventos entregados.
+     * @throws IOException Si ocurre un error al leer el libro.
+     */
+    long consultar(long desde, long hasta, String idComic, String idUsuario, Consumer<EventoVenta> consumidor) throws IOException {
+        Bloque[] indice;
+        int n;
+        long inicioCola;
+        long fin;
+        FileChannel lectura;
+        synchronized (this) {
+            comprobarAbierto();
+            indice = bloques;
+            n = numeroBloques;
+            inicioCola = inicioBloqueActual;
+            fin = longitud;
+            lectura = canal;
+        }
+        Filtro filtro = new Filtro(desde, hasta, idComic == null ? null : TextoUtil.normalizarId(idComic), idUsuario, consumidor);
+
+        // Primer bloque cuyo último instante no es anterior a 'desde'
+        int bajo = 0;
+        int alto = n;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (indice[medio].ultimoInstante < desde) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(0);
+        for (int b = bajo; b < n && !filtro.terminado; b++) {
+            Bloque bloque = indice[b];
+            if (bloque.primerInstante >= hasta) {
+                return filtro.entregados;
+            }
+            if ((filtro.claveComic != null && !contiene(bloque.filtroComics, filtro.claveComic))
+                    || (idUsuario != null && !contiene(bloque.filtroUsuarios, idUsuario))) {
+                continue;
+            }
+            buffer = leerRango(lectura, buffer, bloque.inicio, bloque.fin);
+            filtro.recorrer(buffer);
+        }
+        if (!filtro.terminado && inicioCola < fin) {
+            buffer = leerRango(lectura, buffer, inicioCola, fin);
+            filtro.recorrer(buffer);
+        }
+        return filtro.entregados;
+    }
+
+    /**
+     * Recorre todo el libro acumulando sus eventos, en paralelo por segmentos si el libro es grande.
+     * <p>
+     * Los bloques indexados se reparten en segmentos contiguos; cada segmento se recorre en una tarea del pool
+     * con su propio acumulador, de modo que los acumuladores no necesitan sincronización. Al final los acumuladores
+     * se combinan en el orden del libro (el primero recibe a los siguientes). Con un pool de un solo hilo o un libro
+     * pequeño, todo se acumula en orden en el hilo que llama.
+     *
+     * @param nuevoAcumulador Crea un acumulador vacío por segmento.
+     * @param acumular Agrega un evento a un acumulador.
+     * @param combinar Combina dos acumuladores de segmentos consecutivos y retorna el resultado.
+     * @param pool El pool en el que se recorren los segmentos.
+     * @param <T> El tipo del acumulador.
+     * @return El acumulador con todos los eventos del libro.
+     * @throws IOException Si ocurre un error al leer el libro.
+     */
+    <T> T recorrerEnParalelo(Supplier<T> nuevoAcumulador, BiConsumer<T, EventoVenta> acumular,
+                             BinaryOperator<T> combinar, ForkJoinPool pool) throws IOException {
+        Bloque[] indice;
+        int n;
+        long inicioCola;
+        long fin;
+        FileChannel lectura;
+        synchronized (this) {
+            comprobarAbierto();
+            indice = bloques;
+            n = numeroBloques;
+            inicioCola = inicioBloqueActual;
+            fin = longitud;
+            lectura = canal;
+        }
+        int segmentos = pool.getParallelism() > 1
+                ? Math.max(1, Math.min(n / MIN_BLOQUES_POR_SEGMENTO, pool.getParallelism() * SEGMENTOS_POR_HILO)) : 1;
+        if (segmentos == 1) {
+            return recorrerSegmento(lectura, indice, 0, n, inicioCola, fin, nuevoAcumulador, acumular);
+        }
+        List<ForkJoinTask<T>> tareas = new ArrayList<>(segmentos);
+        for (int i = 0; i < segmentos; i++) {
+            int desdeBloque = (int) ((long) n * i / segmentos);
+            int hastaBloque = (int) ((long) n * (i + 1) / segmentos);
+            // La cola sin indexar va con el último segmento
+            long inicioColaSegmento = i == segmentos - 1 ? inicioCola : fin;
+            tareas.add(pool.submit(() -> recorrerSegmento(lectura, indice, desdeBloque, hastaBloque,
+                    inicioColaSegmento, fin, nuevoAcumulador, acumular)));
+        }
+        T resultado = null;
+        for (ForkJoinTask<T> tarea : tareas) {
+            T parcial;
+            try {
+                parcial = tarea.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrumpido mientras se recorría el libro de ventas.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Error al recorrer el libro de ventas: " + e.getCause(), e.getCause());
+            }
+            resultado = resultado == null ? parcial : combinar.apply(resultado, parcial);
+        }
+        return resultado;
+    }
+
+    private static <T> T recorrerSegmento(FileChannel canal, Bloque[] indice, int desdeBloque, int hastaBloque,
+                                          long inicioCola, long fin, Supplier<T> nuevoAcumulador,
+                                          BiConsumer<T, EventoVenta> acumular) throws IOException {
+        T acumulador = nuevoAcumulador.get();
+        Filtro todos = new Filtro(Long.MIN_VALUE, Long.MAX_VALUE, null, null, evento -> acumular.accept(acumulador, evento));
+        recorrerBloques(canal, indice, desdeBloque, hastaBloque, todos);
+        if (inicioCola < fin) {
+            todos.recorrer(leerRango(canal, ByteBuffer.allocate(0), inicioCola, fin));
+        }
+        return acumulador;
+    }
+
+    /**
+     * Entrega al filtro los registros de los bloques {@code [desdeBloque, hastaBloque)}, leyendo varios bloques
+     * consecutivos por lectura.
+     */
+    private static void recorrerBloques(FileChannel canal, Bloque[] indice, int desdeBloque, int hastaBloque, Filtro filtro) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(0);
+        int b = desdeBloque;
+        while (b < hastaBloque && !filtro.terminado) {
+            long inicio = indice[b].inicio;
+            int ultimo = b;
+            while (ultimo + 1 < hastaBloque && indice[ultimo + 1].fin - inicio <= TAMANO_LECTURA_RECORRIDO) {
+                ultimo++;
+            }
+            buffer = leerRango(canal, buffer, inicio, indice[ultimo].fin);
+            filtro.recorrer(buffer);
+            b = ultimo + 1;
+        }
+    }
+
+    /**
+     * Obtiene el número de bloques completos con entrada en el índice.
+     *
+     * @return El número de bloques indexados.
+     */
+    synchronized int getBloquesIndexados() {
+        return numeroBloques;
+    }
+
+    /**
+     * Fuerza al disco los registros y el índice escritos, y cierra los archivos.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.force(false);
+            canalIndice.force(false);
+        } finally {
+            canal.close();
+            canalIndice.close();
+            canal = null;
+            canalIndice = null;
+        }
+    }
+
+    private void comprobarAbierto() throws IOException {
+        if (canal == null) {
+            throw new IOException("El libro de ventas " + ruta + " no está abierto.");
+        }
+    }
+
+    /**
+     * Lee las entradas del índice y descarta las que no son consistentes con el libro (y todas las siguientes).
+     */
+    private void cargarIndice() throws IOException {
+        long tamanoLibro = canal.size();
+        int entradas = (int) (canalIndice.size() / TAMANO_ENTRADA_INDICE);
+        ByteBuffer datos = ByteBuffer.allocate(entradas * TAMANO_ENTRADA_INDICE);
+        leerCompleto(canalIndice, datos, 0);
+        datos.flip();
+        long esperado = TAMANO_CABECERA;
+        while (datos.remaining() >= TAMANO_ENTRADA_INDICE) {
+            long inicio = datos.getLong();
+            long fin = datos.getLong();
+            long primero = datos.getLong();
+            long ultimo = datos.getLong();
+            long[] filtroComics = new long[PALABRAS_FILTRO];
+            long[] filtroUsuarios = new long[PALABRAS_FILTRO];
+            datos.asLongBuffer().get(filtroComics).get(filtroUsuarios);
+            datos.position(datos.position() + 2 * PALABRAS_FILTRO * Long.BYTES);
+            if (inicio != esperado || fin <= inicio || fin > tamanoLibro || primero > ultimo) {
+                break;
+            }
+            publicar(new Bloque(inicio, fin, primero, ultimo, filtroComics, filtroUsuarios));
+            esperado = fin;
+        }
+        if (canalIndice.size() != (long) numeroBloques * TAMANO_ENTRADA_INDICE) {
+            canalIndice.truncate((long) numeroBloques * TAMANO_ENTRADA_INDICE);
+        }
+        inicioBloqueActual = esperado;
+        if (numeroBloques > 0) {
+            ultimoInstante = bloques[numeroBloques - 1].ultimoInstante;
+        }
+    }
+
+    /**
+     * Recorre los registros posteriores al último bloque indexado: reconstruye el bloque en curso, indexa los bloques
+     * completos que no tenían entrada y trunca el libro en el primer registro incompleto o dañado.
+     */
+    private void recuperarRegistros() throws IOException {
+        long tamano = canal.size();
+        long posicion = inicioBloqueActual;
+        canal.position(posicion);
+        // El flujo no se cierra: cerrarlo cerraría también el canal
+        DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+        CRC32 crc = new CRC32();
+        try {
+            while (posicion + TAMANO_CABECERA_REGISTRO <= tamano) {
+                int longitudDatos = entrada.readInt();
+                int suma = entrada.readInt();
+                if (longitudDatos <= 0 || longitudDatos > MAX_LONGITUD_REGISTRO
+                        || posicion + TAMANO_CABECERA_REGISTRO + longitudDatos > tamano) {
+                    break;
+                }
+                byte[] datos = new byte[longitudDatos];
+                entrada.readFully(datos);
+                crc.reset();
+                crc.update(datos);
+                if ((int) crc.getValue() != suma) {
+                    break;
+                }
+                EventoVenta evento = decodificar(ByteBuffer.wrap(datos));
+                agregarAlBloque(posicion, evento, evento.getInstanteMillis());
+                posicion += TAMANO_CABECERA_REGISTRO + longitudDatos;
+                if (registrosBloqueActual == registrosPorBloque) {
+                    longitud = posicion;
+                    cerrarBloque();
+                }
+            }
+        } catch (EOFException | BufferUnderflowException | IllegalArgumentException e) {
+            // Registro dañado: se trunca a partir de él
+        }
+        longitud = posicion;
+        if (posicion < tamano) {
+            oyente.notificar(EventoSistema.advertencia("Advertencia: se descartaron " + (tamano - posicion) + " bytes dañados o incompletos al final de " + ruta + "."));
+            canal.truncate(posicion);
+        }
+    }
+
+    private void agregarAlBloque(long posicion, EventoVenta evento, long instante) {
+        if (registrosBloqueActual == 0) {
+            inicioBloqueActual = posicion;
+            primerInstanteBloqueActual = instante;
+        }
+        registrosBloqueActual++;
+        ultimoInstante = instante;
+        marcar(filtroComicsActual, TextoUtil.normalizarId(evento.getIdComic()));
+        if (evento.getIdUsuario() != null) {
+            marcar(filtroUsuariosActual, evento.getIdUsuario());
+        }
+    }
+
+    /**
+     * Cierra el bloque en curso: anexa su entrada al índice y empieza uno nuevo en la posición actual.
+     */
+    private void cerrarBloque() throws IOException {
+        Bloque bloque = new Bloque(inicioBloqueActual, longitud, primerInstanteBloqueActual, ultimoInstante,
+                filtroComicsActual, filtroUsuariosActual);
+        ByteBuffer entrada = ByteBuffer.allocate(TAMANO_ENTRADA_INDICE);
+        entrada.putLong(bloque.inicio).putLong(bloque.fin).putLong(bloque.primerInstante).putLong(bloque.ultimoInstante);
+        for (long palabra : bloque.filtroComics) {
+            entrada.putLong(palabra);
+        }
+        for (long palabra : bloque.filtroUsuarios) {
+            entrada.putLong(palabra);
+        }
+        escribirCompleto(canalIndice, entrada.flip(), (long) numeroBloques * TAMANO_ENTRADA_INDICE);
+        publicar(bloque);
+        inicioBloqueActual = longitud;
+        registrosBloqueActual = 0;
+        filtroComicsActual = new long[PALABRAS_FILTRO];
+        filtroUsuariosActual = new long[PALABRAS_FILTRO];
+    }
+
+    private void publicar(Bloque bloque) {
+        if (numeroBloques == bloques.length) {
+            // Se publica un arreglo nuevo: las consultas en curso siguen leyendo el anterior
+            bloques = Arrays.copyOf(bloques, numeroBloques * 2);
+        }
+        bloques[numeroBloques++] = bloque;
+    }
+
+    private static ByteBuffer codificar(EventoVenta evento, long instante) {
+        byte[] idComic = evento.getIdComic().getBytes(StandardCharsets.UTF_8);
+        byte[] titulo = evento.getTituloComic().getBytes(StandardCharsets.UTF_8);
+        byte[] idUsuario = evento.getIdUsuario() == null ? null : evento.getIdUsuario().getBytes(StandardCharsets.UTF_8);
+        byte[] nombre = evento.getNombreUsuario() == null ? null : evento.getNombreUsuario().getBytes(StandardCharsets.UTF_8);
+        int longitudDatos = 1 + Long.BYTES + 1 + 4 * Integer.BYTES + idComic.length + titulo.length
+                + (idUsuario == null ? 0 : idUsuario.length) + (nombre == null ? 0 : nombre.length);
+        if (longitudDatos > MAX_LONGITUD_REGISTRO) {
+            throw new IllegalArgumentException("El evento de venta es demasiado grande para el libro de ventas.");
+        }
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO_CABECERA_REGISTRO + longitudDatos);
+        registro.putInt(longitudDatos).putInt(0); // El CRC se completa al final
+        registro.put((byte) evento.getTipo().ordinal()).putLong(instante).put((byte) evento.getEstadoAnterior().ordinal());
+        escribirTexto(registro, idComic);
+        escribirTexto(registro, idUsuario);
+        escribirTexto(registro, titulo);
+        escribirTexto(registro, nombre);
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), TAMANO_CABECERA_REGISTRO, longitudDatos);
+        registro.putInt(4, (int) crc.getValue());
+        return registro.flip();
+    }
+
+    /**
+     * Lee un evento a partir de la posición actual del buffer, que queda al final de sus datos.
+     */
+    private static EventoVenta decodificar(ByteBuffer datos) {
+        EventoVenta.Tipo tipo = EventoVenta.Tipo.values()[datos.get()];
+        long instante = datos.getLong();
+        EstadoComic estadoAnterior = EstadoComic.values()[datos.get()];
+        String idComic = leerTexto(datos);
+        String idUsuario = leerTexto(datos);
+        String titulo = leerTexto(datos);
+        String nombre = leerTexto(datos);
+        return new EventoVenta(tipo, instante, idComic, titulo, idUsuario, nombre, estadoAnterior);
+    }
+
+    private static void escribirTexto(ByteBuffer buffer, byte[] texto) {
+        if (texto == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(texto.length).put(texto);
+        }
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        int longitud = buffer.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        String texto = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), longitud, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + longitud);
+        return texto;
+    }
+
+    private static ByteBuffer leerRango(FileChannel canal, ByteBuffer buffer, long inicio, long fin) throws IOException {
+        int tamano = (int) (fin - inicio);
+        if (buffer.capacity() < tamano) {
+            buffer = ByteBuffer.allocate(tamano);
+        }
+        buffer.clear().limit(tamano);
+        leerCompleto(canal, buffer, inicio);
+        return buffer.flip();
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            int leidos = canal.read(buffer, posicion);
+            if (leidos < 0) {
+                throw new EOFException("Fin inesperado del archivo.");
+            }
+            posicion += leidos;
+        }
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            posicion += canal.write(buffer, posicion);
+        }
+    }
+
+    // Filtro de Bloom: las funciones hash se derivan de dos mezclas del hashCode de la clave (doble hashing)
+    private static void marcar(long[] filtro, String clave) {
+        int h = clave.hashCode();
+        int h1 = h ^ (h >>> 16);
+        int h2 = (h * 0x9E3779B9) >>> 16 | 1;
+        for (int i = 0; i < FUNCIONES_HASH_FILTRO; i++) {
+            int bit = (h1 + i * h2) & (BITS_FILTRO - 1);
+            filtro[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static boolean contiene(long[] filtro, String clave) {
+        int h = clave.hashCode();
+        int h1 = h ^ (h >>> 16);
+        int h2 = (h * 0x9E3779B9) >>> 16 | 1;
+        for (int i = 0; i < FUNCIONES_HASH_FILTRO; i++) {
+            int bit = (h1 + i * h2) & (BITS_FILTRO - 1);
+            if ((filtro[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Entrada del índice disperso: un bloque completo de registros.
+     */
+    private static final class Bloque {
+        private final long inicio;
+        private final long fin;
+        private final long primerInstante;
+        private final long ultimoInstante;
+        private final long[] filtroComics;
+        private final long[] filtroUsuarios;
+
+        Bloque(long inicio, long fin, long primerInstante, long ultimoInstante, long[] filtroComics, long[] filtroUsuarios) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.primerInstante = primerInstante;
+            this.ultimoInstante = ultimoInstante;
+            this.filtroComics = filtroComics;
+            this.filtroUsuarios = filtroUsuarios;
+        }
+    }
+
+    /**
+     * Criterios de una consulta, aplicados registro por registro a los bloques que se leen.
+     */
+    private static final class Filtro {
+        private final long desde;
+        private final long hasta;
+        private final String claveComic; // ID de cómic normalizado
+        private final byte[] idUsuario; // En UTF-8, para compararlo sin decodificar
+        private final Consumer<EventoVenta> consumidor;
+        private long entregados;
+        private boolean terminado; // Se alcanzó el final del rango de tiempo
+
+        Filtro(long desde, long hasta, String claveComic, String idUsuario, Consumer<EventoVenta> consumidor) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.claveComic = claveComic;
+            this.idUsuario = idUsuario == null ? null : idUsuario.getBytes(StandardCharsets.UTF_8);
+            this.consumidor = consumidor;
+        }
+
+        /**
+         * Entrega los eventos de los registros que cumplen el filtro. Cada registro se descarta mirando solo
+         * su instante y sus IDs; los que cumplen se decodifican completos.
+         */
+        void recorrer(ByteBuffer registros) {
+            while (registros.remaining() >= TAMANO_CABECERA_REGISTRO) {
+                int longitudDatos = registros.getInt();
+                registros.getInt(); // CRC: ya se validó al abrir o al escribir
+                int inicio = registros.position();
+                registros.position(inicio + longitudDatos);
+                long instante = registros.getLong(inicio + 1);
+                if (instante >= hasta) {
+                    terminado = true;
+                    return;
+                }
+                if (instante < desde) {
+                    continue;
+                }
+                ByteBuffer datos = registros.duplicate().position(inicio + DESPLAZAMIENTO_TEXTOS);
+                if (claveComic != null && !claveComic.equals(TextoUtil.normalizarId(leerTexto(datos)))) {
+                    continue;
+                }
+                if (idUsuario != null && !esIdUsuario(registros, inicio)) {
+                    continue;
+                }
+                entregados++;
+                consumidor.accept(decodificar(registros.duplicate().position(inicio)));
+            }
+        }
+
+        private boolean esIdUsuario(ByteBuffer registros, int inicio) {
+            int posicion = inicio + DESPLAZAMIENTO_TEXTOS;
+            posicion += Integer.BYTES + Math.max(0, registros.getInt(posicion)); // Se salta el ID del cómic
+            int longitud = registros.getInt(posicion);
+            int desdeArreglo = registros.arrayOffset() + posicion + Integer.BYTES;
+            return longitud == idUsuario.length
+                    && Arrays.equals(registros.array(), desdeArreglo, desdeArreglo + longitud, idUsuario, 0, idUsuario.length);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package gestores;
+
+import modelos.EventoSistema;
+
+/**
+ * Recibe los avisos de un {@link ComicSistema} (ver {@link EventoSistema}). ComicSistema no escribe en la consola:
+ * la consola es solo uno de los oyentes posibles ({@link #CONSOLA}); un servicio o un proceso por lotes puede usar
+ * {@link #SILENCIOSO} o registrar los avisos en su propio log.
+ * <p>
+ * Los avisos se entregan en el hilo que hizo la operación, a veces con bloqueos del sistema tomados, así que el oyente
+ * debe ser seguro para uso concurrente, retornar rápido y no llamar de vuelta a ComicSistema.
+ */
+@FunctionalInterface
+public interface OyenteComicSistema {
+
+    /**
+     * Oyente que escribe el texto de cada aviso en la salida estándar.
+     */
+    OyenteComicSistema CONSOLA = evento -> System.out.println(evento.getMensaje());
+
+    /**
+     * Oyente que ignora todos los avisos, para usar ComicSistema sin consola.
+     */
+    OyenteComicSistema SILENCIOSO = evento -> {
+    };
+
+    /**
+     * Recibe un aviso.
+     *
+     * @param evento El aviso.
+     */
+    void notificar(EventoSistema evento);
+}
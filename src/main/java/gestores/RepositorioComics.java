@@ -0,0 +1,131 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Persistencia durable del inventario de cómics de {@link ComicSistema}.
+ * <p>
+ * El inventario de trabajo vive en un {@link AlmacenComics}; el repositorio solo recibe cada cambio ya aplicado en
+ * memoria y entrega los cómics guardados al iniciar. Los métodos de registro pueden llamarse desde varios hilos a la vez.
+ */
+interface RepositorioComics extends Closeable {
+
+    /**
+     * Cambios del inventario que {@link #reproducirCambios} entrega, en el orden en que ocurrieron.
+     * Por defecto cada cambio se ignora.
+     */
+    interface Cambios {
+        default void alta(Comic comic) {
+        }
+
+        default void baja(String id) {
+        }
+
+        default void cambioEstado(String id, EstadoComic estado) {
+        }
+    }
+
+    /**
+     * Entrega los cómics guardados, en el orden del inventario. Puede haber IDs repetidos; el llamador decide cuál conservar.
+     *
+     * @param consumidor Función que recibe cada cómic; se llama desde un solo hilo a la vez.
+     * @throws IOException Si no se pueden leer los datos.
+     */
+    void cargar(Consumer<Comic> consumidor) throws IOException;
+
+    /**
+     * Entrega los cambios registrados después de la última instantánea, que deben aplicarse sobre lo entregado por
+     * {@link #cargar}. Los cambios son idempotentes respecto del estado final: un cambio de estado puede referirse a
+     * un cómic que la instantánea ya tiene en ese estado.
+     *
+     * @param cambios Receptor de los cambios.
+     * @return El número de cambios entregados.
+     * @throws IOException Si no se pueden leer los cambios.
+     */
+    default int reproducirCambios(Cambios cambios) throws IOException {
+        return 0;
+    }
+
+    /**
+     * Registra el alta de un cómic.
+     *
+     * @param comic El cómic agregado.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void registrarAlta(Comic comic) throws IOException;
+
+    /**
+     * Registra la baja de un cómic.
+     *
+     * @param id El ID del cómic eliminado.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void registrarBaja(String id) throws IOException;
+
+    /**
+     * Registra un cambio de estado de un cómic.
+     *
+     * @param id El ID del cómic.
+     * @param estado El nuevo estado.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void registrarCambioEstado(String id, EstadoComic estado) throws IOException;
+
+    /**
+     * Registra el alta de varios cómics como una sola escritura atómica: al cargar se ven todos o ninguno.
+     *
+     * @param comics Los cómics agregados, en orden.
+     * @throws IOException Si ocurre un error al escribir; en ese caso no se registra ninguno.
+     */
+    void registrarAltas(Collection<Comic> comics) throws IOException;
+
+    /**
+     * Registra el mismo cambio de estado de varios cómics como una sola escritura atómica.
+     *
+     * @param ids Los IDs de los cómics.
+     * @param estado El nuevo estado.
+     * @throws IOException Si ocurre un error al escribir; en ese caso no se registra ninguno.
+     */
+    void registrarCambiosEstado(Collection<String> ids, EstadoComic estado) throws IOException;
+
+    /**
+     * Indica si los cambios registrados desde la última instantánea son suficientes como para guardar el inventario completo.
+     *
+     * @return true si conviene llamar a {@link #guardarTodos}.
+     */
+    default boolean requiereCompactacion() {
+        return false;
+    }
+
+    /**
+     * Reemplaza los datos guardados por el inventario indicado, de forma atómica, y descarta los cambios registrados.
+     *
+     * @param comics Todos los cómics del inventario, en orden.
+     * @return Los bytes escritos y la duración de la escritura.
+     * @throws IOException Si ocurre un error al escribir; los datos anteriores se conservan.
+     */
+    ResultadoEscritura guardarTodos(Collection<Comic> comics) throws IOException;
+
+    /**
+     * Calcula una firma de los datos durables del inventario. Un almacenamiento en disco solo se conserva entre
+     * ejecuciones si la firma no cambió desde que se cerró (ver {@link AlmacenComics#restaurar}).
+     *
+     * @return La firma.
+     */
+    long firma();
+
+    /**
+     * Establece la política de sincronización con el disco de las próximas escrituras.
+     *
+     * @param politica La nueva política.
+     */
+    void setPoliticaSincronizacion(PoliticaSincronizacion politica);
+}
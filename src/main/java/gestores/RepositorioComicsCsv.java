@@ -0,0 +1,200 @@
+package gestores;
+
+import constantes.Constantes;
+import modelos.Comic;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import utilidades.CargadorCsvParalelo;
+import utilidades.CsvUtil;
+import utilidades.DiarioInventario;
+import utilidades.LectorCsv;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Inventario de cómics persistido en un CSV ({@code ID,Titulo,Autor,Estado}) más un diario de cambios
+ * (ver {@link DiarioInventario}): cada cambio se anexa al diario y el inventario completo se escribe en el CSV,
+ * de forma atómica, solo al compactar.
+ */
+final class RepositorioComicsCsv implements RepositorioComics {
+    private final String rutaComicsCsv;
+    private final DiarioInventario diario;
+    private final OyenteComicSistema oyente;
+    private volatile PoliticaSincronizacion politica;
+
+    /**
+     * Constructor de RepositorioComicsCsv.
+     *
+     * @param rutaComicsCsv La ruta del CSV de cómics; el diario se guarda junto a él.
+     * @param politica La política de sincronización con el disco de la instantánea y el diario.
+     * @param oyente El oyente de las advertencias por filas o registros del diario ignorados.
+     */
+    RepositorioComicsCsv(String rutaComicsCsv, PoliticaSincronizacion politica, OyenteComicSistema oyente) {
+        this.rutaComicsCsv = rutaComicsCsv;
+        this.politica = politica;
+        this.oyente = oyente;
+        this.diario = new DiarioInventario(rutaComicsCsv + Constantes.EXTENSION_DIARIO, Constantes.UMBRAL_COMPACTACION_DIARIO,
+                politica, Constantes.LOTE_SINCRONIZACION_DIARIO);
+    }
+
+    /**
+     * Carga el CSV; las filas se analizan en paralelo si el archivo es grande, y se entregan en el orden del archivo.
+     */
+    @Override
+    public void cargar(Consumer<Comic> consumidor) throws IOException {
+        CargadorCsvParalelo.cargar(rutaComicsCsv, this::comicDesdeFila, consumidor,
+                Constantes.UMBRAL_CARGA_PARALELA_BYTES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construye un cómic a partir de una fila del CSV ({@code ID,Titulo,Autor,Estado}).
+     * El estado puede venir como código de una letra o con su nombre completo (ver {@link EstadoComic#desdeTexto}).
+     * Puede ejecutarse en paralelo, por lo que no modifica estado compartido (el oyente debe ser seguro para uso concurrente).
+     *
+     * @param fila La fila actual del CSV.
+     * @return El cómic, o null si la fila está mal formada.
+     */
+    private Comic comicDesdeFila(LectorCsv fila) {
+        if (fila.getNumeroCampos() < 4) {
+            return null; // En caso de línea mal formada
+        }
+        try {
+            return new Comic(fila.getCampo(1), fila.getCampo(2), fila.getCampo(0), fila.getCampo(3));
+        } catch (IllegalArgumentException e) {
+            oyente.notificar(EventoSistema.advertencia("Advertencia: se ignora el cómic con ID '" + fila.getCampo(0) + "'. " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Reproduce el diario. Los registros con un estado desconocido o datos inválidos se descartan con una advertencia.
+     */
+    @Override
+    public int reproducirCambios(Cambios cambios) throws IOException {
+        return diario.reproducir(campos -> {
+            try {
+                switch (campos[0]) {
+                    case DiarioInventario.ALTA:
+                        cambios.alta(new Comic(campos[2].trim(), campos[3].trim(), campos[1].trim(), campos[4].trim()));
+                        break;
+                    case DiarioInventario.BAJA:
+                        cambios.baja(campos[1].trim());
+                        break;
+                    case DiarioInventario.ESTADO:
+                        cambios.cambioEstado(campos[1].trim(), EstadoComic.desdeTexto(campos[2]));
+                        break;
+                    default:
+                        break;
+                }
+            } catch (IllegalArgumentException e) {
+                oyente.notificar(EventoSistema.advertencia("Advertencia: se ignora un registro del diario del inventario. " + e.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    public void registrarAlta(Comic comic) throws IOException {
+        diario.registrarAlta(comic.getId(), comic.getTitulo(), comic.getAutor(), comic.getEstado().getCodigo());
+    }
+
+    @Override
+    public void registrarBaja(String id) throws IOException {
+        diario.registrarBaja(id);
+    }
+
+    @Override
+    public void registrarCambioEstado(String id, EstadoComic estado) throws IOException {
+        diario.registrarCambioEstado(id, estado.getCodigo());
+    }
+
+    /**
+     * Anexa las altas al diario como un lote (ver {@link DiarioInventario#registrarLote}).
+     */
+    @Override
+    public void registrarAltas(Collection<Comic> comics) throws IOException {
+        List<String[]> registros = new ArrayList<>(comics.size());
+        for (Comic comic : comics) {
+            registros.add(DiarioInventario.alta(comic.getId(), comic.getTitulo(), comic.getAutor(), comic.getEstado().getCodigo()));
+        }
+        diario.registrarLote(registros);
+    }
+
+    /**
+     * Anexa los cambios de estado al diario como un lote (ver {@link DiarioInventario#registrarLote}).
+     */
+    @Override
+    public void registrarCambiosEstado(Collection<String> ids, EstadoComic estado) throws IOException {
+        List<String[]> registros = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            registros.add(DiarioInventario.cambioEstado(id, estado.getCodigo()));
+        }
+        diario.registrarLote(registros);
+    }
+
+    @Override
+    public boolean requiereCompactacion() {
+        return diario.requiereCompactacion();
+    }
+
+    /**
+     * Escribe la instantánea de forma atómica (ver {@link CsvUtil#escribirCsvAtomico}) y después vacía el diario.
+     * El llamador debe impedir nuevos cambios mientras tanto, para que ningún registro del diario quede fuera de la instantánea.
+     */
+    @Override
+    public ResultadoEscritura guardarTodos(Collection<Comic> comics) throws IOException {
+        ResultadoEscritura resultado = CsvUtil.escribirCsvAtomico(rutaComicsCsv, comics, comic ->
+                        CsvUtil.formatearLinea(comic.getId(), comic.getTitulo(), comic.getAutor(), comic.getEstado().getCodigo()),
+                "ID,Titulo,Autor,Estado", politica
+        );
+        diario.vaciar();
+        return resultado;
+    }
+
+    /**
+     * Calcula la firma a partir del tamaño y la fecha de modificación del CSV y de su diario;
+     * un archivo que no existe también forma parte de ella.
+     */
+    @Override
+    public long firma() {
+        long firma = 17;
+        for (String ruta : new String[]{rutaComicsCsv, rutaComicsCsv + Constantes.EXTENSION_DIARIO}) {
+            long tamano = -1;
+            long modificado = -1;
+            try {
+                tamano = Files.size(Paths.get(ruta));
+                modificado = Files.getLastModifiedTime(Paths.get(ruta)).toMillis();
+            } catch (IOException e) {
+                // El archivo no existe o no se puede leer
+            }
+            firma = 31 * (31 * firma + tamano) + modificado;
+        }
+        return firma;
+    }
+
+    @Override
+    public void setPoliticaSincronizacion(PoliticaSincronizacion politica) {
+        this.politica = politica;
+        diario.setPoliticaSincronizacion(politica);
+    }
+
+    /**
+     * El diario abre su archivo en cada registro, así que no hay nada que cerrar.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return rutaComicsCsv;
+    }
+}
@@ -0,0 +1,171 @@
+package gestores;
+
+import constantes.Constantes;
+import modelos.Comic;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+import utilidades.TextoUtil;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Inventario de cómics en la tabla {@code comics} de una {@link BaseDatosSql}.
+ * Cada cambio es una sentencia en su propia transacción sobre la fila del cómic, buscada por su ID normalizado;
+ * las escrituras masivas se envían en lotes de JDBC dentro de una sola transacción.
+ * Los métodos están sincronizados porque comparten una conexión.
+ */
+final class RepositorioComicsSql implements RepositorioComics {
+    private final BaseDatosSql base;
+    private final Connection conexion;
+    private final PreparedStatement insertar;
+    private final PreparedStatement eliminar;
+    private final PreparedStatement actualizarEstado;
+
+    /**
+     * Constructor de RepositorioComicsSql.
+     *
+     * @param base La base de datos.
+     * @throws IOException Si no se puede conectar.
+     */
+    RepositorioComicsSql(BaseDatosSql base) throws IOException {
+        this.base = base;
+        try {
+            this.conexion = base.conectar();
+            this.insertar = conexion.prepareStatement("INSERT INTO comics (clave, id, titulo, autor, estado) VALUES (?, ?, ?, ?, ?)");
+            this.eliminar = conexion.prepareStatement("DELETE FROM comics WHERE clave = ?");
+            this.actualizarEstado = conexion.prepareStatement("UPDATE comics SET estado = ? WHERE clave = ?");
+        } catch (SQLException e) {
+            throw new IOException("No se pudo conectar a la base de datos " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void cargar(Consumer<Comic> consumidor) throws IOException {
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.setFetchSize(Constantes.LOTE_ESCRITURA_SQL);
+            try (ResultSet filas = sentencia.executeQuery("SELECT id, titulo, autor, estado FROM comics ORDER BY orden")) {
+                while (filas.next()) {
+                    consumidor.accept(new Comic(filas.getString(2), filas.getString(3), filas.getString(1), filas.getString(4)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("No se pudieron leer los cómics de " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void registrarAlta(Comic comic) throws IOException {
+        try {
+            asignarFila(insertar, comic);
+            insertar.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("No se pudo guardar el cómic " + comic.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void registrarBaja(String id) throws IOException {
+        try {
+            eliminar.setString(1, TextoUtil.normalizarId(id));
+            eliminar.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("No se pudo eliminar el cómic " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void registrarCambioEstado(String id, EstadoComic estado) throws IOException {
+        try {
+            actualizarEstado.setString(1, estado.getCodigo());
+            actualizarEstado.setString(2, TextoUtil.normalizarId(id));
+            actualizarEstado.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("No se pudo actualizar el estado del cómic " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void registrarAltas(Collection<Comic> comics) throws IOException {
+        try {
+            BaseDatosSql.enTransaccion(conexion, () -> BaseDatosSql.ejecutarEnLotes(insertar, comics, RepositorioComicsSql::asignarFila));
+        } catch (SQLException e) {
+            throw new IOException("No se pudieron guardar " + comics.size() + " cómics: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void registrarCambiosEstado(Collection<String> ids, EstadoComic estado) throws IOException {
+        try {
+            BaseDatosSql.enTransaccion(conexion, () -> BaseDatosSql.ejecutarEnLotes(actualizarEstado, ids, (sentencia, id) -> {
+                sentencia.setString(1, estado.getCodigo());
+                sentencia.setString(2, TextoUtil.normalizarId(id));
+            }));
+        } catch (SQLException e) {
+            throw new IOException("No se pudo actualizar el estado de " + ids.size() + " cómics: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reemplaza la tabla en una sola transacción; el tamaño informado es el del archivo de la base después del commit.
+     */
+    @Override
+    public synchronized ResultadoEscritura guardarTodos(Collection<Comic> comics) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            BaseDatosSql.enTransaccion(conexion, () -> {
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.executeUpdate("DELETE FROM comics");
+                }
+                BaseDatosSql.ejecutarEnLotes(insertar, comics, RepositorioComicsSql::asignarFila);
+            });
+        } catch (SQLException e) {
+            throw new IOException("No se pudo guardar el inventario en " + base + ": " + e.getMessage(), e);
+        }
+        return new ResultadoEscritura(base.tamanoArchivo(), System.nanoTime() - inicio);
+    }
+
+    private static void asignarFila(PreparedStatement sentencia, Comic comic) throws SQLException {
+        sentencia.setString(1, TextoUtil.normalizarId(comic.getId()));
+        sentencia.setString(2, comic.getId());
+        sentencia.setString(3, comic.getTitulo());
+        sentencia.setString(4, comic.getAutor());
+        sentencia.setString(5, comic.getEstado().getCodigo());
+    }
+
+    @Override
+    public long firma() {
+        return base.firma();
+    }
+
+    @Override
+    public void setPoliticaSincronizacion(PoliticaSincronizacion politica) {
+        try {
+            base.setPoliticaSincronizacion(politica);
+        } catch (IOException e) {
+            base.getOyente().notificar(EventoSistema.advertencia("Advertencia: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            conexion.close();
+        } catch (SQLException e) {
+            throw new IOException("Error al cerrar la conexión a " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return base.toString();
+    }
+}
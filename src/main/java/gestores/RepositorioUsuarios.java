@@ -0,0 +1,64 @@
+package gestores;
+
+import modelos.Usuario;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Persistencia durable de los usuarios de {@link ComicSistema}.
+ * <p>
+ * Los usuarios de trabajo viven en memoria; el repositorio recibe cada alta y baja ya aplicada, junto con todos los
+ * usuarios actuales para los repositorios que guardan una instantánea completa. ComicSistema serializa las llamadas
+ * de escritura.
+ */
+interface RepositorioUsuarios extends Closeable {
+
+    /**
+     * Entrega los usuarios guardados.
+     *
+     * @param consumidor Función que recibe cada usuario; se llama desde un solo hilo a la vez.
+     * @throws IOException Si no se pueden leer los datos.
+     */
+    void cargar(Consumer<Usuario> consumidor) throws IOException;
+
+    /**
+     * Registra el alta de un usuario.
+     *
+     * @param usuario El usuario agregado.
+     * @param usuarios Todos los usuarios actuales, incluido el nuevo.
+     * @return La instantánea escrita, o null si solo se escribió el cambio.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    ResultadoEscritura registrarAlta(Usuario usuario, Collection<Usuario> usuarios) throws IOException;
+
+    /**
+     * Registra la baja de un usuario.
+     *
+     * @param usuario El usuario eliminado.
+     * @param usuarios Todos los usuarios actuales, ya sin el eliminado.
+     * @return La instantánea escrita, o null si solo se escribió el cambio.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    ResultadoEscritura registrarBaja(Usuario usuario, Collection<Usuario> usuarios) throws IOException;
+
+    /**
+     * Reemplaza los datos guardados por los usuarios indicados, de forma atómica.
+     *
+     * @param usuarios Todos los usuarios.
+     * @return Los bytes escritos y la duración de la escritura.
+     * @throws IOException Si ocurre un error al escribir; los datos anteriores se conservan.
+     */
+    ResultadoEscritura guardarTodos(Collection<Usuario> usuarios) throws IOException;
+
+    /**
+     * Establece la política de sincronización con el disco de las próximas escrituras.
+     *
+     * @param politica La nueva política.
+     */
+    void setPoliticaSincronizacion(PoliticaSincronizacion politica);
+}
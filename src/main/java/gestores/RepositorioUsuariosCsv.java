@@ -0,0 +1,86 @@
+package gestores;
+
+import constantes.Constantes;
+import modelos.Usuario;
+import utilidades.CargadorCsvParalelo;
+import utilidades.CsvUtil;
+import utilidades.LectorCsv;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Usuarios persistidos en un CSV ({@code ID,Nombre,Email}). Cada alta o baja reescribe el archivo completo de forma atómica.
+ */
+final class RepositorioUsuariosCsv implements RepositorioUsuarios {
+    private final String rutaUsuariosCsv;
+    private volatile PoliticaSincronizacion politica;
+
+    /**
+     * Constructor de RepositorioUsuariosCsv.
+     *
+     * @param rutaUsuariosCsv La ruta del CSV de usuarios.
+     * @param politica La política de sincronización con el disco de las instantáneas.
+     */
+    RepositorioUsuariosCsv(String rutaUsuariosCsv, PoliticaSincronizacion politica) {
+        this.rutaUsuariosCsv = rutaUsuariosCsv;
+        this.politica = politica;
+    }
+
+    @Override
+    public void cargar(Consumer<Usuario> consumidor) throws IOException {
+        CargadorCsvParalelo.cargar(rutaUsuariosCsv, RepositorioUsuariosCsv::usuarioDesdeFila, consumidor,
+                Constantes.UMBRAL_CARGA_PARALELA_BYTES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construye un usuario a partir de una fila del CSV ({@code ID,Nombre,Email}, con el email opcional).
+     * Puede ejecutarse en paralelo, por lo que no modifica estado compartido.
+     *
+     * @param fila La fila actual del CSV.
+     * @return El usuario, o null si la fila está mal formada.
+     */
+    private static Usuario usuarioDesdeFila(LectorCsv fila) {
+        if (fila.getNumeroCampos() < 2) { // ID, Nombre, Email (opcional)
+            return null;
+        }
+        String email = fila.getNumeroCampos() > 2 && !fila.getCampo(2).trim().isEmpty() ? fila.getCampo(2) : null;
+        return new Usuario(fila.getCampo(0), fila.getCampo(1), email);
+    }
+
+    @Override
+    public ResultadoEscritura registrarAlta(Usuario usuario, Collection<Usuario> usuarios) throws IOException {
+        return guardarTodos(usuarios);
+    }
+
+    @Override
+    public ResultadoEscritura registrarBaja(Usuario usuario, Collection<Usuario> usuarios) throws IOException {
+        return guardarTodos(usuarios);
+    }
+
+    @Override
+    public ResultadoEscritura guardarTodos(Collection<Usuario> usuarios) throws IOException {
+        return CsvUtil.escribirCsvAtomico(rutaUsuariosCsv, usuarios, usuario ->
+                        CsvUtil.formatearLinea(usuario.getId(), usuario.getNombre(), usuario.getEmail()),
+                "ID,Nombre,Email", politica
+        );
+    }
+
+    @Override
+    public void setPoliticaSincronizacion(PoliticaSincronizacion politica) {
+        this.politica = politica;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return rutaUsuariosCsv;
+    }
+}
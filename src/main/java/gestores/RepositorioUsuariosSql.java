@@ -0,0 +1,122 @@
+package gestores;
+
+import modelos.Usuario;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Usuarios en la tabla {@code usuarios} de una {@link BaseDatosSql}. Cada alta o baja escribe solo la fila del usuario.
+ * Los métodos están sincronizados porque comparten una conexión.
+ */
+final class RepositorioUsuariosSql implements RepositorioUsuarios {
+    private final BaseDatosSql base;
+    private final Connection conexion;
+    private final PreparedStatement insertar;
+    private final PreparedStatement eliminar;
+
+    /**
+     * Constructor de RepositorioUsuariosSql.
+     *
+     * @param base La base de datos.
+     * @throws IOException Si no se puede conectar.
+     */
+    RepositorioUsuariosSql(BaseDatosSql base) throws IOException {
+        this.base = base;
+        try {
+            this.conexion = base.conectar();
+            this.insertar = conexion.prepareStatement("INSERT INTO usuarios (id, nombre, email) VALUES (?, ?, ?)");
+            this.eliminar = conexion.prepareStatement("DELETE FROM usuarios WHERE id = ?");
+        } catch (SQLException e) {
+            throw new IOException("No se pudo conectar a la base de datos " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void cargar(Consumer<Usuario> consumidor) throws IOException {
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet filas = sentencia.executeQuery("SELECT id, nombre, email FROM usuarios")) {
+            while (filas.next()) {
+                consumidor.accept(new Usuario(filas.getString(1), filas.getString(2), filas.getString(3)));
+            }
+        } catch (SQLException e) {
+            throw new IOException("No se pudieron leer los usuarios de " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized ResultadoEscritura registrarAlta(Usuario usuario, Collection<Usuario> usuarios) throws IOException {
+        try {
+            asignarFila(insertar, usuario);
+            insertar.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("No se pudo guardar el usuario " + usuario.getId() + ": " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized ResultadoEscritura registrarBaja(Usuario usuario, Collection<Usuario> usuarios) throws IOException {
+        try {
+            eliminar.setString(1, usuario.getId());
+            eliminar.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("No se pudo eliminar el usuario " + usuario.getId() + ": " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Reemplaza la tabla en una sola transacción; el tamaño informado es el del archivo de la base después del commit.
+     */
+    @Override
+    public synchronized ResultadoEscritura guardarTodos(Collection<Usuario> usuarios) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            BaseDatosSql.enTransaccion(conexion, () -> {
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.executeUpdate("DELETE FROM usuarios");
+                }
+                BaseDatosSql.ejecutarEnLotes(insertar, usuarios, RepositorioUsuariosSql::asignarFila);
+            });
+        } catch (SQLException e) {
+            throw new IOException("No se pudieron guardar los usuarios en " + base + ": " + e.getMessage(), e);
+        }
+        return new ResultadoEscritura(base.tamanoArchivo(), System.nanoTime() - inicio);
+    }
+
+    private static void asignarFila(PreparedStatement sentencia, Usuario usuario) throws SQLException {
+        sentencia.setString(1, usuario.getId());
+        sentencia.setString(2, usuario.getNombre());
+        sentencia.setString(3, usuario.getEmail());
+    }
+
+    /**
+     * La política se aplica a toda la base desde el repositorio de cómics.
+     */
+    @Override
+    public void setPoliticaSincronizacion(PoliticaSincronizacion politica) {
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            conexion.close();
+        } catch (SQLException e) {
+            throw new IOException("Error al cerrar la conexión a " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return base.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package gestores;
+
+import modelos.EventoVenta;
+import utilidades.EscritorLotesAsincrono;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Persistencia durable del historial de ventas y devoluciones de {@link ComicSistema}.
+ * Los métodos pueden llamarse desde varios hilos a la vez.
+ */
+interface RepositorioVentas extends Closeable {
+
+    /**
+     * Registra un evento. La escritura puede completarse en segundo plano, pero las consultas posteriores lo incluyen.
+     *
+     * @param evento El evento.
+     * @throws IOException Si ocurre un error al escribir.
+     * @throws IllegalStateException Si el repositorio ya se cerró.
+     */
+    void registrar(EventoVenta evento) throws IOException;
+
+    /**
+     * Entrega, en orden cronológico, los eventos que cumplen todos los filtros indicados.
+     *
+     * @param desde El primer instante del rango, en milisegundos (incluido).
+     * @param hasta El final del rango, en milisegundos (excluido).
+     * @param idComic El ID del cómic, sin distinguir mayúsculas; null para no filtrar por cómic.
+     * @param idUsuario El ID del usuario; null para no filtrar por usuario.
+     * @param consumidor Función que recibe cada evento.
+     * @return El número de eventos entregados.
+     * @throws IOException Si el historial no está disponible o no se puede leer.
+     */
+    long consultar(long desde, long hasta, String idComic, String idUsuario, Consumer<EventoVenta> consumidor) throws IOException;
+
+    /**
+     * Recorre todo el historial acumulando sus eventos, en paralelo si el repositorio lo permite.
+     *
+     * @param nuevoAcumulador Crea un acumulador vacío por segmento.
+     * @param acumular Agrega un evento a un acumulador.
+     * @param combinar Combina dos acumuladores de segmentos consecutivos y retorna el resultado.
+     * @param pool El pool en el que se recorren los segmentos.
+     * @param <T> El tipo del acumulador.
+     * @return El acumulador con todos los eventos.
+     * @throws IOException Si no se puede leer el historial.
+     */
+    <T> T recorrer(Supplier<T> nuevoAcumulador, BiConsumer<T, EventoVenta> acumular,
+                   BinaryOperator<T> combinar, ForkJoinPool pool) throws IOException;
+
+    /**
+     * Obtiene el escritor en segundo plano del repositorio, para consultar sus métricas.
+     *
+     * @return El escritor.
+     */
+    EscritorLotesAsincrono<?> getEscritor();
+}
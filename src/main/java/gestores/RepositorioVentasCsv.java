@@ -0,0 +1,148 @@
+package gestores;
+
+import constantes.Constantes;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import utilidades.EscritorLogAsincrono;
+import utilidades.EscritorLotesAsincrono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Historial de ventas en archivos: cada evento se encola como línea de texto en {@code ventas_log.txt}
+ * (ver {@link EscritorLogAsincrono}) y para el libro de ventas binario junto a él (ver {@link LibroVentas}),
+ * que responde las consultas. Un hilo escritor anexa los eventos al libro por lotes, cada lote con una sola
+ * escritura, así que una venta no espera al disco; las consultas esperan a que se escriban los eventos pendientes.
+ * Si el libro no se puede abrir, los eventos solo se escriben en el log de texto.
+ */
+final class RepositorioVentasCsv implements RepositorioVentas {
+    private final String rutaVentasLog;
+    private final EscritorLogAsincrono logVentas;
+    private final LibroVentas libroVentas; // null si no se pudo abrir
+    private final EscritorLibro escritorLibro; // null sin libro
+
+    /**
+     * Constructor de RepositorioVentasCsv. Abre el libro de ventas; si no existía, importa una sola vez los eventos
+     * que ya estuvieran en el log de texto.
+     *
+     * @param rutaVentasLog La ruta del log de texto de ventas.
+     * @param oyente El oyente de los avisos de la importación y de los errores de escritura.
+     */
+    RepositorioVentasCsv(String rutaVentasLog, OyenteComicSistema oyente) {
+        this.rutaVentasLog = rutaVentasLog;
+        this.logVentas = new EscritorLogAsincrono(rutaVentasLog, Constantes.CAPACIDAD_COLA_LOG_VENTAS, Constantes.INTERVALO_VACIADO_LOG_VENTAS_MS);
+        this.logVentas.setAvisos(mensaje -> oyente.notificar(EventoSistema.error(mensaje)));
+        this.libroVentas = abrirLibroVentas(rutaVentasLog, oyente);
+        this.escritorLibro = libroVentas == null ? null : new EscritorLibro(libroVentas, rutaVentasLog + Constantes.EXTENSION_LIBRO_VENTAS);
+        if (escritorLibro != null) {
+            escritorLibro.setAvisos(mensaje -> oyente.notificar(EventoSistema.error(mensaje)));
+        }
+    }
+
+    private static LibroVentas abrirLibroVentas(String rutaVentasLog, OyenteComicSistema oyente) {
+        String rutaLibro = rutaVentasLog + Constantes.EXTENSION_LIBRO_VENTAS;
+        LibroVentas libro = new LibroVentas(rutaLibro, rutaLibro + Constantes.EXTENSION_INDICE_LIBRO_VENTAS,
+                Constantes.REGISTROS_POR_BLOQUE_LIBRO_VENTAS, oyente);
+        try {
+            if (libro.abrir() && Files.exists(Paths.get(rutaVentasLog))) {
+                int importados = libro.importarLogTexto(rutaVentasLog);
+                oyente.notificar(EventoSistema.informacion("Se importaron " + importados + " eventos de " + rutaVentasLog + " al libro de ventas."));
+            }
+            return libro;
+        } catch (IOException e) {
+            oyente.notificar(EventoSistema.advertencia("Advertencia: No se pudo abrir el libro de ventas " + rutaLibro + ". El historial de ventas no estará disponible. Mensaje: " + e.getMessage()));
+            try {
+                libro.close();
+            } catch (IOException ignorada) {
+                // El libro ya no se usará
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Encola la línea de texto y el evento para el libro; ninguno de los dos espera al disco.
+     */
+    @Override
+    public void registrar(EventoVenta evento) throws IOException {
+        logVentas.registrar(evento.aLineaLog());
+        if (escritorLibro != null) {
+            escritorLibro.registrar(evento);
+        }
+    }
+
+    /**
+     * Espera a que se anexen los eventos pendientes y consulta el libro; gracias a su índice disperso solo se leen
+     * los bloques que pueden contener resultados.
+     */
+    @Override
+    public long consultar(long desde, long hasta, String idComic, String idUsuario, Consumer<EventoVenta> consumidor) throws IOException {
+        if (libroVentas == null) {
+            throw new IOException("El libro de ventas no está disponible.");
+        }
+        escritorLibro.vaciar();
+        return libroVentas.consultar(desde, hasta, idComic, idUsuario, consumidor);
+    }
+
+    /**
+     * Espera a que se anexen los eventos pendientes y recorre el libro en paralelo por segmentos si es grande.
+     * Sin libro, retorna un acumulador vacío.
+     */
+    @Override
+    public <T> T recorrer(Supplier<T> nuevoAcumulador, BiConsumer<T, EventoVenta> acumular,
+                          BinaryOperator<T> combinar, ForkJoinPool pool) throws IOException {
+        if (libroVentas == null) {
+            return nuevoAcumulador.get();
+        }
+        escritorLibro.vaciar();
+        return libroVentas.recorrerEnParalelo(nuevoAcumulador, acumular, combinar, pool);
+    }
+
+    @Override
+    public EscritorLotesAsincrono<?> getEscritor() {
+        return logVentas;
+    }
+
+    /**
+     * Espera a que se escriban las líneas pendientes del log y los eventos pendientes del libro, detiene los hilos
+     * escritores y cierra el libro.
+     */
+    @Override
+    public void close() throws IOException {
+        logVentas.close();
+        if (libroVentas != null) {
+            escritorLibro.close();
+            libroVentas.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return rutaVentasLog;
+    }
+
+    /**
+     * Hilo escritor del libro de ventas: cada lote se anexa con una sola escritura (ver {@link LibroVentas#registrarLote}).
+     */
+    private static final class EscritorLibro extends EscritorLotesAsincrono<EventoVenta> {
+        private final LibroVentas libro;
+
+        EscritorLibro(LibroVentas libro, String rutaLibro) {
+            super(rutaLibro, Constantes.CAPACIDAD_COLA_LOG_VENTAS, Constantes.INTERVALO_VACIADO_LOG_VENTAS_MS);
+            this.libro = libro;
+        }
+
+        @Override
+        protected void escribirLote(List<EventoVenta> lote) throws IOException {
+            libro.registrarLote(lote);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package gestores;
+
+import constantes.Constantes;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import utilidades.EscritorLotesAsincrono;
+import utilidades.TextoUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Historial de ventas en la tabla {@code ventas} de una {@link BaseDatosSql}.
+ * <p>
+ * Registrar un evento solo lo encola: un hilo escritor inserta los eventos por lotes, cada lote en una sola
+ * transacción (ver {@link EscritorLotesAsincrono}), así que una venta no espera un commit. Las consultas esperan
+ * a que se escriban los eventos pendientes y usan los índices por instante, cómic y usuario.
+ */
+final class RepositorioVentasSql implements RepositorioVentas {
+    private static final String INSERTAR = "INSERT INTO ventas (tipo, instante, id_comic, clave_comic, titulo_comic, "
+            + "id_usuario, nombre_usuario, estado_anterior) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECCIONAR = "SELECT tipo, instante, id_comic, titulo_comic, id_usuario, nombre_usuario, "
+            + "estado_anterior FROM ventas";
+
+    private final BaseDatosSql base;
+    private final Connection conexionLectura;
+    private final EscritorVentas escritor;
+
+    /**
+     * Constructor de RepositorioVentasSql.
+     *
+     * @param base La base de datos.
+     * @throws IOException Si no se puede conectar.
+     */
+    RepositorioVentasSql(BaseDatosSql base) throws IOException {
+        this.base = base;
+        try {
+            this.conexionLectura = base.conectar();
+        } catch (SQLException e) {
+            throw new IOException("No se pudo conectar a la base de datos " + base + ": " + e.getMessage(), e);
+        }
+        this.escritor = new EscritorVentas(base);
+        this.escritor.setAvisos(mensaje -> base.getOyente().notificar(EventoSistema.error(mensaje)));
+    }
+
+    @Override
+    public void registrar(EventoVenta evento) {
+        escritor.registrar(evento);
+    }
+
+    /**
+     * Importa los eventos de un log de texto de ventas (ver {@link EventoVenta#desdeLineaLog}) en una sola transacción.
+     * Las líneas que no tienen el formato esperado se ignoran.
+     *
+     * @param rutaLog La ruta del log de texto.
+     * @return El número de eventos importados.
+     * @throws IOException Si ocurre un error al leer el log o al escribir en la base.
+     */
+    synchronized int importarLogTexto(String rutaLog) throws IOException {
+        List<EventoVenta> eventos = new ArrayList<>();
+        try (BufferedReader lector = Files.newBufferedReader(Paths.get(rutaLog), StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                EventoVenta evento = EventoVenta.desdeLineaLog(linea);
+                if (evento != null) {
+                    eventos.add(evento);
+                }
+            }
+        }
+        try (PreparedStatement insertar = conexionLectura.prepareStatement(INSERTAR)) {
+            BaseDatosSql.enTransaccion(conexionLectura, () -> BaseDatosSql.ejecutarEnLotes(insertar, eventos, RepositorioVentasSql::asignarFila));
+        } catch (SQLException e) {
+            throw new IOException("No se pudo importar " + rutaLog + " a " + base + ": " + e.getMessage(), e);
+        }
+        return eventos.size();
+    }
+
+    @Override
+    public synchronized long consultar(long desde, long hasta, String idComic, String idUsuario,
+                                       Consumer<EventoVenta> consumidor) throws IOException {
+        escritor.vaciar();
+        StringBuilder sql = new StringBuilder(SELECCIONAR).append(" WHERE instante >= ? AND instante < ?");
+        if (idComic != null) {
+            sql.append(" AND clave_comic = ?");
+        }
+        if (idUsuario != null) {
+            sql.append(" AND id_usuario = ?");
+        }
+        sql.append(" ORDER BY instante, numero");
+        try (PreparedStatement sentencia = conexionLectura.prepareStatement(sql.toString())) {
+            int parametro = 1;
+            sentencia.setLong(parametro++, desde);
+            sentencia.setLong(parametro++, hasta);
+            if (idComic != null) {
+                sentencia.setString(parametro++, TextoUtil.normalizarId(idComic));
+            }
+            if (idUsuario != null) {
+                sentencia.setString(parametro, idUsuario);
+            }
+            return entregar(sentencia, consumidor);
+        } catch (SQLException e) {
+            throw new IOException("No se pudo consultar el historial de ventas en " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recorre la tabla completa en orden, en el hilo que llama: la base ya paraleliza la lectura internamente
+     * y un solo recorrido por el índice primario es más barato que varios rangos.
+     */
+    @Override
+    public synchronized <T> T recorrer(Supplier<T> nuevoAcumulador, BiConsumer<T, EventoVenta> acumular,
+                                       BinaryOperator<T> combinar, ForkJoinPool pool) throws IOException {
+        escritor.vaciar();
+        T acumulador = nuevoAcumulador.get();
+        try (PreparedStatement sentencia = conexionLectura.prepareStatement(SELECCIONAR + " ORDER BY numero")) {
+            sentencia.setFetchSize(Constantes.LOTE_ESCRITURA_SQL);
+            entregar(sentencia, evento -> acumular.accept(acumulador, evento));
+        } catch (SQLException e) {
+            throw new IOException("No se pudo leer el historial de ventas en " + base + ": " + e.getMessage(), e);
+        }
+        return acumulador;
+    }
+
+    private static long entregar(PreparedStatement sentencia, Consumer<EventoVenta> consumidor) throws SQLException {
+        long entregados = 0;
+        try (ResultSet filas = sentencia.executeQuery()) {
+            while (filas.next()) {
+                EventoVenta.Tipo tipo = tipoDesdeCodigo(filas.getString(1));
+                consumidor.accept(new EventoVenta(tipo, filas.getLong(2), filas.getString(3), filas.getString(4),
+                        filas.getString(5), filas.getString(6), EstadoComic.desdeTexto(filas.getString(7))));
+                entregados++;
+            }
+        }
+        return entregados;
+    }
+
+    private static String codigoDeTipo(EventoVenta.Tipo tipo) {
+        switch (tipo) {
+            case VENTA:
+                return "V";
+            case RESERVA:
+                return "R";
+            case EXPIRACION:
+                return "E";
+            default:
+                return "D";
+        }
+    }
+
+    private static EventoVenta.Tipo tipoDesdeCodigo(String codigo) {
+        switch (codigo) {
+            case "V":
+                return EventoVenta.Tipo.VENTA;
+            case "R":
+                return EventoVenta.Tipo.RESERVA;
+            case "E":
+                return EventoVenta.Tipo.EXPIRACION;
+            default:
+                return EventoVenta.Tipo.DISPONIBLE;
+        }
+    }
+
+    private static void asignarFila(PreparedStatement sentencia, EventoVenta evento) throws SQLException {
+        sentencia.setString(1, codigoDeTipo(evento.getTipo()));
+        sentencia.setLong(2, evento.getInstanteMillis());
+        sentencia.setString(3, evento.getIdComic());
+        sentencia.setString(4, TextoUtil.normalizarId(evento.getIdComic()));
+        sentencia.setString(5, evento.getTituloComic());
+        if (evento.getIdUsuario() != null) {
+            sentencia.setString(6, evento.getIdUsuario());
+            sentencia.setString(7, evento.getNombreUsuario());
+        } else {
+            sentencia.setNull(6, Types.VARCHAR);
+            sentencia.setNull(7, Types.VARCHAR);
+        }
+        sentencia.setString(8, evento.getEstadoAnterior().getCodigo());
+    }
+
+    @Override
+    public EscritorLotesAsincrono<?> getEscritor() {
+        return escritor;
+    }
+
+    /**
+     * Espera a que se escriban los eventos pendientes, detiene el hilo escritor y cierra las conexiones.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        escritor.close();
+        try {
+            conexionLectura.close();
+        } catch (SQLException e) {
+            throw new IOException("Error al cerrar la conexión a " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return base.toString();
+    }
+
+    /**
+     * Hilo escritor de los eventos, con su propia conexión: cada lote se inserta con un lote de JDBC en una transacción.
+     */
+    private static final class EscritorVentas extends EscritorLotesAsincrono<EventoVenta> {
+        private final BaseDatosSql base;
+        private Connection conexion; // Solo la usa el hilo escritor
+        private PreparedStatement insertar;
+
+        EscritorVentas(BaseDatosSql base) {
+            super(base + " (ventas)", Constantes.CAPACIDAD_COLA_LOG_VENTAS, Constantes.INTERVALO_VACIADO_LOG_VENTAS_MS);
+            this.base = base;
+        }
+
+        @Override
+        protected void escribirLote(List<EventoVenta> lote) throws IOException {
+            try {
+                if (conexion == null) {
+                    conexion = base.conectar();
+                    insertar = conexion.prepareStatement(INSERTAR);
+                }
+                BaseDatosSql.enTransaccion(conexion, () -> BaseDatosSql.ejecutarEnLotes(insertar, lote, RepositorioVentasSql::asignarFila));
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        protected void liberarDestino() {
+            if (conexion != null) {
+                try {
+                    conexion.close();
+                } catch (SQLException e) {
+                    avisar("Error al cerrar la conexión a " + base + ": " + e.getMessage());
+                }
+                conexion = null;
+                insertar = null;
+            }
+        }
+    }
+}
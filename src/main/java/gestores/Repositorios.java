@@ -0,0 +1,143 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.Usuario;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.PoliticaSincronizacion;
+import utilidades.TextoUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Los repositorios de cómics, usuarios y ventas de un {@link ComicSistema}, creados según su {@link ConfiguracionPersistencia}.
+ */
+final class Repositorios implements Closeable {
+    final RepositorioComics comics;
+    final RepositorioUsuarios usuarios;
+    final RepositorioVentas ventas;
+    private final BaseDatosSql baseDatos; // null con persistencia CSV
+    private final OyenteComicSistema oyente;
+
+    private Repositorios(RepositorioComics comics, RepositorioUsuarios usuarios, RepositorioVentas ventas, BaseDatosSql baseDatos,
+                         OyenteComicSistema oyente) {
+        this.comics = comics;
+        this.usuarios = usuarios;
+        this.ventas = ventas;
+        this.baseDatos = baseDatos;
+        this.oyente = oyente;
+    }
+
+    /**
+     * Abre los repositorios en archivos CSV.
+     *
+     * @param configuracion La configuración; se usan sus rutas CSV.
+     * @param politica La política de sincronización con el disco.
+     * @param oyente El oyente de los avisos de los repositorios.
+     * @return Los repositorios.
+     */
+    static Repositorios abrirCsv(ConfiguracionPersistencia configuracion, PoliticaSincronizacion politica, OyenteComicSistema oyente) {
+        return new Repositorios(new RepositorioComicsCsv(configuracion.getRutaComicsCsv(), politica, oyente),
+                new RepositorioUsuariosCsv(configuracion.getRutaUsuariosCsv(), politica),
+                new RepositorioVentasCsv(configuracion.getRutaVentasLog(), oyente), null, oyente);
+    }
+
+    /**
+     * Abre los repositorios en la base de datos SQL. Si la base se crea en esta llamada, importa los archivos CSV
+     * de la configuración que existan: el inventario con su diario ya aplicado, los usuarios y el log de texto de ventas.
+     *
+     * @param configuracion La configuración.
+     * @param politica La política de sincronización con el disco.
+     * @param oyente El oyente de los avisos de la base y de la importación.
+     * @return Los repositorios.
+     * @throws IOException Si no se puede abrir la base o importar los archivos.
+     */
+    static Repositorios abrirSql(ConfiguracionPersistencia configuracion, PoliticaSincronizacion politica,
+                                 OyenteComicSistema oyente) throws IOException {
+        BaseDatosSql base = new BaseDatosSql(configuracion.getRutaBaseDatos(), oyente);
+        RepositorioComicsSql comics = null;
+        RepositorioUsuariosSql usuarios = null;
+        RepositorioVentasSql ventas = null;
+        try {
+            comics = new RepositorioComicsSql(base);
+            usuarios = new RepositorioUsuariosSql(base);
+            ventas = new RepositorioVentasSql(base);
+            comics.setPoliticaSincronizacion(politica);
+            if (base.esNueva()) {
+                importarCsv(configuracion, politica, oyente, comics, usuarios, ventas);
+            }
+            return new Repositorios(comics, usuarios, ventas, base, oyente);
+        } catch (IOException | RuntimeException e) {
+            new Repositorios(comics, usuarios, ventas, base, oyente).close();
+            throw e;
+        }
+    }
+
+    private static void importarCsv(ConfiguracionPersistencia configuracion, PoliticaSincronizacion politica,
+                                    OyenteComicSistema oyente, RepositorioComicsSql comics, RepositorioUsuariosSql usuarios,
+                                    RepositorioVentasSql ventas) throws IOException {
+        if (Files.exists(Paths.get(configuracion.getRutaComicsCsv()))) {
+            RepositorioComicsCsv origen = new RepositorioComicsCsv(configuracion.getRutaComicsCsv(), politica, oyente);
+            Map<String, Comic> inventario = new LinkedHashMap<>();
+            origen.cargar(comic -> inventario.putIfAbsent(TextoUtil.normalizarId(comic.getId()), comic));
+            origen.reproducirCambios(new RepositorioComics.Cambios() {
+                @Override
+                public void alta(Comic comic) {
+                    inventario.put(TextoUtil.normalizarId(comic.getId()), comic);
+                }
+
+                @Override
+                public void baja(String id) {
+                    inventario.remove(TextoUtil.normalizarId(id));
+                }
+
+                @Override
+                public void cambioEstado(String id, EstadoComic estado) {
+                    Comic comic = inventario.get(TextoUtil.normalizarId(id));
+                    if (comic != null) {
+                        comic.restablecerEstado(estado);
+                    }
+                }
+            });
+            comics.guardarTodos(inventario.values());
+            oyente.notificar(EventoSistema.informacion("Se importaron " + inventario.size() + " cómics de " + configuracion.getRutaComicsCsv() + " a " + comics + "."));
+        }
+        if (Files.exists(Paths.get(configuracion.getRutaUsuariosCsv()))) {
+            Map<String, Usuario> porId = new LinkedHashMap<>();
+            new RepositorioUsuariosCsv(configuracion.getRutaUsuariosCsv(), politica).cargar(usuario -> porId.putIfAbsent(usuario.getId(), usuario));
+            usuarios.guardarTodos(porId.values());
+            oyente.notificar(EventoSistema.informacion("Se importaron " + porId.size() + " usuarios de " + configuracion.getRutaUsuariosCsv() + " a " + usuarios + "."));
+        }
+        if (Files.exists(Paths.get(configuracion.getRutaVentasLog()))) {
+            int importados = ventas.importarLogTexto(configuracion.getRutaVentasLog());
+            oyente.notificar(EventoSistema.informacion("Se importaron " + importados + " eventos de " + configuracion.getRutaVentasLog() + " a " + ventas + "."));
+        }
+    }
+
+    /**
+     * Cierra los repositorios y, con persistencia SQL, la base de datos. Después de cerrar, {@link RepositorioComics#firma()}
+     * refleja los datos tal como quedaron en el disco.
+     */
+    @Override
+    public void close() {
+        for (Closeable repositorio : new Closeable[]{ventas, usuarios, comics}) {
+            if (repositorio == null) {
+                continue;
+            }
+            try {
+                repositorio.close();
+            } catch (IOException e) {
+                oyente.notificar(EventoSistema.error("Error al cerrar " + repositorio + ": " + e.getMessage()));
+            }
+        }
+        if (baseDatos != null) {
+            baseDatos.close();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package gestores;
+
+import modelos.Comic;
+import modelos.EstadoComic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versiones del estado de los cómics, para que un listado lea el inventario tal como estaba en un instante
+ * sin detener las ventas que ocurren mientras lo recorre (control de concurrencia multiversión).
+ * <p>
+ * Un lector abre una versión ({@link #abrir}), que es el valor del reloj en ese momento. Mientras haya versiones
+ * abiertas, cada cambio de estado guarda antes el estado anterior del cómic en su cadena de deshacer y, al
+ * terminar, la marca con el siguiente valor del reloj. Para obtener el estado de un cómic en una versión se lee su
+ * estado actual y se deshacen los cambios de la cadena posteriores a la versión (o aún no terminados).
+ * <p>
+ * Sin lectores, los cambios no guardan nada. Las entradas que ninguna versión abierta necesita se descartan al
+ * agregar otras a la misma cadena y al cerrar la última versión, así que las versiones viejas no se acumulan.
+ * <p>
+ * Los cambios de estado deben llamar a {@link #antesDeCambiar} y {@link #despuesDeCambiar} con el bloqueo del
+ * cómic tomado; los cambios estructurales (agregar, eliminar) no se versionan: los lectores toman el bloqueo de
+ * lectura del inventario, que los excluye.
+ */
+final class VersionesEstadoComics {
+    private static final long PENDIENTE = Long.MAX_VALUE;
+
+    /**
+     * Un cambio de estado: el estado anterior del cómic y la versión en que terminó el cambio.
+     */
+    static final class Cambio {
+        private final EstadoComic anterior;
+        private volatile long version = PENDIENTE;
+        private volatile Cambio previo; // Cambio anterior del mismo cómic; se corta al descartar los viejos
+
+        private Cambio(EstadoComic anterior, Cambio previo) {
+            this.anterior = anterior;
+            this.previo = previo;
+        }
+    }
+
+    private final AtomicLong reloj = new AtomicLong();
+    // Versiones abiertas -> número de lectores de cada una; se modifica con su propio monitor tomado
+    private final ConcurrentSkipListMap<Long, Integer> abiertas = new ConcurrentSkipListMap<>();
+    // Clave del cómic -> su cambio más reciente
+    private final ConcurrentHashMap<String, Cambio> cambios = new ConcurrentHashMap<>();
+
+    /**
+     * Abre una versión: fija el instante cuyos estados se leerán con {@link #estadoEn}.
+     * Cada versión abierta debe cerrarse con {@link #cerrar}.
+     *
+     * @return La versión abierta.
+     */
+    long abrir() {
+        synchronized (abiertas) {
+            long version = reloj.get();
+            abiertas.merge(version, 1, Integer::sum);
+            return version;
+        }
+    }
+
+    /**
+     * Cierra una versión. Al cerrarse la última, se descartan las cadenas de deshacer que ya nadie necesita.
+     *
+     * @param version La versión retornada por {@link #abrir}.
+     */
+    void cerrar(long version) {
+        long minima;
+        synchronized (abiertas) {
+            abiertas.computeIfPresent(version, (v, lectores) -> lectores == 1 ? null : lectores - 1);
+            minima = versionMinima();
+        }
+        // Eliminación condicional: si un cambio reemplazó la cadena mientras tanto, se conserva
+        cambios.values().removeIf(cambio -> cambio.version != PENDIENTE && cambio.version <= minima);
+    }
+
+    /**
+     * Registra el estado que un cómic tiene antes de cambiarlo. Se llama con el bloqueo del cómic tomado.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param anterior El estado actual del cómic.
+     * @return El cambio registrado, o null si no hay versiones abiertas.
+     */
+    Cambio antesDeCambiar(String clave, EstadoComic anterior) {
+        if (abiertas.isEmpty()) {
+            return null;
+        }
+        Cambio cambio = new Cambio(anterior, cambios.get(clave));
+        cambios.put(clave, cambio);
+        long minima;
+        synchronized (abiertas) {
+            minima = versionMinima();
+        }
+        // Las versiones de la cadena decrecen; desde la primera que no pasa de la mínima, ningún lector la recorre
+        for (Cambio actual = cambio; actual.previo != null; actual = actual.previo) {
+            if (actual.previo.version <= minima) {
+                actual.previo = null;
+                break;
+            }
+        }
+        return cambio;
+    }
+
+    /**
+     * Marca un cambio como terminado, con la siguiente versión. Se llama con el bloqueo del cómic tomado, después
+     * de escribir el nuevo estado (o de que el cambio falle: el anterior sigue siendo el actual).
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param cambio El cambio retornado por {@link #antesDeCambiar}; null si no se registró.
+     */
+    void despuesDeCambiar(String clave, Cambio cambio) {
+        if (cambio == null) {
+            return;
+        }
+        cambio.version = reloj.incrementAndGet();
+        if (abiertas.isEmpty()) {
+            // Ningún lector lo necesita; el que abra una versión ahora ya ve el nuevo estado
+            cambios.remove(clave, cambio);
+        }
+    }
+
+    /**
+     * Obtiene el estado de un cómic en una versión abierta.
+     *
+     * @param clave El ID normalizado del cómic.
+     * @param actual El estado actual del cómic, leído antes de llamar a este método.
+     * @param version La versión abierta.
+     * @return El estado del cómic en esa versión.
+     */
+    EstadoComic estadoEn(String clave, EstadoComic actual, long version) {
+        EstadoComic estado = actual;
+        for (Cambio cambio = cambios.get(clave); cambio != null && cambio.version > version; cambio = cambio.previo) {
+            estado = cambio.anterior;
+        }
+        return estado;
+    }
+
+    /**
+     * Indica si hay cadenas de deshacer; si no, el estado actual de cada cómic es el de cualquier versión abierta
+     * cuyo estado se lea después.
+     *
+     * @return true si algún cambio guardó su estado anterior.
+     */
+    boolean hayCambios() {
+        return !cambios.isEmpty();
+    }
+
+    /**
+     * Obtiene la versión abierta más antigua o, sin versiones abiertas, el valor actual del reloj: un lector que
+     * abra una versión después (e.g., mientras se descartan las cadenas fuera del monitor) no es anterior a ella,
+     * así que no necesita deshacer los cambios que terminaron hasta entonces, pero sí los que terminen después.
+     * Se llama con el monitor de {@code abiertas} tomado.
+     */
+    private long versionMinima() {
+        return abiertas.isEmpty() ? reloj.get() : abiertas.firstKey();
+    }
+
+    /**
+     * Congela un cómic en un estado: retorna una copia inmutable con sus datos y el estado indicado.
+     *
+     * @param comic El cómic del inventario.
+     * @param estado Su estado en la versión leída.
+     * @return La copia inmutable.
+     */
+    static Comic congelar(Comic comic, EstadoComic estado) {
+        return new ComicInmutable(comic.getTitulo(), comic.getAutor(), comic.getId(), estado);
+    }
+
+    /**
+     * Un cómic de un listado: sus datos y su estado quedan fijos en la versión leída.
+     */
+    private static final class ComicInmutable extends Comic {
+        private final String titulo;
+        private final String autor;
+        private final String id;
+        private final EstadoComic estado;
+
+        ComicInmutable(String titulo, String autor, String id, EstadoComic estado) {
+            this.titulo = titulo;
+            this.autor = autor;
+            this.id = id;
+            this.estado = estado;
+        }
+
+        @Override
+        public String getTitulo() {
+            return titulo;
+        }
+
+        @Override
+        public String getAutor() {
+            return autor;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public EstadoComic getEstado() {
+            return estado;
+        }
+
+        /**
+         * El estado de un cómic de un listado no puede cambiarse; los cambios se hacen con ComicSistema.
+         *
+         * @throws UnsupportedOperationException Siempre.
+         */
+        @Override
+        public void restablecerEstado(EstadoComic estado) {
+            throw new UnsupportedOperationException("Los cómics de un listado no se pueden modificar.");
+        }
+
+        /**
+         * El ID de un cómic de un listado no puede cambiarse.
+         *
+         * @throws UnsupportedOperationException Siempre.
+         */
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("Los cómics de un listado no se pueden modificar.");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package modelos;
 
+import excepciones.TransicionEstadoInvalidaException;
+
 import java.util.Objects;
 
 /**
@@ -10,7 +12,7 @@ public class Comic {
     private String titulo;
     private String autor;
     private String id;
-    private String estado;
+    private volatile EstadoComic estado; // Puede cambiar desde varios hilos (ver ComicSistema)
 
     /**
      * Constructor para crear una nueva instancia de Comic.
@@ -18,14 +20,23 @@ public class Comic {
      * @param titulo El título del cómic o coleccionable. No puede ser nulo.
      * @param autor El autor o creador del cómic. No puede ser nulo.
      * @param id El identificador único del cómic (e.g., ISBN para novelas gráficas, o un ID personalizado para cómics individuales). No puede ser nulo.
-     * @param estado El estado actual del cómic (e.g., "disponible", "vendido", "reservado"). No puede ser nulo.
+     * @param estado El estado actual del cómic (e.g., "disponible", "vendido", "reservado", o su código de una letra;
+     *               ver {@link EstadoComic#desdeTexto}). No puede ser nulo.
      * @throws NullPointerException Si alguno de los parámetros requeridos (titulo, autor, id, estado) es nulo.
+     * @throws IllegalArgumentException Si el estado no corresponde a ningún {@link EstadoComic}.
      */
     public Comic(String titulo, String autor, String id, String estado) {
         this.titulo = Objects.requireNonNull(titulo, "Debe ingresar un título para el cómic.").trim();
         this.autor = Objects.requireNonNull(autor, "Debe ingresar el autor del cómic.").trim();
         this.id = Objects.requireNonNull(id, "Debe ingresar un ID único para el cómic.").trim();
-        this.estado = Objects.requireNonNull(estado, "Debe ingresar el estado del cómic.").trim();
+        this.estado = EstadoComic.desdeTexto(Objects.requireNonNull(estado, "Debe ingresar el estado del cómic."));
+    }
+
+    /**
+     * Constructor para subclases que guardan los datos del cómic en otra parte (e.g., las vistas del
+     * almacenamiento compacto de ComicSistema). Deben sobrescribir los métodos de acceso y {@link #restablecerEstado}.
+     */
+    protected Comic() {
     }
 
     /**
@@ -47,11 +58,11 @@ public class Comic {
     }
 
     /**
-     * Obtiene el estado actual del cómic ("disponible", "vendido", "reservado").
+     * Obtiene el estado actual del cómic.
      *
      * @return El estado del cómic.
      */
-    public String getEstado() {
+    public EstadoComic getEstado() {
         return estado;
     }
 
@@ -65,12 +76,29 @@ public class Comic {
     }
 
     /**
-     * Establece el estado del cómic.
+     * Cambia el estado del cómic, validando que la transición esté permitida (ver {@link EstadoComic}).
+     * Los cambios hechos directamente sobre el cómic no actualizan los conteos por estado de ComicSistema.
+     *
+     * @param estado El nuevo estado del cómic. No puede ser nulo.
+     * @throws TransicionEstadoInvalidaException Si no se puede pasar del estado actual al indicado.
+     */
+    public void setEstado(EstadoComic estado) {
+        Objects.requireNonNull(estado, "Debe ingresar el estado del cómic.");
+        EstadoComic actual = getEstado();
+        if (!actual.puedeCambiarA(estado)) {
+            throw new TransicionEstadoInvalidaException("El cómic con ID '" + getId() + "' no puede pasar de '" + actual + "' a '" + estado + "'.");
+        }
+        restablecerEstado(estado);
+    }
+
+    /**
+     * Establece el estado del cómic sin validar la transición.
+     * Se usa al reconstruir el inventario desde disco, donde el estado guardado es el que manda.
      *
-     * @param estado El nuevo estado del cómic (e.g., "disponible", "vendido", "reservado").
+     * @param estado El estado del cómic. No puede ser nulo.
      */
-    public void setEstado(String estado) {
-        this.estado = estado;
+    public void restablecerEstado(EstadoComic estado) {
+        this.estado = Objects.requireNonNull(estado, "Debe ingresar el estado del cómic.");
     }
 
     /**
@@ -89,6 +117,6 @@ public class Comic {
      */
     @Override
     public String toString() {
-        return  "\nID: " + id +  "\nTÍTULO: " + titulo + "\nAUTOR: " + autor + "\nESTADO: " + estado + "\n";
+        return  "\nID: " + getId() +  "\nTÍTULO: " + getTitulo() + "\nAUTOR: " + getAutor() + "\nESTADO: " + getEstado() + "\n";
     }
 }
\ No newline at end of file
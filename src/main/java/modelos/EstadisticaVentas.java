@@ -0,0 +1,85 @@
+package modelos;
+
+/**
+ * Resultado de un reporte de ventas: las ventas y devoluciones acumuladas de un cómic, un autor o un usuario.
+ * <p>
+ * Las devoluciones cuentan los eventos que devolvieron el cómic al estado "disponible" (devoluciones y cancelaciones
+ * de reservas). En los usuarios siempre son 0, porque esos eventos no registran quién había comprado el cómic.
+ */
+public class EstadisticaVentas {
+    private final String clave;
+    private final String nombre;
+    private final long ventas;
+    private final long devoluciones;
+
+    /**
+     * Constructor de EstadisticaVentas.
+     *
+     * @param clave El ID del cómic o del usuario, o el nombre del autor.
+     * @param nombre El título del cómic, el nombre del usuario o el nombre del autor.
+     * @param ventas El número de ventas o reservas.
+     * @param devoluciones El número de devoluciones o cancelaciones.
+     */
+    public EstadisticaVentas(String clave, String nombre, long ventas, long devoluciones) {
+        this.clave = clave;
+        this.nombre = nombre;
+        this.ventas = ventas;
+        this.devoluciones = devoluciones;
+    }
+
+    /**
+     * Obtiene la clave de la estadística.
+     *
+     * @return El ID del cómic o del usuario, o el nombre del autor.
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    /**
+     * Obtiene el nombre descriptivo de la estadística.
+     *
+     * @return El título del cómic, el nombre del usuario o el nombre del autor.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el número de ventas o reservas.
+     *
+     * @return El número de ventas.
+     */
+    public long getVentas() {
+        return ventas;
+    }
+
+    /**
+     * Obtiene el número de devoluciones o cancelaciones.
+     *
+     * @return El número de devoluciones.
+     */
+    public long getDevoluciones() {
+        return devoluciones;
+    }
+
+    /**
+     * Obtiene las ventas descontando las devoluciones.
+     *
+     * @return Las ventas netas.
+     */
+    public long getVentasNetas() {
+        return ventas - devoluciones;
+    }
+
+    /**
+     * Retorna una representación en cadena de la estadística.
+     *
+     * @return Una cadena con la clave, el nombre y los conteos.
+     */
+    @Override
+    public String toString() {
+        String descripcion = clave.equals(nombre) ? clave : clave + " - " + nombre;
+        return descripcion + ": " + getVentasNetas() + " ventas netas (" + ventas + " ventas, " + devoluciones + " devoluciones)";
+    }
+}
@@ -0,0 +1,112 @@
+package modelos;
+
+/**
+ * Estados posibles de un cómic dentro del inventario y las transiciones permitidas entre ellos.
+ * <p>
+ * Transiciones válidas:
+ * <ul>
+ *     <li>{@code DISPONIBLE} → {@code RESERVADO} o {@code VENDIDO}.</li>
+ *     <li>{@code RESERVADO} → {@code VENDIDO} o {@code DISPONIBLE} (cancelación de la reserva).</li>
+ *     <li>{@code VENDIDO} → {@code DISPONIBLE} (devolución).</li>
+ * </ul>
+ * En los archivos CSV y en el diario del inventario cada estado se guarda con su código de una letra;
+ * al leer se aceptan tanto el código como el nombre completo, sin distinguir mayúsculas.
+ */
+public enum EstadoComic {
+    DISPONIBLE("disponible", "D"),
+    RESERVADO("reservado", "R"),
+    VENDIDO("vendido", "V");
+
+    private final String nombre;
+    private final String codigo;
+
+    EstadoComic(String nombre, String codigo) {
+        this.nombre = nombre;
+        this.codigo = codigo;
+    }
+
+    /**
+     * Obtiene el nombre del estado, tal como se muestra al usuario (e.g., "disponible").
+     *
+     * @return El nombre del estado.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el código de una letra con el que el estado se guarda en disco.
+     *
+     * @return El código del estado.
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Indica si el cómic está vendido o reservado, es decir, si no puede venderse ni eliminarse.
+     *
+     * @return true si el estado no es {@link #DISPONIBLE}.
+     */
+    public boolean estaOcupado() {
+        return this != DISPONIBLE;
+    }
+
+    /**
+     * Indica si se permite pasar de este estado al estado indicado.
+     *
+     * @param destino El estado al que se quiere cambiar.
+     * @return true si la transición es válida.
+     */
+    public boolean puedeCambiarA(EstadoComic destino) {
+        switch (this) {
+            case DISPONIBLE:
+                return destino == RESERVADO || destino == VENDIDO;
+            case RESERVADO:
+                return destino == VENDIDO || destino == DISPONIBLE;
+            case VENDIDO:
+                return destino == DISPONIBLE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Obtiene el estado correspondiente a un texto leído de disco o ingresado por el usuario.
+     *
+     * @param texto El código de una letra o el nombre del estado, sin distinguir mayúsculas. No puede ser nulo.
+     * @return El estado correspondiente.
+     * @throws IllegalArgumentException Si el texto no corresponde a ningún estado.
+     */
+    public static EstadoComic desdeTexto(String texto) {
+        String valor = texto.trim();
+        if (valor.length() == 1) {
+            switch (Character.toUpperCase(valor.charAt(0))) {
+                case 'D':
+                    return DISPONIBLE;
+                case 'R':
+                    return RESERVADO;
+                case 'V':
+                    return VENDIDO;
+                default:
+                    break;
+            }
+        }
+        for (EstadoComic estado : values()) {
+            if (estado.nombre.equalsIgnoreCase(valor)) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Estado de cómic desconocido: '" + texto + "'.");
+    }
+
+    /**
+     * Retorna el nombre del estado.
+     *
+     * @return El nombre del estado (e.g., "disponible").
+     */
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
@@ -0,0 +1,266 @@
+package modelos;
+
+/**
+ * Aviso de ComicSistema sobre una operación o sobre el estado de sus datos (e.g., un cómic agregado, un ID duplicado,
+ * un archivo que no se pudo leer). ComicSistema no escribe en la consola: entrega cada aviso a su oyente, que decide
+ * si lo muestra, lo registra o lo ignora.
+ * <p>
+ * El texto del aviso se arma solo cuando se pide con {@link #getMensaje()}, así que un oyente que ignora los avisos
+ * no paga el costo de formatearlos.
+ */
+public final class EventoSistema {
+
+    /**
+     * Gravedad de un aviso.
+     */
+    public enum Nivel {
+        INFORMACION,
+        ADVERTENCIA,
+        ERROR
+    }
+
+    /**
+     * Tipo de aviso. Los avisos de carga y persistencia, cuyo texto varía, usan los tipos genéricos
+     * {@link #INFORMACION}, {@link #ADVERTENCIA} y {@link #ERROR}.
+     */
+    public enum Tipo {
+        COMIC_AGREGADO(Nivel.INFORMACION),
+        COMIC_DUPLICADO(Nivel.ADVERTENCIA),
+        COMIC_ELIMINADO(Nivel.INFORMACION),
+        COMIC_NO_ENCONTRADO(Nivel.ADVERTENCIA),
+        COMIC_OCUPADO(Nivel.ADVERTENCIA),
+        VENTA_REGISTRADA(Nivel.INFORMACION),
+        RESERVA_REGISTRADA(Nivel.INFORMACION),
+        COMIC_DISPONIBLE(Nivel.INFORMACION),
+        COMIC_YA_DISPONIBLE(Nivel.ADVERTENCIA),
+        USUARIO_AGREGADO(Nivel.INFORMACION),
+        USUARIO_DUPLICADO(Nivel.ADVERTENCIA),
+        EMAIL_DUPLICADO(Nivel.ADVERTENCIA),
+        USUARIO_ELIMINADO(Nivel.INFORMACION),
+        USUARIO_NO_ENCONTRADO(Nivel.ADVERTENCIA),
+        INFORMACION(Nivel.INFORMACION),
+        ADVERTENCIA(Nivel.ADVERTENCIA),
+        ERROR(Nivel.ERROR);
+
+        private final Nivel nivel;
+
+        Tipo(Nivel nivel) {
+            this.nivel = nivel;
+        }
+
+        /**
+         * Obtiene la gravedad de los avisos de este tipo.
+         *
+         * @return El nivel.
+         */
+        public Nivel getNivel() {
+            return nivel;
+        }
+    }
+
+    private final Tipo tipo;
+    private final String id;
+    private final Comic comic;
+    private final Usuario usuario;
+    private final String texto;
+
+    private EventoSistema(Tipo tipo, String id, Comic comic, Usuario usuario, String texto) {
+        this.tipo = tipo;
+        this.id = id;
+        this.comic = comic;
+        this.usuario = usuario;
+        this.texto = texto;
+    }
+
+    /**
+     * Crea un aviso sobre un cómic del inventario (agregado, duplicado, eliminado, disponible o ya disponible).
+     *
+     * @param tipo El tipo de aviso.
+     * @param comic El cómic.
+     * @return El aviso.
+     */
+    public static EventoSistema deComic(Tipo tipo, Comic comic) {
+        return new EventoSistema(tipo, comic.getId(), comic, null, null);
+    }
+
+    /**
+     * Crea un aviso sobre un ID de cómic que no se pudo usar ({@link Tipo#COMIC_NO_ENCONTRADO} o {@link Tipo#COMIC_OCUPADO}).
+     *
+     * @param tipo El tipo de aviso.
+     * @param id El ID, tal como se recibió.
+     * @return El aviso.
+     */
+    public static EventoSistema deIdComic(Tipo tipo, String id) {
+        return new EventoSistema(tipo, id, null, null, null);
+    }
+
+    /**
+     * Crea el aviso de una venta registrada (directa o al confirmar una reserva).
+     *
+     * @param comic El cómic vendido.
+     * @param usuario El comprador.
+     * @return El aviso.
+     */
+    public static EventoSistema venta(Comic comic, Usuario usuario) {
+        return new EventoSistema(Tipo.VENTA_REGISTRADA, comic.getId(), comic, usuario, null);
+    }
+
+    /**
+     * Crea el aviso de una reserva registrada.
+     *
+     * @param comic El cómic reservado.
+     * @param usuario El titular de la reserva.
+     * @return El aviso.
+     */
+    public static EventoSistema reserva(Comic comic, Usuario usuario) {
+        return new EventoSistema(Tipo.RESERVA_REGISTRADA, comic.getId(), comic, usuario, null);
+    }
+
+    /**
+     * Crea un aviso sobre un usuario (agregado, duplicado, email duplicado o eliminado).
+     *
+     * @param tipo El tipo de aviso.
+     * @param usuario El usuario.
+     * @return El aviso.
+     */
+    public static EventoSistema deUsuario(Tipo tipo, Usuario usuario) {
+        return new EventoSistema(tipo, usuario.getId(), null, usuario, null);
+    }
+
+    /**
+     * Crea el aviso de un ID de usuario que no se encontró.
+     *
+     * @param id El ID, tal como se recibió.
+     * @return El aviso.
+     */
+    public static EventoSistema usuarioNoEncontrado(String id) {
+        return new EventoSistema(Tipo.USUARIO_NO_ENCONTRADO, id, null, null, null);
+    }
+
+    /**
+     * Crea un aviso informativo con un texto libre (e.g., los datos se cargaron).
+     *
+     * @param texto El texto del aviso.
+     * @return El aviso.
+     */
+    public static EventoSistema informacion(String texto) {
+        return new EventoSistema(Tipo.INFORMACION, null, null, null, texto);
+    }
+
+    /**
+     * Crea una advertencia con un texto libre: algo falló, pero el sistema sigue funcionando (e.g., un archivo no existe).
+     *
+     * @param texto El texto del aviso.
+     * @return El aviso.
+     */
+    public static EventoSistema advertencia(String texto) {
+        return new EventoSistema(Tipo.ADVERTENCIA, null, null, null, texto);
+    }
+
+    /**
+     * Crea un aviso de error con un texto libre: un cambio no se pudo persistir o un recurso no se pudo cerrar.
+     *
+     * @param texto El texto del aviso.
+     * @return El aviso.
+     */
+    public static EventoSistema error(String texto) {
+        return new EventoSistema(Tipo.ERROR, null, null, null, texto);
+    }
+
+    /**
+     * Obtiene el tipo del aviso.
+     *
+     * @return El tipo.
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene la gravedad del aviso.
+     *
+     * @return El nivel.
+     */
+    public Nivel getNivel() {
+        return tipo.getNivel();
+    }
+
+    /**
+     * Obtiene el ID del cómic o del usuario del aviso.
+     *
+     * @return El ID, o null en los avisos de texto libre.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el cómic del aviso.
+     *
+     * @return El cómic, o null si el aviso no se refiere a un cómic del inventario.
+     */
+    public Comic getComic() {
+        return comic;
+    }
+
+    /**
+     * Obtiene el usuario del aviso (en las ventas, el comprador).
+     *
+     * @return El usuario, o null si el aviso no se refiere a un usuario.
+     */
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    /**
+     * Arma el texto del aviso, tal como se muestra en la consola.
+     *
+     * @return El texto.
+     */
+    public String getMensaje() {
+        switch (tipo) {
+            case COMIC_AGREGADO:
+                return "Cómic '" + comic.getTitulo() + "' (ID: " + id + ") agregado al inventario.";
+            case COMIC_DUPLICADO:
+                return "El cómic con ID: " + id + " ya existe. No se puede registrar el mismo ID nuevamente.";
+            case COMIC_ELIMINADO:
+                return "Cómic '" + comic.getTitulo() + "' (ID: " + id + ") eliminado del inventario.";
+            case COMIC_NO_ENCONTRADO:
+                return "Cómic con ID '" + id + "' no encontrado para eliminar.";
+            case COMIC_OCUPADO:
+                return "No se puede eliminar el cómic con ID '" + id + "' porque está actualmente vendido/reservado.";
+            case VENTA_REGISTRADA:
+                return "Venta/Reserva registrada exitosamente: '" + comic.getTitulo() + "' (ID: " + id + ") a "
+                        + usuario.getNombre() + " (ID: " + usuario.getId() + ").";
+            case RESERVA_REGISTRADA:
+                return "Reserva registrada exitosamente: '" + comic.getTitulo() + "' (ID: " + id + ") a "
+                        + usuario.getNombre() + " (ID: " + usuario.getId() + ").";
+            case COMIC_DISPONIBLE:
+                return "Cómic '" + comic.getTitulo() + "' (ID: " + id + ") ahora está 'disponible'.";
+            case COMIC_YA_DISPONIBLE:
+                return "El cómic '" + comic.getTitulo() + "' (ID: " + id + ") ya está disponible.";
+            case USUARIO_AGREGADO:
+                return "Usuario '" + usuario.getNombre() + "' (ID: " + id + ") agregado.";
+            case USUARIO_DUPLICADO:
+                return "El usuario con ID: " + id + " ya existe. No se puede agregar.";
+            case EMAIL_DUPLICADO:
+                return "El email: " + usuario.getEmail() + " ya está registrado por otro usuario. No se puede agregar.";
+            case USUARIO_ELIMINADO:
+                return "Usuario '" + usuario.getNombre() + "' (ID: " + id + ") eliminado.";
+            case USUARIO_NO_ENCONTRADO:
+                return "Usuario con ID '" + id + "' no encontrado para eliminar.";
+            default:
+                return texto;
+        }
+    }
+
+    /**
+     * Retorna una representación en cadena del aviso.
+     *
+     * @return El texto del aviso.
+     */
+    @Override
+    public String toString() {
+        return getMensaje();
+    }
+}
@@ -0,0 +1,287 @@
+package modelos;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * Representa un evento del historial de ventas: la venta o reserva de un cómic a un usuario,
+ * su vuelta al estado "disponible" (cancelación o devolución) o el vencimiento de una reserva.
+ * <p>
+ * Es inmutable. Además de guardarse en el libro de ventas binario, cada evento tiene una representación
+ * de texto de una línea (ver {@link #aLineaLog()}), la del archivo {@code ventas_log.txt}.
+ */
+public class EventoVenta {
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String PREFIJO_VENTA = "VENTA/RESERVA - Fecha/Hora: ";
+    private static final String PREFIJO_DISPONIBLE = "DISPONIBLE - Fecha/Hora: ";
+    private static final String PREFIJO_RESERVA = "RESERVA - Fecha/Hora: ";
+    private static final String PREFIJO_EXPIRACION = "RESERVA VENCIDA - Fecha/Hora: ";
+
+    /**
+     * Tipos de evento del historial de ventas. El libro de ventas guarda el ordinal del tipo,
+     * así que los tipos nuevos se agregan siempre al final.
+     */
+    public enum Tipo {
+        /** Un cómic se vendió a un usuario (directamente o al confirmar su reserva). */
+        VENTA,
+        /** Un cómic vendido o reservado volvió a estar disponible. */
+        DISPONIBLE,
+        /** Un cómic se reservó a un usuario por un tiempo limitado. */
+        RESERVA,
+        /** Una reserva venció sin confirmarse y el cómic volvió a estar disponible. */
+        EXPIRACION;
+
+        /**
+         * Indica si los eventos de este tipo se refieren a un usuario (ventas y reservas).
+         *
+         * @return true si el evento lleva el ID y el nombre del usuario.
+         */
+        public boolean tieneUsuario() {
+            return this == VENTA || this == RESERVA;
+        }
+    }
+
+    private final Tipo tipo;
+    private final long instante; // Milisegundos desde la época
+    private final String idComic;
+    private final String tituloComic;
+    private final String idUsuario;
+    private final String nombreUsuario;
+    private final EstadoComic estadoAnterior;
+
+    /**
+     * Constructor para crear una nueva instancia de EventoVenta.
+     *
+     * @param tipo El tipo de evento. No puede ser nulo.
+     * @param instante El momento del evento, en milisegundos desde la época.
+     * @param idComic El ID del cómic. No puede ser nulo.
+     * @param tituloComic El título del cómic. No puede ser nulo.
+     * @param idUsuario El ID del usuario que compró o reservó; null en los eventos {@link Tipo#DISPONIBLE} y {@link Tipo#EXPIRACION}.
+     * @param nombreUsuario El nombre del usuario; null en los eventos {@link Tipo#DISPONIBLE} y {@link Tipo#EXPIRACION}.
+     * @param estadoAnterior El estado del cómic antes del evento. No puede ser nulo.
+     * @throws NullPointerException Si alguno de los parámetros requeridos es nulo.
+     */
+    public EventoVenta(Tipo tipo, long instante, String idComic, String tituloComic,
+                       String idUsuario, String nombreUsuario, EstadoComic estadoAnterior) {
+        this.tipo = Objects.requireNonNull(tipo, "El tipo de evento no puede ser nulo.");
+        this.instante = instante;
+        this.idComic = Objects.requireNonNull(idComic, "El ID del cómic no puede ser nulo.");
+        this.tituloComic = Objects.requireNonNull(tituloComic, "El título del cómic no puede ser nulo.");
+        this.idUsuario = idUsuario;
+        this.nombreUsuario = nombreUsuario;
+        this.estadoAnterior = Objects.requireNonNull(estadoAnterior, "El estado anterior no puede ser nulo.");
+    }
+
+    /**
+     * Crea el evento de la venta de un cómic, con la hora actual. La confirmación de una reserva también es una venta:
+     * la reserva que la precede queda en el historial como su propio evento.
+     *
+     * @param comic El cómic vendido.
+     * @param usuario El usuario que lo compró.
+     * @return El evento.
+     */
+    public static EventoVenta venta(Comic comic, Usuario usuario) {
+        return new EventoVenta(Tipo.VENTA, System.currentTimeMillis(), comic.getId(), comic.getTitulo(),
+                usuario.getId(), usuario.getNombre(), EstadoComic.DISPONIBLE);
+    }
+
+    /**
+     * Crea el evento de la reserva de un cómic disponible, con la hora actual.
+     *
+     * @param comic El cómic reservado.
+     * @param usuario El usuario que lo reservó.
+     * @return El evento.
+     */
+    public static EventoVenta reserva(Comic comic, Usuario usuario) {
+        return new EventoVenta(Tipo.RESERVA, System.currentTimeMillis(), comic.getId(), comic.getTitulo(),
+                usuario.getId(), usuario.getNombre(), EstadoComic.DISPONIBLE);
+    }
+
+    /**
+     * Crea el evento del vencimiento de la reserva de un cómic, con la hora actual.
+     *
+     * @param comic El cómic, que vuelve a estar disponible.
+     * @return El evento.
+     */
+    public static EventoVenta expiracion(Comic comic) {
+        return new EventoVenta(Tipo.EXPIRACION, System.currentTimeMillis(), comic.getId(), comic.getTitulo(),
+                null, null, EstadoComic.RESERVADO);
+    }
+
+    /**
+     * Crea el evento de la vuelta de un cómic al estado "disponible", con la hora actual.
+     *
+     * @param comic El cómic.
+     * @param estadoAnterior El estado que tenía el cómic antes del cambio.
+     * @return El evento.
+     */
+    public static EventoVenta disponible(Comic comic, EstadoComic estadoAnterior) {
+        return new EventoVenta(Tipo.DISPONIBLE, System.currentTimeMillis(), comic.getId(), comic.getTitulo(),
+                null, null, estadoAnterior);
+    }
+
+    /**
+     * Obtiene el tipo del evento.
+     *
+     * @return El tipo del evento.
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene el momento del evento en milisegundos desde la época.
+     *
+     * @return Los milisegundos desde la época.
+     */
+    public long getInstanteMillis() {
+        return instante;
+    }
+
+    /**
+     * Obtiene el momento del evento.
+     *
+     * @return El instante del evento.
+     */
+    public Instant getInstante() {
+        return Instant.ofEpochMilli(instante);
+    }
+
+    /**
+     * Obtiene el ID del cómic del evento.
+     *
+     * @return El ID del cómic.
+     */
+    public String getIdComic() {
+        return idComic;
+    }
+
+    /**
+     * Obtiene el título que tenía el cómic al momento del evento.
+     *
+     * @return El título del cómic.
+     */
+    public String getTituloComic() {
+        return tituloComic;
+    }
+
+    /**
+     * Obtiene el ID del usuario del evento.
+     *
+     * @return El ID del usuario, o null si el evento no se refiere a un usuario (ver {@link Tipo#tieneUsuario()}).
+     */
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    /**
+     * Obtiene el nombre del usuario del evento.
+     *
+     * @return El nombre del usuario, o null si el evento no se refiere a un usuario (ver {@link Tipo#tieneUsuario()}).
+     */
+    public String getNombreUsuario() {
+        return nombreUsuario;
+    }
+
+    /**
+     * Obtiene el estado que tenía el cómic antes del evento.
+     *
+     * @return El estado anterior; {@link EstadoComic#DISPONIBLE} en las reservas y en las ventas directas.
+     */
+    public EstadoComic getEstadoAnterior() {
+        return estadoAnterior;
+    }
+
+    /**
+     * Obtiene la línea con la que el evento se escribe en el log de texto de ventas, en la zona horaria del sistema.
+     *
+     * @return La línea, sin salto de línea final.
+     */
+    public String aLineaLog() {
+        String fecha = FORMATO_FECHA_HORA.format(LocalDateTime.ofInstant(getInstante(), ZoneId.systemDefault()));
+        if (tipo.tieneUsuario()) {
+            return prefijo(tipo) + fecha + ", Cómic ID: " + idComic + ", Título: " + tituloComic +
+                    ", Usuario ID: " + idUsuario + ", Nombre Usuario: " + nombreUsuario;
+        }
+        return prefijo(tipo) + fecha + ", Cómic ID: " + idComic + ", Título: " + tituloComic +
+                ", Estado anterior: " + estadoAnterior + ", Estado actual: " + EstadoComic.DISPONIBLE;
+    }
+
+    private static String prefijo(Tipo tipo) {
+        switch (tipo) {
+            case VENTA:
+                return PREFIJO_VENTA;
+            case RESERVA:
+                return PREFIJO_RESERVA;
+            case EXPIRACION:
+                return PREFIJO_EXPIRACION;
+            default:
+                return PREFIJO_DISPONIBLE;
+        }
+    }
+
+    /**
+     * Interpreta una línea del log de texto de ventas (ver {@link #aLineaLog()}).
+     * La fecha se interpreta en la zona horaria del sistema. Como el título puede contener comas,
+     * los campos que lo siguen se buscan desde el final de la línea.
+     *
+     * @param linea La línea del log.
+     * @return El evento, o null si la línea no tiene el formato esperado.
+     */
+    public static EventoVenta desdeLineaLog(String linea) {
+        Tipo tipo = null;
+        for (Tipo candidato : Tipo.values()) {
+            if (linea.startsWith(prefijo(candidato))) {
+                tipo = candidato;
+                break;
+            }
+        }
+        if (tipo == null) {
+            return null;
+        }
+        int inicioFecha = prefijo(tipo).length();
+        int inicioId = linea.indexOf(", Cómic ID: ", inicioFecha);
+        int inicioTitulo = inicioId < 0 ? -1 : linea.indexOf(", Título: ", inicioId);
+        int inicioResto = linea.lastIndexOf(tipo.tieneUsuario() ? ", Usuario ID: " : ", Estado anterior: ");
+        if (inicioTitulo < 0 || inicioResto < inicioTitulo) {
+            return null;
+        }
+        try {
+            long instante = LocalDateTime.parse(linea.substring(inicioFecha, inicioId), FORMATO_FECHA_HORA)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            String idComic = linea.substring(inicioId + ", Cómic ID: ".length(), inicioTitulo);
+            String titulo = linea.substring(inicioTitulo + ", Título: ".length(), inicioResto);
+            if (tipo.tieneUsuario()) {
+                int inicioNombre = linea.indexOf(", Nombre Usuario: ", inicioResto);
+                if (inicioNombre < 0) {
+                    return null;
+                }
+                return new EventoVenta(tipo, instante, idComic, titulo,
+                        linea.substring(inicioResto + ", Usuario ID: ".length(), inicioNombre),
+                        linea.substring(inicioNombre + ", Nombre Usuario: ".length()), EstadoComic.DISPONIBLE);
+            }
+            int inicioActual = linea.indexOf(", Estado actual: ", inicioResto);
+            if (inicioActual < 0) {
+                return null;
+            }
+            EstadoComic anterior = EstadoComic.desdeTexto(linea.substring(inicioResto + ", Estado anterior: ".length(), inicioActual));
+            return new EventoVenta(tipo, instante, idComic, titulo, null, null, anterior);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retorna una representación en cadena del evento: su línea del log de texto.
+     *
+     * @return La línea del log correspondiente al evento.
+     */
+    @Override
+    public String toString() {
+        return aLineaLog();
+    }
+}
@@ -0,0 +1,134 @@
+package modelos;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una operación en lote de ComicSistema (alta, venta o cambio de estado de varios cómics):
+ * qué elementos se aplicaron y por qué se rechazó cada uno de los demás, en el orden en que se recibieron.
+ */
+public class ResultadoLote {
+
+    /**
+     * Resultado de un elemento del lote.
+     */
+    public static class Elemento {
+        private final String id;
+        private final boolean aplicado;
+        private final String motivo;
+
+        private Elemento(String id, boolean aplicado, String motivo) {
+            this.id = id;
+            this.aplicado = aplicado;
+            this.motivo = motivo;
+        }
+
+        /**
+         * Crea el resultado de un elemento que se aplicó.
+         *
+         * @param id El ID del cómic.
+         * @return El resultado.
+         */
+        public static Elemento aplicado(String id) {
+            return new Elemento(id, true, null);
+        }
+
+        /**
+         * Crea el resultado de un elemento que se rechazó.
+         *
+         * @param id El ID del cómic, tal como se recibió (puede ser null).
+         * @param motivo El motivo del rechazo.
+         * @return El resultado.
+         */
+        public static Elemento rechazado(String id, String motivo) {
+            return new Elemento(id, false, motivo);
+        }
+
+        /**
+         * Obtiene el ID del cómic del elemento.
+         *
+         * @return El ID, tal como se recibió.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Indica si el elemento se aplicó.
+         *
+         * @return true si se aplicó, false si se rechazó.
+         */
+        public boolean isAplicado() {
+            return aplicado;
+        }
+
+        /**
+         * Obtiene el motivo del rechazo.
+         *
+         * @return El motivo, o null si el elemento se aplicó.
+         */
+        public String getMotivo() {
+            return motivo;
+        }
+
+        /**
+         * Retorna una representación en cadena del resultado.
+         *
+         * @return El ID y si se aplicó o por qué se rechazó.
+         */
+        @Override
+        public String toString() {
+            return id + ": " + (aplicado ? "aplicado" : "rechazado (" + motivo + ")");
+        }
+    }
+
+    private final List<Elemento> elementos;
+    private final int aplicados;
+
+    /**
+     * Constructor de ResultadoLote.
+     *
+     * @param elementos El resultado de cada elemento, en el orden del lote.
+     */
+    public ResultadoLote(List<Elemento> elementos) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.aplicados = (int) elementos.stream().filter(Elemento::isAplicado).count();
+    }
+
+    /**
+     * Obtiene el resultado de cada elemento, en el orden del lote.
+     *
+     * @return La lista inmodificable de resultados.
+     */
+    public List<Elemento> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Obtiene el número de elementos que se aplicaron.
+     *
+     * @return El número de elementos aplicados.
+     */
+    public int getAplicados() {
+        return aplicados;
+    }
+
+    /**
+     * Obtiene el número de elementos que se rechazaron.
+     *
+     * @return El número de elementos rechazados.
+     */
+    public int getRechazados() {
+        return elementos.size() - aplicados;
+    }
+
+    /**
+     * Retorna una representación en cadena del resultado.
+     *
+     * @return El número de elementos aplicados y rechazados.
+     */
+    @Override
+    public String toString() {
+        return aplicados + " aplicados, " + getRechazados() + " rechazados";
+    }
+}
@@ -0,0 +1,323 @@
+package servidor;
+
+import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EventoVenta;
+import modelos.Usuario;
+import utilidades.Pagina;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Escribe JSON en un {@link StringBuilder}, campo por campo y sin reflexión: cada tipo del modelo tiene su propio
+ * método que conoce sus campos. Lleva la cuenta de las comas entre valores, de modo que quien escribe solo
+ * indica los nombres y los valores.
+ */
+final class EscritorJson {
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder texto;
+    private boolean separar; // true si el siguiente valor debe ir precedido de una coma
+
+    /**
+     * Constructor de EscritorJson.
+     *
+     * @param capacidad La capacidad inicial del texto, en caracteres.
+     */
+    EscritorJson(int capacidad) {
+        this.texto = new StringBuilder(capacidad);
+    }
+
+    /**
+     * Abre un objeto como valor.
+     *
+     * @return Este escritor.
+     */
+    EscritorJson abrirObjeto() {
+        antesDeValor();
+        texto.append('{');
+        separar = false;
+        return this;
+    }
+
+    /**
+     * Cierra el objeto abierto.
+     *
+     * @return Este escritor.
+     */
+    EscritorJson cerrarObjeto() {
+        texto.append('}');
+        separar = true;
+        return this;
+    }
+
+    /**
+     * Abre un arreglo como valor.
+     *
+     * @return Este escritor.
+     */
+    EscritorJson abrirArreglo() {
+        antesDeValor();
+        texto.append('[');
+        separar = false;
+        return this;
+    }
+
+    /**
+     * Cierra el arreglo abierto.
+     *
+     * @return Este escritor.
+     */
+    EscritorJson cerrarArreglo() {
+        texto.append(']');
+        separar = true;
+        return this;
+    }
+
+    /**
+     * Escribe el nombre de un campo del objeto abierto; a continuación debe escribirse su valor.
+     *
+     * @param nombre El nombre del campo.
+     * @return Este escritor.
+     */
+    EscritorJson nombre(String nombre) {
+        antesDeValor();
+        cadena(nombre);
+        texto.append(':');
+        separar = false;
+        return this;
+    }
+
+    /**
+     * Escribe un valor de texto.
+     *
+     * @param valor El texto; null se escribe como {@code null}.
+     * @return Este escritor.
+     */
+    EscritorJson valor(String valor) {
+        antesDeValor();
+        if (valor == null) {
+            texto.append("null");
+        } else {
+            cadena(valor);
+        }
+        separar = true;
+        return this;
+    }
+
+    /**
+     * Escribe un valor numérico.
+     *
+     * @param valor El número.
+     * @return Este escritor.
+     */
+    EscritorJson valor(long valor) {
+        antesDeValor();
+        texto.append(valor);
+        separar = true;
+        return this;
+    }
+
+    /**
+     * Escribe un campo de texto.
+     *
+     * @param nombre El nombre del campo.
+     * @param valor El texto; null se escribe como {@code null}.
+     * @return Este escritor.
+     */
+    EscritorJson campo(String nombre, String valor) {
+        return nombre(nombre).valor(valor);
+    }
+
+    /**
+     * Escribe un campo numérico.
+     *
+     * @param nombre El nombre del campo.
+     * @param valor El número.
+     * @return Este escritor.
+     */
+    EscritorJson campo(String nombre, long valor) {
+        return nombre(nombre).valor(valor);
+    }
+
+    /**
+     * Escribe un cómic como objeto: {@code id}, {@code titulo}, {@code autor} y {@code estado}.
+     *
+     * @param comic El cómic.
+     * @return Este escritor.
+     */
+    EscritorJson comic(Comic comic) {
+        return abrirObjeto()
+                .campo("id", comic.getId())
+                .campo("titulo", comic.getTitulo())
+                .campo("autor", comic.getAutor())
+                .campo("estado", comic.getEstado().getNombre())
+                .cerrarObjeto();
+    }
+
+    /**
+     * Escribe un usuario como objeto: {@code id}, {@code nombre} y {@code email}.
+     *
+     * @param usuario El usuario.
+     * @return Este escritor.
+     */
+    EscritorJson usuario(Usuario usuario) {
+        return abrirObjeto()
+                .campo("id", usuario.getId())
+                .campo("nombre", usuario.getNombre())
+                .campo("email", usuario.getEmail())
+                .cerrarObjeto();
+    }
+
+    /**
+     * Escribe un evento del historial de ventas como objeto, con su instante en formato ISO-8601.
+     *
+     * @param evento El evento.
+     * @return Este escritor.
+     */
+    EscritorJson evento(EventoVenta evento) {
+        return abrirObjeto()
+                .campo("tipo", evento.getTipo().name())
+                .campo("instante", Instant.ofEpochMilli(evento.getInstanteMillis()).toString())
+                .campo("idComic", evento.getIdComic())
+                .campo("tituloComic", evento.getTituloComic())
+                .campo("idUsuario", evento.getIdUsuario())
+                .campo("nombreUsuario", evento.getNombreUsuario())
+                .campo("estadoAnterior", evento.getEstadoAnterior() == null ? null : evento.getEstadoAnterior().getNombre())
+                .cerrarObjeto();
+    }
+
+    /**
+     * Escribe una fila de un reporte de ventas como objeto.
+     *
+     * @param estadistica La fila del reporte.
+     * @return Este escritor.
+     */
+    EscritorJson estadistica(EstadisticaVentas estadistica) {
+        return abrirObjeto()
+                .campo("clave", estadistica.getClave())
+                .campo("nombre", estadistica.getNombre())
+                .campo("ventas", estadistica.getVentas())
+                .campo("devoluciones", estadistica.getDevoluciones())
+                .campo("ventasNetas", estadistica.getVentasNetas())
+                .cerrarObjeto();
+    }
+
+    /**
+     * Escribe una página de cómics como objeto con sus datos de paginación y el arreglo {@code elementos}.
+     *
+     * @param pagina La página.
+     * @return Este escritor.
+     */
+    EscritorJson pagina(Pagina<Comic> pagina) {
+        abrirPagina(pagina);
+        for (Comic comic : pagina.getElementos()) {
+            comic(comic);
+        }
+        return cerrarArreglo().cerrarObjeto();
+    }
+
+    /**
+     * Escribe una página de usuarios como objeto con sus datos de paginación y el arreglo {@code elementos}.
+     *
+     * @param pagina La página.
+     * @return Este escritor.
+     */
+    EscritorJson paginaUsuarios(Pagina<Usuario> pagina) {
+        abrirPagina(pagina);
+        for (Usuario usuario : pagina.getElementos()) {
+            usuario(usuario);
+        }
+        return cerrarArreglo().cerrarObjeto();
+    }
+
+    /**
+     * Abre el objeto de una página, escribe sus datos de paginación y abre el arreglo {@code elementos}.
+     */
+    private void abrirPagina(Pagina<?> pagina) {
+        abrirObjeto()
+                .campo("pagina", pagina.getNumeroPagina())
+                .campo("tamanoPagina", pagina.getTamanoPagina())
+                .campo("total", pagina.getTotalElementos())
+                .campo("totalPaginas", pagina.getTotalPaginas())
+                .nombre("elementos").abrirArreglo();
+    }
+
+    /**
+     * Escribe un arreglo de usuarios.
+     *
+     * @param usuarios Los usuarios, en el orden en que se escriben.
+     * @return Este escritor.
+     */
+    EscritorJson usuarios(List<Usuario> usuarios) {
+        abrirArreglo();
+        for (Usuario usuario : usuarios) {
+            usuario(usuario);
+        }
+        return cerrarArreglo();
+    }
+
+    /**
+     * Escribe un arreglo con las filas de un reporte de ventas.
+     *
+     * @param estadisticas Las filas, en el orden del reporte.
+     * @return Este escritor.
+     */
+    EscritorJson estadisticas(List<EstadisticaVentas> estadisticas) {
+        abrirArreglo();
+        for (EstadisticaVentas estadistica : estadisticas) {
+            estadistica(estadistica);
+        }
+        return cerrarArreglo();
+    }
+
+    /**
+     * Obtiene el JSON escrito.
+     *
+     * @return El texto JSON.
+     */
+    @Override
+    public String toString() {
+        return texto.toString();
+    }
+
+    private void antesDeValor() {
+        if (separar) {
+            texto.append(',');
+            separar = false;
+        }
+    }
+
+    private void cadena(String valor) {
+        texto.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    texto.append("\\\"");
+                    break;
+                case '\\':
+                    texto.append("\\\\");
+                    break;
+                case '\n':
+                    texto.append("\\n");
+                    break;
+                case '\r':
+                    texto.append("\\r");
+                    break;
+                case '\t':
+                    texto.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        texto.append("\\u00").append(HEXADECIMAL[c >> 4]).append(HEXADECIMAL[c & 0xF]);
+                    } else {
+                        texto.append(c);
+                    }
+                    break;
+            }
+        }
+        texto.append('"');
+    }
+}
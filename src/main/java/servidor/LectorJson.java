@@ -0,0 +1,165 @@
+package servidor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lee el cuerpo JSON de una petición: un objeto plano cuyos valores son textos, números, booleanos o {@code null}
+ * (e.g., {@code {"id": "C004", "titulo": "Akira"}}). Recorre el texto una sola vez, sin reflexión ni objetos intermedios.
+ */
+final class LectorJson {
+    private final String texto;
+    private int posicion;
+
+    private LectorJson(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lee un objeto JSON plano.
+     *
+     * @param texto El texto JSON.
+     * @return Los campos del objeto; los números y booleanos se entregan como texto y {@code null} como null.
+     * @throws IllegalArgumentException Si el texto no es un objeto JSON plano válido.
+     */
+    static Map<String, String> leerObjeto(String texto) {
+        LectorJson lector = new LectorJson(texto);
+        Map<String, String> campos = lector.objeto();
+        lector.saltarEspacios();
+        if (lector.posicion < texto.length()) {
+            throw lector.error("Contenido inesperado después del objeto");
+        }
+        return campos;
+    }
+
+    private Map<String, String> objeto() {
+        Map<String, String> campos = new HashMap<>();
+        esperar('{');
+        saltarEspacios();
+        if (siguienteEs('}')) {
+            posicion++;
+            return campos;
+        }
+        while (true) {
+            saltarEspacios();
+            String nombre = cadena();
+            saltarEspacios();
+            esperar(':');
+            saltarEspacios();
+            campos.put(nombre, valor());
+            saltarEspacios();
+            if (siguienteEs(',')) {
+                posicion++;
+            } else {
+                esperar('}');
+                return campos;
+            }
+        }
+    }
+
+    private String valor() {
+        if (siguienteEs('"')) {
+            return cadena();
+        }
+        int inicio = posicion;
+        while (posicion < texto.length() && "-+.eE0123456789abcdefghijklmnopqrstuvwxyz".indexOf(texto.charAt(posicion)) >= 0) {
+            posicion++;
+        }
+        String literal = texto.substring(inicio, posicion);
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.equals("true") || literal.equals("false") || esNumero(literal)) {
+            return literal;
+        }
+        throw error("Valor no admitido (solo textos, números, booleanos o null)");
+    }
+
+    private static boolean esNumero(String literal) {
+        if (literal.isEmpty()) {
+            return false;
+        }
+        try {
+            Double.parseDouble(literal);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String cadena() {
+        esperar('"');
+        StringBuilder valor = new StringBuilder();
+        while (posicion < texto.length()) {
+            char c = texto.charAt(posicion++);
+            if (c == '"') {
+                return valor.toString();
+            }
+            if (c != '\\') {
+                valor.append(c);
+                continue;
+            }
+            if (posicion >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicion++);
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    valor.append(escape);
+                    break;
+                case 'b':
+                    valor.append('\b');
+                    break;
+                case 'f':
+                    valor.append('\f');
+                    break;
+                case 'n':
+                    valor.append('\n');
+                    break;
+                case 'r':
+                    valor.append('\r');
+                    break;
+                case 't':
+                    valor.append('\t');
+                    break;
+                case 'u':
+                    if (posicion + 4 > texto.length()) {
+                        throw error("Secuencia \\u incompleta");
+                    }
+                    try {
+                        valor.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Secuencia \\u inválida");
+                    }
+                    posicion += 4;
+                    break;
+                default:
+                    throw error("Secuencia de escape inválida");
+            }
+        }
+        throw error("Texto sin cerrar");
+    }
+
+    private void esperar(char esperado) {
+        if (!siguienteEs(esperado)) {
+            throw error("Se esperaba '" + esperado + "'");
+        }
+        posicion++;
+    }
+
+    private boolean siguienteEs(char c) {
+        return posicion < texto.length() && texto.charAt(posicion) == c;
+    }
+
+    private void saltarEspacios() {
+        while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+            posicion++;
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("JSON inválido en la posición " + posicion + ": " + mensaje + ".");
+    }
+}
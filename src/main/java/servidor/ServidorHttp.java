@@ -0,0 +1,507 @@
+package servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import constantes.Constantes;
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import excepciones.ReservaNoEncontradaException;
+import gestores.ComicSistema;
+import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoVenta;
+import modelos.Usuario;
+import utilidades.Pagina;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor HTTP/JSON local sobre un {@link ComicSistema}, para que varios clientes trabajen a la vez en lugar de un
+ * solo operador en el menú de consola. Usa el servidor HTTP del JDK ({@code com.sun.net.httpserver}), escucha solo
+ * en la interfaz local y atiende cada petición en su propio hilo virtual cuando la JVM los tiene (Java 21 o posterior);
+ * en versiones anteriores usa un grupo de {@link Constantes#HILOS_SERVIDOR_HTTP} hilos. El JSON se escribe y se lee
+ * campo por campo (ver {@link EscritorJson} y {@link LectorJson}), sin reflexión.
+ * <p>
+ * Rutas:
+ * <ul>
+ *     <li>{@code GET /comics?autor=&estado=&texto=&pagina=&tamano=}: página de cómics; con {@code texto}, búsqueda por texto.</li>
+ *     <li>{@code POST /comics}: agrega un cómic ({@code id}, {@code titulo}, {@code autor}, {@code estado} opcional).</li>
+ *     <li>{@code GET /comics/{id}} y {@code DELETE /comics/{id}}.</li>
+ *     <li>{@code POST /comics/{id}/venta}: registra la venta al usuario {@code idUsuario} del cuerpo.</li>
+ *     <li>{@code POST /comics/{id}/reserva}: reserva el cómic al usuario {@code idUsuario} del cuerpo; la reserva vence
+ *     si no se confirma a tiempo.</li>
+ *     <li>{@code POST /comics/{id}/confirmacion}: confirma la reserva del usuario {@code idUsuario} del cuerpo y le vende el cómic.</li>
+ *     <li>{@code POST /comics/{id}/disponible}: cancela la reserva o registra la devolución.</li>
+ *     <li>{@code GET /usuarios?orden=nombre}: todos los usuarios, por ID o por nombre. Con {@code pagina}, {@code tamano}
+ *     o {@code nombre} (prefijo del nombre), una página de usuarios, ordenados por nombre si se indica alguno de los dos.</li>
+ *     <li>{@code POST /usuarios}, {@code GET /usuarios/{id}} y {@code DELETE /usuarios/{id}}.</li>
+ *     <li>{@code GET /ventas?comic=&usuario=&desde=&hasta=}: historial de ventas; las fechas en formato ISO-8601.</li>
+ *     <li>{@code GET /reportes/comics}, {@code /reportes/autores} y {@code /reportes/usuarios}, con {@code limite} opcional.</li>
+ *     <li>{@code GET /metricas}: las métricas del sistema en el formato de texto de Prometheus.</li>
+ * </ul>
+ * Los errores se responden con un objeto {@code {"error": "..."}} y el código HTTP que corresponde
+ * (400 datos inválidos, 404 no encontrado, 405 método no admitido, 409 conflicto de estado o de ID).
+ */
+public class ServidorHttp implements AutoCloseable {
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+    private static final String TIPO_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+    private static final Pattern SEPARADOR_RUTA = Pattern.compile("/+");
+
+    static {
+        // Sin TCP_NODELAY, el servidor del JDK envía la cabecera y el cuerpo en dos segmentos y el segundo espera al
+        // ACK retardado del cliente (~40 ms por respuesta). Debe fijarse antes de crear el primer HttpServer.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ComicSistema sistema;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    private final boolean hilosVirtuales;
+
+    /**
+     * Error que se responde al cliente con un código HTTP y un mensaje.
+     */
+    private static final class ErrorHttp extends Exception {
+        private final int codigo;
+
+        ErrorHttp(int codigo, String mensaje) {
+            super(mensaje);
+            this.codigo = codigo;
+        }
+    }
+
+    /**
+     * Respuesta a una petición: un código HTTP y un cuerpo, JSON salvo que se indique otro tipo (null para responder sin cuerpo).
+     */
+    private static final class Respuesta {
+        private final int codigo;
+        private final String cuerpo;
+        private final String tipo;
+
+        Respuesta(int codigo, String cuerpo) {
+            this(codigo, cuerpo, TIPO_JSON);
+        }
+
+        Respuesta(int codigo, String cuerpo, String tipo) {
+            this.codigo = codigo;
+            this.cuerpo = cuerpo;
+            this.tipo = tipo;
+        }
+    }
+
+    /**
+     * Crea el servidor en el puerto indicado de la interfaz local. No atiende peticiones hasta llamar a {@link #iniciar()}.
+     *
+     * @param sistema El sistema sobre el que trabajan las peticiones; el servidor no lo cierra.
+     * @param puerto El puerto; con 0 se elige un puerto libre (ver {@link #getPuerto()}).
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorHttp(ComicSistema sistema, int puerto) throws IOException {
+        this.sistema = sistema;
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), Constantes.COLA_CONEXIONES_HTTP);
+        ExecutorService virtual = crearEjecutorVirtual();
+        this.hilosVirtuales = virtual != null;
+        this.ejecutor = virtual != null ? virtual : Executors.newFixedThreadPool(Constantes.HILOS_SERVIDOR_HTTP, new FabricaHilos());
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/", this::atender);
+    }
+
+    /**
+     * Crea un ejecutor con un hilo virtual por tarea si la JVM lo permite. Se busca por reflexión una sola vez, al crear
+     * el servidor, porque el proyecto compila para Java 17.
+     *
+     * @return El ejecutor, o null si la JVM no tiene hilos virtuales.
+     */
+    private static ExecutorService crearEjecutorVirtual() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Crea los hilos del grupo de respaldo, con nombre, para identificarlos en un volcado de hilos.
+     */
+    private static final class FabricaHilos implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable tarea) {
+            Thread hilo = new Thread(tarea, "comic-http-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }
+    }
+
+    /**
+     * Empieza a atender peticiones.
+     */
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor.
+     *
+     * @return El puerto.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Indica si las peticiones se atienden en hilos virtuales.
+     *
+     * @return true con hilos virtuales, false con el grupo de hilos de respaldo.
+     */
+    public boolean isHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    /**
+     * Deja de aceptar conexiones, espera hasta un segundo a que terminen las peticiones en curso y libera los hilos.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        ejecutor.shutdown();
+        try {
+            if (!ejecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                ejecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            ejecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        Respuesta respuesta;
+        try {
+            respuesta = enrutar(intercambio);
+        } catch (ErrorHttp e) {
+            respuesta = error(e.codigo, e.getMessage());
+        } catch (ComicNoEncontradoException e) {
+            respuesta = error(404, e.getMessage());
+        } catch (ComicYaVendidoException | ReservaNoEncontradaException e) {
+            respuesta = error(409, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            // ComicSistema la lanza por datos del cliente (e.g., un usuario inexistente o un estado inválido)
+            respuesta = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            // Los campos y parámetros obligatorios se verifican antes con ErrorHttp; cualquier otro error es del servidor
+            respuesta = error(500, "Error interno: " + e.getMessage());
+        }
+        responder(intercambio, respuesta);
+    }
+
+    private Respuesta enrutar(HttpExchange intercambio)
+            throws ErrorHttp, IOException, ComicNoEncontradoException, ComicYaVendidoException, ReservaNoEncontradaException {
+        String ruta = intercambio.getRequestURI().getPath();
+        String[] partes = SEPARADOR_RUTA.split(ruta.startsWith("/") ? ruta.substring(1) : ruta);
+        String metodo = intercambio.getRequestMethod();
+        Map<String, String> parametros = leerParametros(intercambio.getRequestURI().getRawQuery());
+        switch (partes[0]) {
+            case "comics":
+                if (partes.length == 1) {
+                    if (metodo.equals("GET")) {
+                        return ok(listarComics(parametros));
+                    }
+                    exigirMetodo(metodo, "POST");
+                    return agregarComic(leerCuerpo(intercambio));
+                }
+                if (partes.length == 2) {
+                    if (metodo.equals("GET")) {
+                        return ok(new EscritorJson(128).comic(buscarComic(partes[1])).toString());
+                    }
+                    exigirMetodo(metodo, "DELETE");
+                    return eliminarComic(partes[1]);
+                }
+                if (partes.length == 3 && (partes[2].equals("venta") || partes[2].equals("reserva") || partes[2].equals("confirmacion"))) {
+                    exigirMetodo(metodo, "POST");
+                    return registrarVenta(partes[1], partes[2], leerCuerpo(intercambio));
+                }
+                if (partes.length == 3 && partes[2].equals("disponible")) {
+                    exigirMetodo(metodo, "POST");
+                    EventoVenta evento = sistema.cancelarReservaODeclararDisponible(partes[1]);
+                    return evento == null ? new Respuesta(204, null) : ok(new EscritorJson(256).evento(evento).toString());
+                }
+                break;
+            case "usuarios":
+                if (partes.length == 1) {
+                    if (metodo.equals("GET")) {
+                        return ok(listarUsuarios(parametros));
+                    }
+                    exigirMetodo(metodo, "POST");
+                    return agregarUsuario(leerCuerpo(intercambio));
+                }
+                if (partes.length == 2) {
+                    if (metodo.equals("GET")) {
+                        return ok(new EscritorJson(128).usuario(buscarUsuario(partes[1])).toString());
+                    }
+                    exigirMetodo(metodo, "DELETE");
+                    if (!sistema.eliminarUsuario(partes[1])) {
+                        throw new ErrorHttp(404, "Usuario con ID '" + partes[1] + "' no encontrado.");
+                    }
+                    return new Respuesta(204, null);
+                }
+                break;
+            case "ventas":
+                if (partes.length == 1) {
+                    exigirMetodo(metodo, "GET");
+                    return ok(consultarVentas(parametros));
+                }
+                break;
+            case "reportes":
+                if (partes.length == 2) {
+                    exigirMetodo(metodo, "GET");
+                    return ok(reporte(partes[1], entero(parametros, "limite", 10, Constantes.TAMANO_MAXIMO_PAGINA_HTTP)));
+                }
+                break;
+            case "metricas":
+                if (partes.length == 1) {
+                    exigirMetodo(metodo, "GET");
+                    return new Respuesta(200, sistema.getMetricas().formatoPrometheus(), TIPO_PROMETHEUS);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new ErrorHttp(404, "Ruta no encontrada: " + ruta);
+    }
+
+    private String listarComics(Map<String, String> parametros) throws ErrorHttp {
+        int pagina = entero(parametros, "pagina", 1, Integer.MAX_VALUE);
+        int tamano = entero(parametros, "tamano", Constantes.TAMANO_PAGINA_HTTP, Constantes.TAMANO_MAXIMO_PAGINA_HTTP);
+        String texto = parametros.get("texto");
+        Pagina<Comic> resultado;
+        if (texto != null) {
+            resultado = sistema.buscarPorTexto(texto, pagina, tamano);
+        } else {
+            String estado = parametros.get("estado");
+            resultado = sistema.buscarComics(parametros.get("autor"), estado == null ? null : EstadoComic.desdeTexto(estado), pagina, tamano);
+        }
+        return new EscritorJson(96 * resultado.getElementos().size() + 96).pagina(resultado).toString();
+    }
+
+    private String listarUsuarios(Map<String, String> parametros) throws ErrorHttp {
+        String nombre = parametros.get("nombre");
+        if (nombre == null && !parametros.containsKey("pagina") && !parametros.containsKey("tamano")) {
+            // Sin paginación, el arreglo completo como antes
+            List<Usuario> usuarios = "nombre".equals(parametros.get("orden"))
+                    ? sistema.listarUsuariosOrdenadosPorNombre() : sistema.listarUsuarios();
+            return new EscritorJson(64 * usuarios.size() + 2).usuarios(usuarios).toString();
+        }
+        int pagina = entero(parametros, "pagina", 1, Integer.MAX_VALUE);
+        int tamano = entero(parametros, "tamano", Constantes.TAMANO_PAGINA_HTTP, Constantes.TAMANO_MAXIMO_PAGINA_HTTP);
+        Pagina<Usuario> resultado = nombre != null || "nombre".equals(parametros.get("orden"))
+                ? sistema.buscarUsuariosPorNombre(nombre, pagina, tamano) : sistema.listarUsuarios(pagina, tamano);
+        return new EscritorJson(64 * resultado.getElementos().size() + 96).paginaUsuarios(resultado).toString();
+    }
+
+    private Comic buscarComic(String id) throws ErrorHttp {
+        Comic comic = sistema.buscarComicPorId(id);
+        if (comic == null) {
+            throw new ErrorHttp(404, "Cómic con ID '" + id + "' no encontrado.");
+        }
+        return comic;
+    }
+
+    private Usuario buscarUsuario(String id) throws ErrorHttp {
+        Usuario usuario = sistema.buscarUsuarioPorId(id);
+        if (usuario == null) {
+            throw new ErrorHttp(404, "Usuario con ID '" + id + "' no encontrado.");
+        }
+        return usuario;
+    }
+
+    private Respuesta agregarComic(Map<String, String> cuerpo) throws ErrorHttp {
+        String estado = cuerpo.get("estado");
+        Comic comic = new Comic(requerido(cuerpo, "titulo"), requerido(cuerpo, "autor"), requerido(cuerpo, "id"),
+                estado == null ? EstadoComic.DISPONIBLE.getNombre() : estado);
+        if (!sistema.agregarComic(comic)) {
+            throw new ErrorHttp(409, "El cómic con ID '" + comic.getId() + "' ya existe.");
+        }
+        return new Respuesta(201, new EscritorJson(128).comic(comic).toString());
+    }
+
+    private Respuesta eliminarComic(String id) throws ErrorHttp {
+        Comic comic = buscarComic(id);
+        if (!sistema.eliminarComic(id)) {
+            if (sistema.buscarComicPorId(id) == null) {
+                throw new ErrorHttp(404, "Cómic con ID '" + id + "' no encontrado.");
+            }
+            throw new ErrorHttp(409, "El cómic '" + comic.getTitulo() + "' (ID: " + comic.getId() + ") está vendido o reservado.");
+        }
+        return new Respuesta(204, null);
+    }
+
+    private Respuesta registrarVenta(String idComic, String operacion, Map<String, String> cuerpo)
+            throws ErrorHttp, ComicNoEncontradoException, ComicYaVendidoException, ReservaNoEncontradaException {
+        String idUsuario = requerido(cuerpo, "idUsuario");
+        buscarUsuario(idUsuario);
+        EventoVenta evento;
+        switch (operacion) {
+            case "reserva":
+                evento = sistema.reservar(idComic, idUsuario);
+                break;
+            case "confirmacion":
+                evento = sistema.confirmarReserva(idComic, idUsuario);
+                break;
+            default:
+                evento = sistema.registrarVenta(idComic, idUsuario);
+                break;
+        }
+        return new Respuesta(201, new EscritorJson(256).evento(evento).toString());
+    }
+
+    private Respuesta agregarUsuario(Map<String, String> cuerpo) throws ErrorHttp {
+        Usuario usuario = new Usuario(requerido(cuerpo, "id"), requerido(cuerpo, "nombre"), cuerpo.get("email"));
+        if (!sistema.agregarUsuario(usuario)) {
+            throw new ErrorHttp(409, "El usuario con ID '" + usuario.getId() + "' o su email ya están registrados.");
+        }
+        return new Respuesta(201, new EscritorJson(128).usuario(usuario).toString());
+    }
+
+    private String consultarVentas(Map<String, String> parametros) throws ErrorHttp, IOException {
+        Instant desde = instante(parametros, "desde");
+        Instant hasta = instante(parametros, "hasta");
+        EscritorJson json = new EscritorJson(1024).abrirArreglo();
+        sistema.consultarHistorialVentas(desde, hasta, parametros.get("comic"), parametros.get("usuario"), json::evento);
+        return json.cerrarArreglo().toString();
+    }
+
+    private String reporte(String nombre, int limite) throws ErrorHttp {
+        Function<Integer, List<EstadisticaVentas>> consulta;
+        switch (nombre) {
+            case "comics":
+                consulta = sistema::obtenerComicsMasVendidos;
+                break;
+            case "autores":
+                consulta = sistema::obtenerAutoresMasVendidos;
+                break;
+            case "usuarios":
+                consulta = sistema::obtenerUsuariosConMasCompras;
+                break;
+            default:
+                throw new ErrorHttp(404, "Reporte no encontrado: " + nombre);
+        }
+        return new EscritorJson(512).estadisticas(consulta.apply(limite)).toString();
+    }
+
+    private static void exigirMetodo(String metodo, String esperado) throws ErrorHttp {
+        if (!metodo.equals(esperado)) {
+            throw new ErrorHttp(405, "Método no admitido: " + metodo);
+        }
+    }
+
+    private static String requerido(Map<String, String> cuerpo, String campo) throws ErrorHttp {
+        String valor = cuerpo.get(campo);
+        if (valor == null || valor.isBlank()) {
+            throw new ErrorHttp(400, "Falta el campo '" + campo + "'.");
+        }
+        return valor;
+    }
+
+    private static int entero(Map<String, String> parametros, String nombre, int porDefecto, int maximo) throws ErrorHttp {
+        String valor = parametros.get(nombre);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero < 1 || numero > maximo) {
+                throw new ErrorHttp(400, "El parámetro '" + nombre + "' debe estar entre 1 y " + maximo + ".");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new ErrorHttp(400, "El parámetro '" + nombre + "' debe ser un número entero.");
+        }
+    }
+
+    private static Instant instante(Map<String, String> parametros, String nombre) throws ErrorHttp {
+        String valor = parametros.get(nombre);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new ErrorHttp(400, "El parámetro '" + nombre + "' debe ser una fecha ISO-8601 (e.g., 2025-06-24T00:00:00Z).");
+        }
+    }
+
+    private static Map<String, String> leerParametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static Map<String, String> leerCuerpo(HttpExchange intercambio) throws IOException, ErrorHttp {
+        byte[] datos;
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            datos = entrada.readNBytes(Constantes.TAMANO_MAXIMO_CUERPO_HTTP + 1);
+        }
+        if (datos.length > Constantes.TAMANO_MAXIMO_CUERPO_HTTP) {
+            throw new ErrorHttp(413, "El cuerpo de la petición supera los " + Constantes.TAMANO_MAXIMO_CUERPO_HTTP + " bytes.");
+        }
+        return LectorJson.leerObjeto(new String(datos, StandardCharsets.UTF_8));
+    }
+
+    private static Respuesta ok(String json) {
+        return new Respuesta(200, json);
+    }
+
+    private static Respuesta error(int codigo, String mensaje) {
+        return new Respuesta(codigo, new EscritorJson(128).abrirObjeto().campo("error", mensaje).cerrarObjeto().toString());
+    }
+
+    private static void responder(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+        try {
+            if (respuesta.cuerpo == null) {
+                intercambio.sendResponseHeaders(respuesta.codigo, -1);
+                return;
+            }
+            byte[] datos = respuesta.cuerpo.getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", respuesta.tipo);
+            intercambio.sendResponseHeaders(respuesta.codigo, datos.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(datos);
+            }
+        } finally {
+            intercambio.close();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package utilidades;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mapa ordenado inmutable (árbol AVL persistente). Agregar o quitar una clave no modifica el árbol: retorna uno nuevo
+ * que comparte con el anterior todos los nodos salvo los {@code O(log n)} del camino hasta la clave.
+ * <p>
+ * Sirve para publicar versiones de una colección que cambia: el escritor reemplaza la referencia al árbol
+ * (e.g., en un campo volatile) y cada lector trabaja con la versión que leyó, completa y consistente, sin bloqueos
+ * y sin copiar la colección. Las versiones que ya nadie usa las recoge el recolector de basura.
+ *
+ * @param <K> El tipo de las claves.
+ * @param <V> El tipo de los valores.
+ */
+public final class ArbolPersistente<K, V> {
+
+    private static final class Nodo<K, V> {
+        final K clave;
+        final V valor;
+        final Nodo<K, V> izquierdo;
+        final Nodo<K, V> derecho;
+        final int altura;
+        final int tamano;
+
+        Nodo(K clave, V valor, Nodo<K, V> izquierdo, Nodo<K, V> derecho) {
+            this.clave = clave;
+            this.valor = valor;
+            this.izquierdo = izquierdo;
+            this.derecho = derecho;
+            this.altura = Math.max(altura(izquierdo), altura(derecho)) + 1;
+            this.tamano = tamano(izquierdo) + tamano(derecho) + 1;
+        }
+    }
+
+    private final Comparator<? super K> orden;
+    private final Nodo<K, V> raiz;
+
+    private ArbolPersistente(Comparator<? super K> orden, Nodo<K, V> raiz) {
+        this.orden = orden;
+        this.raiz = raiz;
+    }
+
+    /**
+     * Crea un árbol vacío.
+     *
+     * @param orden El orden de las claves.
+     * @param <K> El tipo de las claves.
+     * @param <V> El tipo de los valores.
+     * @return El árbol vacío.
+     */
+    public static <K, V> ArbolPersistente<K, V> vacio(Comparator<? super K> orden) {
+        return new ArbolPersistente<>(Objects.requireNonNull(orden, "El orden no puede ser nulo."), null);
+    }
+
+    /**
+     * Crea un árbol con las entradas de un mapa, en tiempo lineal después de ordenarlas (más rápido que agregarlas
+     * una a una al cargar una colección completa).
+     *
+     * @param orden El orden de las claves.
+     * @param entradas Las entradas; el mapa no debe cambiar mientras se copia.
+     * @param <K> El tipo de las claves.
+     * @param <V> El tipo de los valores.
+     * @return El árbol con las entradas.
+     */
+    public static <K, V> ArbolPersistente<K, V> de(Comparator<? super K> orden, Map<? extends K, ? extends V> entradas) {
+        Objects.requireNonNull(orden, "El orden no puede ser nulo.");
+        List<Map.Entry<? extends K, ? extends V>> ordenadas = new ArrayList<>(entradas.entrySet());
+        ordenadas.sort((a, b) -> orden.compare(a.getKey(), b.getKey()));
+        return new ArbolPersistente<>(orden, construir(ordenadas, 0, ordenadas.size()));
+    }
+
+    /**
+     * Construye un árbol equilibrado con las entradas ordenadas del rango {@code [desde, hasta)}.
+     */
+    private static <K, V> Nodo<K, V> construir(List<Map.Entry<? extends K, ? extends V>> ordenadas, int desde, int hasta) {
+        if (desde >= hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        Map.Entry<? extends K, ? extends V> entrada = ordenadas.get(medio);
+        return new Nodo<>(entrada.getKey(), entrada.getValue(),
+                construir(ordenadas, desde, medio), construir(ordenadas, medio + 1, hasta));
+    }
+
+    /**
+     * Obtiene el valor de una clave.
+     *
+     * @param clave La clave.
+     * @return El valor, o null si la clave no está.
+     */
+    public V obtener(K clave) {
+        Nodo<K, V> nodo = raiz;
+        while (nodo != null) {
+            int comparacion = orden.compare(clave, nodo.clave);
+            if (comparacion == 0) {
+                return nodo.valor;
+            }
+            nodo = comparacion < 0 ? nodo.izquierdo : nodo.derecho;
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene el número de claves.
+     *
+     * @return El número de claves.
+     */
+    public int tamano() {
+        return tamano(raiz);
+    }
+
+    /**
+     * Obtiene la posición de una clave en el orden del árbol: el número de claves menores que ella.
+     * La clave no necesita estar en el árbol, así que sirve para ubicar el inicio y el fin de un rango.
+     *
+     * @param clave La clave.
+     * @return El número de claves menores, entre 0 y {@link #tamano()}.
+     */
+    public int posicion(K clave) {
+        int posicion = 0;
+        Nodo<K, V> nodo = raiz;
+        while (nodo != null) {
+            int comparacion = orden.compare(clave, nodo.clave);
+            if (comparacion <= 0) {
+                nodo = nodo.izquierdo;
+            } else {
+                posicion += tamano(nodo.izquierdo) + 1;
+                nodo = nodo.derecho;
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Obtiene los valores de un tramo de posiciones, en el orden de sus claves. Baja hasta la primera posición
+     * usando el tamaño de cada subárbol, sin recorrer las anteriores: cuesta {@code O(log n + cantidad)}.
+     *
+     * @param desde La primera posición, desde 0.
+     * @param cantidad El número máximo de valores.
+     * @return Una lista inmutable con los valores; vacía si {@code desde} no es menor que el tamaño.
+     * @throws IllegalArgumentException Si la posición o la cantidad son negativas.
+     */
+    public List<V> valores(int desde, int cantidad) {
+        if (desde < 0 || cantidad < 0) {
+            throw new IllegalArgumentException("La posición y la cantidad no pueden ser negativas.");
+        }
+        List<V> valores = new ArrayList<>(Math.max(0, Math.min(cantidad, tamano() - desde)));
+        recorrer(raiz, desde, desde + (long) cantidad, valores);
+        return Collections.unmodifiableList(valores);
+    }
+
+    /**
+     * Agrega los valores del subárbol cuyas posiciones (relativas al subárbol) están en {@code [desde, hasta)}.
+     */
+    private static <K, V> void recorrer(Nodo<K, V> nodo, long desde, long hasta, List<V> destino) {
+        while (nodo != null && desde < hasta) {
+            int izquierdos = tamano(nodo.izquierdo);
+            if (desde < izquierdos) {
+                recorrer(nodo.izquierdo, desde, hasta, destino);
+            }
+            if (desde <= izquierdos && izquierdos < hasta) {
+                destino.add(nodo.valor);
+            }
+            // Se sigue por el subárbol derecho, con las posiciones relativas a él
+            desde = Math.max(0, desde - izquierdos - 1);
+            hasta -= izquierdos + 1;
+            nodo = nodo.derecho;
+        }
+    }
+
+    /**
+     * Retorna un árbol con la clave agregada, o con su valor reemplazado si ya estaba.
+     *
+     * @param clave La clave.
+     * @param valor El valor.
+     * @return El árbol nuevo; este no cambia.
+     */
+    public ArbolPersistente<K, V> con(K clave, V valor) {
+        return new ArbolPersistente<>(orden, insertar(raiz, clave, valor));
+    }
+
+    /**
+     * Retorna un árbol sin la clave indicada.
+     *
+     * @param clave La clave.
+     * @return El árbol nuevo, o este mismo si la clave no estaba.
+     */
+    public ArbolPersistente<K, V> sin(K clave) {
+        Nodo<K, V> nueva = quitar(raiz, clave);
+        return nueva == raiz ? this : new ArbolPersistente<>(orden, nueva);
+    }
+
+    /**
+     * Obtiene los valores en el orden de sus claves.
+     *
+     * @return Una lista inmutable con los valores.
+     */
+    public List<V> valores() {
+        List<V> valores = new ArrayList<>(tamano());
+        recorrer(raiz, valores);
+        return Collections.unmodifiableList(valores);
+    }
+
+    private static <K, V> void recorrer(Nodo<K, V> nodo, List<V> destino) {
+        while (nodo != null) {
+            recorrer(nodo.izquierdo, destino);
+            destino.add(nodo.valor);
+            nodo = nodo.derecho;
+        }
+    }
+
+    private Nodo<K, V> insertar(Nodo<K, V> nodo, K clave, V valor) {
+        if (nodo == null) {
+            return new Nodo<>(clave, valor, null, null);
+        }
+        int comparacion = orden.compare(clave, nodo.clave);
+        if (comparacion == 0) {
+            return new Nodo<>(clave, valor, nodo.izquierdo, nodo.derecho);
+        }
+        return comparacion < 0
+                ? balancear(nodo.clave, nodo.valor, insertar(nodo.izquierdo, clave, valor), nodo.derecho)
+                : balancear(nodo.clave, nodo.valor, nodo.izquierdo, insertar(nodo.derecho, clave, valor));
+    }
+
+    private Nodo<K, V> quitar(Nodo<K, V> nodo, K clave) {
+        if (nodo == null) {
+            return null;
+        }
+        int comparacion = orden.compare(clave, nodo.clave);
+        if (comparacion < 0) {
+            Nodo<K, V> izquierdo = quitar(nodo.izquierdo, clave);
+            return izquierdo == nodo.izquierdo ? nodo : balancear(nodo.clave, nodo.valor, izquierdo, nodo.derecho);
+        }
+        if (comparacion > 0) {
+            Nodo<K, V> derecho = quitar(nodo.derecho, clave);
+            return derecho == nodo.derecho ? nodo : balancear(nodo.clave, nodo.valor, nodo.izquierdo, derecho);
+        }
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        if (nodo.derecho == null) {
+            return nodo.izquierdo;
+        }
+        // El sucesor (el menor del subárbol derecho) ocupa el lugar del nodo quitado
+        Nodo<K, V> sucesor = nodo.derecho;
+        while (sucesor.izquierdo != null) {
+            sucesor = sucesor.izquierdo;
+        }
+        return balancear(sucesor.clave, sucesor.valor, nodo.izquierdo, quitarMinimo(nodo.derecho));
+    }
+
+    private static <K, V> Nodo<K, V> quitarMinimo(Nodo<K, V> nodo) {
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        return balancear(nodo.clave, nodo.valor, quitarMinimo(nodo.izquierdo), nodo.derecho);
+    }
+
+    /**
+     * Crea un nodo con los hijos indicados, rotando si sus alturas difieren en más de uno.
+     */
+    private static <K, V> Nodo<K, V> balancear(K clave, V valor, Nodo<K, V> izquierdo, Nodo<K, V> derecho) {
+        int diferencia = altura(izquierdo) - altura(derecho);
+        if (diferencia > 1) {
+            if (altura(izquierdo.izquierdo) < altura(izquierdo.derecho)) {
+                // Rotación doble: el hijo derecho del izquierdo sube a la raíz
+                Nodo<K, V> medio = izquierdo.derecho;
+                return new Nodo<>(medio.clave, medio.valor,
+                        new Nodo<>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo, medio.izquierdo),
+                        new Nodo<>(clave, valor, medio.derecho, derecho));
+            }
+            return new Nodo<>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo,
+                    new Nodo<>(clave, valor, izquierdo.derecho, derecho));
+        }
+        if (diferencia < -1) {
+            if (altura(derecho.derecho) < altura(derecho.izquierdo)) {
+                Nodo<K, V> medio = derecho.izquierdo;
+                return new Nodo<>(medio.clave, medio.valor,
+                        new Nodo<>(clave, valor, izquierdo, medio.izquierdo),
+                        new Nodo<>(derecho.clave, derecho.valor, medio.derecho, derecho.derecho));
+            }
+            return new Nodo<>(derecho.clave, derecho.valor, new Nodo<>(clave, valor, izquierdo, derecho.izquierdo),
+                    derecho.derecho);
+        }
+        return new Nodo<>(clave, valor, izquierdo, derecho);
+    }
+
+    private static int altura(Nodo<?, ?> nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+
+    private static int tamano(Nodo<?, ?> nodo) {
+        return nodo == null ? 0 : nodo.tamano;
+    }
+}
@@ -0,0 +1,259 @@
+package utilidades;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Archivo de datos que se lee y escribe a través de la memoria virtual ({@link MappedByteBuffer}), sin copiar
+ * su contenido al heap: las lecturas y escrituras van directamente a las páginas del archivo, que el sistema
+ * operativo carga y escribe en el disco según las necesita.
+ * <p>
+ * Como un {@code MappedByteBuffer} no puede superar los 2 GB, el archivo se mapea por tramos de 1 GB.
+ * Los enteros de 4 y 8 bytes deben estar alineados a su tamaño, para que nunca crucen de un tramo a otro;
+ * los arreglos de bytes pueden cruzarlos.
+ * <p>
+ * Los accesos a posiciones distintas pueden hacerse desde varios hilos. Hacer crecer el archivo reemplaza
+ * los tramos, por lo que {@link #asegurarTamano} no debe llamarse mientras otro hilo lo está leyendo.
+ */
+public class ArchivoMapeado implements Closeable {
+    private static final int BITS_TRAMO = 30;
+    private static final long TAMANO_TRAMO = 1L << BITS_TRAMO;
+    private static final long MASCARA_TRAMO = TAMANO_TRAMO - 1;
+    private static final long TAMANO_MINIMO = 4096;
+    private static final VarHandle ENTERO = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final String rutaArchivo;
+    private final FileChannel canal;
+    private MappedByteBuffer[] tramos;
+    private long tamano;
+
+    /**
+     * Abre el archivo, creándolo vacío si no existe, y mapea todo su contenido actual.
+     *
+     * @param rutaArchivo La ruta del archivo.
+     * @throws IOException Si ocurre un error al abrir o mapear el archivo.
+     */
+    public ArchivoMapeado(String rutaArchivo) throws IOException {
+        this.rutaArchivo = rutaArchivo;
+        this.canal = FileChannel.open(Paths.get(rutaArchivo), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.tramos = new MappedByteBuffer[0];
+            mapear(canal.size());
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el canal del archivo, por ejemplo para tomar un bloqueo sobre él.
+     *
+     * @return El canal abierto.
+     */
+    public FileChannel getCanal() {
+        return canal;
+    }
+
+    /**
+     * Obtiene el tamaño mapeado del archivo.
+     *
+     * @return El tamaño, en bytes.
+     */
+    public long getTamano() {
+        return tamano;
+    }
+
+    /**
+     * Hace crecer el archivo hasta al menos el tamaño indicado. El tamaño al menos se duplica en cada crecimiento,
+     * para que agregar datos al final tenga un costo amortizado constante. Los bytes nuevos valen 0.
+     *
+     * @param minimo El tamaño mínimo, en bytes.
+     * @throws IOException Si ocurre un error al extender o mapear el archivo (e.g., disco lleno).
+     */
+    public void asegurarTamano(long minimo) throws IOException {
+        if (minimo <= tamano) {
+            return;
+        }
+        long nuevo = Math.max(minimo, Math.max(TAMANO_MINIMO, tamano * 2));
+        canal.write(ByteBuffer.wrap(new byte[1]), nuevo - 1);
+        mapear(nuevo);
+    }
+
+    /**
+     * Lee un byte.
+     *
+     * @param posicion La posición en el archivo.
+     * @return El valor leído.
+     */
+    public byte getByte(long posicion) {
+        return tramo(posicion).get(indice(posicion));
+    }
+
+    /**
+     * Lee un entero de 4 bytes.
+     *
+     * @param posicion La posición, múltiplo de 4.
+     * @return El valor leído.
+     */
+    public int getInt(long posicion) {
+        return tramo(posicion).getInt(indice(posicion));
+    }
+
+    /**
+     * Escribe un entero de 4 bytes.
+     *
+     * @param posicion La posición, múltiplo de 4.
+     * @param valor El valor a escribir.
+     */
+    public void putInt(long posicion, int valor) {
+        tramo(posicion).putInt(indice(posicion), valor);
+    }
+
+    /**
+     * Lee un entero con semántica volátil: ve la última escritura hecha con {@link #putIntVolatile} desde cualquier hilo.
+     *
+     * @param posicion La posición, múltiplo de 4.
+     * @return El valor leído.
+     */
+    public int getIntVolatile(long posicion) {
+        return (int) ENTERO.getVolatile(tramo(posicion), indice(posicion));
+    }
+
+    /**
+     * Escribe un entero con semántica volátil.
+     *
+     * @param posicion La posición, múltiplo de 4.
+     * @param valor El valor a escribir.
+     */
+    public void putIntVolatile(long posicion, int valor) {
+        ENTERO.setVolatile(tramo(posicion), indice(posicion), valor);
+    }
+
+    /**
+     * Lee un entero de 8 bytes.
+     *
+     * @param posicion La posición, múltiplo de 8.
+     * @return El valor leído.
+     */
+    public long getLong(long posicion) {
+        return tramo(posicion).getLong(indice(posicion));
+    }
+
+    /**
+     * Escribe un entero de 8 bytes.
+     *
+     * @param posicion La posición, múltiplo de 8.
+     * @param valor El valor a escribir.
+     */
+    public void putLong(long posicion, long valor) {
+        tramo(posicion).putLong(indice(posicion), valor);
+    }
+
+    /**
+     * Copia bytes del archivo a un arreglo.
+     *
+     * @param posicion La posición del primer byte en el archivo.
+     * @param destino El arreglo de destino.
+     * @param desde La posición en el arreglo donde se empieza a copiar.
+     * @param largo El número de bytes a copiar.
+     */
+    public void leer(long posicion, byte[] destino, int desde, int largo) {
+        while (largo > 0) {
+            int n = (int) Math.min(largo, TAMANO_TRAMO - (posicion & MASCARA_TRAMO));
+            tramo(posicion).get(indice(posicion), destino, desde, n);
+            posicion += n;
+            desde += n;
+            largo -= n;
+        }
+    }
+
+    /**
+     * Copia bytes de un arreglo al archivo. El archivo debe tener el tamaño suficiente (ver {@link #asegurarTamano}).
+     *
+     * @param posicion La posición en el archivo donde se empieza a escribir.
+     * @param origen El arreglo de origen.
+     * @param desde La posición del primer byte a copiar en el arreglo.
+     * @param largo El número de bytes a copiar.
+     */
+    public void escribir(long posicion, byte[] origen, int desde, int largo) {
+        while (largo > 0) {
+            int n = (int) Math.min(largo, TAMANO_TRAMO - (posicion & MASCARA_TRAMO));
+            tramo(posicion).put(indice(posicion), origen, desde, n);
+            posicion += n;
+            desde += n;
+            largo -= n;
+        }
+    }
+
+    /**
+     * Escribe ceros en un rango del archivo.
+     *
+     * @param desde La posición del primer byte.
+     * @param hasta La posición siguiente al último byte.
+     */
+    public void borrar(long desde, long hasta) {
+        if (hasta <= desde) {
+            return;
+        }
+        byte[] ceros = new byte[(int) Math.min(hasta - desde, 64 * 1024)];
+        for (long posicion = desde; posicion < hasta; posicion += ceros.length) {
+            escribir(posicion, ceros, 0, (int) Math.min(ceros.length, hasta - posicion));
+        }
+    }
+
+    /**
+     * Espera a que las escrituras hechas hasta ahora lleguen al disco.
+     */
+    public void forzar() {
+        for (MappedByteBuffer tramo : tramos) {
+            tramo.force();
+        }
+    }
+
+    /**
+     * Cierra el archivo. Las páginas mapeadas se liberan cuando el recolector de basura descarta los tramos,
+     * por lo que el archivo no debe usarse después de cerrarlo.
+     *
+     * @throws IOException Si ocurre un error al cerrar el canal.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    @Override
+    public String toString() {
+        return rutaArchivo;
+    }
+
+    private MappedByteBuffer tramo(long posicion) {
+        return tramos[(int) (posicion >>> BITS_TRAMO)];
+    }
+
+    private static int indice(long posicion) {
+        return (int) (posicion & MASCARA_TRAMO);
+    }
+
+    /**
+     * Mapea el archivo hasta el tamaño indicado. Se vuelven a mapear el último tramo, que pudo haber crecido, y los nuevos.
+     */
+    private void mapear(long nuevoTamano) throws IOException {
+        int cantidad = (int) ((nuevoTamano + TAMANO_TRAMO - 1) >>> BITS_TRAMO);
+        MappedByteBuffer[] nuevos = Arrays.copyOf(tramos, cantidad);
+        for (int i = Math.max(0, tramos.length - 1); i < cantidad; i++) {
+            long inicio = (long) i << BITS_TRAMO;
+            nuevos[i] = canal.map(FileChannel.MapMode.READ_WRITE, inicio, Math.min(TAMANO_TRAMO, nuevoTamano - inicio));
+        }
+        tramos = nuevos;
+        tamano = nuevoTamano;
+    }
+}
@@ -0,0 +1,499 @@
+package utilidades;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caché de tamaño acotado con política de admisión W-TinyLFU, para poner delante de un almacenamiento lento
+ * (e.g., en disco) y conservar en memoria el conjunto de claves más consultadas.
+ * <p>
+ * Cada clave nueva entra primero en una ventana LRU pequeña (~1% de la capacidad). La que sale de la ventana
+ * solo pasa a la zona principal si su frecuencia estimada supera a la de la víctima que tendría que desalojar,
+ * así que un recorrido de claves consultadas una sola vez no desplaza a las claves frecuentes. La zona principal
+ * es un LRU segmentado: una clave que vuelve a consultarse pasa del segmento de prueba al protegido (~80% de
+ * la zona). Las frecuencias se estiman con un count-min sketch de contadores de 4 bits que se reducen a la mitad
+ * periódicamente, de modo que la popularidad antigua se olvida.
+ * <p>
+ * Para uso concurrente, las claves se reparten por su hash entre varios segmentos independientes, cada uno con su
+ * propio bloqueo, sus listas y su sketch. Las cargas de las lecturas a través de la caché
+ * ({@link #obtener(Object, Function)}) se hacen fuera del bloqueo; si la clave se invalida mientras tanto,
+ * el valor cargado se entrega pero no se guarda.
+ *
+ * @param <K> El tipo de las claves.
+ * @param <V> El tipo de los valores.
+ */
+public final class CacheAcotada<K, V> {
+    private static final int MAX_SEGMENTOS = 16;
+    private static final int CAPACIDAD_MINIMA_SEGMENTO = 64;
+
+    private final Segmento<K, V>[] segmentos;
+    private final int mascara;
+    private final int capacidad;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    /**
+     * Constructor de CacheAcotada.
+     *
+     * @param capacidad El número máximo de entradas.
+     * @throws IllegalArgumentException Si la capacidad es menor que 1.
+     */
+    @SuppressWarnings("unchecked")
+    public CacheAcotada(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser mayor que 0.");
+        }
+        this.capacidad = capacidad;
+        int numeroSegmentos = Math.min(MAX_SEGMENTOS, Integer.highestOneBit(Math.max(1, capacidad / CAPACIDAD_MINIMA_SEGMENTO)));
+        this.segmentos = (Segmento<K, V>[]) new Segmento[numeroSegmentos];
+        for (int i = 0; i < numeroSegmentos; i++) {
+            // El resto de la división se reparte entre los primeros segmentos
+            segmentos[i] = new Segmento<>(capacidad / numeroSegmentos + (i < capacidad % numeroSegmentos ? 1 : 0));
+        }
+        this.mascara = numeroSegmentos - 1;
+    }
+
+    /**
+     * Obtiene el valor de una clave; si no está en la caché, lo carga con la función indicada y lo guarda.
+     *
+     * @param clave La clave.
+     * @param cargar Función que carga el valor desde el almacenamiento; puede retornar null si la clave no existe.
+     * @return El valor, o null si la clave no existe (los null no se guardan).
+     */
+    public V obtener(K clave, Function<? super K, ? extends V> cargar) {
+        int hash = dispersar(clave.hashCode());
+        Segmento<K, V> segmento = segmentos[hash & mascara];
+        long version;
+        synchronized (segmento) {
+            V valor = segmento.obtener(clave, hash);
+            if (valor != null) {
+                aciertos.increment();
+                return valor;
+            }
+            version = segmento.version;
+        }
+        fallos.increment();
+        V cargado = cargar.apply(clave);
+        if (cargado != null) {
+            synchronized (segmento) {
+                if (segmento.version == version) {
+                    desalojos.add(segmento.poner(clave, cargado, hash));
+                }
+            }
+        }
+        return cargado;
+    }
+
+    /**
+     * Obtiene el valor de una clave solo si está en la caché, sin cargarlo. Cuenta como acierto o fallo.
+     *
+     * @param clave La clave.
+     * @return El valor, o null si la clave no está en la caché.
+     */
+    public V obtenerSiPresente(K clave) {
+        int hash = dispersar(clave.hashCode());
+        Segmento<K, V> segmento = segmentos[hash & mascara];
+        V valor;
+        synchronized (segmento) {
+            valor = segmento.obtener(clave, hash);
+        }
+        (valor != null ? aciertos : fallos).increment();
+        return valor;
+    }
+
+    /**
+     * Guarda el valor de una clave, reemplazando el anterior si lo había. Una clave nueva pasa por la ventana
+     * y la política de admisión como cualquier otra.
+     *
+     * @param clave La clave.
+     * @param valor El valor.
+     */
+    public void poner(K clave, V valor) {
+        Objects.requireNonNull(valor, "La caché no guarda valores nulos.");
+        int hash = dispersar(clave.hashCode());
+        Segmento<K, V> segmento = segmentos[hash & mascara];
+        synchronized (segmento) {
+            desalojos.add(segmento.poner(clave, valor, hash));
+        }
+    }
+
+    /**
+     * Quita una clave de la caché, si estaba. Las cargas de esa clave que estén en curso no se guardarán.
+     *
+     * @param clave La clave.
+     */
+    public void invalidar(K clave) {
+        int hash = dispersar(clave.hashCode());
+        Segmento<K, V> segmento = segmentos[hash & mascara];
+        synchronized (segmento) {
+            segmento.invalidar(clave);
+        }
+    }
+
+    /**
+     * Vacía la caché. Los contadores de aciertos, fallos y desalojos se conservan.
+     */
+    public void limpiar() {
+        for (Segmento<K, V> segmento : segmentos) {
+            synchronized (segmento) {
+                segmento.limpiar();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el número de entradas guardadas.
+     *
+     * @return El número de entradas.
+     */
+    public int tamano() {
+        int total = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.entradas.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene los contadores de la caché.
+     *
+     * @return Una copia de los contadores en este momento.
+     */
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(aciertos.sum(), fallos.sum(), desalojos.sum(), tamano(), capacidad);
+    }
+
+    private static int dispersar(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Contadores de una caché: aciertos, fallos y desalojos desde su creación, y su ocupación.
+     */
+    public static final class Estadisticas {
+        private final long aciertos;
+        private final long fallos;
+        private final long desalojos;
+        private final int tamano;
+        private final int capacidad;
+
+        /**
+         * Constructor de Estadisticas.
+         *
+         * @param aciertos Las consultas resueltas por la caché.
+         * @param fallos Las consultas que no estaban en la caché.
+         * @param desalojos Las entradas desalojadas o no admitidas por falta de espacio.
+         * @param tamano El número de entradas guardadas.
+         * @param capacidad El número máximo de entradas.
+         */
+        public Estadisticas(long aciertos, long fallos, long desalojos, int tamano, int capacidad) {
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.desalojos = desalojos;
+            this.tamano = tamano;
+            this.capacidad = capacidad;
+        }
+
+        /**
+         * Obtiene el número de consultas resueltas por la caché.
+         *
+         * @return Los aciertos.
+         */
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        /**
+         * Obtiene el número de consultas que no estaban en la caché.
+         *
+         * @return Los fallos.
+         */
+        public long getFallos() {
+            return fallos;
+        }
+
+        /**
+         * Obtiene el número de entradas desalojadas o no admitidas por falta de espacio.
+         *
+         * @return Los desalojos.
+         */
+        public long getDesalojos() {
+            return desalojos;
+        }
+
+        /**
+         * Obtiene el número de entradas guardadas.
+         *
+         * @return El tamaño.
+         */
+        public int getTamano() {
+            return tamano;
+        }
+
+        /**
+         * Obtiene el número máximo de entradas.
+         *
+         * @return La capacidad.
+         */
+        public int getCapacidad() {
+            return capacidad;
+        }
+
+        /**
+         * Obtiene la proporción de consultas resueltas por la caché.
+         *
+         * @return Un valor entre 0 y 1; 0 si aún no hubo consultas.
+         */
+        public double getTasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+
+        /**
+         * Retorna una representación en cadena de los contadores.
+         *
+         * @return Los contadores y la tasa de aciertos.
+         */
+        @Override
+        public String toString() {
+            return String.format("aciertos=%d, fallos=%d, desalojos=%d, tamaño=%d/%d, tasa de aciertos=%.1f%%",
+                    aciertos, fallos, desalojos, tamano, capacidad, getTasaAciertos() * 100);
+        }
+    }
+
+    /** Zona en la que está una entrada. */
+    private static final byte VENTANA = 0;
+    private static final byte PRUEBA = 1;
+    private static final byte PROTEGIDA = 2;
+
+    private static final class Nodo<K, V> {
+        final K clave;
+        final int hash;
+        V valor;
+        byte zona;
+        Nodo<K, V> anterior;
+        Nodo<K, V> siguiente;
+
+        Nodo(K clave, int hash) {
+            this.clave = clave;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Lista doblemente enlazada circular con un nodo centinela: el primero es el menos usado recientemente.
+     */
+    private static final class Lista<K, V> {
+        final Nodo<K, V> centinela = new Nodo<>(null, 0);
+        int tamano;
+
+        Lista() {
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+        }
+
+        void agregarAlFinal(Nodo<K, V> nodo) {
+            nodo.anterior = centinela.anterior;
+            nodo.siguiente = centinela;
+            centinela.anterior.siguiente = nodo;
+            centinela.anterior = nodo;
+            tamano++;
+        }
+
+        void quitar(Nodo<K, V> nodo) {
+            nodo.anterior.siguiente = nodo.siguiente;
+            nodo.siguiente.anterior = nodo.anterior;
+            nodo.anterior = null;
+            nodo.siguiente = null;
+            tamano--;
+        }
+
+        Nodo<K, V> primero() {
+            return centinela.siguiente == centinela ? null : centinela.siguiente;
+        }
+
+        void limpiar() {
+            centinela.anterior = centinela;
+            centinela.siguiente = centinela;
+            tamano = 0;
+        }
+    }
+
+    /**
+     * Un segmento de la caché: ventana LRU, zona principal LRU segmentada y sketch de frecuencias.
+     * Sus métodos se llaman con el monitor del segmento tomado.
+     */
+    private static final class Segmento<K, V> {
+        final Map<K, Nodo<K, V>> entradas = new HashMap<>();
+        final Lista<K, V> ventana = new Lista<>();
+        final Lista<K, V> prueba = new Lista<>();
+        final Lista<K, V> protegida = new Lista<>();
+        final int capacidadVentana;
+        final int capacidadPrincipal;
+        final int capacidadProtegida;
+        final Frecuencias frecuencias;
+        long version; // Cambia con cada invalidación, para descartar cargas en curso
+
+        Segmento(int capacidad) {
+            this.capacidadVentana = Math.max(1, capacidad / 100);
+            this.capacidadPrincipal = capacidad - capacidadVentana;
+            this.capacidadProtegida = capacidadPrincipal * 4 / 5;
+            this.frecuencias = new Frecuencias(capacidad);
+        }
+
+        V obtener(K clave, int hash) {
+            frecuencias.incrementar(hash);
+            Nodo<K, V> nodo = entradas.get(clave);
+            if (nodo == null) {
+                return null;
+            }
+            usado(nodo);
+            return nodo.valor;
+        }
+
+        /**
+         * @return El número de entradas desalojadas (0 o 1).
+         */
+        int poner(K clave, V valor, int hash) {
+            Nodo<K, V> nodo = entradas.get(clave);
+            if (nodo != null) {
+                nodo.valor = valor;
+                usado(nodo);
+                return 0;
+            }
+            nodo = new Nodo<>(clave, hash);
+            nodo.valor = valor;
+            nodo.zona = VENTANA;
+            ventana.agregarAlFinal(nodo);
+            entradas.put(clave, nodo);
+            if (ventana.tamano <= capacidadVentana) {
+                return 0;
+            }
+            // El candidato que sale de la ventana compite con la víctima de la zona principal
+            Nodo<K, V> candidato = ventana.primero();
+            ventana.quitar(candidato);
+            if (prueba.tamano + protegida.tamano < capacidadPrincipal) {
+                candidato.zona = PRUEBA;
+                prueba.agregarAlFinal(candidato);
+                return 0;
+            }
+            Lista<K, V> zonaVictima = prueba.tamano > 0 ? prueba : protegida;
+            Nodo<K, V> victima = zonaVictima.primero();
+            if (victima == null) {
+                entradas.remove(candidato.clave); // Sin zona principal (capacidad 1): solo queda la ventana
+                return 1;
+            }
+            if (frecuencias.estimar(candidato.hash) > frecuencias.estimar(victima.hash)) {
+                zonaVictima.quitar(victima);
+                entradas.remove(victima.clave);
+                candidato.zona = PRUEBA;
+                prueba.agregarAlFinal(candidato);
+            } else {
+                entradas.remove(candidato.clave);
+            }
+            return 1;
+        }
+
+        private void usado(Nodo<K, V> nodo) {
+            switch (nodo.zona) {
+                case VENTANA:
+                    ventana.quitar(nodo);
+                    ventana.agregarAlFinal(nodo);
+                    break;
+                case PRUEBA:
+                    // Una segunda consulta en la zona principal la protege; la protegida menos usada vuelve a prueba
+                    prueba.quitar(nodo);
+                    nodo.zona = PROTEGIDA;
+                    protegida.agregarAlFinal(nodo);
+                    if (protegida.tamano > capacidadProtegida) {
+                        Nodo<K, V> degradado = protegida.primero();
+                        protegida.quitar(degradado);
+                        degradado.zona = PRUEBA;
+                        prueba.agregarAlFinal(degradado);
+                    }
+                    break;
+                default:
+                    protegida.quitar(nodo);
+                    protegida.agregarAlFinal(nodo);
+                    break;
+            }
+        }
+
+        void invalidar(K clave) {
+            version++;
+            Nodo<K, V> nodo = entradas.remove(clave);
+            if (nodo != null) {
+                (nodo.zona == VENTANA ? ventana : nodo.zona == PRUEBA ? prueba : protegida).quitar(nodo);
+            }
+        }
+
+        void limpiar() {
+            version++;
+            entradas.clear();
+            ventana.limpiar();
+            prueba.limpiar();
+            protegida.limpiar();
+        }
+    }
+
+    /**
+     * Count-min sketch con cuatro funciones de dispersión y contadores de 4 bits (16 por long). Cuando el número de
+     * incrementos alcanza diez veces la capacidad, todos los contadores se reducen a la mitad.
+     */
+    private static final class Frecuencias {
+        private static final long[] SEMILLAS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long MITAD = 0x7777777777777777L;
+
+        private final long[] tabla;
+        private final int mascaraContadores;
+        private final int muestra;
+        private int incrementos;
+
+        Frecuencias(int capacidad) {
+            int largo = Integer.highestOneBit(Math.max(16, capacidad - 1) << 1) / 4; // ~4 contadores por entrada
+            this.tabla = new long[largo];
+            this.mascaraContadores = largo * 16 - 1;
+            this.muestra = 10 * Math.max(16, capacidad);
+        }
+
+        int estimar(int hash) {
+            int minimo = 15;
+            for (int i = 0; i < SEMILLAS.length; i++) {
+                int posicion = posicion(hash, i);
+                minimo = Math.min(minimo, (int) (tabla[posicion >>> 4] >>> ((posicion & 15) << 2)) & 15);
+            }
+            return minimo;
+        }
+
+        void incrementar(int hash) {
+            boolean incremento = false;
+            for (int i = 0; i < SEMILLAS.length; i++) {
+                int posicion = posicion(hash, i);
+                int desplazamiento = (posicion & 15) << 2;
+                if (((tabla[posicion >>> 4] >>> desplazamiento) & 15) < 15) {
+                    tabla[posicion >>> 4] += 1L << desplazamiento;
+                    incremento = true;
+                }
+            }
+            if (incremento && ++incrementos >= muestra) {
+                for (int i = 0; i < tabla.length; i++) {
+                    tabla[i] = (tabla[i] >>> 1) & MITAD;
+                }
+                incrementos /= 2;
+            }
+        }
+
+        private int posicion(int hash, int i) {
+            long h = (hash + SEMILLAS[i]) * SEMILLAS[i];
+            h += h >>> 32;
+            return (int) h & mascaraContadores;
+        }
+    }
+}
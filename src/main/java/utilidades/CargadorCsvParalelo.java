@@ -0,0 +1,235 @@
+package utilidades;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Clase de utilidad para cargar archivos CSV grandes en paralelo.
+ * <p>
+ * El archivo se proyecta en memoria ({@link FileChannel#map}) y se divide en rangos de bytes alineados a
+ * finales de línea; cada rango se analiza con su propio {@link LectorCsv} en un {@link ForkJoinPool}.
+ * Los resultados se entregan al consumidor en el orden del archivo y siempre desde el hilo que llama,
+ * por lo que el consumidor no necesita sincronización y las reglas de "primera aparición gana" se mantienen.
+ * <p>
+ * Un rango solo es válido si su inicio no cae dentro de un campo entrecomillado con saltos de línea.
+ * Para comprobarlo, antes de analizar se cuentan en paralelo las comillas de cada rango; si la paridad
+ * acumulada indica que algún corte cayó dentro de comillas, el archivo se carga de forma secuencial.
+ * Los archivos menores que el umbral indicado se cargan siempre de forma secuencial.
+ */
+public final class CargadorCsvParalelo {
+    private static final int MAX_BYTES_POR_RANGO = 1 << 30; // Límite de un MappedByteBuffer (int), con margen
+    private static final int RANGOS_POR_HILO = 4;
+
+    /**
+     * Constructor privado para evitar la instanciación de esta clase de utilidades.
+     */
+    private CargadorCsvParalelo() {
+    }
+
+    /**
+     * Carga un archivo CSV, en paralelo si su tamaño alcanza el umbral indicado.
+     * Se salta la primera línea (cabecera) y las líneas vacías, igual que {@link CsvUtil#procesarCsv}.
+     *
+     * @param rutaArchivo La ruta completa al archivo CSV a leer.
+     * @param mapper Función que convierte una fila en un objeto; puede ejecutarse en varios hilos a la vez,
+     *               por lo que no debe modificar estado compartido. Si retorna null, la fila se descarta.
+     * @param consumidor Acción que recibe cada objeto en el orden del archivo, desde el hilo que llama.
+     * @param umbralBytes Tamaño mínimo del archivo, en bytes, para usar la carga paralela.
+     * @param pool El pool en el que se analizan los rangos.
+     * @param <T> El tipo de objetos que se crean a partir de las filas.
+     * @return El número de filas de datos leídas (incluidas las descartadas por el mapper).
+     * @throws IOException Si ocurre un error de entrada/salida al leer el archivo.
+     */
+    public static <T> long cargar(String rutaArchivo, Function<LectorCsv, T> mapper, Consumer<T> consumidor,
+                                  long umbralBytes, ForkJoinPool pool) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(rutaArchivo), StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano >= umbralBytes && pool.getParallelism() > 1) {
+                List<Rango<T>> rangos = analizarEnParalelo(canal, tamano, mapper, pool);
+                if (rangos != null) {
+                    long filas = 0;
+                    for (Rango<T> rango : rangos) {
+                        filas += rango.filas;
+                        rango.resultados.forEach(consumidor);
+                    }
+                    return filas;
+                }
+            }
+        }
+        return CsvUtil.procesarCsv(rutaArchivo, fila -> {
+            T resultado = mapper.apply(fila);
+            if (resultado != null) {
+                consumidor.accept(resultado);
+            }
+        });
+    }
+
+    /**
+     * Divide el archivo en rangos y los analiza en el pool.
+     *
+     * @return Los rangos analizados en orden, o null si algún corte cayó dentro de un campo entrecomillado.
+     */
+    private static <T> List<Rango<T>> analizarEnParalelo(FileChannel canal, long tamano, Function<LectorCsv, T> mapper,
+                                                         ForkJoinPool pool) throws IOException {
+        long inicioDatos = siguienteInicioDeLinea(canal, 0, tamano); // Saltar la cabecera
+        long numeroRangos = (long) pool.getParallelism() * RANGOS_POR_HILO;
+        long bytesPorRango = Math.min(MAX_BYTES_POR_RANGO, Math.max(1, (tamano - inicioDatos + numeroRangos - 1) / numeroRangos));
+
+        List<Rango<T>> rangos = new ArrayList<>();
+        long inicio = inicioDatos;
+        while (inicio < tamano) {
+            long fin = siguienteInicioDeLinea(canal, Math.min(tamano, inicio + bytesPorRango), tamano);
+            rangos.add(new Rango<>(inicio, fin));
+            inicio = fin;
+        }
+
+        ejecutar(rangos, rango -> rango.proyectar(canal), pool);
+
+        // Si antes de un corte hay un número impar de comillas, el corte cayó dentro de un campo entrecomillado.
+        boolean comillasAbiertas = false;
+        for (Rango<T> rango : rangos) {
+            if (comillasAbiertas) {
+                return null;
+            }
+            comillasAbiertas ^= rango.comillasImpares;
+        }
+
+        ejecutar(rangos, rango -> rango.analizar(mapper), pool);
+        return rangos;
+    }
+
+    /**
+     * Ejecuta una acción sobre cada rango en el pool y espera a que terminen todas.
+     */
+    private static <T> void ejecutar(List<Rango<T>> rangos, Consumer<Rango<T>> accion, ForkJoinPool pool) throws IOException {
+        List<ForkJoinTask<?>> tareas = new ArrayList<>(rangos.size());
+        for (Rango<T> rango : rangos) {
+            tareas.add(pool.submit(() -> accion.accept(rango)));
+        }
+        for (ForkJoinTask<?> tarea : tareas) {
+            try {
+                tarea.join();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Busca la posición siguiente al primer salto de línea ubicado en {@code desde} o después.
+     *
+     * @return La posición de inicio de la siguiente línea, o {@code tamano} si no hay más saltos de línea.
+     */
+    private static long siguienteInicioDeLinea(FileChannel canal, long desde, long tamano) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long posicion = desde;
+        while (posicion < tamano) {
+            buffer.clear();
+            int leidos = canal.read(buffer, posicion);
+            if (leidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < leidos; i++) {
+                if (buffer.get(i) == '\n') {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += leidos;
+        }
+        return tamano;
+    }
+
+    /**
+     * Rango de bytes del archivo y el resultado de analizarlo.
+     */
+    private static class Rango<T> {
+        private final long inicio;
+        private final long fin;
+        private final List<T> resultados = new ArrayList<>();
+        private MappedByteBuffer mapa;
+        private long filas;
+        private boolean comillasImpares;
+
+        Rango(long inicio, long fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        void proyectar(FileChannel canal) {
+            try {
+                mapa = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int comillas = 0;
+            for (int i = 0; i < mapa.limit(); i++) {
+                if (mapa.get(i) == '"') {
+                    comillas++;
+                }
+            }
+            comillasImpares = (comillas & 1) == 1;
+        }
+
+        void analizar(Function<LectorCsv, T> mapper) {
+            try {
+                // '\n' y '"' nunca forman parte de una secuencia multibyte UTF-8, así que los cortes no parten caracteres.
+                try (LectorCsv lector = new LectorCsv(new InputStreamReader(new ByteBufferInputStream(mapa), StandardCharsets.UTF_8))) {
+                    while (lector.siguienteFila()) {
+                        if (lector.esFilaVacia()) {
+                            continue;
+                        }
+                        filas++;
+                        T resultado = mapper.apply(lector);
+                        if (resultado != null) {
+                            resultados.add(resultado);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                mapa = null;
+            }
+        }
+    }
+
+    /**
+     * Flujo de entrada sobre un {@link ByteBuffer}, sin copiar su contenido.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int desplazamiento, int longitud) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(longitud, buffer.remaining());
+            buffer.get(destino, desplazamiento, n);
+            return n;
+        }
+    }
+}
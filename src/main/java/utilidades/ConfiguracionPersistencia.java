@@ -0,0 +1,141 @@
+package utilidades;
+
+import constantes.Constantes;
+
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Dónde y cómo persiste ComicSistema sus datos: el {@link TipoPersistencia} y las rutas de sus archivos.
+ * <p>
+ * Las rutas de los archivos CSV se usan siempre: con {@link TipoPersistencia#CSV} son los datos, y con
+ * {@link TipoPersistencia#SQL} son la fuente que se importa al crear la base de datos por primera vez.
+ */
+public final class ConfiguracionPersistencia {
+    private final TipoPersistencia tipo;
+    private final String rutaComicsCsv;
+    private final String rutaUsuariosCsv;
+    private final String rutaVentasLog;
+    private final String rutaBaseDatos;
+
+    private ConfiguracionPersistencia(TipoPersistencia tipo, String rutaComicsCsv, String rutaUsuariosCsv,
+                                      String rutaVentasLog, String rutaBaseDatos) {
+        this.tipo = Objects.requireNonNull(tipo, "El tipo de persistencia no puede ser nulo.");
+        this.rutaComicsCsv = Objects.requireNonNull(rutaComicsCsv, "La ruta del CSV de cómics no puede ser nula.");
+        this.rutaUsuariosCsv = Objects.requireNonNull(rutaUsuariosCsv, "La ruta del CSV de usuarios no puede ser nula.");
+        this.rutaVentasLog = Objects.requireNonNull(rutaVentasLog, "La ruta del log de ventas no puede ser nula.");
+        this.rutaBaseDatos = rutaBaseDatos;
+    }
+
+    /**
+     * Crea una configuración de persistencia en archivos CSV con las rutas indicadas.
+     *
+     * @param rutaComicsCsv La ruta del archivo CSV de cómics.
+     * @param rutaUsuariosCsv La ruta del archivo CSV de usuarios.
+     * @param rutaVentasLog La ruta del archivo de log de ventas.
+     * @return La configuración.
+     */
+    public static ConfiguracionPersistencia csv(String rutaComicsCsv, String rutaUsuariosCsv, String rutaVentasLog) {
+        return new ConfiguracionPersistencia(TipoPersistencia.CSV, rutaComicsCsv, rutaUsuariosCsv, rutaVentasLog, null);
+    }
+
+    /**
+     * Crea una configuración con todos los datos en un directorio, con los nombres de archivo de {@link Constantes}.
+     *
+     * @param tipo El tipo de persistencia.
+     * @param directorio El directorio de datos.
+     * @return La configuración.
+     */
+    public static ConfiguracionPersistencia enDirectorio(TipoPersistencia tipo, String directorio) {
+        Objects.requireNonNull(directorio, "El directorio de datos no puede ser nulo.");
+        return new ConfiguracionPersistencia(tipo,
+                Paths.get(directorio, Constantes.ARCHIVO_COMICS_CSV).toString(),
+                Paths.get(directorio, Constantes.ARCHIVO_USUARIOS_CSV).toString(),
+                Paths.get(directorio, Constantes.ARCHIVO_VENTAS_LOG_TXT).toString(),
+                Paths.get(directorio, Constantes.BASE_DATOS_SQL).toAbsolutePath().toString());
+    }
+
+    /**
+     * Crea la configuración indicada por las propiedades del sistema {@link Constantes#PROPIEDAD_DIRECTORIO_DATOS}
+     * y {@link Constantes#PROPIEDAD_TIPO_PERSISTENCIA}; las que no estén definidas toman los valores por defecto
+     * de {@link Constantes}.
+     *
+     * @return La configuración.
+     * @throws IllegalArgumentException Si el tipo de persistencia indicado no existe.
+     */
+    public static ConfiguracionPersistencia desdePropiedadesSistema() {
+        String directorio = System.getProperty(Constantes.PROPIEDAD_DIRECTORIO_DATOS, Constantes.DIRECTORIO_DATOS);
+        String tipo = System.getProperty(Constantes.PROPIEDAD_TIPO_PERSISTENCIA);
+        return enDirectorio(tipo == null ? Constantes.TIPO_PERSISTENCIA : TipoPersistencia.desdeTexto(tipo), directorio);
+    }
+
+    /**
+     * Obtiene el tipo de persistencia.
+     *
+     * @return El tipo de persistencia.
+     */
+    public TipoPersistencia getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene la ruta del archivo CSV de cómics.
+     *
+     * @return La ruta del archivo.
+     */
+    public String getRutaComicsCsv() {
+        return rutaComicsCsv;
+    }
+
+    /**
+     * Obtiene la ruta del archivo CSV de usuarios.
+     *
+     * @return La ruta del archivo.
+     */
+    public String getRutaUsuariosCsv() {
+        return rutaUsuariosCsv;
+    }
+
+    /**
+     * Obtiene la ruta del log de texto de ventas.
+     *
+     * @return La ruta del archivo.
+     */
+    public String getRutaVentasLog() {
+        return rutaVentasLog;
+    }
+
+    /**
+     * Obtiene la ruta de la base de datos SQL, sin la extensión que agrega H2.
+     * Si la configuración se creó solo con rutas CSV, la base se ubica junto al CSV de cómics.
+     *
+     * @return La ruta absoluta de la base de datos.
+     */
+    public String getRutaBaseDatos() {
+        if (rutaBaseDatos != null) {
+            return rutaBaseDatos;
+        }
+        return Paths.get(rutaComicsCsv).toAbsolutePath().resolveSibling(Constantes.BASE_DATOS_SQL).toString();
+    }
+
+    /**
+     * Obtiene la ruta base de los archivos del almacenamiento mapeado del inventario (ver {@link ModoAlmacenamiento#MAPEADO}):
+     * junto al CSV de cómics, o junto a la base de datos.
+     *
+     * @return La ruta base, a la que se agregan las extensiones de cada archivo mapeado.
+     */
+    public String getRutaAlmacenMapeado() {
+        String base = tipo == TipoPersistencia.SQL ? getRutaBaseDatos() : rutaComicsCsv;
+        return base + Constantes.EXTENSION_ALMACEN_MAPEADO;
+    }
+
+    /**
+     * Retorna una representación en cadena de la configuración.
+     *
+     * @return El tipo de persistencia y la ubicación de los datos.
+     */
+    @Override
+    public String toString() {
+        return tipo == TipoPersistencia.SQL ? "SQL (" + getRutaBaseDatos() + ")" : "CSV (" + rutaComicsCsv + ")";
+    }
+}
@@ -1,19 +1,35 @@
 package utilidades;
 
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * Clase de utilidad para manejar operaciones de lectura y escritura de archivos CSV.
  * Proporciona métodos genéricos para leer datos de un CSV y mapearlos a objetos,
  * y para escribir listas de objetos a un CSV.
+ * Los campos se leen y escriben siguiendo las reglas de comillas de RFC 4180 (ver {@link LectorCsv}),
+ * de modo que un título con comas, como "Sandman Vol. 1: Preludios y Nocturnos, Edición", se conserva íntegro.
+ * Todos los archivos se leen y escriben en UTF-8, independientemente de la codificación por defecto de la plataforma.
  */
 public class CsvUtil {
 
@@ -36,22 +52,84 @@ public class CsvUtil {
      */
     public static <T> List<T> leerCsv(String rutaArchivo, Function<String[], T> mapper) throws IOException {
         List<T> registros = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(rutaArchivo))) {
-            String linea;
+        procesarCsv(rutaArchivo, fila -> registros.add(mapper.apply(fila.getCampos())));
+        return registros;
+    }
+
+    /**
+     * Recorre un archivo CSV fila por fila sin cargarlo completo en memoria.
+     * Se salta la primera línea (considerada como cabecera) y las líneas vacías.
+     * El objeto {@link LectorCsv} entregado al procesador se reutiliza entre filas, por lo que
+     * no debe conservarse fuera de la llamada: los valores necesarios deben extraerse con
+     * {@link LectorCsv#getCampo(int)}.
+     *
+     * @param rutaArchivo La ruta completa al archivo CSV a leer.
+     * @param procesador La acción a ejecutar con cada fila de datos.
+     * @return El número de filas de datos procesadas.
+     * @throws IOException Si ocurre un error de entrada/salida al leer el archivo.
+     */
+    public static long procesarCsv(String rutaArchivo, Consumer<LectorCsv> procesador) throws IOException {
+        long filas = 0;
+        try (LectorCsv lector = new LectorCsv(new FileReader(rutaArchivo, StandardCharsets.UTF_8))) {
             boolean primeraLinea = true; // Para saltar la cabecera si existe
-            while ((linea = br.readLine()) != null) {
+            while (lector.siguienteFila()) {
                 if (primeraLinea) {
                     primeraLinea = false;
                     continue; // Saltar la primera línea (cabecera)
                 }
-                if (linea.trim().isEmpty()) {
+                if (lector.esFilaVacia()) {
                     continue; // Saltar líneas vacías
                 }
-                String[] campos = linea.split(","); // Asume que el delimitador es la coma
-                registros.add(mapper.apply(campos));
+                procesador.accept(lector);
+                filas++;
             }
         }
-        return registros;
+        return filas;
+    }
+
+    /**
+     * Construye una línea CSV a partir de sus campos, entrecomillando los que lo necesiten.
+     *
+     * @param campos Los valores de los campos. Un valor nulo se escribe como campo vacío.
+     * @return La línea CSV, sin salto de línea final.
+     */
+    public static String formatearLinea(String... campos) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            escaparCampo(sb, campos[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Añade un campo a una línea CSV. Si el valor contiene comas, comillas o saltos de línea,
+     * se escribe entre comillas dobles y sus comillas internas se duplican.
+     */
+    private static void escaparCampo(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return;
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            sb.append(valor);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
     }
 
     /**
@@ -67,16 +145,112 @@ public class CsvUtil {
      * @throws IOException Si ocurre un error de entrada/salida al escribir el archivo.
      */
     public static <T> void escribirCsv(String rutaArchivo, List<T> datos, Function<T, String> mapper, String header) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(rutaArchivo))) {
-            if (header != null && !header.trim().isEmpty()) {
-                bw.write(header);
-                bw.newLine();
-            }
-            for (T dato : datos) {
-                bw.write(mapper.apply(dato));
-                bw.newLine();
-            }
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(rutaArchivo, StandardCharsets.UTF_8))) {
+            escribirLineas(bw, datos, mapper, header);
             bw.flush();
         }
     }
+
+    /**
+     * Escribe una lista de objetos a un archivo CSV de forma atómica.
+     * Los datos se escriben primero en un archivo temporal junto al destino ({@code <ruta>.tmp}), que luego
+     * reemplaza al archivo original con un movimiento atómico. Así, una caída o un disco lleno durante la escritura
+     * dejan intacto el archivo anterior en lugar de un archivo vacío o a medio escribir.
+     * <p>
+     * Con {@link PoliticaSincronizacion#SIEMPRE} o {@link PoliticaSincronizacion#POR_LOTES} el archivo temporal y
+     * el directorio se sincronizan con el disco (fsync) antes y después del reemplazo; con
+     * {@link PoliticaSincronizacion#NUNCA} se omite la sincronización a cambio de mayor rendimiento.
+     *
+     * @param rutaArchivo La ruta completa al archivo CSV donde se escribirán los datos.
+     * @param datos La colección de objetos del tipo {@code T} a escribir, en su orden de iteración.
+     * @param mapper Una función que toma un objeto del tipo {@code T} y retorna su línea CSV.
+     * @param header La cadena de cabecera a escribir como primera línea del CSV (puede ser null o vacío si no se desea cabecera).
+     * @param politica La política de sincronización con el disco.
+     * @param <T> El tipo de objetos que se escribirán en el CSV.
+     * @return El número de bytes escritos y el tiempo que tomó la escritura.
+     * @throws IOException Si ocurre un error de entrada/salida; en ese caso el archivo original no se modifica.
+     */
+    public static <T> ResultadoEscritura escribirCsvAtomico(String rutaArchivo, Collection<T> datos, Function<T, String> mapper,
+                                                            String header, PoliticaSincronizacion politica) throws IOException {
+        long inicio = System.nanoTime();
+        Path destino = Paths.get(rutaArchivo).toAbsolutePath();
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        boolean sincronizar = politica != PoliticaSincronizacion.NUNCA;
+        long bytesEscritos;
+        try (FileOutputStream fos = new FileOutputStream(temporal.toFile())) {
+            ContadorBytesOutputStream contador = new ContadorBytesOutputStream(fos);
+            BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(contador, StandardCharsets.UTF_8));
+            escribirLineas(bw, datos, mapper, header);
+            bw.flush();
+            if (sincronizar) {
+                fos.getFD().sync();
+            }
+            bytesEscritos = contador.getBytesEscritos();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (sincronizar) {
+            sincronizarDirectorio(destino.getParent());
+        }
+        return new ResultadoEscritura(bytesEscritos, System.nanoTime() - inicio);
+    }
+
+    private static <T> void escribirLineas(BufferedWriter bw, Collection<T> datos, Function<T, String> mapper, String header) throws IOException {
+        if (header != null && !header.trim().isEmpty()) {
+            bw.write(header);
+            bw.newLine();
+        }
+        for (T dato : datos) {
+            bw.write(mapper.apply(dato));
+            bw.newLine();
+        }
+    }
+
+    /**
+     * Sincroniza con el disco la entrada de directorio para que el reemplazo del archivo sea durable.
+     * Algunos sistemas (por ejemplo, Windows) no permiten abrir directorios; en ese caso se omite.
+     */
+    private static void sincronizarDirectorio(Path directorio) {
+        if (directorio == null) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // El sistema de archivos no admite sincronizar directorios; el reemplazo ya se realizó.
+        }
+    }
+
+    /**
+     * Flujo de salida que cuenta los bytes que lo atraviesan.
+     */
+    private static class ContadorBytesOutputStream extends FilterOutputStream {
+        private long bytesEscritos;
+
+        ContadorBytesOutputStream(OutputStream salida) {
+            super(salida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytesEscritos++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytesEscritos += len;
+        }
+
+        long getBytesEscritos() {
+            return bytesEscritos;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+package utilidades;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Diario (journal) de solo anexado para los cambios del inventario de cómics.
+ * Cada mutación (alta, baja o cambio de estado) se registra como una línea independiente,
+ * de modo que persistir un cambio cuesta O(1) bytes en lugar de reescribir todo el CSV.
+ * Periódicamente el inventario completo se compacta en el CSV y el diario se vacía.
+ * <p>
+ * Formato de cada línea (campos CSV, entrecomillados cuando es necesario; ver {@link CsvUtil#formatearLinea}):
+ * <ul>
+ *     <li>{@code A,<id>,<titulo>,<autor>,<estado>} — alta de un cómic.</li>
+ *     <li>{@code B,<id>} — baja (eliminación) de un cómic.</li>
+ *     <li>{@code S,<id>,<estado>} — cambio de estado de un cómic.</li>
+ *     <li>{@code L,<n>} — inicio de un lote: los {@code n} registros siguientes se reproducen todos o ninguno.</li>
+ * </ul>
+ * El estado se guarda con el código de una letra de {@code modelos.EstadoComic}.
+ * Un lote se anexa con una sola escritura; si una caída lo deja incompleto, al reproducir el diario se descarta
+ * y se recorta del archivo, igual que una última línea truncada, para que los registros siguientes no queden detrás.
+ * Los registros son idempotentes respecto del estado final, por lo que reproducir el diario sobre
+ * una instantánea que ya los incluye (por ejemplo, tras una caída entre la compactación y el vaciado)
+ * produce el mismo inventario.
+ * <p>
+ * La durabilidad de cada registro depende de la {@link PoliticaSincronizacion} configurada.
+ * Los métodos están sincronizados: varios hilos pueden anexar registros a la vez sin mezclar sus líneas.
+ */
+public class DiarioInventario {
+    public static final String ALTA = "A";
+    public static final String BAJA = "B";
+    public static final String ESTADO = "S";
+    public static final String LOTE = "L";
+
+    private final String rutaArchivo;
+    private final int umbralCompactacion;
+    private final int loteSincronizacion;
+    private PoliticaSincronizacion politica;
+    private int registrosPendientes;
+    private int registrosSinSincronizar;
+
+    /**
+     * Constructor de DiarioInventario.
+     *
+     * @param rutaArchivo La ruta del archivo del diario.
+     * @param umbralCompactacion Número de registros a partir del cual se recomienda compactar.
+     * @param politica La política de sincronización con el disco de los registros.
+     * @param loteSincronizacion Número de registros por sincronización con {@link PoliticaSincronizacion#POR_LOTES}.
+     */
+    public DiarioInventario(String rutaArchivo, int umbralCompactacion, PoliticaSincronizacion politica, int loteSincronizacion) {
+        this.rutaArchivo = rutaArchivo;
+        this.umbralCompactacion = umbralCompactacion;
+        this.politica = politica;
+        this.loteSincronizacion = Math.max(1, loteSincronizacion);
+        this.registrosPendientes = 0;
+        this.registrosSinSincronizar = 0;
+    }
+
+    /**
+     * Establece la política de sincronización con el disco para los próximos registros.
+     *
+     * @param politica La nueva política de sincronización.
+     */
+    public synchronized void setPoliticaSincronizacion(PoliticaSincronizacion politica) {
+        this.politica = politica;
+    }
+
+    /**
+     * Registra el alta de un cómic.
+     *
+     * @param id El ID del cómic.
+     * @param titulo El título del cómic.
+     * @param autor El autor del cómic.
+     * @param estado El código del estado inicial del cómic.
+     * @throws IOException Si ocurre un error al escribir en el diario.
+     */
+    public void registrarAlta(String id, String titulo, String autor, String estado) throws IOException {
+        anexar(Collections.singletonList(alta(id, titulo, autor, estado)));
+    }
+
+    /**
+     * Registra la baja de un cómic.
+     *
+     * @param id El ID del cómic eliminado.
+     * @throws IOException Si ocurre un error al escribir en el diario.
+     */
+    public void registrarBaja(String id) throws IOException {
+        anexar(Collections.singletonList(new String[]{BAJA, id}));
+    }
+
+    /**
+     * Registra un cambio de estado de un cómic.
+     *
+     * @param id El ID del cómic.
+     * @param estado El código del nuevo estado.
+     * @throws IOException Si ocurre un error al escribir en el diario.
+     */
+    public void registrarCambioEstado(String id, String estado) throws IOException {
+        anexar(Collections.singletonList(cambioEstado(id, estado)));
+    }
+
+    /**
+     * Registra varios cambios como un lote: se anexan con una sola escritura (y a lo sumo una sincronización),
+     * y al reproducir el diario se aplican todos o ninguno.
+     *
+     * @param registros Los campos de cada registro (ver {@link #alta} y {@link #cambioEstado}).
+     * @throws IOException Si ocurre un error al escribir en el diario.
+     */
+    public void registrarLote(List<String[]> registros) throws IOException {
+        if (!registros.isEmpty()) {
+            anexar(registros);
+        }
+    }
+
+    /**
+     * Crea los campos de un registro de alta, para {@link #registrarLote}.
+     *
+     * @param id El ID del cómic.
+     * @param titulo El título del cómic.
+     * @param autor El autor del cómic.
+     * @param estado El código del estado inicial del cómic.
+     * @return Los campos del registro.
+     */
+    public static String[] alta(String id, String titulo, String autor, String estado) {
+        return new String[]{ALTA, id, titulo, autor, estado};
+    }
+
+    /**
+     * Crea los campos de un registro de cambio de estado, para {@link #registrarLote}.
+     *
+     * @param id El ID del cómic.
+     * @param estado El código del nuevo estado.
+     * @return Los campos del registro.
+     */
+    public static String[] cambioEstado(String id, String estado) {
+        return new String[]{ESTADO, id, estado};
+    }
+
+    /**
+     * Reproduce los registros del diario en el orden en que se escribieron.
+     * Solo se consideran las líneas terminadas en salto de línea: una última línea truncada por una caída
+     * se descarta, al igual que las líneas vacías o mal formadas. Un lote incompleto al final del diario también
+     * se descarta. Lo descartado al final se recorta del archivo, para que los próximos registros no se anexen
+     * detrás de una línea truncada o dentro de un lote que nunca se completará.
+     *
+     * @param aplicador Función que recibe los campos de cada registro válido; el primer campo es el tipo.
+     * @return El número de registros reproducidos.
+     * @throws IOException Si ocurre un error al leer o recortar el diario.
+     */
+    public synchronized int reproducir(Consumer<String[]> aplicador) throws IOException {
+        registrosPendientes = 0;
+        Path ruta = Paths.get(rutaArchivo);
+        if (!Files.exists(ruta)) {
+            return 0;
+        }
+        String contenido = Files.readString(ruta, StandardCharsets.UTF_8);
+        int fin = contenido.lastIndexOf('\n') + 1;
+        List<String[]> lote = new ArrayList<>();
+        int registrosLote = 0;
+        try (LectorCsv lector = new LectorCsv(new StringReader(contenido.substring(0, fin)))) {
+            while (lector.siguienteFila()) {
+                String[] campos = lector.getCampos();
+                if (registrosLote == 0 && campos.length > 0 && LOTE.equals(campos[0])) {
+                    registrosLote = tamanoLote(campos);
+                    continue;
+                }
+                if (!esRegistroValido(campos)) {
+                    continue;
+                }
+                if (registrosLote == 0) {
+                    aplicador.accept(campos);
+                    registrosPendientes++;
+                    continue;
+                }
+                lote.add(campos);
+                if (lote.size() == registrosLote) {
+                    lote.forEach(aplicador);
+                    registrosPendientes += lote.size();
+                    lote.clear();
+                    registrosLote = 0;
+                }
+            }
+        }
+        if (registrosLote > 0) {
+            // El lote incompleto empieza en la última línea de inicio de lote
+            fin = contenido.startsWith(LOTE + ",") ? 0 : contenido.lastIndexOf('\n' + LOTE + ",") + 1;
+        }
+        if (fin < contenido.length()) {
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.WRITE)) {
+                canal.truncate(contenido.substring(0, fin).getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+        return registrosPendientes;
+    }
+
+    private static int tamanoLote(String[] campos) {
+        try {
+            return campos.length >= 2 ? Math.max(0, Integer.parseInt(campos[1])) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Indica si el diario acumula suficientes registros como para compactarlo en la instantánea CSV.
+     *
+     * @return true si se alcanzó el umbral de compactación.
+     */
+    public synchronized boolean requiereCompactacion() {
+        return registrosPendientes >= umbralCompactacion;
+    }
+
+    /**
+     * Obtiene el número de registros escritos desde la última compactación.
+     *
+     * @return El número de registros pendientes de compactar.
+     */
+    public synchronized int getRegistrosPendientes() {
+        return registrosPendientes;
+    }
+
+    /**
+     * Vacía el diario. Debe llamarse solo después de que la instantánea CSV se haya escrito correctamente.
+     *
+     * @throws IOException Si ocurre un error al vaciar el archivo.
+     */
+    public synchronized void vaciar() throws IOException {
+        Path ruta = Paths.get(rutaArchivo);
+        if (Files.exists(ruta)) {
+            Files.write(ruta, new byte[0]);
+        }
+        registrosPendientes = 0;
+        registrosSinSincronizar = 0;
+    }
+
+    /**
+     * Anexa los registros con una sola escritura; si son varios, precedidos por el inicio de lote.
+     */
+    private synchronized void anexar(List<String[]> registros) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        if (registros.size() > 1) {
+            texto.append(CsvUtil.formatearLinea(LOTE, String.valueOf(registros.size()))).append('\n');
+        }
+        for (String[] campos : registros) {
+            texto.append(CsvUtil.formatearLinea(campos)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(texto.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel canal = FileChannel.open(Paths.get(rutaArchivo),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            registrosSinSincronizar += registros.size();
+            if (debeSincronizar()) {
+                canal.force(false);
+                registrosSinSincronizar = 0;
+            }
+        }
+        registrosPendientes += registros.size();
+    }
+
+    private boolean debeSincronizar() {
+        switch (politica) {
+            case SIEMPRE:
+                return true;
+            case POR_LOTES:
+                return registrosSinSincronizar >= loteSincronizacion;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean esRegistroValido(String[] campos) {
+        if (campos.length == 0) {
+            return false;
+        }
+        switch (campos[0]) {
+            case ALTA:
+                return campos.length >= 5;
+            case BAJA:
+                return campos.length >= 2;
+            case ESTADO:
+                return campos.length >= 3;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package utilidades;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Escritor de logs de texto en segundo plano.
+ * <p>
+ * Quien registra una línea solo la deja en una cola acotada; un único hilo escritor la vacía y escribe
+ * las líneas por lotes sobre un archivo que mantiene abierto (group commit): todas las líneas que llegan
+ * dentro del intervalo de vaciado se escriben y se entregan al sistema operativo con un solo {@code flush}.
+ * Así, el tiempo de quien registra no depende de la latencia del disco.
+ * <p>
+ * Si la cola se llena, quien registra espera a que haya espacio (contrapresión) en lugar de descartar líneas;
+ * cada espera se cuenta en {@link #getEsperasPorColaLlena()}. El hilo escritor se crea con la primera línea,
+ * de modo que un escritor sin uso no consume un hilo.
+ */
+public class EscritorLogAsincrono extends EscritorLotesAsincrono<String> {
+    private final String rutaArchivo;
+    private BufferedWriter writer; // Solo lo usa el hilo escritor
+
+    /**
+     * Constructor de EscritorLogAsincrono.
+     *
+     * @param rutaArchivo La ruta del archivo de log; las líneas se anexan al final.
+     * @param capacidadCola El número máximo de líneas pendientes antes de aplicar contrapresión.
+     * @param intervaloVaciadoMillis Tiempo máximo, en milisegundos, que el escritor espera a reunir más líneas
+     *                               antes de escribir un lote; con 0 escribe apenas hay líneas.
+     */
+    public EscritorLogAsincrono(String rutaArchivo, int capacidadCola, long intervaloVaciadoMillis) {
+        super(rutaArchivo, capacidadCola, intervaloVaciadoMillis);
+        this.rutaArchivo = rutaArchivo;
+    }
+
+    /**
+     * Obtiene el número de líneas procesadas por el hilo escritor.
+     *
+     * @return El número de líneas escritas o perdidas por errores de escritura.
+     */
+    public long getLineasProcesadas() {
+        return getRegistrosProcesados();
+    }
+
+    @Override
+    protected void escribirLote(List<String> lote) throws IOException {
+        if (writer == null) {
+            writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(rutaArchivo),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        }
+        for (String linea : lote) {
+            writer.write(linea);
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    @Override
+    protected void liberarDestino() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                avisar("Error al cerrar el log " + rutaArchivo + ": " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+}
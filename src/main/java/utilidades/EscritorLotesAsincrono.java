@@ -0,0 +1,318 @@
+package utilidades;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Escritor en segundo plano que agrupa registros en lotes (group commit).
+ * <p>
+ * Quien registra un elemento solo lo deja en una cola acotada; un único hilo escritor la vacía y entrega a
+ * {@link #escribirLote} todos los elementos que llegan dentro del intervalo de vaciado, de modo que el costo de
+ * cada escritura (un {@code flush}, un commit) se reparte entre todo el lote y el tiempo de quien registra no
+ * depende de la latencia del destino.
+ * <p>
+ * Si la cola se llena, quien registra espera a que haya espacio (contrapresión) en lugar de descartar elementos;
+ * cada espera se cuenta en {@link #getEsperasPorColaLlena()}. El hilo escritor se crea con el primer elemento,
+ * de modo que un escritor sin uso no consume un hilo. Los errores de escritura se informan con
+ * {@link #setAvisos(Consumer)}; por defecto, en la salida estándar.
+ * <p>
+ * Cada registro verifica que el escritor siga abierto y encola su elemento con el bloqueo de lectura de
+ * {@code bloqueoCierre}; {@link #close()} marca el cierre con el de escritura, así que espera a los registros en
+ * curso y ningún elemento se encola después: todo elemento aceptado se escribe (o se informa como perdido).
+ *
+ * @param <T> El tipo de los elementos que se escriben.
+ */
+public abstract class EscritorLotesAsincrono<T> implements Closeable {
+    // Marca que vaciar() encola para que el escritor escriba el lote en curso sin esperar el intervalo; se compara por identidad
+    private static final Object MARCA_VACIADO = new Object();
+
+    private final String destino;
+    private final BlockingQueue<Object> cola;
+    private final long intervaloVaciadoNanos;
+    private final int maxLote;
+
+    private final AtomicLong registrosEncolados = new AtomicLong();
+    private final AtomicLong registrosProcesados = new AtomicLong(); // Escritos o perdidos por un error de escritura
+    private final AtomicLong lotesEscritos = new AtomicLong();
+    private final AtomicLong esperasPorColaLlena = new AtomicLong();
+    private final AtomicLong erroresEscritura = new AtomicLong();
+
+    private volatile Consumer<String> avisos = System.out::println;
+    private Thread hilo;
+    private volatile boolean cerrado;
+    // Lectura: registrar verifica el cierre y encola; escritura: close marca el cierre
+    private final ReentrantReadWriteLock bloqueoCierre = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor de EscritorLotesAsincrono.
+     *
+     * @param destino El nombre del destino (e.g., la ruta del archivo), para los mensajes y el nombre del hilo.
+     * @param capacidadCola El número máximo de elementos pendientes antes de aplicar contrapresión; también es
+     *                      el tamaño máximo de un lote.
+     * @param intervaloVaciadoMillis Tiempo máximo, en milisegundos, que el escritor espera a reunir más elementos
+     *                               antes de escribir un lote; con 0 escribe apenas hay elementos.
+     */
+    protected EscritorLotesAsincrono(String destino, int capacidadCola, long intervaloVaciadoMillis) {
+        this.destino = destino;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.intervaloVaciadoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervaloVaciadoMillis));
+        this.maxLote = capacidadCola;
+    }
+
+    /**
+     * Escribe un lote de elementos en el destino. Solo lo llama el hilo escritor.
+     * Si lanza una excepción, los elementos del lote se dan por perdidos y se llama a {@link #liberarDestino()}.
+     *
+     * @param lote Los elementos, en el orden en que se registraron. Nunca está vacío.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    protected abstract void escribirLote(List<T> lote) throws IOException;
+
+    /**
+     * Libera los recursos del destino (archivo abierto, conexión) después de un error de escritura y al detener
+     * el hilo escritor. Solo lo llama el hilo escritor; el siguiente lote debe volver a abrirlos si los necesita.
+     */
+    protected void liberarDestino() {
+    }
+
+    /**
+     * Establece a quién se informan los errores de escritura y de cierre del destino. Se llama desde el hilo escritor.
+     *
+     * @param avisos El receptor de los mensajes de error.
+     */
+    public void setAvisos(Consumer<String> avisos) {
+        this.avisos = avisos;
+    }
+
+    /**
+     * Informa un error del destino a quien se indicó en {@link #setAvisos(Consumer)}.
+     *
+     * @param mensaje El mensaje de error.
+     */
+    protected void avisar(String mensaje) {
+        avisos.accept(mensaje);
+    }
+
+    /**
+     * Encola un elemento para escribirlo. Si la cola está llena, espera a que haya espacio.
+     *
+     * @param elemento El elemento a escribir.
+     * @throws IllegalStateException Si el escritor ya se cerró, o si el hilo se interrumpe mientras espera.
+     */
+    public void registrar(T elemento) {
+        bloqueoCierre.readLock().lock();
+        try {
+            if (cerrado) {
+                throw new IllegalStateException("El escritor de " + destino + " ya está cerrado.");
+            }
+            iniciarHilo();
+            registrosEncolados.incrementAndGet();
+            if (cola.offer(elemento)) {
+                return;
+            }
+            esperasPorColaLlena.incrementAndGet();
+            try {
+                cola.put(elemento);
+            } catch (InterruptedException e) {
+                registrosEncolados.decrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido mientras se esperaba espacio en la cola de " + destino + ".", e);
+            }
+        } finally {
+            bloqueoCierre.readLock().unlock();
+        }
+    }
+
+    /**
+     * Espera a que todos los elementos registrados hasta ahora se hayan escrito,
+     * sin esperar a que termine el intervalo de vaciado.
+     */
+    public void vaciar() {
+        long objetivo = registrosEncolados.get();
+        if (registrosProcesados.get() >= objetivo) {
+            return;
+        }
+        try {
+            cola.put(MARCA_VACIADO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        synchronized (this) {
+            while (registrosProcesados.get() < objetivo && hilo != null && hilo.isAlive()) {
+                try {
+                    wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a los registros en curso, escribe los elementos pendientes, detiene el hilo escritor y libera el destino.
+     * Todo elemento que {@link #registrar} aceptó se escribe; después de cerrar, {@link #registrar} lanza
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        Thread escritor;
+        // Espera a los registros en curso; después de marcar el cierre no se encola nada más
+        bloqueoCierre.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (cerrado) {
+                    return;
+                }
+                cerrado = true;
+                escritor = hilo;
+            }
+        } finally {
+            bloqueoCierre.writeLock().unlock();
+        }
+        if (escritor == null) {
+            return;
+        }
+        vaciar();
+        escritor.interrupt();
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtiene el número de lotes escritos.
+     *
+     * @return El número de lotes escritos.
+     */
+    public long getLotesEscritos() {
+        return lotesEscritos.get();
+    }
+
+    /**
+     * Obtiene el número de elementos procesados por el hilo escritor.
+     *
+     * @return El número de elementos escritos o perdidos por errores de escritura.
+     */
+    public long getRegistrosProcesados() {
+        return registrosProcesados.get();
+    }
+
+    /**
+     * Obtiene el número de elementos registrados que el hilo escritor aún no ha procesado.
+     *
+     * @return El número de elementos pendientes.
+     */
+    public long getRegistrosPendientes() {
+        return Math.max(0, registrosEncolados.get() - registrosProcesados.get());
+    }
+
+    /**
+     * Obtiene cuántas veces alguien tuvo que esperar para registrar un elemento porque la cola estaba llena.
+     *
+     * @return El número de esperas por cola llena.
+     */
+    public long getEsperasPorColaLlena() {
+        return esperasPorColaLlena.get();
+    }
+
+    /**
+     * Obtiene el número de lotes que no se pudieron escribir por un error.
+     *
+     * @return El número de errores de escritura.
+     */
+    public long getErroresEscritura() {
+        return erroresEscritura.get();
+    }
+
+    private synchronized void iniciarHilo() {
+        if (hilo == null) {
+            hilo = new Thread(this::ejecutar, "escritor-" + destino.substring(Math.max(destino.lastIndexOf('/'), destino.lastIndexOf('\\')) + 1));
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    private void ejecutar() {
+        List<Object> lote = new ArrayList<>();
+        try {
+            while (true) {
+                if (cerrado && cola.isEmpty()) {
+                    return;
+                }
+                Object primero;
+                try {
+                    primero = cola.take();
+                } catch (InterruptedException e) {
+                    if (cerrado && cola.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                lote.add(primero);
+                reunirLote(lote);
+                procesarLote(lote);
+                lote.clear();
+            }
+        } finally {
+            liberarDestino();
+        }
+    }
+
+    /**
+     * Agrega al lote los elementos que llegan dentro del intervalo de vaciado, hasta el tamaño máximo.
+     */
+    private void reunirLote(List<Object> lote) {
+        long limite = System.nanoTime() + intervaloVaciadoNanos;
+        while (true) {
+            cola.drainTo(lote, maxLote - lote.size());
+            boolean vaciadoPedido = lote.removeIf(elemento -> elemento == MARCA_VACIADO);
+            long restante = limite - System.nanoTime();
+            if (vaciadoPedido || lote.size() >= maxLote || restante <= 0 || cerrado) {
+                return;
+            }
+            try {
+                Object siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                if (siguiente == null) {
+                    return;
+                }
+                lote.add(siguiente);
+            } catch (InterruptedException e) {
+                return; // Cierre en curso: se escribe lo reunido
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void procesarLote(List<Object> lote) {
+        if (lote.isEmpty()) {
+            synchronized (this) {
+                notifyAll();
+            }
+            return;
+        }
+        try {
+            escribirLote((List<T>) (List<?>) lote);
+            lotesEscritos.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            erroresEscritura.incrementAndGet();
+            avisar("Error al escribir en " + destino + ": " + e.getMessage() + ". Se perdieron " + lote.size() + " registros.");
+            liberarDestino(); // Se vuelve a abrir con el siguiente lote
+        }
+        registrosProcesados.addAndGet(lote.size());
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+}
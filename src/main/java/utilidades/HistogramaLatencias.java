@@ -0,0 +1,135 @@
+package utilidades;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas log-lineales, al estilo de HdrHistogram: cada potencia de dos
+ * se divide en 32 cubetas iguales, así que los percentiles tienen un error relativo menor que 1/32 (~3%) en todo el
+ * rango, desde 1 ns hasta {@code Long.MAX_VALUE}, con un arreglo fijo de 1888 contadores.
+ * <p>
+ * Registrar un valor no reserva memoria ni toma bloqueos: calcula la cubeta con unas pocas operaciones de bits e
+ * incrementa su contador atómico. Es seguro para uso concurrente; las lecturas (percentiles, conteo, suma) no
+ * detienen los registros, por lo que pueden no incluir los que ocurran mientras se calculan.
+ */
+public final class HistogramaLatencias {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos La latencia, en nanosegundos; los valores negativos se registran como 0.
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        cuentas.getAndIncrement(indice(valor));
+        suma.add(valor);
+        long actual;
+        while (valor > (actual = maximo.get()) && !maximo.compareAndSet(actual, valor)) {
+            // Otro hilo subió el máximo; se reintenta solo si sigue siendo menor
+        }
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde el instante indicado.
+     *
+     * @param inicioNanos El instante de inicio, obtenido con {@link System#nanoTime()}.
+     */
+    public void registrarDesde(long inicioNanos) {
+        registrar(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Obtiene el número de latencias registradas.
+     *
+     * @return El número de registros.
+     */
+    public long getConteo() {
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            total += cuentas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene la suma de las latencias registradas.
+     *
+     * @return La suma, en nanosegundos.
+     */
+    public long getSumaNanos() {
+        return suma.sum();
+    }
+
+    /**
+     * Obtiene la mayor latencia registrada.
+     *
+     * @return El máximo, en nanosegundos; 0 si no hay registros.
+     */
+    public long getMaximoNanos() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene el percentil indicado de las latencias registradas: el mayor valor de la cubeta que lo contiene,
+     * sin pasar del máximo registrado.
+     *
+     * @param percentil El percentil, entre 0 y 100 (e.g., 99.9).
+     * @return La latencia del percentil, en nanosegundos; 0 si no hay registros.
+     * @throws IllegalArgumentException Si el percentil no está entre 0 y 100.
+     */
+    public long getPercentilNanos(double percentil) {
+        if (!(percentil >= 0 && percentil <= 100)) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100.");
+        }
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100 * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(valorMaximo(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene la cubeta de un valor: los valores menores que 64 tienen una cubeta cada uno; desde ahí, cada
+     * potencia de dos {@code [2^e, 2^(e+1))} se reparte en 32 cubetas de ancho {@code 2^(e-5)}.
+     */
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA; // >= 0
+        return desplazamiento * SUBCUBETAS + (int) (valor >>> desplazamiento);
+    }
+
+    /**
+     * Obtiene el mayor valor que cae en una cubeta.
+     */
+    private static long valorMaximo(int indice) {
+        if (indice < 2 * SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long inferior = (long) (indice % SUBCUBETAS + SUBCUBETAS) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+}
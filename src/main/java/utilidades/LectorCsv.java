@@ -0,0 +1,204 @@
+package utilidades;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Lector de CSV en streaming, fila por fila, compatible con las reglas de comillas de RFC 4180.
+ * <ul>
+ *     <li>Los campos pueden ir entre comillas dobles; dentro de ellos, las comas y los saltos de línea son literales.</li>
+ *     <li>Una comilla doble dentro de un campo entrecomillado se escribe duplicada ({@code ""}).</li>
+ *     <li>Las filas terminan en {@code \n} o {@code \r\n}.</li>
+ * </ul>
+ * El lector trabaja sobre un buffer de caracteres propio y reutiliza el almacenamiento de los campos entre filas:
+ * avanzar de fila no crea objetos, y los {@code String} de cada campo solo se construyen cuando se piden
+ * con {@link #getCampo(int)} o {@link #getCampos()}.
+ */
+public class LectorCsv implements Closeable {
+    private static final int TAMANO_BUFFER = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[TAMANO_BUFFER];
+    private int posicion;
+    private int limite;
+    private int pendiente = -1; // carácter devuelto al flujo para mirar por adelantado
+
+    // Caracteres de todos los campos de la fila actual, contiguos, y los límites de cada campo.
+    private char[] datos = new char[256];
+    private int longitudDatos;
+    private int[] inicios = new int[8];
+    private int[] fines = new int[8];
+    private int numeroCampos;
+    private boolean primerCampoEntrecomillado;
+
+    /**
+     * Constructor de LectorCsv.
+     *
+     * @param reader La fuente de caracteres. No necesita estar envuelta en un {@code BufferedReader}.
+     */
+    public LectorCsv(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Avanza a la siguiente fila del CSV.
+     *
+     * @return true si se leyó una fila, false si se llegó al final del flujo.
+     * @throws IOException Si ocurre un error al leer.
+     */
+    public boolean siguienteFila() throws IOException {
+        longitudDatos = 0;
+        numeroCampos = 0;
+        int c = leer();
+        if (c == -1) {
+            return false;
+        }
+        iniciarCampo();
+        boolean entreComillas = false;
+        while (c != -1) {
+            if (entreComillas) {
+                if (c == '"') {
+                    int siguiente = leer();
+                    if (siguiente == '"') {
+                        agregar('"'); // Comilla escapada
+                    } else {
+                        entreComillas = false;
+                        devolver(siguiente);
+                    }
+                } else {
+                    agregar((char) c);
+                }
+            } else if (c == ',') {
+                terminarCampo();
+                iniciarCampo();
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                int siguiente = leer();
+                if (siguiente != '\n') {
+                    devolver(siguiente);
+                }
+                break;
+            } else if (c == '"' && longitudDatos == inicios[numeroCampos]) {
+                entreComillas = true; // Comilla al inicio del campo
+                if (numeroCampos == 0) {
+                    primerCampoEntrecomillado = true;
+                }
+            } else {
+                agregar((char) c);
+            }
+            c = leer();
+        }
+        terminarCampo();
+        return true;
+    }
+
+    /**
+     * Obtiene el número de campos de la fila actual.
+     *
+     * @return El número de campos.
+     */
+    public int getNumeroCampos() {
+        return numeroCampos;
+    }
+
+    /**
+     * Obtiene el valor de un campo de la fila actual, sin las comillas que lo delimitan.
+     *
+     * @param indice El índice del campo, desde 0.
+     * @return El valor del campo.
+     * @throws IndexOutOfBoundsException Si el índice no corresponde a un campo de la fila.
+     */
+    public String getCampo(int indice) {
+        if (indice < 0 || indice >= numeroCampos) {
+            throw new IndexOutOfBoundsException("La fila tiene " + numeroCampos + " campos; índice solicitado: " + indice);
+        }
+        return new String(datos, inicios[indice], fines[indice] - inicios[indice]);
+    }
+
+    /**
+     * Obtiene todos los campos de la fila actual como un array nuevo.
+     *
+     * @return Los valores de los campos.
+     */
+    public String[] getCampos() {
+        String[] campos = new String[numeroCampos];
+        for (int i = 0; i < numeroCampos; i++) {
+            campos[i] = getCampo(i);
+        }
+        return campos;
+    }
+
+    /**
+     * Indica si la fila actual está vacía o solo contiene espacios en blanco.
+     *
+     * @return true si la fila es una línea en blanco.
+     */
+    public boolean esFilaVacia() {
+        if (numeroCampos != 1 || primerCampoEntrecomillado) {
+            return false;
+        }
+        for (int i = inicios[0]; i < fines[0]; i++) {
+            if (!Character.isWhitespace(datos[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cierra la fuente de caracteres subyacente.
+     *
+     * @throws IOException Si ocurre un error al cerrar.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int leer() throws IOException {
+        if (pendiente != -1) {
+            int c = pendiente;
+            pendiente = -1;
+            return c;
+        }
+        if (posicion == limite) {
+            limite = reader.read(buffer, 0, buffer.length);
+            posicion = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return buffer[posicion++];
+    }
+
+    private void devolver(int c) {
+        pendiente = c;
+    }
+
+    private void agregar(char c) {
+        if (longitudDatos == datos.length) {
+            datos = Arrays.copyOf(datos, datos.length * 2);
+        }
+        datos[longitudDatos++] = c;
+    }
+
+    private void iniciarCampo() {
+        if (numeroCampos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, inicios.length * 2);
+            fines = Arrays.copyOf(fines, fines.length * 2);
+        }
+        inicios[numeroCampos] = longitudDatos;
+        if (numeroCampos == 0) {
+            primerCampoEntrecomillado = false;
+        }
+    }
+
+    private void terminarCampo() {
+        fines[numeroCampos] = longitudDatos;
+        numeroCampos++;
+    }
+}
@@ -0,0 +1,29 @@
+package utilidades;
+
+/**
+ * Forma en que ComicSistema guarda el inventario de cómics.
+ * Permite elegir entre menor consumo de memoria o consultas por autor y estado más rápidas.
+ */
+public enum ModoAlmacenamiento {
+    /**
+     * Cada cómic es un objeto {@code Comic} con sus propias cadenas, indexado en mapas por ID, autor y estado.
+     * Las consultas por autor o estado recorren solo los cómics que las cumplen.
+     */
+    OBJETOS,
+    /**
+     * El inventario se guarda por columnas: los IDs y títulos como bytes UTF-8 en un solo arreglo con una tabla
+     * de desplazamientos, y los autores y estados codificados con un diccionario. Los objetos {@code Comic}
+     * son vistas sobre esas columnas que se crean al consultarlos. Usa varias veces menos memoria por cómic,
+     * a cambio de que las consultas solo por estado recorran la columna de estados completa.
+     */
+    COMPACTO,
+    /**
+     * El inventario se guarda fuera del heap, en archivos de filas de tamaño fijo junto al CSV que se acceden
+     * mapeados en memoria, con una tabla hash en disco para los IDs. El tamaño del inventario queda limitado por
+     * el disco y no por el heap, los cambios de estado se escriben en su lugar, y si el sistema se cerró
+     * correctamente el inventario se conserva al iniciar sin volver a leer el CSV. Las consultas por autor o por
+     * estado recorren el archivo, y el índice de texto se construye con la primera búsqueda por texto.
+     * Las búsquedas por ID pasan por una caché acotada que conserva en memoria los cómics más consultados.
+     */
+    MAPEADO
+}
@@ -0,0 +1,131 @@
+package utilidades;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta.
+ * Contiene los elementos de la página pedida y el total de elementos que cumplen la consulta.
+ *
+ * @param <T> El tipo de los elementos.
+ */
+public class Pagina<T> {
+    private final List<T> elementos;
+    private final int numeroPagina;
+    private final int tamanoPagina;
+    private final long totalElementos;
+
+    /**
+     * Constructor de Pagina.
+     *
+     * @param elementos Los elementos de la página.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de elementos por página.
+     * @param totalElementos El número total de elementos que cumplen la consulta.
+     */
+    public Pagina(List<T> elementos, int numeroPagina, int tamanoPagina, long totalElementos) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.numeroPagina = numeroPagina;
+        this.tamanoPagina = tamanoPagina;
+        this.totalElementos = totalElementos;
+    }
+
+    /**
+     * Construye una página a partir de varias colecciones recorridas una tras otra, como si fueran una sola.
+     * Las colecciones que quedan completas antes del inicio de la página se saltan usando su tamaño,
+     * sin recorrerlas, por lo que el costo es proporcional al tamaño de la página (más el desplazamiento
+     * dentro de la primera colección que aporta elementos), no al total.
+     *
+     * @param colecciones Las colecciones, en el orden en que se deben recorrer.
+     * @param numeroPagina El número de la página, desde 1.
+     * @param tamanoPagina El número máximo de elementos por página.
+     * @param <T> El tipo de los elementos.
+     * @return La página pedida; vacía si el número de página supera el total.
+     * @throws IllegalArgumentException Si el número o el tamaño de página son menores que 1.
+     */
+    public static <T> Pagina<T> desde(List<? extends Collection<? extends T>> colecciones, int numeroPagina, int tamanoPagina) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser mayores que 0.");
+        }
+        long total = 0;
+        for (Collection<? extends T> coleccion : colecciones) {
+            total += coleccion.size();
+        }
+        long saltar = (long) (numeroPagina - 1) * tamanoPagina;
+        List<T> elementos = new ArrayList<>(saltar >= total ? 0 : (int) Math.min(tamanoPagina, total - saltar));
+        for (Collection<? extends T> coleccion : colecciones) {
+            if (elementos.size() == tamanoPagina) {
+                break;
+            }
+            if (saltar >= coleccion.size()) {
+                saltar -= coleccion.size();
+                continue;
+            }
+            Iterator<? extends T> it = coleccion.iterator();
+            for (; saltar > 0; saltar--) {
+                it.next();
+            }
+            while (it.hasNext() && elementos.size() < tamanoPagina) {
+                elementos.add(it.next());
+            }
+        }
+        return new Pagina<>(elementos, numeroPagina, tamanoPagina, total);
+    }
+
+    /**
+     * Obtiene los elementos de la página.
+     *
+     * @return Una lista no modificable con los elementos.
+     */
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Obtiene el número de la página.
+     *
+     * @return El número de la página, desde 1.
+     */
+    public int getNumeroPagina() {
+        return numeroPagina;
+    }
+
+    /**
+     * Obtiene el número máximo de elementos por página.
+     *
+     * @return El tamaño de página.
+     */
+    public int getTamanoPagina() {
+        return tamanoPagina;
+    }
+
+    /**
+     * Obtiene el número total de elementos que cumplen la consulta, en todas las páginas.
+     *
+     * @return El total de elementos.
+     */
+    public long getTotalElementos() {
+        return totalElementos;
+    }
+
+    /**
+     * Obtiene el número total de páginas de la consulta.
+     *
+     * @return El total de páginas.
+     */
+    public long getTotalPaginas() {
+        return (totalElementos + tamanoPagina - 1) / tamanoPagina;
+    }
+
+    /**
+     * Indica si hay una página siguiente a esta.
+     *
+     * @return true si quedan elementos después de esta página.
+     */
+    public boolean haySiguiente() {
+        return (long) numeroPagina * tamanoPagina < totalElementos;
+    }
+}
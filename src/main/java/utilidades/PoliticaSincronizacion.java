@@ -0,0 +1,23 @@
+package utilidades;
+
+/**
+ * Política de sincronización con el disco (fsync) para las escrituras de datos del sistema.
+ * Permite elegir entre mayor durabilidad o mayor rendimiento.
+ */
+public enum PoliticaSincronizacion {
+    /**
+     * Sincroniza con el disco cada escritura antes de darla por terminada. Máxima durabilidad.
+     */
+    SIEMPRE,
+    /**
+     * Sincroniza con el disco por lotes: las instantáneas se sincronizan siempre, pero los registros
+     * del diario solo cada cierto número de escrituras. Ante un corte de energía pueden perderse
+     * los últimos registros del lote en curso, aunque nunca la instantánea.
+     */
+    POR_LOTES,
+    /**
+     * Nunca fuerza la sincronización; el sistema operativo decide cuándo escribir en el disco.
+     * Los datos sobreviven a la caída del proceso, pero no necesariamente a un corte de energía.
+     */
+    NUNCA
+}
@@ -0,0 +1,301 @@
+package utilidades;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanRegistrationException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de métricas con nombre: contadores, medidores e histogramas de latencia (ver {@link HistogramaLatencias}).
+ * <p>
+ * Las métricas se crean una vez, al iniciar, y quien las registra guarda la referencia para actualizarlas sin pasar
+ * por el registro. Los medidores no guardan un valor: se leen de su función cada vez que se exportan.
+ * El registro se exporta en el formato de texto de Prometheus ({@link #formatoPrometheus()}, a un archivo con
+ * {@link #volcarPrometheus}) y como un MBean de JMX cuyos atributos son las mismas métricas ({@link #registrarJmx}).
+ * Los histogramas se exportan como resúmenes de Prometheus en segundos, con los percentiles 50, 90, 99 y 99,9.
+ */
+public final class RegistroMetricas {
+    private static final Pattern NOMBRE_VALIDO = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final double[] CUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] SUFIJOS_CUANTILES = {"p50", "p90", "p99", "p999"};
+
+    private enum Tipo { CONTADOR, MEDIDOR, HISTOGRAMA }
+
+    private static final class Metrica {
+        final String nombre;
+        final String ayuda;
+        final Tipo tipo;
+        final Object fuente; // LongAdder, DoubleSupplier o HistogramaLatencias, según el tipo
+
+        Metrica(String nombre, String ayuda, Tipo tipo, Object fuente) {
+            this.nombre = nombre;
+            this.ayuda = ayuda;
+            this.tipo = tipo;
+            this.fuente = fuente;
+        }
+    }
+
+    private final Map<String, Metrica> metricas = new LinkedHashMap<>();
+
+    /**
+     * Crea un contador: un total que solo crece (e.g., ventas registradas).
+     *
+     * @param nombre El nombre de la métrica, con la sintaxis de Prometheus; por convención termina en {@code _total}.
+     * @param ayuda La descripción de la métrica.
+     * @return El contador, para incrementarlo.
+     * @throws IllegalArgumentException Si el nombre no es válido o ya existe.
+     */
+    public LongAdder contador(String nombre, String ayuda) {
+        LongAdder contador = new LongAdder();
+        agregar(new Metrica(nombre, ayuda, Tipo.CONTADOR, contador));
+        return contador;
+    }
+
+    /**
+     * Crea un medidor: un valor que sube y baja (e.g., el tamaño de una cola), leído de una función al exportar.
+     *
+     * @param nombre El nombre de la métrica, con la sintaxis de Prometheus.
+     * @param ayuda La descripción de la métrica.
+     * @param valor La función que entrega el valor actual; debe ser segura para llamarse desde cualquier hilo.
+     * @throws IllegalArgumentException Si el nombre no es válido o ya existe.
+     */
+    public void medidor(String nombre, String ayuda, DoubleSupplier valor) {
+        agregar(new Metrica(nombre, ayuda, Tipo.MEDIDOR, valor));
+    }
+
+    /**
+     * Crea un histograma de latencias.
+     *
+     * @param nombre El nombre de la métrica, con la sintaxis de Prometheus; por convención termina en {@code _segundos}.
+     * @param ayuda La descripción de la métrica.
+     * @return El histograma, para registrar latencias en nanosegundos.
+     * @throws IllegalArgumentException Si el nombre no es válido o ya existe.
+     */
+    public HistogramaLatencias histograma(String nombre, String ayuda) {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        agregar(new Metrica(nombre, ayuda, Tipo.HISTOGRAMA, histograma));
+        return histograma;
+    }
+
+    private synchronized void agregar(Metrica metrica) {
+        if (!NOMBRE_VALIDO.matcher(metrica.nombre).matches()) {
+            throw new IllegalArgumentException("Nombre de métrica no válido: '" + metrica.nombre + "'.");
+        }
+        if (metricas.putIfAbsent(metrica.nombre, metrica) != null) {
+            throw new IllegalArgumentException("La métrica '" + metrica.nombre + "' ya existe.");
+        }
+    }
+
+    private synchronized List<Metrica> copiarMetricas() {
+        return new ArrayList<>(metricas.values());
+    }
+
+    /**
+     * Obtiene el valor actual de todas las métricas, con un nombre por valor: los contadores y medidores con su nombre,
+     * y cada histograma como {@code nombre_count}, {@code nombre_sum}, {@code nombre_max} y {@code nombre_p50} a
+     * {@code nombre_p999}, en segundos. Son los atributos del MBean de JMX.
+     *
+     * @return Los valores, en el orden en que se crearon las métricas.
+     */
+    public Map<String, Number> valores() {
+        Map<String, Number> valores = new LinkedHashMap<>();
+        for (Metrica metrica : copiarMetricas()) {
+            switch (metrica.tipo) {
+                case CONTADOR:
+                    valores.put(metrica.nombre, ((LongAdder) metrica.fuente).sum());
+                    break;
+                case MEDIDOR:
+                    valores.put(metrica.nombre, ((DoubleSupplier) metrica.fuente).getAsDouble());
+                    break;
+                default:
+                    HistogramaLatencias histograma = (HistogramaLatencias) metrica.fuente;
+                    valores.put(metrica.nombre + "_count", histograma.getConteo());
+                    valores.put(metrica.nombre + "_sum", segundos(histograma.getSumaNanos()));
+                    valores.put(metrica.nombre + "_max", segundos(histograma.getMaximoNanos()));
+                    for (int i = 0; i < CUANTILES.length; i++) {
+                        valores.put(metrica.nombre + "_" + SUFIJOS_CUANTILES[i], segundos(histograma.getPercentilNanos(CUANTILES[i] * 100)));
+                    }
+                    break;
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Obtiene las métricas en el formato de texto de exposición de Prometheus (versión 0.0.4).
+     *
+     * @return El texto, con una línea por muestra.
+     */
+    public String formatoPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Metrica metrica : copiarMetricas()) {
+            sb.append("# HELP ").append(metrica.nombre).append(' ').append(escaparAyuda(metrica.ayuda)).append('\n');
+            switch (metrica.tipo) {
+                case CONTADOR:
+                    sb.append("# TYPE ").append(metrica.nombre).append(" counter\n");
+                    muestra(sb, metrica.nombre, ((LongAdder) metrica.fuente).sum());
+                    break;
+                case MEDIDOR:
+                    sb.append("# TYPE ").append(metrica.nombre).append(" gauge\n");
+                    muestra(sb, metrica.nombre, ((DoubleSupplier) metrica.fuente).getAsDouble());
+                    break;
+                default:
+                    HistogramaLatencias histograma = (HistogramaLatencias) metrica.fuente;
+                    sb.append("# TYPE ").append(metrica.nombre).append(" summary\n");
+                    for (double cuantil : CUANTILES) {
+                        muestra(sb, metrica.nombre + "{quantile=\"" + cuantil + "\"}", segundos(histograma.getPercentilNanos(cuantil * 100)));
+                    }
+                    muestra(sb, metrica.nombre + "_sum", segundos(histograma.getSumaNanos()));
+                    muestra(sb, metrica.nombre + "_count", histograma.getConteo());
+                    sb.append("# TYPE ").append(metrica.nombre).append("_max gauge\n");
+                    muestra(sb, metrica.nombre + "_max", segundos(histograma.getMaximoNanos()));
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe las métricas en el formato de texto de Prometheus en un archivo, de forma atómica (e.g., para el
+     * recolector de archivos de texto de node_exporter, que no debe leer un archivo a medio escribir).
+     *
+     * @param destino La ruta del archivo.
+     * @return El número de bytes escritos y el tiempo que tomó la escritura.
+     * @throws IOException Si ocurre un error al escribir; en ese caso el archivo anterior no se modifica.
+     */
+    public ResultadoEscritura volcarPrometheus(Path destino) throws IOException {
+        long inicio = System.nanoTime();
+        byte[] texto = formatoPrometheus().getBytes(StandardCharsets.UTF_8);
+        Path absoluto = destino.toAbsolutePath();
+        Path temporal = absoluto.resolveSibling(absoluto.getFileName() + ".tmp");
+        try {
+            Files.write(temporal, texto);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        try {
+            Files.move(temporal, absoluto, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, absoluto, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new ResultadoEscritura(texto.length, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Registra las métricas como un MBean en el servidor de MBeans de la plataforma, con un atributo de solo
+     * lectura por cada valor de {@link #valores()}.
+     *
+     * @param nombre El nombre del MBean (e.g., {@code comicgestion:type=ComicSistema,name=1}).
+     * @throws JMException Si el nombre no es válido o ya está registrado.
+     */
+    public void registrarJmx(ObjectName nombre) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MBeanMetricas(), nombre);
+    }
+
+    /**
+     * Retira del servidor de MBeans de la plataforma un MBean registrado con {@link #registrarJmx}.
+     * No hace nada si no estaba registrado.
+     *
+     * @param nombre El nombre del MBean.
+     * @throws MBeanRegistrationException Si el MBean falla al retirarse.
+     */
+    public static void retirarJmx(ObjectName nombre) throws MBeanRegistrationException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nombre);
+        } catch (InstanceNotFoundException e) {
+            // Ya no estaba registrado
+        }
+    }
+
+    private static double segundos(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static void muestra(StringBuilder sb, String nombre, double valor) {
+        sb.append(nombre).append(' ');
+        if (valor == Math.rint(valor) && !Double.isInfinite(valor) && Math.abs(valor) < 1e15) {
+            sb.append((long) valor);
+        } else {
+            sb.append(valor);
+        }
+        sb.append('\n');
+    }
+
+    private static String escaparAyuda(String ayuda) {
+        return ayuda.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /**
+     * MBean dinámico cuyos atributos son los valores actuales de las métricas del registro.
+     */
+    private final class MBeanMetricas implements DynamicMBean {
+        @Override
+        public Object getAttribute(String atributo) throws AttributeNotFoundException {
+            Number valor = valores().get(atributo);
+            if (valor == null) {
+                throw new AttributeNotFoundException("No existe la métrica '" + atributo + "'.");
+            }
+            return valor;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] atributos) {
+            Map<String, Number> valores = valores();
+            AttributeList lista = new AttributeList();
+            for (String atributo : atributos) {
+                if (valores.containsKey(atributo)) {
+                    lista.add(new Attribute(atributo, valores.get(atributo)));
+                }
+            }
+            return lista;
+        }
+
+        @Override
+        public void setAttribute(Attribute atributo) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Las métricas son de solo lectura.");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList atributos) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String operacion, Object[] parametros, String[] firma) throws MBeanException {
+            throw new MBeanException(new UnsupportedOperationException("El MBean de métricas no tiene operaciones."));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> atributos = new ArrayList<>();
+            for (Map.Entry<String, Number> valor : valores().entrySet()) {
+                atributos.add(new MBeanAttributeInfo(valor.getKey(), valor.getValue().getClass().getName(),
+                        valor.getKey(), true, false, false));
+            }
+            return new MBeanInfo(RegistroMetricas.class.getName(), "Métricas de ComicGestion",
+                    atributos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
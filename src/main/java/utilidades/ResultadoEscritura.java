@@ -0,0 +1,49 @@
+package utilidades;
+
+/**
+ * Resultado de escribir una instantánea de datos a disco.
+ * Informa cuántos bytes se escribieron y cuánto tiempo tomó la operación.
+ */
+public class ResultadoEscritura {
+    private final long bytesEscritos;
+    private final long duracionNanos;
+
+    /**
+     * Constructor de ResultadoEscritura.
+     *
+     * @param bytesEscritos El número de bytes escritos en el archivo.
+     * @param duracionNanos El tiempo total de la escritura, en nanosegundos.
+     */
+    public ResultadoEscritura(long bytesEscritos, long duracionNanos) {
+        this.bytesEscritos = bytesEscritos;
+        this.duracionNanos = duracionNanos;
+    }
+
+    /**
+     * Obtiene el número de bytes escritos.
+     *
+     * @return Los bytes escritos en el archivo.
+     */
+    public long getBytesEscritos() {
+        return bytesEscritos;
+    }
+
+    /**
+     * Obtiene la duración de la escritura.
+     *
+     * @return La duración en nanosegundos.
+     */
+    public long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    /**
+     * Retorna una representación en cadena del resultado.
+     *
+     * @return Una cadena con los bytes escritos y la duración en milisegundos.
+     */
+    @Override
+    public String toString() {
+        return bytesEscritos + " bytes en " + String.format("%.3f", duracionNanos / 1_000_000.0) + " ms";
+    }
+}
@@ -0,0 +1,173 @@
+package utilidades;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rueda de temporización con ranuras (hashed timing wheel) para programar vencimientos de muchas claves
+ * con un solo hilo, sin una tarea ni un objeto de temporizador por clave.
+ * <p>
+ * El tiempo se divide en ticks de duración fija. Cada vencimiento se guarda en la ranura de su tick
+ * ({@code tick & (ranuras - 1)}), en una lista doblemente enlazada; un mapa de clave a nodo permite reprogramar
+ * y cancelar en tiempo constante. Al avanzar, solo se recorren las ranuras de los ticks transcurridos, así que
+ * el costo de cada tick es proporcional a los vencimientos de sus ranuras, no al número total de claves.
+ * Los vencimientos más lejanos que una vuelta completa de la rueda comparten ranura con otros más cercanos
+ * y se saltan hasta su vuelta; conviene que la rueda abarque el plazo habitual para que eso no ocurra.
+ * <p>
+ * Un vencimiento nunca se entrega antes de su hora; se entrega, a lo sumo, un tick después.
+ * Los métodos están sincronizados.
+ *
+ * @param <K> El tipo de las claves.
+ * @param <V> El tipo del valor asociado a cada clave (e.g., el titular de una reserva).
+ */
+public final class RuedaTemporizadora<K, V> {
+
+    private static final class Nodo<K, V> {
+        final K clave;
+        final V valor;
+        final long tick; // Tick absoluto en que vence
+        Nodo<K, V> anterior;
+        Nodo<K, V> siguiente;
+
+        Nodo(K clave, V valor, long tick) {
+            this.clave = clave;
+            this.valor = valor;
+            this.tick = tick;
+        }
+    }
+
+    private final long duracionTick;
+    private final Nodo<K, V>[] ranuras;
+    private final int mascara;
+    private final Map<K, Nodo<K, V>> nodos = new HashMap<>();
+    private long tickActual; // Último tick procesado
+
+    /**
+     * Constructor de RuedaTemporizadora.
+     *
+     * @param duracionTickMillis La duración de cada tick, en milisegundos.
+     * @param numeroRanuras El número de ranuras. Debe ser potencia de dos; la rueda abarca
+     *                      {@code numeroRanuras * duracionTickMillis} milisegundos por vuelta.
+     * @param ahoraMillis La hora actual, en milisegundos desde la época.
+     * @throws IllegalArgumentException Si la duración del tick no es positiva o el número de ranuras no es potencia de dos.
+     */
+    @SuppressWarnings("unchecked")
+    public RuedaTemporizadora(long duracionTickMillis, int numeroRanuras, long ahoraMillis) {
+        if (duracionTickMillis <= 0) {
+            throw new IllegalArgumentException("La duración del tick debe ser mayor que 0.");
+        }
+        if (numeroRanuras <= 0 || Integer.bitCount(numeroRanuras) != 1) {
+            throw new IllegalArgumentException("El número de ranuras debe ser una potencia de dos.");
+        }
+        this.duracionTick = duracionTickMillis;
+        this.ranuras = (Nodo<K, V>[]) new Nodo[numeroRanuras];
+        this.mascara = numeroRanuras - 1;
+        this.tickActual = Math.floorDiv(ahoraMillis, duracionTickMillis);
+    }
+
+    /**
+     * Programa el vencimiento de una clave. Si la clave ya estaba programada, su vencimiento anterior se reemplaza.
+     * Un vencimiento ya pasado se entrega en el siguiente tick.
+     *
+     * @param clave La clave.
+     * @param valor El valor asociado a la clave.
+     * @param vencimientoMillis La hora de vencimiento, en milisegundos desde la época.
+     */
+    public synchronized void programar(K clave, V valor, long vencimientoMillis) {
+        Nodo<K, V> anterior = nodos.remove(clave);
+        if (anterior != null) {
+            desenlazar(anterior);
+        }
+        // Se redondea hacia arriba para no vencer antes de la hora
+        long tick = Math.max(-Math.floorDiv(-vencimientoMillis, duracionTick), tickActual + 1);
+        Nodo<K, V> nodo = new Nodo<>(clave, valor, tick);
+        int ranura = (int) tick & mascara;
+        nodo.siguiente = ranuras[ranura];
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo;
+        }
+        ranuras[ranura] = nodo;
+        nodos.put(clave, nodo);
+    }
+
+    /**
+     * Cancela el vencimiento programado de una clave.
+     *
+     * @param clave La clave.
+     * @return El valor asociado a la clave, o null si no estaba programada.
+     */
+    public synchronized V cancelar(K clave) {
+        Nodo<K, V> nodo = nodos.remove(clave);
+        if (nodo == null) {
+            return null;
+        }
+        desenlazar(nodo);
+        return nodo.valor;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave programada.
+     *
+     * @param clave La clave.
+     * @return El valor, o null si la clave no está programada.
+     */
+    public synchronized V obtener(K clave) {
+        Nodo<K, V> nodo = nodos.get(clave);
+        return nodo == null ? null : nodo.valor;
+    }
+
+    /**
+     * Obtiene el número de claves programadas.
+     *
+     * @return El número de claves.
+     */
+    public synchronized int tamano() {
+        return nodos.size();
+    }
+
+    /**
+     * Avanza la rueda hasta la hora indicada y retira las claves vencidas. Si pasó más de una vuelta desde el último
+     * avance, cada ranura se recorre una sola vez.
+     *
+     * @param ahoraMillis La hora actual, en milisegundos desde la época.
+     * @return Las claves vencidas, agrupadas por tick; vacía si no venció ninguna.
+     */
+    public synchronized List<K> avanzar(long ahoraMillis) {
+        long objetivo = Math.floorDiv(ahoraMillis, duracionTick);
+        if (objetivo <= tickActual) {
+            return Collections.emptyList();
+        }
+        List<K> vencidas = new ArrayList<>();
+        long pasos = Math.min(objetivo - tickActual, ranuras.length);
+        for (long tick = objetivo - pasos + 1; tick <= objetivo; tick++) {
+            Nodo<K, V> nodo = ranuras[(int) tick & mascara];
+            while (nodo != null) {
+                Nodo<K, V> siguiente = nodo.siguiente;
+                if (nodo.tick <= objetivo) {
+                    desenlazar(nodo);
+                    nodos.remove(nodo.clave);
+                    vencidas.add(nodo.clave);
+                }
+                nodo = siguiente;
+            }
+        }
+        tickActual = objetivo;
+        return vencidas;
+    }
+
+    private void desenlazar(Nodo<K, V> nodo) {
+        if (nodo.anterior != null) {
+            nodo.anterior.siguiente = nodo.siguiente;
+        } else {
+            ranuras[(int) nodo.tick & mascara] = nodo.siguiente;
+        }
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo.anterior;
+        }
+        nodo.anterior = null;
+        nodo.siguiente = null;
+    }
+}
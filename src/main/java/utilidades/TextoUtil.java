@@ -0,0 +1,112 @@
+package utilidades;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase de utilidad para normalizar textos usados como claves dentro del sistema
+ * (IDs de cómics, IDs de usuarios, autores, etc.).
+ */
+public final class TextoUtil {
+
+    /**
+     * Constructor privado para evitar la instanciación de esta clase de utilidades.
+     */
+    private TextoUtil() {
+    }
+
+    /**
+     * Normaliza un ID para usarlo como clave en índices hash.
+     * Dos IDs producen la misma clave si y solo si {@link String#equalsIgnoreCase(String)} los considera iguales:
+     * cada carácter se pasa a mayúsculas y luego a minúsculas, igual que hace esa comparación internamente.
+     *
+     * @param id El ID a normalizar. Puede ser nulo.
+     * @return La clave normalizada, o {@code null} si el ID es nulo.
+     */
+    public static String normalizarId(String id) {
+        if (id == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(id.length());
+        for (int i = 0; i < id.length(); ) {
+            int cp = id.codePointAt(i);
+            sb.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp)));
+            i += Character.charCount(cp);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Normaliza un texto libre (e.g., el nombre de un autor) para usarlo como clave en índices hash.
+     * Además de ignorar mayúsculas igual que {@link #normalizarId(String)}, elimina los espacios en blanco
+     * al inicio y al final y reduce cada secuencia de espacios intermedios a un solo espacio,
+     * de modo que "Alan  Moore" y " alan moore" producen la misma clave.
+     *
+     * @param texto El texto a normalizar. Puede ser nulo.
+     * @return La clave normalizada, o {@code null} si el texto es nulo.
+     */
+    public static String normalizarTexto(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < texto.length(); ) {
+            int cp = texto.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp)) {
+                espacioPendiente = sb.length() > 0;
+                continue;
+            }
+            if (espacioPendiente) {
+                sb.append(' ');
+                espacioPendiente = false;
+            }
+            sb.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Divide un texto en términos para búsquedas de texto completo.
+     * Los términos son las secuencias de letras y dígitos; todo lo demás los separa.
+     * Cada término se pasa a minúsculas y se le quitan los acentos y demás marcas diacríticas,
+     * de modo que "Edición" produce "edicion".
+     *
+     * @param texto El texto a dividir. Puede ser nulo.
+     * @return Los términos en el orden en que aparecen; vacía si el texto es nulo o no tiene términos.
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        // La descomposición NFD separa cada letra de sus acentos; los textos ASCII no la necesitan
+        String descompuesto = esAscii(texto) ? texto : Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder termino = new StringBuilder();
+        for (int i = 0; i < descompuesto.length(); ) {
+            int cp = descompuesto.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                termino.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp)));
+            } else if (Character.getType(cp) != Character.NON_SPACING_MARK && termino.length() > 0) {
+                terminos.add(termino.toString());
+                termino.setLength(0);
+            }
+        }
+        if (termino.length() > 0) {
+            terminos.add(termino.toString());
+        }
+        return terminos;
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
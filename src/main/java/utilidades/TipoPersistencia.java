@@ -0,0 +1,39 @@
+package utilidades;
+
+/**
+ * Mecanismo con que ComicSistema guarda cómics, usuarios y ventas de forma durable.
+ * El inventario de trabajo sigue en memoria (ver {@link ModoAlmacenamiento}); este tipo solo decide dónde se
+ * persisten los cambios y desde dónde se cargan los datos al iniciar.
+ */
+public enum TipoPersistencia {
+    /**
+     * Archivos de texto: {@code comics.csv} con su diario de cambios, {@code usuarios.csv}, el log de texto
+     * {@code ventas_log.txt} y el libro de ventas binario junto a él.
+     */
+    CSV,
+    /**
+     * Base de datos SQL embebida (H2) en un solo archivo, sin servidor: tablas de cómics, usuarios y ventas,
+     * con el historial indexado por instante, cómic y usuario. Los cambios se escriben en transacciones;
+     * las ventas, en lotes desde un hilo en segundo plano. Al crear la base por primera vez se importan los
+     * archivos CSV que haya en el mismo directorio.
+     */
+    SQL;
+
+    /**
+     * Obtiene el tipo de persistencia a partir de su nombre, sin distinguir mayúsculas ni espacios alrededor.
+     *
+     * @param texto El nombre del tipo ("csv" o "sql").
+     * @return El tipo correspondiente.
+     * @throws IllegalArgumentException Si el texto no corresponde a ningún tipo.
+     */
+    public static TipoPersistencia desdeTexto(String texto) {
+        if (texto != null) {
+            for (TipoPersistencia tipo : values()) {
+                if (tipo.name().equalsIgnoreCase(texto.trim())) {
+                    return tipo;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Tipo de persistencia desconocido: '" + texto + "'. Use 'csv' o 'sql'.");
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utilidades.ArbolPersistente;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba el árbol persistente: mismo contenido y orden que un TreeMap tras altas y bajas al azar,
+ * y versiones anteriores que no cambian.
+ */
+@DisplayName("Test del árbol persistente")
+class ArbolPersistenteTest {
+
+    @Test
+    @DisplayName("Test de altas y bajas al azar comparadas con un TreeMap")
+    void testAltasYBajasComoTreeMap() {
+        Random azar = new Random(42);
+        TreeMap<Integer, String> esperado = new TreeMap<>();
+        ArbolPersistente<Integer, String> arbol = ArbolPersistente.vacio(Comparator.naturalOrder());
+        for (int i = 0; i < 20_000; i++) {
+            int clave = azar.nextInt(2_000);
+            if (azar.nextInt(3) == 0) {
+                esperado.remove(clave);
+                arbol = arbol.sin(clave);
+            } else {
+                esperado.put(clave, "v" + i);
+                arbol = arbol.con(clave, "v" + i);
+            }
+        }
+        assertEquals(esperado.size(), arbol.tamano());
+        assertEquals(new ArrayList<>(esperado.values()), arbol.valores());
+        for (int clave = 0; clave < 2_000; clave++) {
+            assertEquals(esperado.get(clave), arbol.obtener(clave));
+        }
+        assertEquals(arbol.valores(), ArbolPersistente.de(Comparator.<Integer>naturalOrder(), esperado).valores(),
+                "Construir desde un mapa debería dar el mismo árbol que agregar una a una");
+    }
+
+    @Test
+    @DisplayName("Test de posiciones y tramos por posición")
+    void testPosicionesYTramos() {
+        TreeMap<Integer, String> esperado = new TreeMap<>();
+        ArbolPersistente<Integer, String> arbol = ArbolPersistente.vacio(Comparator.naturalOrder());
+        for (int clave = 0; clave < 1_000; clave += 2) {
+            esperado.put(clave, "v" + clave);
+            arbol = arbol.con(clave, "v" + clave);
+        }
+        List<String> valores = new ArrayList<>(esperado.values());
+        for (int clave = -1; clave <= 1_000; clave++) {
+            assertEquals(esperado.headMap(clave).size(), arbol.posicion(clave), "Posición de " + clave);
+        }
+        for (int desde = 0; desde <= 510; desde += 17) {
+            for (int cantidad : new int[]{0, 1, 7, 100, 600}) {
+                assertEquals(valores.subList(Math.min(desde, 500), Math.min(500, desde + cantidad)), arbol.valores(desde, cantidad),
+                        "Tramo desde " + desde + " de " + cantidad);
+            }
+        }
+        assertEquals(List.of("v998"), arbol.valores(499, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> ArbolPersistente.vacio(Comparator.<Integer>naturalOrder()).valores(-1, 1));
+    }
+
+    @Test
+    @DisplayName("Test de versiones anteriores inmutables")
+    void testVersionesAnterioresNoCambian() {
+        ArbolPersistente<String, String> vacio = ArbolPersistente.vacio(Comparator.naturalOrder());
+        ArbolPersistente<String, String> primera = vacio.con("B", "b").con("A", "a");
+        List<String> valoresPrimera = primera.valores();
+
+        ArbolPersistente<String, String> segunda = primera.con("C", "c").sin("A").con("B", "b2");
+        assertEquals(List.of("a", "b"), primera.valores(), "Los cambios no deberían modificar la versión anterior");
+        assertEquals(List.of("a", "b"), valoresPrimera);
+        assertEquals(List.of("b2", "c"), segunda.valores());
+        assertEquals(0, vacio.tamano());
+        assertSame(segunda, segunda.sin("Z"), "Quitar una clave ausente debería retornar el mismo árbol");
+        assertThrows(UnsupportedOperationException.class, () -> segunda.valores().add("x"));
+    }
+}
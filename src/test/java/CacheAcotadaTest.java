@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utilidades.CacheAcotada;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba la caché acotada W-TinyLFU: lectura a través de la caché, invalidación, límite de tamaño,
+ * resistencia a los recorridos y tasa de aciertos con un tráfico concentrado en pocas claves.
+ */
+@DisplayName("Test de la caché acotada")
+class CacheAcotadaTest {
+
+    @Test
+    @DisplayName("Test de lectura a través de la caché, invalidación y contadores")
+    void testLecturaEInvalidacion() {
+        CacheAcotada<String, String> cache = new CacheAcotada<>(100);
+        AtomicInteger cargas = new AtomicInteger();
+        assertEquals("valor-A", cache.obtener("A", k -> { cargas.incrementAndGet(); return "valor-" + k; }));
+        assertEquals("valor-A", cache.obtener("A", k -> { cargas.incrementAndGet(); return "otro"; }));
+        assertEquals(1, cargas.get(), "La segunda lectura debería resolverse en la caché");
+        assertNull(cache.obtener("X", k -> null));
+        assertNull(cache.obtenerSiPresente("X"), "Los null no se guardan");
+
+        cache.invalidar("A");
+        assertNull(cache.obtenerSiPresente("A"));
+        cache.poner("B", "b");
+        assertEquals("b", cache.obtenerSiPresente("B"));
+        cache.limpiar();
+        assertEquals(0, cache.tamano());
+
+        CacheAcotada.Estadisticas estadisticas = cache.getEstadisticas();
+        assertEquals(2, estadisticas.getAciertos());
+        assertEquals(4, estadisticas.getFallos());
+        assertEquals(0, estadisticas.getDesalojos());
+        assertThrows(IllegalArgumentException.class, () -> new CacheAcotada<String, String>(0));
+    }
+
+    @Test
+    @DisplayName("Test de invalidación durante una carga: el valor cargado no se guarda")
+    void testInvalidacionDuranteLaCarga() {
+        CacheAcotada<String, String> cache = new CacheAcotada<>(10);
+        assertEquals("viejo", cache.obtener("A", k -> {
+            cache.invalidar(k); // Una baja concurrente mientras se leía el almacenamiento
+            return "viejo";
+        }));
+        assertNull(cache.obtenerSiPresente("A"), "Un valor cargado antes de la invalidación no debería guardarse");
+    }
+
+    @Test
+    @DisplayName("Test de límite de tamaño y desalojos")
+    void testLimiteDeTamano() {
+        CacheAcotada<Integer, Integer> cache = new CacheAcotada<>(1_000);
+        for (int i = 0; i < 10_000; i++) {
+            cache.obtener(i, k -> k);
+        }
+        assertTrue(cache.tamano() <= 1_000, "La caché no debería pasar de su capacidad: " + cache.tamano());
+        CacheAcotada.Estadisticas estadisticas = cache.getEstadisticas();
+        assertEquals(10_000 - cache.tamano(), estadisticas.getDesalojos(), "Cada entrada que no cabe es un desalojo");
+        assertEquals(1, new CacheAcotada<Integer, Integer>(1).getEstadisticas().getCapacidad());
+    }
+
+    @Test
+    @DisplayName("Test de recorrido del catálogo: las claves frecuentes no se desalojan")
+    void testRecorridoNoDesalojaLasFrecuentes() {
+        CacheAcotada<Integer, Integer> cache = new CacheAcotada<>(500);
+        for (int vuelta = 0; vuelta < 20; vuelta++) {
+            for (int i = 0; i < 200; i++) {
+                cache.obtener(i, k -> k); // Conjunto frecuente: las novedades
+            }
+        }
+        for (int i = 1_000; i < 100_000; i++) {
+            cache.obtener(i, k -> k); // Recorrido de claves consultadas una sola vez
+        }
+        int presentes = 0;
+        for (int i = 0; i < 200; i++) {
+            if (cache.obtenerSiPresente(i) != null) {
+                presentes++;
+            }
+        }
+        assertTrue(presentes >= 190, "Un LRU habría desalojado todo el conjunto frecuente; quedaron " + presentes);
+    }
+
+    @Test
+    @DisplayName("Test de tasa de aciertos con tráfico concentrado (Zipf) y varios hilos")
+    void testTasaDeAciertosConTraficoConcentrado() throws Exception {
+        int claves = 100_000;
+        int capacidad = 1_000;
+        double[] acumulada = new double[claves];
+        double suma = 0;
+        for (int i = 0; i < claves; i++) {
+            suma += 1.0 / (i + 1);
+            acumulada[i] = suma;
+        }
+        double total = suma;
+        CacheAcotada<Integer, Integer> cache = new CacheAcotada<>(capacidad);
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            long semilla = h;
+            tareas.add(hilos.submit(() -> {
+                Random aleatorio = new Random(semilla);
+                for (int i = 0; i < 250_000; i++) {
+                    int posicion = Arrays.binarySearch(acumulada, aleatorio.nextDouble() * total);
+                    int clave = posicion >= 0 ? posicion : Math.min(claves - 1, -posicion - 1);
+                    assertEquals(clave, cache.obtener(clave, k -> k));
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        hilos.shutdown();
+        CacheAcotada.Estadisticas estadisticas = cache.getEstadisticas();
+        // Con 1% del catálogo en caché, la suma de probabilidades de las 1000 claves más frecuentes es ~0,62
+        assertTrue(estadisticas.getTasaAciertos() > 0.5, "La caché debería retener las claves frecuentes: " + estadisticas);
+        assertTrue(estadisticas.getTamano() <= capacidad);
+    }
+}
@@ -0,0 +1,14 @@
+import org.junit.jupiter.api.DisplayName;
+import utilidades.ModoAlmacenamiento;
+
+/**
+ * Ejecuta las pruebas de {@link ComicSistemaTest} con el inventario en modo compacto.
+ */
+@DisplayName("Test de ComicSistema con almacenamiento compacto")
+class ComicSistemaCompactoTest extends ComicSistemaTest {
+
+    @Override
+    ModoAlmacenamiento modoAlmacenamiento() {
+        return ModoAlmacenamiento.COMPACTO;
+    }
+}
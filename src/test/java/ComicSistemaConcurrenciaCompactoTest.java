@@ -0,0 +1,14 @@
+import org.junit.jupiter.api.DisplayName;
+import utilidades.ModoAlmacenamiento;
+
+/**
+ * Ejecuta las pruebas de {@link ComicSistemaConcurrenciaTest} con el inventario en modo compacto.
+ */
+@DisplayName("Test de concurrencia de ComicSistema con almacenamiento compacto")
+class ComicSistemaConcurrenciaCompactoTest extends ComicSistemaConcurrenciaTest {
+
+    @Override
+    ModoAlmacenamiento modoAlmacenamiento() {
+        return ModoAlmacenamiento.COMPACTO;
+    }
+}
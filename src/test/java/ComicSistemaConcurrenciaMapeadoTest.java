@@ -0,0 +1,14 @@
+import org.junit.jupiter.api.DisplayName;
+import utilidades.ModoAlmacenamiento;
+
+/**
+ * Ejecuta las pruebas de {@link ComicSistemaConcurrenciaTest} con el inventario en archivos mapeados en memoria.
+ */
+@DisplayName("Test de concurrencia de ComicSistema con almacenamiento mapeado")
+class ComicSistemaConcurrenciaMapeadoTest extends ComicSistemaConcurrenciaTest {
+
+    @Override
+    ModoAlmacenamiento modoAlmacenamiento() {
+        return ModoAlmacenamiento.MAPEADO;
+    }
+}
@@ -0,0 +1,249 @@
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import modelos.Comic;
+import modelos.EstadoComic;
+import modelos.Usuario;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.ModoAlmacenamiento;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComicSistemaConcurrenciaTest {
+
+    private static final int COMICS = 1_500; // Supera el umbral de compactación para ejercitarla con ventas en curso
+    private static final int HILOS = 8;
+
+    @TempDir
+    Path directorio;
+
+    private ComicSistema crearSistema() {
+        return new ComicSistema(
+                directorio.resolve("comics.csv").toString(),
+                directorio.resolve("usuarios.csv").toString(),
+                directorio.resolve("ventas_log.txt").toString(),
+                modoAlmacenamiento());
+    }
+
+    /**
+     * Modo de almacenamiento del inventario con el que se ejecutan las pruebas; las subclases lo cambian.
+     */
+    ModoAlmacenamiento modoAlmacenamiento() {
+        return ModoAlmacenamiento.OBJETOS;
+    }
+
+    @Test
+    @DisplayName("Test de ventas concurrentes con exactamente un ganador por cómic")
+    void testVentasConcurrentesUnGanadorPorComic() throws Exception {
+        StringBuilder comics = new StringBuilder("ID,Titulo,Autor,Estado\n");
+        for (int i = 0; i < COMICS; i++) {
+            comics.append("C").append(i).append(",Título ").append(i).append(",Autor,disponible\n");
+        }
+        StringBuilder usuarios = new StringBuilder("ID,Nombre,Email\n");
+        for (int h = 0; h < HILOS; h++) {
+            usuarios.append("U").append(h).append(",Comprador ").append(h).append(",u").append(h).append("@correo.cl\n");
+        }
+        Files.writeString(directorio.resolve("comics.csv"), comics.toString(), StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"), usuarios.toString(), StandardCharsets.UTF_8);
+        ComicSistema sistema = crearSistema();
+
+        AtomicIntegerArray ganadores = new AtomicIntegerArray(COMICS);
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                String idUsuario = "U" + h;
+                long semilla = h;
+                tareas.add(ejecutor.submit(() -> {
+                    List<Integer> orden = new ArrayList<>();
+                    for (int i = 0; i < COMICS; i++) {
+                        orden.add(i);
+                    }
+                    Collections.shuffle(orden, new Random(semilla));
+                    largada.await();
+                    for (int i : orden) {
+                        try {
+                            sistema.registrarVenta("c" + i, idUsuario); // Mezcla mayúsculas para pasar por la normalización
+                            ganadores.incrementAndGet(i);
+                        } catch (ComicYaVendidoException e) {
+                            // Otro hilo ganó la venta
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        for (int i = 0; i < COMICS; i++) {
+            assertEquals(1, ganadores.get(i), "El cómic C" + i + " debería venderse exactamente una vez");
+        }
+        sistema.close();
+        long lineasLog;
+        try (var lineas = Files.lines(directorio.resolve("ventas_log.txt"), StandardCharsets.UTF_8)) {
+            lineasLog = lineas.filter(linea -> linea.startsWith("VENTA")).count();
+        }
+        assertEquals(COMICS, lineasLog, "Debería registrarse una línea de venta por cómic");
+
+        ComicSistema recargado = crearSistema();
+        for (int i = 0; i < COMICS; i++) {
+            Comic comic = recargado.buscarComicPorId("C" + i);
+            assertNotNull(comic, "El cómic C" + i + " debería persistir");
+            assertEquals(EstadoComic.VENDIDO, comic.getEstado(), "El estado vendido debería persistir tras recargar");
+        }
+    }
+
+    @Test
+    @DisplayName("Test de altas y bajas concurrentes con ventas en curso")
+    void testAltasYBajasConcurrentes() throws Exception {
+        Files.writeString(directorio.resolve("comics.csv"), "ID,Titulo,Autor,Estado\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"), "ID,Nombre,Email\nU0,Comprador,u0@correo.cl\n", StandardCharsets.UTF_8);
+        ComicSistema sistema = crearSistema();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        String id = "H" + hilo + "-" + i;
+                        sistema.agregarComic(new Comic("Título " + id, "Autor", id, "disponible"));
+                        if (i % 2 == 0) {
+                            sistema.registrarVenta(id, "U0");
+                        } else {
+                            assertTrue(sistema.eliminarComic(id), "Un cómic disponible debería poder eliminarse");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        ComicSistema recargado = crearSistema();
+        for (int h = 0; h < HILOS; h++) {
+            for (int i = 0; i < 100; i++) {
+                Comic comic = recargado.buscarComicPorId("H" + h + "-" + i);
+                if (i % 2 == 0) {
+                    assertNotNull(comic, "Los cómics vendidos deberían persistir");
+                    assertEquals(EstadoComic.VENDIDO, comic.getEstado());
+                } else {
+                    assertNull(comic, "Los cómics eliminados no deberían persistir");
+                }
+            }
+        }
+        assertThrows(ComicNoEncontradoException.class, () -> recargado.registrarVenta("H0-1", "U0"));
+    }
+
+    @Test
+    @DisplayName("Test de listados consistentes con ventas y altas en curso")
+    void testListadosConsistentesConVentasEnCurso() throws Exception {
+        StringBuilder comics = new StringBuilder("ID,Titulo,Autor,Estado\n");
+        for (int i = 0; i < COMICS; i++) {
+            comics.append("C").append(i).append(",Título ").append(i).append(",Autor,disponible\n");
+        }
+        Files.writeString(directorio.resolve("comics.csv"), comics.toString(), StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"), "ID,Nombre,Email\nCOMPRADOR,Comprador,c@correo.cl\n", StandardCharsets.UTF_8);
+        ComicSistema sistema = crearSistema();
+
+        // Un solo vendedor en un orden al azar: en cualquier versión consistente, los vendidos son un prefijo del orden
+        List<Integer> orden = new ArrayList<>();
+        for (int i = 0; i < COMICS; i++) {
+            orden.add(i);
+        }
+        Collections.shuffle(orden, new Random(7));
+        int[] posicion = new int[COMICS];
+        for (int p = 0; p < COMICS; p++) {
+            posicion[orden.get(p)] = p;
+        }
+
+        AtomicBoolean terminado = new AtomicBoolean();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            Future<?> ventas = ejecutor.submit(() -> {
+                for (int i : orden) {
+                    sistema.registrarVenta("C" + i, "COMPRADOR");
+                }
+                return null;
+            });
+            Future<?> altas = ejecutor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    assertTrue(sistema.agregarUsuario(new Usuario(String.format("N%03d", i), "Nuevo " + i, null)));
+                }
+                return null;
+            });
+            List<Future<Integer>> lectores = new ArrayList<>();
+            for (int h = 0; h < HILOS - 2; h++) {
+                lectores.add(ejecutor.submit(() -> {
+                    int listados = 0;
+                    do {
+                        List<Comic> listado = sistema.listarComics();
+                        assertEquals(COMICS, listado.size());
+                        Set<Integer> vendidos = new HashSet<>();
+                        for (Comic comic : listado) {
+                            if (comic.getEstado() == EstadoComic.VENDIDO) {
+                                vendidos.add(posicion[Integer.parseInt(comic.getId().substring(1))]);
+                            }
+                        }
+                        for (int p = 0; p < vendidos.size(); p++) {
+                            assertTrue(vendidos.contains(p), "Los vendidos del listado deberían ser los primeros " + vendidos.size() + " vendidos");
+                        }
+
+                        List<Usuario> usuarios = sistema.listarUsuarios();
+                        for (int i = 1; i < usuarios.size(); i++) {
+                            String id = usuarios.get(i).getId();
+                            assertEquals(String.format("N%03d", i - 1), id, "Los usuarios del listado deberían ser las primeras altas");
+                        }
+                        listados++;
+                    } while (!terminado.get());
+                    return listados;
+                }));
+            }
+            ventas.get(60, TimeUnit.SECONDS);
+            altas.get(60, TimeUnit.SECONDS);
+            terminado.set(true);
+            for (Future<Integer> lector : lectores) {
+                assertTrue(lector.get(60, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        List<Comic> listado = sistema.listarComics();
+        assertTrue(listado.stream().allMatch(comic -> comic.getEstado() == EstadoComic.VENDIDO));
+        assertThrows(UnsupportedOperationException.class, () -> listado.get(0).restablecerEstado(EstadoComic.DISPONIBLE),
+                "Los cómics de un listado deberían ser inmutables");
+        assertEquals(201, sistema.listarUsuarios().size());
+        sistema.close();
+    }
+}
@@ -0,0 +1,179 @@
+import gestores.ComicSistema;
+import modelos.Comic;
+import modelos.EstadoComic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utilidades.CacheAcotada;
+import utilidades.ModoAlmacenamiento;
+import utilidades.Pagina;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ejecuta las pruebas de {@link ComicSistemaTest} con el inventario en archivos mapeados en memoria,
+ * y prueba cuándo se conserva el inventario entre ejecuciones.
+ */
+@DisplayName("Test de ComicSistema con almacenamiento mapeado")
+class ComicSistemaMapeadoTest extends ComicSistemaTest {
+
+    @Override
+    ModoAlmacenamiento modoAlmacenamiento() {
+        return ModoAlmacenamiento.MAPEADO;
+    }
+
+    @Test
+    @DisplayName("Test de restauración del inventario después de un cierre correcto")
+    void testRestauraInventarioAlReabrir() throws Exception {
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        sistema.registrarVenta("C001", "U001");
+        sistema.cancelarReservaODeclararDisponible("C002");
+        sistema.eliminarComic("C002");
+        sistema.close();
+
+        Apertura reabierto = abrir();
+        assertTrue(reabierto.salida.contains("restaurado"), "El inventario debería restaurarse sin leer el CSV");
+        ComicSistema recargado = reabierto.sistema;
+        assertEquals(EstadoComic.VENDIDO, recargado.buscarComicPorId("c001").getEstado(), "El cambio de estado debería conservarse");
+        assertNull(recargado.buscarComicPorId("C002"), "La baja debería conservarse");
+        assertEquals(1, recargado.contarComics(EstadoComic.DISPONIBLE), "Los conteos deberían conservarse");
+        assertEquals(2, recargado.buscarComics("ALAN MOORE", null, 1, 10).getTotalElementos());
+        assertEquals("C003", recargado.buscarPorTexto("vendetta", 1, 10).getElementos().get(0).getId(),
+                "El índice de texto debería construirse con la primera búsqueda");
+
+        recargado.cancelarReservaODeclararDisponible("C001");
+        recargado.close();
+        ComicSistema otraVez = abrir().sistema;
+        assertEquals(EstadoComic.DISPONIBLE, otraVez.buscarComicPorId("C001").getEstado(), "Los cambios tras restaurar deberían conservarse");
+        otraVez.close();
+    }
+
+    @Test
+    @DisplayName("Test de reimportación cuando el CSV cambió después del cierre")
+    void testReimportaSiElCsvCambio() throws Exception {
+        sistema.close();
+        Files.writeString(directorio.resolve("comics.csv"),
+                "ID,Titulo,Autor,Estado\n" +
+                "C009,Akira,Katsuhiro Otomo,disponible\n", StandardCharsets.UTF_8);
+
+        Apertura reabierto = abrir();
+        assertFalse(reabierto.salida.contains("restaurado"), "Un CSV modificado no debería permitir restaurar el inventario");
+        assertNotNull(reabierto.sistema.buscarComicPorId("C009"), "El inventario debería cargarse del CSV nuevo");
+        assertNull(reabierto.sistema.buscarComicPorId("C001"));
+        reabierto.sistema.close();
+    }
+
+    @Test
+    @DisplayName("Test de reimportación después de un cierre incorrecto")
+    void testReimportaSiNoSeCerroCorrectamente() throws Exception {
+        sistema.registrarVenta("C001", "U001");
+        sistema.close();
+        try (RandomAccessFile mapa = new RandomAccessFile(directorio.resolve("comics.csv.mapa").toFile(), "rw")) {
+            mapa.seek(8);
+            mapa.writeInt(0); // Marca de cierre limpio borrada, como si el proceso hubiera terminado sin cerrar
+        }
+
+        Apertura reabierto = abrir();
+        assertFalse(reabierto.salida.contains("restaurado"), "Un almacenamiento sin cierre limpio no debería restaurarse");
+        assertEquals(EstadoComic.VENDIDO, reabierto.sistema.buscarComicPorId("C001").getEstado(), "El diario debería reproducirse");
+        assertEquals(2, reabierto.sistema.buscarComics(null, null, 1, 10).getTotalElementos());
+        reabierto.sistema.close();
+    }
+
+    @Test
+    @DisplayName("Test de la caché de lecturas por ID: aciertos, escritura directa del estado e invalidación en las bajas")
+    void testCacheDeLecturasPorId() throws Exception {
+        CacheAcotada.Estadisticas inicio = sistema.getEstadisticasCacheComics();
+        assertNotNull(inicio, "El almacenamiento mapeado debería usar la caché");
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        assertEquals(1, sistema.buscarPorTexto("vendetta", 1, 10).getTotalElementos());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("V de Vendetta", sistema.buscarComicPorId("c003").getTitulo());
+        }
+        CacheAcotada.Estadisticas despues = sistema.getEstadisticasCacheComics();
+        assertTrue(despues.getAciertos() - inicio.getAciertos() >= 9, "Las búsquedas repetidas deberían resolverse en la caché: " + despues);
+
+        Comic enCache = sistema.buscarComicPorId("C003");
+        sistema.registrarVenta("C003", "U001");
+        assertEquals(EstadoComic.VENDIDO, enCache.getEstado(), "El cómic en caché debería leer el estado del almacenamiento");
+        assertEquals(2, sistema.contarComics(EstadoComic.VENDIDO), "Los conteos por estado deberían actualizarse");
+        sistema.cancelarReservaODeclararDisponible("C003");
+
+        assertTrue(sistema.eliminarComic("C003"));
+        assertNull(sistema.buscarComicPorId("C003"), "La baja debería invalidar la entrada de la caché");
+        assertEquals(0, sistema.buscarPorTexto("vendetta", 1, 10).getTotalElementos(), "La baja debería quitarlo del índice de texto");
+        sistema.agregarComic(new Comic("Otro título", "Otro autor", "C003", "disponible"));
+        assertEquals("Otro título", sistema.buscarComicPorId("C003").getTitulo(), "Un alta con el mismo ID no debería leer la entrada anterior");
+    }
+
+    @Test
+    @DisplayName("Test de las cadenas por autor y por estado con muchos autores, conservadas al reabrir")
+    void testCadenasPorAutorYEstadoAlReabrir() throws Exception {
+        List<Comic> lote = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lote.add(new Comic("Título " + i, "Autor " + (i % 1000), "M" + i, "disponible"));
+        }
+        assertEquals(3000, sistema.agregarComics(lote).getAplicados());
+        sistema.registrarVenta("M1500", "U001");
+        sistema.eliminarComic("M2500");
+        assertEquals(List.of("M500", "M1500"), ids(sistema.buscarComics("autor 500", null, 1, 10)),
+                "La baja debería quitar el cómic de la cadena de su autor");
+        sistema.close();
+
+        Apertura reabierto = abrir();
+        assertTrue(reabierto.salida.contains("restaurado"));
+        ComicSistema recargado = reabierto.sistema;
+        assertEquals(List.of("M500", "M1500"), ids(recargado.buscarComics("AUTOR  500", null, 1, 10)),
+                "Los disponibles primero, luego los vendidos");
+        assertEquals(List.of("M1500"), ids(recargado.buscarComics("Autor 500", EstadoComic.VENDIDO, 1, 10)));
+        assertEquals(List.of("C002", "M1500"), ids(recargado.buscarComics(null, EstadoComic.VENDIDO, 1, 10)));
+        assertEquals(List.of("M2999"), ids(recargado.buscarComics(null, EstadoComic.DISPONIBLE, 300, 10)).subList(8, 9));
+        recargado.cancelarReservaODeclararDisponible("M1500");
+        assertEquals(List.of("M1500"), ids(recargado.buscarComics(null, EstadoComic.DISPONIBLE, 300, 10)).subList(9, 10),
+                "La devolución debería anexar el cómic al final de los disponibles");
+        assertEquals(0, recargado.buscarComics("Autor 1000", null, 1, 10).getTotalElementos());
+        recargado.close();
+    }
+
+    private static List<String> ids(Pagina<Comic> pagina) {
+        return pagina.getElementos().stream().map(Comic::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Abre un sistema sobre los archivos de la prueba y guarda lo que escribió en la consola al cargar.
+     */
+    private Apertura abrir() throws IOException {
+        PrintStream original = System.out;
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(salida, true, StandardCharsets.UTF_8));
+        try {
+            ComicSistema abierto = new ComicSistema(
+                    directorio.resolve("comics.csv").toString(),
+                    directorio.resolve("usuarios.csv").toString(),
+                    directorio.resolve("ventas_log.txt").toString(),
+                    ModoAlmacenamiento.MAPEADO);
+            return new Apertura(abierto, salida.toString(StandardCharsets.UTF_8));
+        } finally {
+            System.setOut(original);
+        }
+    }
+
+    private static final class Apertura {
+        final ComicSistema sistema;
+        final String salida;
+
+        Apertura(ComicSistema sistema, String salida) {
+            this.sistema = sistema;
+            this.salida = salida;
+        }
+    }
+}
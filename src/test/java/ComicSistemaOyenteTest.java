@@ -0,0 +1,132 @@
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import gestores.OyenteComicSistema;
+import modelos.Comic;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import modelos.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba el uso de ComicSistema sin consola: los resultados de las operaciones y los avisos entregados al oyente.
+ */
+@DisplayName("Test de ComicSistema con oyente de avisos")
+class ComicSistemaOyenteTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<EventoSistema> eventos = new CopyOnWriteArrayList<>();
+    private ComicSistema sistema;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(directorio.resolve("comics.csv"),
+                "ID,Titulo,Autor,Estado\n" +
+                "C001,Watchmen,Alan Moore,disponible\n" +
+                "C002,Maus,Art Spiegelman,vendido\n" +
+                "C003,Sin estado,Autor,desconocido\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"),
+                "ID,Nombre,Email\n" +
+                "U002,Bruce Wayne,bruce@wayne.com\n" +
+                "U001,Clark Kent,clark.kent@dailyplanet.com\n", StandardCharsets.UTF_8);
+        sistema = new ComicSistema(ConfiguracionPersistencia.csv(
+                directorio.resolve("comics.csv").toString(),
+                directorio.resolve("usuarios.csv").toString(),
+                directorio.resolve("ventas_log.txt").toString()), ModoAlmacenamiento.OBJETOS, eventos::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sistema.close();
+    }
+
+    @Test
+    @DisplayName("Test de avisos de la carga inicial")
+    void testAvisosDeCarga() {
+        assertTrue(eventos.stream().anyMatch(e -> e.getNivel() == EventoSistema.Nivel.ADVERTENCIA
+                        && e.getMensaje().contains("'C003'")),
+                "La fila inválida debería avisarse al oyente: " + eventos);
+        assertTrue(eventos.stream().anyMatch(e -> e.getMensaje().startsWith("Usuarios cargados exitosamente")));
+    }
+
+    @Test
+    @DisplayName("Test de resultados y avisos tipados de las operaciones")
+    void testOperacionesRetornanResultadosYAvisan() throws Exception {
+        eventos.clear();
+        assertTrue(sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible")));
+        assertFalse(sistema.agregarComic(new Comic("Otro Akira", "Otro Autor", "c004", "disponible")));
+        EventoVenta venta = sistema.registrarVenta("C004", "U001");
+        assertEquals(EventoVenta.Tipo.VENTA, venta.getTipo());
+        assertEquals("U001", venta.getIdUsuario());
+        assertThrows(ComicYaVendidoException.class, () -> sistema.registrarVenta("C004", "U002"));
+        assertEquals(EventoVenta.Tipo.DISPONIBLE, sistema.cancelarReservaODeclararDisponible("C004").getTipo());
+        assertNull(sistema.cancelarReservaODeclararDisponible("C004"), "Un cómic ya disponible no genera evento de venta");
+        assertFalse(sistema.agregarUsuario(new Usuario("U003", "Otro", "bruce@wayne.com")));
+        assertFalse(sistema.eliminarUsuario("U999"));
+
+        assertEquals(List.of(EventoSistema.Tipo.COMIC_AGREGADO, EventoSistema.Tipo.COMIC_DUPLICADO,
+                        EventoSistema.Tipo.VENTA_REGISTRADA, EventoSistema.Tipo.COMIC_DISPONIBLE,
+                        EventoSistema.Tipo.COMIC_YA_DISPONIBLE, EventoSistema.Tipo.EMAIL_DUPLICADO,
+                        EventoSistema.Tipo.USUARIO_NO_ENCONTRADO),
+                eventos.stream().map(EventoSistema::getTipo).collect(Collectors.toList()));
+        EventoSistema aviso = eventos.get(2);
+        assertEquals("C004", aviso.getId());
+        assertEquals("Clark Kent", aviso.getUsuario().getNombre());
+        assertEquals("Venta/Reserva registrada exitosamente: 'Akira' (ID: C004) a Clark Kent (ID: U001).", aviso.getMensaje());
+        assertEquals("El cómic con ID: c004 ya existe. No se puede registrar el mismo ID nuevamente.", eventos.get(1).getMensaje());
+    }
+
+    @Test
+    @DisplayName("Test de listados retornados en lugar de impresos")
+    void testListados() {
+        assertEquals(List.of("C001", "C002"),
+                sistema.listarComics().stream().map(Comic::getId).collect(Collectors.toList()));
+        assertEquals(List.of("U001", "U002"),
+                sistema.listarUsuarios().stream().map(Usuario::getId).collect(Collectors.toList()));
+        assertEquals(List.of("Bruce Wayne", "Clark Kent"),
+                sistema.listarUsuariosOrdenadosPorNombre().stream().map(Usuario::getNombre).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Test de operación sin consola con el oyente silencioso")
+    void testSilenciosoNoEscribeEnConsola() throws Exception {
+        sistema.close();
+        PrintStream original = System.out;
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(salida, true, StandardCharsets.UTF_8));
+        try {
+            sistema = new ComicSistema(ConfiguracionPersistencia.csv(
+                    directorio.resolve("comics.csv").toString(),
+                    directorio.resolve("usuarios.csv").toString(),
+                    directorio.resolve("ventas_log.txt").toString()), ModoAlmacenamiento.OBJETOS, OyenteComicSistema.SILENCIOSO);
+            sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible"));
+            sistema.registrarVenta("C004", "U001");
+            sistema.cancelarReservaODeclararDisponible("C004");
+            sistema.eliminarComic("C999");
+            sistema.listarComics();
+            sistema.guardarInventario();
+        } finally {
+            System.setOut(original);
+        }
+        assertEquals("", salida.toString(StandardCharsets.UTF_8), "Nada debería escribirse en la consola");
+    }
+}
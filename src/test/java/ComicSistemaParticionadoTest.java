@@ -0,0 +1,211 @@
+import gestores.ComicSistema;
+import gestores.ComicSistemaParticionado;
+import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoSistema;
+import modelos.EventoVenta;
+import modelos.ResultadoLote;
+import modelos.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.ModoAlmacenamiento;
+import utilidades.Pagina;
+import utilidades.TipoPersistencia;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba el sistema particionado: reparto por ID, datos de cada partición en su directorio, ventas con el comprador
+ * en otra partición, emails únicos entre particiones y listados, búsquedas y reportes combinados.
+ */
+@DisplayName("Test del sistema particionado")
+class ComicSistemaParticionadoTest {
+    private static final int PARTICIONES = 4;
+    private static final int COMICS = 60;
+    private static final int USUARIOS = 30;
+
+    @TempDir
+    Path directorio;
+
+    final List<EventoSistema> eventos = new CopyOnWriteArrayList<>();
+    ComicSistemaParticionado sistema;
+
+    @BeforeEach
+    void setUp() {
+        sistema = abrir(PARTICIONES);
+        List<Comic> comics = new ArrayList<>();
+        for (int i = 0; i < COMICS; i++) {
+            comics.add(new Comic((i % 3 == 0 ? "Sandman " : "Watchmen ") + i, i % 2 == 0 ? "Neil Gaiman" : "Alan Moore",
+                    String.format("C%03d", i), "disponible"));
+        }
+        assertEquals(COMICS, sistema.agregarComics(comics).getAplicados());
+        for (int i = 0; i < USUARIOS; i++) {
+            assertTrue(sistema.agregarUsuario(new Usuario(String.format("U%03d", i), "Usuario " + (USUARIOS - i),
+                    "usuario" + i + "@correo.com")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        sistema.close();
+    }
+
+    private ComicSistemaParticionado abrir(int particiones) {
+        return new ComicSistemaParticionado(TipoPersistencia.CSV, directorio.toString(), particiones,
+                ModoAlmacenamiento.OBJETOS, eventos::add);
+    }
+
+    @Test
+    @DisplayName("Test de reparto de cómics y usuarios por ID, cada partición con sus archivos")
+    void testRepartoYPersistenciaPorParticion() {
+        List<ComicSistema> particiones = sistema.getParticiones();
+        long total = 0;
+        for (int i = 0; i < PARTICIONES; i++) {
+            long enParticion = particiones.get(i).contarComics(EstadoComic.DISPONIBLE);
+            assertTrue(enParticion > 0, "Cada partición debería recibir cómics");
+            total += enParticion;
+            for (Comic comic : particiones.get(i).listarComics()) {
+                assertEquals(i, sistema.particionDeComic(comic.getId()));
+            }
+            for (Usuario usuario : particiones.get(i).listarUsuarios()) {
+                assertEquals(i, sistema.particionDeUsuario(usuario.getId()));
+            }
+            assertTrue(Files.exists(directorio.resolve("particion-" + i).resolve("comics.csv.diario")),
+                    "Cada partición debería tener su propio diario");
+        }
+        assertEquals(COMICS, total);
+        assertEquals(COMICS, sistema.contarComics(EstadoComic.DISPONIBLE));
+        assertEquals(sistema.particionDeComic("C007"), sistema.particionDeComic("c007"), "El reparto no distingue mayúsculas");
+        assertEquals("C007", sistema.buscarComicPorId("c007").getId());
+
+        sistema.close();
+        sistema = abrir(PARTICIONES);
+        assertEquals(COMICS, sistema.listarComics().size(), "Los cómics deberían restaurarse al volver a abrir");
+        assertEquals(USUARIOS, sistema.listarUsuarios().size());
+        assertFalse(sistema.agregarUsuario(new Usuario("U999", "Otro", "usuario3@correo.com")),
+                "Los emails deberían seguir registrados al volver a abrir");
+        assertThrows(IllegalStateException.class, () -> abrir(PARTICIONES + 1),
+                "No se debería abrir con otro número de particiones");
+    }
+
+    @Test
+    @DisplayName("Test de venta con el comprador en otra partición y reportes combinados")
+    void testVentaEntreParticionesYReportes() throws Exception {
+        String idUsuario = "U001";
+        List<String> vendidos = new ArrayList<>();
+        for (int i = 0; i < COMICS && vendidos.size() < 3; i++) {
+            String idComic = String.format("C%03d", i);
+            if (sistema.particionDeComic(idComic) != sistema.particionDeUsuario(idUsuario) && i % 2 == 1) {
+                vendidos.add(idComic);
+            }
+        }
+        EventoVenta venta = sistema.registrarVenta(vendidos.get(0), idUsuario);
+        assertEquals(EventoVenta.Tipo.VENTA, venta.getTipo());
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId(vendidos.get(0)).getEstado());
+        ResultadoLote lote = sistema.registrarVentas(idUsuario, List.of(vendidos.get(1), "C999", vendidos.get(2)));
+        assertEquals(List.of(true, false, true),
+                lote.getElementos().stream().map(ResultadoLote.Elemento::isAplicado).collect(Collectors.toList()),
+                "El resultado del lote debería conservar su orden");
+        assertThrows(IllegalArgumentException.class, () -> sistema.registrarVenta("C000", "U999"));
+
+        assertEquals(3, sistema.contarComprasUsuario(idUsuario));
+        List<EstadisticaVentas> usuarios = sistema.obtenerUsuariosConMasCompras(1);
+        assertEquals(idUsuario, usuarios.get(0).getClave());
+        assertEquals(3, usuarios.get(0).getVentas(), "Las compras en distintas particiones deberían sumarse");
+        assertEquals("Alan Moore", sistema.obtenerAutoresMasVendidos(1).get(0).getNombre());
+        assertEquals(3, sistema.obtenerAutoresMasVendidos(1).get(0).getVentas());
+
+        List<EventoVenta> historial = new ArrayList<>();
+        assertEquals(3, sistema.consultarHistorialVentas(null, null, null, idUsuario, historial::add));
+        for (int i = 1; i < historial.size(); i++) {
+            assertTrue(historial.get(i - 1).getInstanteMillis() <= historial.get(i).getInstanteMillis(),
+                    "El historial combinado debería estar en orden cronológico");
+        }
+        assertEquals(EventoVenta.Tipo.DISPONIBLE, sistema.cancelarReservaODeclararDisponible(vendidos.get(0)).getTipo());
+        assertEquals(2, sistema.contarComics(EstadoComic.VENDIDO));
+    }
+
+    @Test
+    @DisplayName("Test de emails únicos entre particiones")
+    void testEmailUnicoEntreParticiones() {
+        String primero = "V000";
+        String segundo = null;
+        for (int i = 1; segundo == null; i++) {
+            String id = String.format("V%03d", i);
+            if (sistema.particionDeUsuario(id) != sistema.particionDeUsuario(primero)) {
+                segundo = id;
+            }
+        }
+        assertTrue(sistema.agregarUsuario(new Usuario(primero, "Diana Prince", "diana@themyscira.com")));
+        eventos.clear();
+        assertFalse(sistema.agregarUsuario(new Usuario(segundo, "Otra Diana", "diana@themyscira.com")),
+                "Un email de otra partición no debería aceptarse");
+        assertEquals(List.of(EventoSistema.Tipo.EMAIL_DUPLICADO),
+                eventos.stream().map(EventoSistema::getTipo).collect(Collectors.toList()));
+        assertNull(sistema.buscarUsuarioPorId(segundo));
+
+        assertTrue(sistema.eliminarUsuario(primero));
+        assertTrue(sistema.agregarUsuario(new Usuario(segundo, "Otra Diana", "diana@themyscira.com")),
+                "El email debería quedar libre al eliminar al usuario");
+        assertFalse(sistema.agregarUsuario(new Usuario(segundo, "Repetida", "otra@themyscira.com")));
+        assertTrue(sistema.agregarUsuario(new Usuario(primero, "Diana Prince", "otra@themyscira.com")),
+                "Un alta rechazada por ID duplicado no debería retener su email");
+    }
+
+    @Test
+    @DisplayName("Test de listados, páginas y búsquedas combinados")
+    void testListadosYBusquedasCombinados() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            ids.add(String.format("U%03d", i));
+        }
+        assertEquals(ids, sistema.listarUsuarios().stream().map(Usuario::getId).collect(Collectors.toList()));
+        List<Usuario> porNombre = sistema.listarUsuariosOrdenadosPorNombre();
+        List<Usuario> esperado = new ArrayList<>(porNombre);
+        esperado.sort(Comparator.comparing((Usuario u) -> u.getNombre().toLowerCase()).thenComparing(Usuario::getId));
+        assertEquals(esperado, porNombre);
+        assertEquals(USUARIOS, porNombre.size());
+
+        Pagina<Usuario> pagina = sistema.listarUsuarios(3, 7);
+        assertEquals(USUARIOS, pagina.getTotalElementos());
+        assertEquals(ids.subList(14, 21), pagina.getElementos().stream().map(Usuario::getId).collect(Collectors.toList()));
+        Pagina<Usuario> prefijo = sistema.buscarUsuariosPorNombre("usuario 2", 1, 20);
+        assertEquals(11, prefijo.getTotalElementos(), "Usuario 2 y Usuario 20 a 29");
+        assertEquals(esperado.stream().filter(u -> u.getNombre().startsWith("Usuario 2")).collect(Collectors.toList()),
+                prefijo.getElementos());
+
+        // Las páginas de una búsqueda combinada recorren todos los resultados una sola vez
+        List<String> recorridos = new ArrayList<>();
+        for (int numero = 1; numero <= 5; numero++) {
+            Pagina<Comic> comics = sistema.buscarComics("Neil Gaiman", null, numero, 7);
+            assertEquals(COMICS / 2, comics.getTotalElementos());
+            comics.getElementos().forEach(comic -> recorridos.add(comic.getId()));
+        }
+        assertEquals(COMICS / 2, recorridos.size());
+        assertEquals(COMICS / 2, recorridos.stream().distinct().count());
+        assertTrue(recorridos.stream().allMatch(id -> Integer.parseInt(id.substring(1)) % 2 == 0));
+        assertEquals(COMICS, sistema.buscarComics(null, EstadoComic.DISPONIBLE, 1, 1000).getElementos().size());
+
+        Pagina<Comic> texto = sistema.buscarPorTexto("sandman gaiman", 1, 100);
+        assertEquals(10, texto.getTotalElementos(), "Sandman con i múltiplo de 6");
+        // Coincidencia en el título (4) antes que en el autor (2), esté en la partición que esté
+        assertTrue(sistema.agregarComic(new Comic("Moore: una biografía", "Otro Autor", "B001", "disponible")));
+        Pagina<Comic> moore = sistema.buscarPorTexto("moore", 1, 3);
+        assertEquals(COMICS / 2 + 1, moore.getTotalElementos());
+        assertEquals("B001", moore.getElementos().get(0).getId());
+        assertEquals(sistema.buscarPorTexto("watchmen", 1, 10).getElementos().subList(5, 10),
+                sistema.buscarPorTexto("watchmen", 2, 5).getElementos());
+    }
+}
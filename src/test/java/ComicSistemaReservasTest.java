@@ -0,0 +1,187 @@
+import excepciones.ComicYaVendidoException;
+import excepciones.ReservaNoEncontradaException;
+import gestores.ComicSistema;
+import gestores.OyenteComicSistema;
+import modelos.EstadoComic;
+import modelos.EventoVenta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+import utilidades.TipoPersistencia;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba las reservas con vencimiento: la liberación automática de las reservas vencidas, su confirmación,
+ * su cancelación y su restauración desde el historial al volver a abrir el sistema.
+ */
+@DisplayName("Test de reservas con vencimiento")
+class ComicSistemaReservasTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<ComicSistema> abiertos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(directorio.resolve("comics.csv"),
+                "ID,Titulo,Autor,Estado\n" +
+                "C001,Watchmen,Alan Moore,disponible\n" +
+                "C002,Maus,Art Spiegelman,disponible\n" +
+                "C003,Akira,Katsuhiro Otomo,disponible\n" +
+                "C004,Sandman,Neil Gaiman,reservado\n" +
+                "C005,Ronin,Frank Miller,reservado\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"),
+                "ID,Nombre,Email\n" +
+                "U001,Clark Kent,clark.kent@dailyplanet.com\n" +
+                "U002,Bruce Wayne,bruce@wayne.com\n", StandardCharsets.UTF_8);
+        // C004 tiene una reserva antigua, ya vencida; C005 está reservado desde antes de los vencimientos
+        Files.writeString(directorio.resolve("ventas_log.txt"),
+                "RESERVA - Fecha/Hora: 2025-01-10 10:00:00, Cómic ID: C004, Título: Sandman, Usuario ID: U002, Nombre Usuario: Bruce Wayne\n",
+                StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        abiertos.forEach(ComicSistema::close);
+    }
+
+    private ComicSistema abrir(TipoPersistencia tipo) {
+        ComicSistema sistema = new ComicSistema(ConfiguracionPersistencia.enDirectorio(tipo, directorio.toString()),
+                ModoAlmacenamiento.OBJETOS, OyenteComicSistema.SILENCIOSO);
+        abiertos.add(sistema);
+        return sistema;
+    }
+
+    private ComicSistema reabrir(ComicSistema sistema, TipoPersistencia tipo) {
+        sistema.close();
+        abiertos.remove(sistema);
+        return abrir(tipo);
+    }
+
+    private static void esperarEstado(ComicSistema sistema, String id, EstadoComic estado) throws InterruptedException {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (sistema.buscarComicPorId(id).getEstado() != estado && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertEquals(estado, sistema.buscarComicPorId(id).getEstado(), "Estado de " + id);
+    }
+
+    private static List<EventoVenta.Tipo> tiposDe(ComicSistema sistema, String idComic) throws IOException {
+        List<EventoVenta.Tipo> tipos = new ArrayList<>();
+        sistema.consultarHistorialVentas(null, null, idComic, null, evento -> tipos.add(evento.getTipo()));
+        return tipos;
+    }
+
+    @Test
+    @DisplayName("Test de reserva vencida: el hilo de reservas la libera, la registra en el historial y la persiste")
+    void testReservaVencidaSeLibera() throws Exception {
+        ComicSistema sistema = abrir(TipoPersistencia.CSV);
+        sistema.setDuracionReservas(Duration.ofMillis(50));
+        EventoVenta reserva = sistema.reservar("c001", "U001");
+        assertEquals(EventoVenta.Tipo.RESERVA, reserva.getTipo());
+        assertEquals(EstadoComic.RESERVADO, sistema.buscarComicPorId("C001").getEstado());
+        assertThrows(ComicYaVendidoException.class, () -> sistema.reservar("C001", "U002"), "Un cómic reservado no se reserva dos veces");
+
+        esperarEstado(sistema, "C001", EstadoComic.DISPONIBLE);
+        assertEquals(0, sistema.contarReservasVigentes());
+        assertEquals(List.of(EventoVenta.Tipo.RESERVA, EventoVenta.Tipo.EXPIRACION), tiposDe(sistema, "C001"));
+        assertEquals(0, sistema.obtenerComicsMasVendidos(10).stream().filter(e -> e.getClave().equals("C001")).count(),
+                "Una reserva vencida no es una venta");
+        assertThrows(ReservaNoEncontradaException.class, () -> sistema.confirmarReserva("C001", "U001"));
+
+        ComicSistema reabierto = reabrir(sistema, TipoPersistencia.CSV);
+        assertEquals(EstadoComic.DISPONIBLE, reabierto.buscarComicPorId("C001").getEstado(), "La liberación debería persistirse");
+        assertEquals(List.of(EventoVenta.Tipo.RESERVA, EventoVenta.Tipo.EXPIRACION), tiposDe(reabierto, "C001"));
+    }
+
+    @Test
+    @DisplayName("Test de reserva justo después de un vencimiento: al volver a abrir, la nueva reserva conserva su titular")
+    void testReservaTrasVencimientoSeRestaura() throws Exception {
+        ComicSistema sistema = abrir(TipoPersistencia.CSV);
+        sistema.setDuracionReservas(Duration.ofMillis(1));
+        sistema.reservar("C001", "U001");
+        Thread.sleep(20);
+        sistema.liberarReservasVencidas();
+        esperarEstado(sistema, "C001", EstadoComic.DISPONIBLE);
+        sistema.setDuracionReservas(Duration.ofHours(1));
+        sistema.reservar("C001", "U002");
+        assertEquals(List.of(EventoVenta.Tipo.RESERVA, EventoVenta.Tipo.EXPIRACION, EventoVenta.Tipo.RESERVA), tiposDe(sistema, "C001"),
+                "El historial debería seguir el orden de los cambios de estado");
+
+        ComicSistema reabierto = reabrir(sistema, TipoPersistencia.CSV);
+        assertEquals(EstadoComic.RESERVADO, reabierto.buscarComicPorId("C001").getEstado());
+        assertEquals(1, reabierto.contarReservasVigentes(), "La nueva reserva debería seguir venciendo");
+        assertThrows(ReservaNoEncontradaException.class, () -> reabierto.confirmarReserva("C001", "U001"),
+                "Solo el titular de la nueva reserva la confirma");
+        assertEquals(EventoVenta.Tipo.VENTA, reabierto.confirmarReserva("C001", "U002").getTipo());
+    }
+
+    @Test
+    @DisplayName("Test de confirmación y cancelación de reservas")
+    void testConfirmarYCancelar() throws Exception {
+        ComicSistema sistema = abrir(TipoPersistencia.CSV);
+        esperarEstado(sistema, "C004", EstadoComic.DISPONIBLE); // Su reserva restaurada ya venció
+        sistema.reservar("C001", "U001");
+        sistema.reservar("C002", "U001");
+        assertEquals(2, sistema.contarReservasVigentes());
+
+        assertThrows(ReservaNoEncontradaException.class, () -> sistema.confirmarReserva("C001", "U002"),
+                "Solo el titular confirma su reserva");
+        EventoVenta venta = sistema.confirmarReserva("C001", "U001");
+        assertEquals(EventoVenta.Tipo.VENTA, venta.getTipo());
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId("C001").getEstado());
+        assertEquals(1, sistema.contarComprasUsuario("U001"), "Confirmar una reserva es una compra; reservar no");
+
+        assertEquals(EstadoComic.RESERVADO, sistema.cancelarReservaODeclararDisponible("C002").getEstadoAnterior());
+        assertEquals(0, sistema.contarReservasVigentes(), "Confirmar o cancelar una reserva cancela su vencimiento");
+        assertEquals(List.of("C001"), sistema.obtenerComicsMasVendidos(10).stream()
+                .map(e -> e.getClave()).collect(Collectors.toList()), "Cancelar una reserva no es una devolución");
+
+        assertEquals(EventoVenta.Tipo.VENTA, sistema.confirmarReserva("C005", "U002").getTipo(),
+                "Una reserva sin titular conocido la confirma cualquier usuario");
+    }
+
+    @Test
+    @DisplayName("Test de restauración de las reservas vigentes y vencidas al volver a abrir, con CSV")
+    void testReservasSeRestauranConCsv() throws Exception {
+        probarRestauracion(TipoPersistencia.CSV);
+    }
+
+    @Test
+    @DisplayName("Test de restauración de las reservas vigentes y vencidas al volver a abrir, con SQL")
+    void testReservasSeRestauranConSql() throws Exception {
+        probarRestauracion(TipoPersistencia.SQL);
+    }
+
+    private void probarRestauracion(TipoPersistencia tipo) throws Exception {
+        ComicSistema sistema = abrir(tipo);
+        // La reserva de C004 venció mientras el sistema estaba cerrado: vence en el primer tick
+        esperarEstado(sistema, "C004", EstadoComic.DISPONIBLE);
+        assertEquals(EstadoComic.RESERVADO, sistema.buscarComicPorId("C005").getEstado(),
+                "Una reserva sin evento en el historial no vence");
+        sistema.reservar("C003", "U002");
+
+        ComicSistema reabierto = reabrir(sistema, tipo);
+        assertEquals(1, reabierto.contarReservasVigentes(), "La reserva de C003 debería seguir vigente");
+        assertEquals(EstadoComic.DISPONIBLE, reabierto.buscarComicPorId("C004").getEstado());
+        assertEquals(List.of(EventoVenta.Tipo.RESERVA, EventoVenta.Tipo.EXPIRACION), tiposDe(reabierto, "C004"));
+        assertThrows(ReservaNoEncontradaException.class, () -> reabierto.confirmarReserva("C003", "U001"));
+        reabierto.confirmarReserva("C003", "U002");
+        assertEquals(List.of(EventoVenta.Tipo.RESERVA, EventoVenta.Tipo.VENTA), tiposDe(reabierto, "C003"));
+    }
+}
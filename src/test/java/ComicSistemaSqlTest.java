@@ -0,0 +1,175 @@
+import gestores.ComicSistema;
+import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoVenta;
+import modelos.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+import utilidades.TipoPersistencia;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba la persistencia en la base de datos SQL embebida: la importación de los archivos CSV al crear la base
+ * y la conservación de los cambios entre ejecuciones.
+ */
+@DisplayName("Test de ComicSistema con persistencia SQL")
+class ComicSistemaSqlTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<ComicSistema> abiertos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(directorio.resolve("comics.csv"),
+                "ID,Titulo,Autor,Estado\n" +
+                "C001,Watchmen,Alan Moore,disponible\n" +
+                "C002,Maus,Art Spiegelman,vendido\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("comics.csv.diario"), "A,C003,\"V de Vendetta, Edición\",Alan Moore,D\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"),
+                "ID,Nombre,Email\n" +
+                "U001,Clark Kent,clark.kent@dailyplanet.com\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("ventas_log.txt"),
+                "VENTA/RESERVA - Fecha/Hora: 2025-06-24 22:24:33, Cómic ID: C002, Título: Maus, Usuario ID: U001, Nombre Usuario: Clark Kent\n",
+                StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        abiertos.forEach(ComicSistema::close);
+    }
+
+    private ComicSistema abrir(ModoAlmacenamiento modo) {
+        ComicSistema sistema = new ComicSistema(ConfiguracionPersistencia.enDirectorio(TipoPersistencia.SQL, directorio.toString()), modo);
+        abiertos.add(sistema);
+        return sistema;
+    }
+
+    private ComicSistema reabrir(ComicSistema sistema, ModoAlmacenamiento modo) {
+        sistema.close();
+        abiertos.remove(sistema);
+        return abrir(modo);
+    }
+
+    @Test
+    @DisplayName("Test de importación de los archivos CSV al crear la base")
+    void testImportaCsvAlCrearLaBase() throws Exception {
+        String csvOriginal = Files.readString(directorio.resolve("comics.csv"), StandardCharsets.UTF_8);
+        ComicSistema sistema = abrir(ModoAlmacenamiento.OBJETOS);
+
+        assertEquals(3, ids(sistema).size(), "El inventario debería importarse con el diario aplicado");
+        assertEquals("V de Vendetta, Edición", sistema.buscarComicPorId("c003").getTitulo());
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId("C002").getEstado());
+        assertNotNull(sistema.buscarUsuarioPorId("U001"), "Los usuarios deberían importarse");
+        assertEquals(1, historial(sistema, "C002", null).size(), "El log de texto debería importarse");
+        assertTrue(Files.exists(directorio.resolve("comicgestion.mv.db")), "La base debería crearse junto a los CSV");
+
+        sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible"));
+        sistema = reabrir(sistema, ModoAlmacenamiento.OBJETOS);
+        assertEquals(4, ids(sistema).size(), "Los CSV no deberían importarse de nuevo");
+        assertEquals(1, historial(sistema, "C002", null).size(), "El log no debería importarse dos veces");
+        assertEquals(csvOriginal, Files.readString(directorio.resolve("comics.csv"), StandardCharsets.UTF_8),
+                "Con persistencia SQL no deberían modificarse los CSV");
+    }
+
+    @Test
+    @DisplayName("Test de persistencia de altas, bajas, ventas y usuarios entre ejecuciones")
+    void testCambiosSeConservanAlReabrir() throws Exception {
+        ComicSistema sistema = abrir(ModoAlmacenamiento.OBJETOS);
+        sistema.agregarUsuario(new Usuario("U002", "Bruce Wayne", "bruce@wayne.com"));
+        sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible"));
+        sistema.registrarVenta("c001", "U002");
+        sistema.registrarVenta("C004", "U001");
+        sistema.cancelarReservaODeclararDisponible("C004");
+        assertTrue(sistema.eliminarComic("C004"));
+        assertTrue(sistema.eliminarUsuario("U001"));
+
+        sistema = reabrir(sistema, ModoAlmacenamiento.OBJETOS);
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId("C001").getEstado(), "El cambio de estado debería conservarse");
+        assertNull(sistema.buscarComicPorId("C004"), "La baja debería conservarse");
+        assertEquals(List.of("C001", "C002", "C003"), ids(sistema),
+                "El orden del inventario debería conservarse");
+        assertNull(sistema.buscarUsuarioPorId("U001"), "La baja del usuario debería conservarse");
+        assertEquals("Bruce Wayne", sistema.buscarUsuarioPorId("U002").getNombre());
+
+        List<EventoVenta> delComic = historial(sistema, "C004", null);
+        assertEquals(List.of(EventoVenta.Tipo.VENTA, EventoVenta.Tipo.DISPONIBLE),
+                delComic.stream().map(EventoVenta::getTipo).collect(Collectors.toList()), "Los eventos deberían entregarse en orden");
+        assertEquals(EstadoComic.VENDIDO, delComic.get(1).getEstadoAnterior());
+        assertEquals(1, historial(sistema, null, "U002").size());
+        List<EstadisticaVentas> masVendidos = sistema.obtenerComicsMasVendidos(10);
+        assertEquals(List.of("C002", "C001"), masVendidos.stream().map(EstadisticaVentas::getClave).collect(Collectors.toList()),
+                "Los reportes deberían reconstruirse desde la base");
+    }
+
+    @Test
+    @DisplayName("Test de guardado del inventario completo en la base")
+    void testGuardarInventario() {
+        ComicSistema sistema = abrir(ModoAlmacenamiento.COMPACTO);
+        sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible"));
+        sistema.guardarInventario();
+        sistema.guardarUsuarios();
+        assertTrue(sistema.getUltimaInstantaneaInventario().getBytesEscritos() > 0, "Debería informarse el tamaño de la base");
+
+        sistema = reabrir(sistema, ModoAlmacenamiento.COMPACTO);
+        assertEquals(List.of("C001", "C002", "C003", "C004"), ids(sistema));
+        assertNotNull(sistema.buscarUsuarioPorId("U001"));
+    }
+
+    @Test
+    @DisplayName("Test de altas y ventas en lote en una transacción")
+    void testLotesSeConservanAlReabrir() {
+        ComicSistema sistema = abrir(ModoAlmacenamiento.OBJETOS);
+        assertEquals(2, sistema.agregarComics(List.of(
+                new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible"),
+                new Comic("Otro Watchmen", "Otro Autor", "c001", "disponible"),
+                new Comic("Sandman", "Neil Gaiman", "C005", "disponible"))).getAplicados());
+        assertEquals(2, sistema.registrarVentas("U001", List.of("C004", "C005", "C002")).getAplicados());
+
+        sistema = reabrir(sistema, ModoAlmacenamiento.OBJETOS);
+        assertEquals(List.of("C001", "C002", "C003", "C004", "C005"), ids(sistema));
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId("C005").getEstado());
+        assertEquals(3, sistema.contarComprasUsuario("U001"), "Las ventas del lote deberían estar en el historial");
+    }
+
+    @Test
+    @DisplayName("Test de restauración del almacenamiento mapeado mientras la base no cambie")
+    void testRestauraMapeadoConLaFirmaDeLaBase() throws Exception {
+        ComicSistema sistema = abrir(ModoAlmacenamiento.MAPEADO);
+        sistema.registrarVenta("C001", "U001");
+        sistema = reabrir(sistema, ModoAlmacenamiento.MAPEADO);
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId("C001").getEstado());
+        assertTrue(Files.exists(directorio.resolve("comicgestion.mapa")), "Los archivos mapeados deberían ir junto a la base");
+
+        sistema.cancelarReservaODeclararDisponible("C001");
+        sistema = reabrir(sistema, ModoAlmacenamiento.OBJETOS);
+        assertEquals(EstadoComic.DISPONIBLE, sistema.buscarComicPorId("C001").getEstado(),
+                "Los cambios hechos con el almacenamiento mapeado deberían estar en la base");
+    }
+
+    private static List<String> ids(ComicSistema sistema) {
+        return sistema.buscarComics(null, null, 1, 100).getElementos().stream().map(Comic::getId).collect(Collectors.toList());
+    }
+
+    private static List<EventoVenta> historial(ComicSistema sistema, String idComic, String idUsuario) throws IOException {
+        List<EventoVenta> eventos = new ArrayList<>();
+        sistema.consultarHistorialVentas(null, null, idComic, idUsuario, eventos::add);
+        return eventos;
+    }
+}
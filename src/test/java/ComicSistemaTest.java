@@ -0,0 +1,629 @@
+import excepciones.ComicNoEncontradoException;
+import excepciones.ComicYaVendidoException;
+import gestores.ComicSistema;
+import modelos.Comic;
+import modelos.EstadisticaVentas;
+import modelos.EstadoComic;
+import modelos.EventoVenta;
+import modelos.ResultadoLote;
+import modelos.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.ModoAlmacenamiento;
+import utilidades.Pagina;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComicSistemaTest {
+
+    @TempDir
+    Path directorio;
+
+    ComicSistema sistema;
+
+    // Sistemas abiertos por cada prueba; se cierran al terminar, antes de borrar el directorio temporal,
+    // para que ningún escritor en segundo plano siga creando archivos en él
+    private final List<ComicSistema> abiertos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(directorio.resolve("comics.csv"),
+                "ID,Titulo,Autor,Estado\n" +
+                "C001,Watchmen,Alan Moore,disponible\n" +
+                "C002,Maus,Art Spiegelman,vendido\n", StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"),
+                "ID,Nombre,Email\n" +
+                "U001,Clark Kent,clark.kent@dailyplanet.com\n", StandardCharsets.UTF_8);
+        sistema = crearSistema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        abiertos.forEach(ComicSistema::close);
+    }
+
+    private ComicSistema crearSistema() {
+        ComicSistema creado = new ComicSistema(
+                directorio.resolve("comics.csv").toString(),
+                directorio.resolve("usuarios.csv").toString(),
+                directorio.resolve("ventas_log.txt").toString(),
+                modoAlmacenamiento());
+        abiertos.add(creado);
+        return creado;
+    }
+
+    /**
+     * Modo de almacenamiento del inventario con el que se ejecutan las pruebas; las subclases lo cambian.
+     */
+    ModoAlmacenamiento modoAlmacenamiento() {
+        return ModoAlmacenamiento.OBJETOS;
+    }
+
+    @Test
+    @DisplayName("Test de búsqueda por ID sin distinguir mayúsculas")
+    void testBuscarComicPorIdIgnoraMayusculas() {
+        for (String id : new String[]{"C001", "c001"}) {
+            Comic comic = sistema.buscarComicPorId(id);
+            assertNotNull(comic, "Debería encontrar el cómic con ID '" + id + "'");
+            assertEquals("C001", comic.getId(), "El ID original debería conservarse");
+        }
+        assertNull(sistema.buscarComicPorId("C999"), "Un ID inexistente no debería encontrarse");
+        assertNull(sistema.buscarComicPorId(null), "Un ID nulo no debería encontrarse");
+    }
+
+    @Test
+    @DisplayName("Test de IDs duplicados con distinta capitalización")
+    void testAgregarComicRechazaIdDuplicadoIgnorandoMayusculas() {
+        sistema.agregarComic(new Comic("Otro Watchmen", "Otro Autor", "c001", "disponible"));
+        assertEquals("Watchmen", sistema.buscarComicPorId("C001").getTitulo(), "No debería reemplazarse el cómic existente");
+
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        assertNotNull(sistema.buscarComicPorId("c003"), "El nuevo cómic debería encontrarse en minúsculas");
+    }
+
+    @Test
+    @DisplayName("Test de eliminación por ID sin distinguir mayúsculas")
+    void testEliminarComicIgnoraMayusculas() {
+        assertTrue(sistema.eliminarComic("c001"), "Debería eliminar el cómic aunque cambie la capitalización");
+        assertNull(sistema.buscarComicPorId("C001"), "El cómic eliminado no debería encontrarse");
+
+        // Una vez eliminado, el ID vuelve a quedar libre
+        sistema.agregarComic(new Comic("Watchmen", "Alan Moore", "C001", "disponible"));
+        assertNotNull(sistema.buscarComicPorId("C001"), "El ID debería poder reutilizarse tras eliminar");
+
+        assertFalse(sistema.eliminarComic("c002"), "No debería eliminar un cómic vendido");
+    }
+
+    @Test
+    @DisplayName("Test de registro de venta con ID en minúsculas")
+    void testRegistrarVentaIgnoraMayusculas() throws Exception {
+        sistema.registrarVenta("c001", "U001");
+        assertEquals(EstadoComic.VENDIDO, sistema.buscarComicPorId("C001").getEstado(), "El estado debería cambiar a 'vendido'");
+        assertThrows(ComicYaVendidoException.class, () -> sistema.registrarVenta("C001", "U001"));
+        assertThrows(ComicNoEncontradoException.class, () -> sistema.registrarVenta("C999", "U001"));
+    }
+
+    @Test
+    @DisplayName("Test de persistencia del índice al recargar")
+    void testIndiceSeReconstruyeAlCargar() {
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        sistema.agregarUsuario(new Usuario("U002", "Bruce Wayne", null));
+
+        ComicSistema recargado = crearSistema();
+        assertNotNull(recargado.buscarComicPorId("c003"), "El cómic persistido debería indexarse al cargar");
+        assertNotNull(recargado.buscarUsuarioPorId("U002"), "El usuario persistido debería cargarse");
+    }
+
+    @Test
+    @DisplayName("Test de cambios registrados en el diario sin reescribir el CSV")
+    void testCambiosSeRegistranEnDiario() throws Exception {
+        Path csv = directorio.resolve("comics.csv");
+        String snapshotOriginal = Files.readString(csv, StandardCharsets.UTF_8);
+
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        sistema.registrarVenta("C001", "U001");
+        sistema.eliminarComic("C003");
+
+        assertEquals(snapshotOriginal, Files.readString(csv, StandardCharsets.UTF_8), "El CSV no debería reescribirse en cada cambio");
+        assertEquals(3, Files.readAllLines(directorio.resolve("comics.csv.diario")).size(), "Cada cambio debería anexar un registro al diario");
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(EstadoComic.VENDIDO, recargado.buscarComicPorId("C001").getEstado(), "El cambio de estado debería reproducirse al cargar");
+        assertNull(recargado.buscarComicPorId("C003"), "La baja debería reproducirse al cargar");
+    }
+
+    @Test
+    @DisplayName("Test de compactación del diario en el CSV")
+    void testGuardarInventarioCompactaDiario() throws IOException {
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        sistema.guardarInventario();
+
+        assertTrue(Files.readString(directorio.resolve("comics.csv"), StandardCharsets.UTF_8).contains("C003,V de Vendetta,Alan Moore,D"),
+                "La compactación debería volcar el inventario al CSV con el código del estado");
+        assertEquals(0, Files.size(directorio.resolve("comics.csv.diario")), "La compactación debería vaciar el diario");
+        assertNotNull(crearSistema().buscarComicPorId("C003"), "El cómic compactado debería cargarse desde el CSV");
+    }
+
+    @Test
+    @DisplayName("Test de conteos por estado actualizados con cada operación")
+    void testConteosPorEstado() throws Exception {
+        assertEquals(1, sistema.contarComics(EstadoComic.DISPONIBLE));
+        assertEquals(1, sistema.contarComics(EstadoComic.VENDIDO));
+
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "reservado"));
+        sistema.registrarVenta("C001", "U001");
+        sistema.cancelarReservaODeclararDisponible("C002");
+        assertEquals(1, sistema.contarComics(EstadoComic.DISPONIBLE), "C002 debería contarse como disponible");
+        assertEquals(1, sistema.contarComics(EstadoComic.VENDIDO), "C001 debería contarse como vendido");
+        assertEquals(1, sistema.contarComics(EstadoComic.RESERVADO), "C003 debería contarse como reservado");
+
+        sistema.eliminarComic("C002");
+        assertEquals(0, sistema.contarComics(EstadoComic.DISPONIBLE), "La baja debería descontarse");
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(0, recargado.contarComics(EstadoComic.DISPONIBLE), "Los conteos deberían reconstruirse al cargar");
+        assertEquals(1, recargado.contarComics(EstadoComic.VENDIDO));
+        assertEquals(1, recargado.contarComics(EstadoComic.RESERVADO));
+    }
+
+    @Test
+    @DisplayName("Test de búsqueda paginada por autor y estado")
+    void testBuscarComicsPorAutorYEstado() throws Exception {
+        for (int i = 3; i <= 7; i++) {
+            sistema.agregarComic(new Comic("Moore " + i, "Alan Moore", "C00" + i, "disponible"));
+        }
+        sistema.registrarVenta("C004", "U001");
+
+        Pagina<Comic> primera = sistema.buscarComics("  alan   MOORE ", EstadoComic.DISPONIBLE, 1, 2);
+        assertEquals(5, primera.getTotalElementos(), "C001, C003, C005, C006 y C007 están disponibles");
+        assertEquals(List.of("C001", "C003"), primera.getElementos().stream().map(Comic::getId).collect(Collectors.toList()));
+        assertTrue(primera.haySiguiente());
+        assertEquals(3, primera.getTotalPaginas());
+
+        Pagina<Comic> ultima = sistema.buscarComics("Alan Moore", EstadoComic.DISPONIBLE, 3, 2);
+        assertEquals(List.of("C007"), ultima.getElementos().stream().map(Comic::getId).collect(Collectors.toList()));
+        assertFalse(ultima.haySiguiente());
+
+        assertEquals(List.of("C004"), sistema.buscarComics("Alan Moore", EstadoComic.VENDIDO, 1, 10).getElementos().stream()
+                .map(Comic::getId).collect(Collectors.toList()), "La venta debería mover el cómic al índice de vendidos");
+        assertEquals(6, sistema.buscarComics("Alan Moore", null, 1, 10).getTotalElementos(), "Sin estado deberían contarse todos los del autor");
+        assertEquals(2, sistema.buscarComics(null, EstadoComic.VENDIDO, 1, 10).getTotalElementos(), "C002 y C004 están vendidos");
+
+        sistema.eliminarComic("C005");
+        assertEquals(4, sistema.buscarComics("Alan Moore", EstadoComic.DISPONIBLE, 1, 10).getTotalElementos(), "La baja debería quitar el cómic del índice");
+        assertEquals(0, sistema.buscarComics("Frank Miller", null, 1, 10).getTotalElementos());
+        assertEquals(4, crearSistema().buscarComics("alan moore", EstadoComic.DISPONIBLE, 1, 10).getTotalElementos(),
+                "Los índices deberían reconstruirse al cargar");
+    }
+
+    @Test
+    @DisplayName("Test de páginas por estado con muchos cómics, después de ventas y bajas")
+    void testPaginasPorEstadoConMuchosComics() throws Exception {
+        List<Comic> lote = new ArrayList<>();
+        List<String> vendidos = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            lote.add(new Comic("Título " + i, "Autor " + (i % 7), "P" + i, "disponible"));
+            if (i % 3 == 0) {
+                vendidos.add("P" + i);
+            }
+        }
+        assertEquals(10_000, sistema.agregarComics(lote).getAplicados());
+        assertEquals(vendidos.size(), sistema.registrarVentas("U001", vendidos).getAplicados());
+        for (int i = 1; i < 10_000; i += 100) {
+            sistema.eliminarComic("P" + i);
+        }
+
+        List<String> disponibles = new ArrayList<>(List.of("C001"));
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 3 != 0 && i % 100 != 1) {
+                disponibles.add("P" + i);
+            }
+        }
+        Pagina<Comic> pagina = sistema.buscarComics(null, EstadoComic.DISPONIBLE, 40, 100);
+        assertEquals(disponibles.size(), pagina.getTotalElementos());
+        assertEquals(disponibles.subList(3900, 4000), idsDe(pagina), "La página debería seguir el orden de inserción");
+        assertEquals(disponibles.subList(6500, disponibles.size()),
+                idsDe(sistema.buscarComics(null, EstadoComic.DISPONIBLE, 66, 100)));
+        assertTrue(sistema.buscarComics(null, EstadoComic.DISPONIBLE, 67, 100).getElementos().isEmpty());
+        assertEquals(vendidos.size() + 1, sistema.buscarComics(null, EstadoComic.VENDIDO, 1, 10).getTotalElementos());
+        assertEquals(List.of("C002", "P0"), idsDe(sistema.buscarComics(null, EstadoComic.VENDIDO, 1, 2)));
+
+        sistema.cancelarReservaODeclararDisponible("P0");
+        assertEquals(disponibles.size() + 1, sistema.buscarComics(null, EstadoComic.DISPONIBLE, 1, 10).getTotalElementos(),
+                "La devolución debería mover el cómic a los disponibles");
+        assertEquals(vendidos.size(), sistema.contarComics(EstadoComic.VENDIDO));
+    }
+
+    @Test
+    @DisplayName("Test de búsqueda de texto por prefijos, sin acentos y con varios términos")
+    void testBuscarPorTexto() {
+        sistema.agregarComic(new Comic("Sandman Vol. 1: Preludios y Nocturnos, Edición", "Neil Gaiman", "C003", "disponible"));
+        sistema.agregarComic(new Comic("Sandman Vol. 2: La Casa de Muñecas", "Neil Gaiman", "C004", "disponible"));
+        sistema.agregarComic(new Comic("Sandy y el Mar", "Autora Desconocida", "C005", "disponible"));
+        sistema.agregarComic(new Comic("Crónicas de Neil", "Otro Autor", "C006", "disponible"));
+
+        assertEquals(List.of("C003"), idsDe(sistema.buscarPorTexto("sand PRELUD edicion", 1, 10)), "Todos los términos deberían coincidir (AND)");
+        assertEquals(List.of("C004"), idsDe(sistema.buscarPorTexto("munecas", 1, 10)), "Los acentos y la ñ deberían ignorarse");
+        assertEquals(List.of("C003", "C004", "C005"), idsDe(sistema.buscarPorTexto("sand", 1, 10)), "El término debería coincidir como prefijo");
+        assertEquals(List.of("C006", "C003", "C004"), idsDe(sistema.buscarPorTexto("neil", 1, 10)),
+                "Las coincidencias en el título deberían puntuar más que en el autor");
+        assertEquals(List.of("C004"), idsDe(sistema.buscarPorTexto("neil", 3, 1)));
+        assertEquals(0, sistema.buscarPorTexto("sandman batman", 1, 10).getTotalElementos());
+        assertEquals(0, sistema.buscarPorTexto("  ¿? ", 1, 10).getTotalElementos(), "Una consulta sin términos no debería encontrar nada");
+
+        sistema.eliminarComic("C003");
+        assertEquals(List.of("C004"), idsDe(sistema.buscarPorTexto("sandman", 1, 10)), "La baja debería quitar el cómic del índice");
+        assertEquals(List.of("C004", "C005"), idsDe(crearSistema().buscarPorTexto("SAND", 1, 10)), "El índice debería reconstruirse al cargar");
+
+        // Suficientes términos nuevos como para que se incorporen al vocabulario ordenado durante las altas
+        for (int i = 0; i < 1_100; i++) {
+            sistema.agregarComic(new Comic("Especial N" + i, "Varios", "E" + i, "disponible"));
+        }
+        assertEquals(11, sistema.buscarPorTexto("especial n105", 1, 20).getTotalElementos(), "N105 y N1050 a N1059 deberían coincidir");
+    }
+
+    private static List<String> idsDe(Pagina<Comic> pagina) {
+        return pagina.getElementos().stream().map(Comic::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Test de índices de usuarios por nombre y por ID, con nombres repetidos, páginas y prefijos")
+    void testIndicesDeUsuarios() {
+        assertTrue(sistema.agregarUsuario(new Usuario("U003", "Juan Pérez", null)));
+        assertTrue(sistema.agregarUsuario(new Usuario("U002", "Juan Pérez", null)));
+        assertTrue(sistema.agregarUsuario(new Usuario("U004", "bruce wayne", null)));
+        assertTrue(sistema.agregarUsuario(new Usuario("U005", "Brenda Starr", null)));
+
+        assertEquals(List.of("U001", "U002", "U003", "U004", "U005"), idsDeUsuarios(sistema.listarUsuarios()));
+        assertEquals(List.of("U005", "U004", "U001", "U002", "U003"), idsDeUsuarios(sistema.listarUsuariosOrdenadosPorNombre()),
+                "Los nombres repetidos deberían aparecer todos, desempatados por ID, sin distinguir mayúsculas");
+
+        Pagina<Usuario> pagina = sistema.buscarUsuariosPorNombre("BR", 1, 1);
+        assertEquals(2, pagina.getTotalElementos(), "Los nombres que empiezan con 'br' deberían contarse sin recorrerlos");
+        assertEquals(List.of("U005"), idsDeUsuarios(pagina.getElementos()));
+        assertEquals(List.of("U004"), idsDeUsuarios(sistema.buscarUsuariosPorNombre("br", 2, 1).getElementos()));
+        assertEquals(List.of(), sistema.buscarUsuariosPorNombre("br", 3, 1).getElementos());
+        assertEquals(List.of("U002", "U003"), idsDeUsuarios(sistema.buscarUsuariosPorNombre("juan  p", 1, 10).getElementos()));
+        assertEquals(0, sistema.buscarUsuariosPorNombre("zz", 1, 10).getTotalElementos());
+        assertEquals(5, sistema.buscarUsuariosPorNombre("", 1, 10).getTotalElementos());
+        assertEquals(List.of("U003", "U004"), idsDeUsuarios(sistema.listarUsuarios(2, 2).getElementos()));
+        assertThrows(IllegalArgumentException.class, () -> sistema.listarUsuarios(0, 10));
+
+        assertTrue(sistema.eliminarUsuario("U002"));
+        assertEquals(List.of("U003"), idsDeUsuarios(sistema.buscarUsuariosPorNombre("juan", 1, 10).getElementos()),
+                "La baja debería quitar al usuario del índice por nombre");
+        assertEquals(List.of("U005", "U004", "U001", "U003"), idsDeUsuarios(crearSistema().listarUsuariosOrdenadosPorNombre()),
+                "Los índices deberían reconstruirse al cargar");
+    }
+
+    private static List<String> idsDeUsuarios(List<Usuario> usuarios) {
+        return usuarios.stream().map(Usuario::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Test de lectura de estados con código y con nombre completo")
+    void testCargaEstadosCodificadosYLegados() throws IOException {
+        Files.writeString(directorio.resolve("comics.csv"),
+                "ID,Titulo,Autor,Estado\n" +
+                "C001,Watchmen,Alan Moore,V\n" +
+                "C002,Maus,Art Spiegelman,Reservado\n" +
+                "C003,Akira,Katsuhiro Otomo,extraviado\n", StandardCharsets.UTF_8);
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(EstadoComic.VENDIDO, recargado.buscarComicPorId("C001").getEstado());
+        assertEquals(EstadoComic.RESERVADO, recargado.buscarComicPorId("C002").getEstado());
+        assertNull(recargado.buscarComicPorId("C003"), "Un estado desconocido debería descartar la fila");
+    }
+
+    @Test
+    @DisplayName("Test de registro truncado al final del diario")
+    void testDiarioIgnoraRegistroTruncado() throws IOException {
+        Files.writeString(directorio.resolve("comics.csv.diario"), "S,C002,disponible\nS,C001,vend", StandardCharsets.UTF_8);
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(EstadoComic.DISPONIBLE, recargado.buscarComicPorId("C002").getEstado(), "Los registros completos deberían reproducirse");
+        assertEquals(EstadoComic.DISPONIBLE, recargado.buscarComicPorId("C001").getEstado(), "Un registro truncado no debería aplicarse");
+    }
+
+    @Test
+    @DisplayName("Test de lote incompleto al final del diario")
+    void testDiarioDescartaLoteIncompleto() throws IOException {
+        Path diario = directorio.resolve("comics.csv.diario");
+        Files.writeString(diario, "S,C002,D\nL,2\nA,C005,Akira,Katsuhiro Otomo,D\n", StandardCharsets.UTF_8);
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(EstadoComic.DISPONIBLE, recargado.buscarComicPorId("C002").getEstado(), "Los registros anteriores al lote deberían reproducirse");
+        assertNull(recargado.buscarComicPorId("C005"), "Un lote incompleto no debería aplicarse");
+        assertEquals("S,C002,D\n", Files.readString(diario, StandardCharsets.UTF_8), "El lote incompleto debería recortarse del diario");
+
+        recargado.agregarComic(new Comic("Watchmen", "Alan Moore", "C006", "disponible"));
+        assertNotNull(crearSistema().buscarComicPorId("C006"), "Los registros posteriores no deberían quedar dentro del lote descartado");
+    }
+
+    @Test
+    @DisplayName("Test de alta de cómics en lote")
+    void testAgregarComicsEnLote() throws IOException {
+        Path csv = directorio.resolve("comics.csv");
+        String snapshotOriginal = Files.readString(csv, StandardCharsets.UTF_8);
+        ResultadoLote resultado = sistema.agregarComics(Arrays.asList(
+                new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"),
+                new Comic("Otro Watchmen", "Otro Autor", "c001", "disponible"),
+                new Comic("Otro Vendetta", "Otro Autor", "c003", "disponible"),
+                null,
+                new Comic("Akira", "Katsuhiro Otomo", "C004", "vendido")));
+
+        assertEquals(2, resultado.getAplicados());
+        assertEquals(3, resultado.getRechazados());
+        assertEquals(Arrays.asList(true, false, false, false, true),
+                resultado.getElementos().stream().map(ResultadoLote.Elemento::isAplicado).collect(Collectors.toList()),
+                "Los resultados deberían seguir el orden del lote");
+        assertEquals("El ID está repetido en el lote.", resultado.getElementos().get(2).getMotivo());
+        assertEquals("Watchmen", sistema.buscarComicPorId("C001").getTitulo(), "No debería reemplazarse el cómic existente");
+        assertEquals(2, sistema.contarComics(EstadoComic.DISPONIBLE), "Los conteos deberían incluir el lote");
+        assertEquals(2, sistema.contarComics(EstadoComic.VENDIDO));
+        assertEquals(List.of("C004"), idsDe(sistema.buscarPorTexto("akira", 1, 10)));
+
+        assertEquals(snapshotOriginal, Files.readString(csv, StandardCharsets.UTF_8), "Un lote pequeño no debería reescribir el CSV");
+        assertEquals(3, Files.readAllLines(directorio.resolve("comics.csv.diario")).size(), "El lote debería anexarse como un solo registro de lote");
+        ComicSistema recargado = crearSistema();
+        assertEquals("V de Vendetta", recargado.buscarComicPorId("c003").getTitulo());
+        assertEquals(EstadoComic.VENDIDO, recargado.buscarComicPorId("C004").getEstado());
+        assertEquals(0, sistema.agregarComics(List.of()).getAplicados());
+    }
+
+    @Test
+    @DisplayName("Test de lote grande persistido como instantánea")
+    void testLoteGrandeSeGuardaComoInstantanea() throws IOException {
+        List<Comic> lote = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            lote.add(new Comic("Título " + i, "Autor " + (i % 7), "L" + i, "disponible"));
+        }
+        assertEquals(1500, sistema.agregarComics(lote).getAplicados());
+
+        assertFalse(Files.exists(directorio.resolve("comics.csv.diario")), "El lote debería ir directo a la instantánea, sin pasar por el diario");
+        assertEquals(1503, Files.readAllLines(directorio.resolve("comics.csv")).size());
+        assertEquals(1502, crearSistema().buscarComics(null, null, 1, 10).getTotalElementos());
+    }
+
+    @Test
+    @DisplayName("Test de ventas y devoluciones en lote")
+    void testVentasYDisponiblesEnLote() throws Exception {
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        ResultadoLote ventas = sistema.registrarVentas("U001", Arrays.asList("c001", "C002", "C999", "C001", null, "C003"));
+
+        assertEquals(2, ventas.getAplicados());
+        assertEquals(List.of("El cómic ya ha sido vendido o reservado.", "El cómic no se encuentra en el inventario.",
+                        "El ID está repetido en el lote.", "El cómic no se encuentra en el inventario."),
+                ventas.getElementos().stream().filter(e -> !e.isAplicado()).map(ResultadoLote.Elemento::getMotivo).collect(Collectors.toList()));
+        assertEquals(3, sistema.contarComics(EstadoComic.VENDIDO));
+        assertEquals(2, sistema.contarComprasUsuario("U001"), "Los reportes deberían contar cada venta del lote");
+        assertEquals(2, historial(sistema, null, null, null, "U001").size(), "Debería registrarse un evento por venta");
+
+        ResultadoLote disponibles = sistema.declararDisponibles(List.of("C001", "C002", "C003", "C003"));
+        assertEquals(3, disponibles.getAplicados());
+        assertEquals(List.of(EventoVenta.Tipo.VENTA, EventoVenta.Tipo.DISPONIBLE), historial(sistema, null, null, "C001", null)
+                .stream().map(EventoVenta::getTipo).collect(Collectors.toList()));
+        assertEquals(EstadoComic.VENDIDO, historial(sistema, null, null, "C002", null).get(0).getEstadoAnterior());
+        assertFalse(sistema.declararDisponibles(List.of("C001")).getElementos().get(0).isAplicado(), "Un cómic disponible debería rechazarse");
+
+        assertThrows(IllegalArgumentException.class, () -> sistema.registrarVentas("U999", List.of("C001")));
+        assertEquals(EstadoComic.DISPONIBLE, sistema.buscarComicPorId("C001").getEstado(), "Con un usuario inexistente no debería venderse nada");
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(3, recargado.contarComics(EstadoComic.DISPONIBLE), "Los cambios del lote deberían persistir");
+    }
+
+    @Test
+    @DisplayName("Test de títulos con comas en el diario y en el CSV")
+    void testTituloConComasSeConserva() {
+        String titulo = "Sandman Vol. 1: Preludios y Nocturnos, Edición";
+        sistema.agregarComic(new Comic(titulo, "Neil Gaiman", "C005", "disponible"));
+        assertEquals(titulo, crearSistema().buscarComicPorId("C005").getTitulo(), "El título debería conservarse al reproducir el diario");
+
+        sistema.guardarInventario();
+        assertEquals(titulo, crearSistema().buscarComicPorId("C005").getTitulo(), "El título debería conservarse al cargar el CSV");
+    }
+
+    @Test
+    @DisplayName("Test de consultas al historial de ventas por cómic, usuario y rango de tiempo")
+    void testConsultarHistorialVentas() throws Exception {
+        sistema.agregarUsuario(new Usuario("U002", "Bruce Wayne", null));
+        Instant antes = Instant.now().minusSeconds(1);
+        sistema.registrarVenta("C001", "U001");
+        sistema.cancelarReservaODeclararDisponible("c001");
+        sistema.registrarVenta("C001", "U002");
+        sistema.cancelarReservaODeclararDisponible("C002");
+
+        List<EventoVenta> delComic = historial(sistema, null, null, "c001", null);
+        assertEquals(List.of(EventoVenta.Tipo.VENTA, EventoVenta.Tipo.DISPONIBLE, EventoVenta.Tipo.VENTA),
+                delComic.stream().map(EventoVenta::getTipo).collect(Collectors.toList()), "Los eventos deberían entregarse en orden");
+        assertEquals(EstadoComic.VENDIDO, delComic.get(1).getEstadoAnterior());
+        assertEquals("Bruce Wayne", historial(sistema, null, null, null, "U002").get(0).getNombreUsuario());
+        assertEquals(0, historial(sistema, antes, null, null, "U00").size(), "El ID de usuario debería compararse exacto");
+        assertEquals(4, historial(sistema, antes, Instant.now().plusSeconds(1), null, null).size());
+        assertEquals(0, historial(sistema, null, antes, null, null).size(), "No hay eventos antes del rango");
+
+        sistema.close();
+        ComicSistema recargado = crearSistema();
+        assertEquals(1, historial(recargado, null, null, "C002", null).size(), "El historial debería persistir");
+        recargado.close();
+    }
+
+    @Test
+    @DisplayName("Test de importación única del log de texto de ventas")
+    void testImportaLogDeTextoExistente() throws Exception {
+        Path log = directorio.resolve("legado_log.txt");
+        Files.writeString(log,
+                "VENTA/RESERVA - Fecha/Hora: 2025-06-24 22:24:33, Cómic ID: C003, Título: Maus, Usuario ID: U001, Nombre Usuario: Clark Kent\n" +
+                "línea ilegible\n" +
+                "DISPONIBLE - Fecha/Hora: 2025-06-25 10:00:00, Cómic ID: C003, Título: Maus, Edición, Estado anterior: reservado, Estado actual: disponible\n" +
+                "VENTA/RESERVA - Fecha/Hora: 2025-07-01 09:30:00, Cómic ID: C004, Título: Akira, Usuario ID: U002, Nombre Usuario: Bruce Wayne\n",
+                StandardCharsets.UTF_8);
+        ComicSistema conLegado = new ComicSistema(directorio.resolve("comics.csv").toString(),
+                directorio.resolve("usuarios.csv").toString(), log.toString());
+
+        List<EventoVenta> delComic = historial(conLegado, null, null, "C003", null);
+        assertEquals(2, delComic.size(), "Las líneas válidas del log deberían importarse");
+        assertEquals("Maus, Edición", delComic.get(1).getTituloComic(), "Un título con comas debería conservarse");
+        assertEquals(EstadoComic.RESERVADO, delComic.get(1).getEstadoAnterior());
+        Instant julio = delComic.get(1).getInstante().plusSeconds(86_400);
+        assertEquals(List.of("C004"), historial(conLegado, julio, null, null, null).stream()
+                .map(EventoVenta::getIdComic).collect(Collectors.toList()), "El rango de tiempo debería usar las fechas del log");
+
+        conLegado.registrarVenta("C001", "U001");
+        conLegado.close();
+        ComicSistema reabierto = new ComicSistema(directorio.resolve("comics.csv").toString(),
+                directorio.resolve("usuarios.csv").toString(), log.toString());
+        assertEquals(4, historial(reabierto, null, null, null, null).size(), "El log no debería importarse dos veces");
+        reabierto.close();
+    }
+
+    @Test
+    @DisplayName("Test de operaciones después de cerrar: fallan sin cambiar el inventario ni los usuarios")
+    void testOperacionesTrasCerrarNoCambianNada() {
+        sistema.close();
+        assertThrows(IllegalStateException.class, () -> sistema.registrarVenta("C001", "U001"));
+        assertThrows(IllegalStateException.class, () -> sistema.reservar("C001", "U001"));
+        assertThrows(IllegalStateException.class, () -> sistema.cancelarReservaODeclararDisponible("C002"));
+        assertThrows(IllegalStateException.class, () -> sistema.registrarVentas("U001", List.of("C001")));
+        assertThrows(IllegalStateException.class, () -> sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C003", "disponible")));
+        assertThrows(IllegalStateException.class, () -> sistema.eliminarComic("C001"));
+        assertThrows(IllegalStateException.class, () -> sistema.agregarUsuario(new Usuario("U002", "Bruce Wayne", null)));
+        assertEquals(EstadoComic.DISPONIBLE, sistema.buscarComicPorId("C001").getEstado(), "El estado en memoria no debería cambiar");
+        assertDoesNotThrow(sistema::close, "Cerrar dos veces no debería fallar");
+
+        ComicSistema reabierto = crearSistema();
+        assertEquals(EstadoComic.DISPONIBLE, reabierto.buscarComicPorId("C001").getEstado(), "El cambio no debería llegar al diario");
+        assertEquals(EstadoComic.VENDIDO, reabierto.buscarComicPorId("C002").getEstado());
+        assertNull(reabierto.buscarComicPorId("C003"));
+        assertNull(reabierto.buscarUsuarioPorId("U002"));
+        assertEquals(0, reabierto.contarComprasUsuario("U001"));
+        reabierto.close();
+    }
+
+    @Test
+    @DisplayName("Test de recuperación del libro de ventas con un registro final dañado y sin índice")
+    void testLibroVentasSeRecuperaAlAbrir() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            sistema.registrarVenta("C001", "U001");
+            sistema.cancelarReservaODeclararDisponible("C001");
+        }
+        sistema.close();
+        Path libro = directorio.resolve("ventas_log.txt.libro");
+        Files.write(libro, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND); // Registro a medio escribir
+        Files.delete(directorio.resolve("ventas_log.txt.libro.idx"));
+
+        ComicSistema recargado = crearSistema();
+        assertEquals(400, historial(recargado, null, null, "C001", null).size(), "Los registros completos deberían conservarse");
+        assertEquals(200, historial(recargado, null, null, null, "U001").size());
+        assertTrue(Files.size(directorio.resolve("ventas_log.txt.libro.idx")) > 0, "El índice debería reconstruirse");
+
+        recargado.registrarVenta("C001", "U001");
+        assertEquals(201, historial(recargado, null, null, null, "U001").size(), "El registro dañado no debería afectar a los nuevos");
+        assertEquals(0, historial(recargado, null, null, "C002", null).size(), "Los bloques sin el cómic deberían descartarse");
+        recargado.close();
+    }
+
+    @Test
+    @DisplayName("Test de reportes de ventas actualizados con cada operación y reconstruidos desde el libro")
+    void testReportesDeVentas() throws Exception {
+        sistema.agregarUsuario(new Usuario("U002", "Bruce Wayne", null));
+        sistema.agregarComic(new Comic("V de Vendetta", "Alan Moore", "C003", "disponible"));
+        sistema.agregarComic(new Comic("Akira", "Katsuhiro Otomo", "C004", "disponible"));
+        sistema.registrarVenta("C001", "U001");
+        sistema.cancelarReservaODeclararDisponible("C001");
+        sistema.registrarVenta("c001", "U002");
+        sistema.registrarVenta("C003", "U002");
+        sistema.registrarVenta("C004", "U001");
+        sistema.cancelarReservaODeclararDisponible("C002"); // Su venta es anterior al historial: queda con ventas netas negativas
+
+        for (ComicSistema actual : List.of(sistema, crearSistemaTrasCerrar())) {
+            List<EstadisticaVentas> comics = actual.obtenerComicsMasVendidos(10);
+            assertEquals(List.of("C001", "C003", "C004"), comics.stream().map(EstadisticaVentas::getClave).collect(Collectors.toList()),
+                    "A igualdad de ventas netas, primero el cómic vendido antes; sin ventas netas positivas no aparece");
+            assertEquals(2, comics.get(0).getVentas());
+            assertEquals(1, comics.get(0).getDevoluciones());
+            assertEquals(List.of("C001"), actual.obtenerComicsMasVendidos(1).stream().map(EstadisticaVentas::getClave).collect(Collectors.toList()));
+
+            List<EstadisticaVentas> autores = actual.obtenerAutoresMasVendidos(10);
+            assertEquals(List.of("Alan Moore", "Katsuhiro Otomo"), autores.stream().map(EstadisticaVentas::getClave).collect(Collectors.toList()));
+            assertEquals(2, autores.get(0).getVentasNetas());
+
+            assertEquals(List.of("U001", "U002"), actual.obtenerUsuariosConMasCompras(10).stream()
+                    .map(EstadisticaVentas::getClave).collect(Collectors.toList()));
+            assertEquals(2, actual.contarComprasUsuario("U002"));
+            assertEquals(0, actual.contarComprasUsuario("U999"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> sistema.obtenerComicsMasVendidos(0));
+    }
+
+    @Test
+    @DisplayName("Test de métricas de ventas, devoluciones, búsquedas, cargas e instantáneas, y su MBean de JMX")
+    void testMetricas() throws Exception {
+        sistema.buscarComicPorId("C001");
+        sistema.buscarComicPorId("C999");
+        sistema.registrarVenta("C001", "U001");
+        assertThrows(ComicYaVendidoException.class, () -> sistema.registrarVenta("C001", "U001"));
+        sistema.cancelarReservaODeclararDisponible("C001");
+        sistema.guardarInventario();
+
+        Map<String, Number> valores = sistema.getMetricas().valores();
+        assertEquals(2L, valores.get("comicgestion_venta_segundos_count"), "Las ventas rechazadas también se miden");
+        assertEquals(1L, valores.get("comicgestion_ventas_rechazadas_total"));
+        assertEquals(1L, valores.get("comicgestion_disponible_segundos_count"));
+        assertTrue(valores.get("comicgestion_busqueda_id_segundos_count").longValue() >= 2);
+        assertEquals(1L, valores.get("comicgestion_busquedas_id_sin_resultado_total"));
+        assertEquals(2L, valores.get("comicgestion_eventos_venta_total"));
+        assertEquals(1L, valores.get("comicgestion_instantanea_inventario_segundos_count"));
+        assertTrue(valores.get("comicgestion_instantanea_inventario_bytes").doubleValue() > 0);
+        assertTrue(valores.get("comicgestion_carga_comics_segundos").doubleValue() > 0);
+        assertEquals(1.0, valores.get("comicgestion_comics_vendido"));
+        assertEquals(1.0, valores.get("comicgestion_usuarios"));
+        assertEquals(0L, valores.get("comicgestion_errores_total"));
+        assertTrue(sistema.getMetricas().formatoPrometheus().contains("comicgestion_venta_segundos_count 2\n"));
+
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName consulta = new ObjectName("comicgestion:type=ComicSistema,*");
+        Set<ObjectName> abiertos = servidor.queryNames(consulta, null);
+        Map<ObjectName, Object> rechazadas = new HashMap<>();
+        for (ObjectName nombre : abiertos) {
+            rechazadas.put(nombre, servidor.getAttribute(nombre, "comicgestion_ventas_rechazadas_total"));
+        }
+        sistema.close();
+        abiertos.removeAll(servidor.queryNames(consulta, null));
+        assertEquals(1, abiertos.size(), "Al cerrar el sistema su MBean debería retirarse");
+        assertEquals(1L, rechazadas.get(abiertos.iterator().next()), "El MBean debería exponer las métricas del sistema");
+    }
+
+    private ComicSistema crearSistemaTrasCerrar() {
+        sistema.close();
+        return crearSistema();
+    }
+
+    private static List<EventoVenta> historial(ComicSistema sistema, Instant desde, Instant hasta, String idComic, String idUsuario) throws IOException {
+        List<EventoVenta> eventos = new ArrayList<>();
+        long entregados = sistema.consultarHistorialVentas(desde, hasta, idComic, idUsuario, eventos::add);
+        assertEquals(eventos.size(), entregados, "El número devuelto debería coincidir con los eventos entregados");
+        return eventos;
+    }
+}
@@ -1,5 +1,7 @@
 
+import excepciones.TransicionEstadoInvalidaException;
 import modelos.Comic;
+import modelos.EstadoComic;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,7 +22,7 @@ class ComicTest {
         assertEquals("The Amazing Spider-Man #1", comicEjemplo.getTitulo(), "El título debería coincidir");
         assertEquals("Stan Lee", comicEjemplo.getAutor(), "El autor debería coincidir");
         assertEquals("ASM001", comicEjemplo.getId(), "El ID debería coincidir");
-        assertEquals("disponible", comicEjemplo.getEstado(), "El estado debería coincidir");
+        assertEquals(EstadoComic.DISPONIBLE, comicEjemplo.getEstado(), "El estado debería coincidir");
     }
 
     @Test
@@ -50,13 +52,25 @@ class ComicTest {
     @Test
     @DisplayName("Test de setters")
     void testSetters() {
-        comicEjemplo.setEstado("vendido");
-        assertEquals("vendido", comicEjemplo.getEstado(), "El estado debería cambiar a 'vendido'");
+        comicEjemplo.setEstado(EstadoComic.VENDIDO);
+        assertEquals(EstadoComic.VENDIDO, comicEjemplo.getEstado(), "El estado debería cambiar a 'vendido'");
 
         comicEjemplo.setId("ASM001-REV");
         assertEquals("ASM001-REV", comicEjemplo.getId(), "El ID debería cambiar a 'ASM001-REV'");
     }
 
+    @Test
+    @DisplayName("Test de transiciones de estado inválidas")
+    void testTransicionEstadoInvalida() {
+        comicEjemplo.setEstado(EstadoComic.VENDIDO);
+        assertThrows(TransicionEstadoInvalidaException.class, () -> comicEjemplo.setEstado(EstadoComic.RESERVADO),
+                "Un cómic vendido no debería poder reservarse");
+        assertThrows(TransicionEstadoInvalidaException.class, () -> comicEjemplo.setEstado(EstadoComic.VENDIDO),
+                "Un cómic vendido no debería poder venderse otra vez");
+        assertEquals(EstadoComic.VENDIDO, comicEjemplo.getEstado(), "Una transición rechazada no debería cambiar el estado");
+        assertThrows(IllegalArgumentException.class, () -> new Comic("Titulo", "Autor", "ID123", "extraviado"));
+    }
+
     @Test
     @DisplayName("Test de toString")
     void testToString() {
@@ -0,0 +1,149 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.CargadorCsvParalelo;
+import utilidades.CsvUtil;
+import utilidades.LectorCsv;
+import utilidades.PoliticaSincronizacion;
+import utilidades.ResultadoEscritura;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvUtilTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Test de escritura atómica que reemplaza el archivo existente")
+    void testEscribirCsvAtomicoReemplazaArchivo() throws IOException {
+        Path csv = directorio.resolve("datos.csv");
+        Files.writeString(csv, "contenido anterior\n");
+
+        for (PoliticaSincronizacion politica : PoliticaSincronizacion.values()) {
+            ResultadoEscritura resultado = CsvUtil.escribirCsvAtomico(csv.toString(), List.of("a,1", "b,2"), linea -> linea, "Letra,Numero", politica);
+
+            assertEquals(List.of("Letra,Numero", "a,1", "b,2"), Files.readAllLines(csv), "El archivo debería contener la nueva instantánea");
+            assertEquals(Files.size(csv), resultado.getBytesEscritos(), "Los bytes informados deberían coincidir con el tamaño del archivo");
+            assertTrue(resultado.getDuracionNanos() >= 0, "La duración debería ser no negativa");
+            assertFalse(Files.exists(directorio.resolve("datos.csv.tmp")), "No debería quedar el archivo temporal");
+        }
+    }
+
+    @Test
+    @DisplayName("Test de escritura atómica fallida que conserva el archivo original")
+    void testEscribirCsvAtomicoFallidoConservaArchivo() throws IOException {
+        Path csv = directorio.resolve("datos.csv");
+        Files.writeString(csv, "ID\noriginal\n");
+
+        assertThrows(IllegalStateException.class, () -> CsvUtil.escribirCsvAtomico(csv.toString(), List.of("x", "y"), linea -> {
+            if (linea.equals("y")) {
+                throw new IllegalStateException("fallo simulado a mitad de la escritura");
+            }
+            return linea;
+        }, "ID", PoliticaSincronizacion.SIEMPRE));
+
+        assertEquals(List.of("ID", "original"), Files.readAllLines(csv), "El archivo original no debería modificarse");
+        assertFalse(Files.exists(directorio.resolve("datos.csv.tmp")), "El archivo temporal debería eliminarse");
+    }
+
+    @Test
+    @DisplayName("Test de lectura de campos entrecomillados según RFC 4180")
+    void testLectorCsvCamposEntrecomillados() throws IOException {
+        String csv = "C005,\"Sandman Vol. 1: Preludios y Nocturnos, Edición\",Neil Gaiman,disponible\r\n" +
+                "C006,\"El \"\"Caballero\"\" Oscuro\",Frank Miller,vendido\n" +
+                "C007,\"Título\nen dos líneas\",,reservado";
+        try (LectorCsv lector = new LectorCsv(new StringReader(csv))) {
+            assertTrue(lector.siguienteFila());
+            assertArrayEquals(new String[]{"C005", "Sandman Vol. 1: Preludios y Nocturnos, Edición", "Neil Gaiman", "disponible"}, lector.getCampos());
+            assertTrue(lector.siguienteFila());
+            assertEquals("El \"Caballero\" Oscuro", lector.getCampo(1), "Las comillas duplicadas deberían leerse como una sola");
+            assertTrue(lector.siguienteFila());
+            assertArrayEquals(new String[]{"C007", "Título\nen dos líneas", "", "reservado"}, lector.getCampos());
+            assertFalse(lector.siguienteFila(), "No deberían quedar más filas");
+        }
+    }
+
+    @Test
+    @DisplayName("Test de lectura con campos más grandes que el buffer interno")
+    void testLectorCsvCampoLargo() throws IOException {
+        String largo = "x".repeat(20_000);
+        try (LectorCsv lector = new LectorCsv(new StringReader("a," + largo + "\n\"" + largo + "\",b\n"))) {
+            assertTrue(lector.siguienteFila());
+            assertEquals(largo, lector.getCampo(1));
+            assertTrue(lector.siguienteFila());
+            assertEquals(largo, lector.getCampo(0));
+            assertEquals("b", lector.getCampo(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Test de ida y vuelta escribiendo y leyendo campos con comas y comillas")
+    void testFormatearLineaIdaYVuelta() throws IOException {
+        Path csv = directorio.resolve("comics.csv");
+        String[] campos = {"C005", "Sandman Vol. 1: Preludios y Nocturnos, Edición", "Neil \"The\" Gaiman", ""};
+        CsvUtil.escribirCsvAtomico(csv.toString(), Collections.singletonList(campos), CsvUtil::formatearLinea, "ID,Titulo,Autor,Estado", PoliticaSincronizacion.NUNCA);
+        Files.writeString(csv, Files.readString(csv) + "\n   \n");
+
+        List<String[]> leidos = new ArrayList<>();
+        long filas = CsvUtil.procesarCsv(csv.toString(), fila -> leidos.add(fila.getCampos()));
+
+        assertEquals(1, filas, "La cabecera y las líneas en blanco deberían saltarse");
+        assertArrayEquals(campos, leidos.get(0), "Los campos deberían conservarse íntegros");
+        assertEquals("C005,\"Sandman Vol. 1: Preludios y Nocturnos, Edición\",\"Neil \"\"The\"\" Gaiman\",", CsvUtil.formatearLinea(campos));
+    }
+
+    @Test
+    @DisplayName("Test de carga paralela por rangos con el mismo resultado que la secuencial")
+    void testCargaParalelaConservaOrden() throws IOException {
+        Path csv = directorio.resolve("comics.csv");
+        StringBuilder contenido = new StringBuilder("ID,Titulo,Autor,Estado\n");
+        for (int i = 0; i < 10_000; i++) {
+            contenido.append(CsvUtil.formatearLinea("C" + i, "Título " + i + ", Edición", "Autor " + (i % 7), "disponible")).append('\n');
+        }
+        Files.writeString(csv, contenido.toString());
+
+        List<String> secuencial = new ArrayList<>();
+        CsvUtil.procesarCsv(csv.toString(), fila -> secuencial.add(fila.getCampo(0) + "|" + fila.getCampo(1)));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> paralelo = new ArrayList<>();
+            long filas = CargadorCsvParalelo.cargar(csv.toString(), fila -> fila.getCampo(0) + "|" + fila.getCampo(1), paralelo::add, 0, pool);
+            assertEquals(10_000, filas, "Deberían leerse todas las filas de datos");
+            assertEquals(secuencial, paralelo, "La carga paralela debería entregar las filas en el orden del archivo");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test de carga paralela con saltos de línea entrecomillados")
+    void testCargaParalelaConSaltosDeLineaEntrecomillados() throws IOException {
+        Path csv = directorio.resolve("comics.csv");
+        StringBuilder contenido = new StringBuilder("ID,Titulo\n");
+        for (int i = 0; i < 2_000; i++) {
+            contenido.append("C").append(i).append(",\"Línea uno\nLínea dos\nLínea tres\"\n");
+        }
+        Files.writeString(csv, contenido.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> titulos = new ArrayList<>();
+            CargadorCsvParalelo.cargar(csv.toString(), fila -> fila.getCampo(1), titulos::add, 0, pool);
+            assertEquals(2_000, titulos.size(), "Ningún corte debería partir un campo entrecomillado");
+            assertTrue(titulos.stream().allMatch("Línea uno\nLínea dos\nLínea tres"::equals));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.EscritorLogAsincrono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EscritorLogAsincronoTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Test de escritura por lotes desde varios hilos sin perder ni mezclar líneas")
+    void testEscrituraConcurrentePorLotes() throws Exception {
+        Path log = directorio.resolve("ventas_log.txt");
+        EscritorLogAsincrono escritor = new EscritorLogAsincrono(log.toString(), 64, 5);
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            int hilo = h;
+            hilos.add(new Thread(() -> {
+                for (int i = 0; i < 2_500; i++) {
+                    escritor.registrar("VENTA hilo " + hilo + " número " + i + " Cómic");
+                }
+            }));
+        }
+        hilos.forEach(Thread::start);
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        escritor.close();
+
+        List<String> lineas = Files.readAllLines(log, StandardCharsets.UTF_8);
+        assertEquals(10_000, lineas.size(), "Todas las líneas deberían escribirse");
+        Set<String> distintas = new HashSet<>(lineas);
+        assertEquals(10_000, distintas.size(), "Ninguna línea debería duplicarse ni mezclarse con otra");
+        assertTrue(distintas.contains("VENTA hilo 3 número 2499 Cómic"), "El texto debería escribirse en UTF-8");
+        assertTrue(escritor.getLotesEscritos() < 10_000, "Varias líneas deberían compartir un mismo vaciado");
+        assertTrue(escritor.getEsperasPorColaLlena() > 0, "Con una cola pequeña, algún registro debería esperar");
+        assertEquals(0, escritor.getErroresEscritura());
+        assertThrows(IllegalStateException.class, () -> escritor.registrar("tarde"), "No se debería poder registrar tras cerrar");
+    }
+
+    @Test
+    @DisplayName("Test de vaciado que espera las líneas pendientes y anexa al archivo existente")
+    void testVaciarAnexaAlArchivo() throws IOException {
+        Path log = directorio.resolve("ventas_log.txt");
+        Files.writeString(log, "línea previa" + System.lineSeparator(), StandardCharsets.UTF_8);
+        try (EscritorLogAsincrono escritor = new EscritorLogAsincrono(log.toString(), 16, 1_000)) {
+            escritor.registrar("nueva");
+            escritor.vaciar();
+            assertEquals(List.of("línea previa", "nueva"), Files.readAllLines(log, StandardCharsets.UTF_8),
+                    "Tras vaciar, la línea debería estar en el archivo sin esperar el intervalo completo");
+        }
+    }
+
+    @Test
+    @DisplayName("Test de cierre con registros en curso: toda línea aceptada se escribe")
+    void testCierreConRegistrosEnCurso() throws Exception {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            Path log = directorio.resolve("ventas_log_" + ronda + ".txt");
+            EscritorLogAsincrono escritor = new EscritorLogAsincrono(log.toString(), 8, 1);
+            AtomicInteger aceptadas = new AtomicInteger();
+            List<Thread> hilos = new ArrayList<>();
+            for (int h = 0; h < 4; h++) {
+                int hilo = h;
+                hilos.add(new Thread(() -> {
+                    for (int i = 0; ; i++) {
+                        try {
+                            escritor.registrar("hilo " + hilo + " número " + i);
+                        } catch (IllegalStateException e) {
+                            return; // Cerrado
+                        }
+                        aceptadas.incrementAndGet();
+                    }
+                }));
+            }
+            hilos.forEach(Thread::start);
+            // Se cierra con registros en curso; con la máquina cargada, los hilos pueden tardar en empezar
+            while (aceptadas.get() < 100) {
+                Thread.sleep(1);
+            }
+            escritor.close();
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+            if (!Files.exists(log)) System.err.println("DBG sin archivo, aceptadas=" + aceptadas.get());
+            assertEquals(aceptadas.get(), Files.readAllLines(log, StandardCharsets.UTF_8).size(),
+                    "Cada línea aceptada antes del cierre debería estar en el archivo");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilidades.HistogramaLatencias;
+import utilidades.RegistroMetricas;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba las métricas: la precisión de los percentiles del histograma, que registrar una latencia no reserve memoria,
+ * el formato de texto de Prometheus, el volcado a un archivo y el MBean de JMX. El costo de registrar se mide en
+ * {@code HistogramaLatenciasBenchmark}, en el módulo de benchmarks.
+ */
+@DisplayName("Test del registro de métricas")
+class RegistroMetricasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Test de percentiles con error relativo menor que 1/32 en todo el rango")
+    void testPercentiles() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        assertEquals(0, histograma.getPercentilNanos(99));
+        for (long v = 1; v <= 100_000; v++) {
+            histograma.registrar(v);
+        }
+        assertEquals(100_000, histograma.getConteo());
+        assertEquals(100_000L * 100_001 / 2, histograma.getSumaNanos());
+        assertEquals(100_000, histograma.getMaximoNanos());
+        for (double percentil : new double[]{1, 50, 90, 99, 99.9}) {
+            long esperado = (long) (percentil * 1_000);
+            long obtenido = histograma.getPercentilNanos(percentil);
+            assertTrue(obtenido >= esperado && obtenido <= esperado * 33 / 32, "p" + percentil + ": " + obtenido);
+        }
+        assertEquals(100_000, histograma.getPercentilNanos(100), "El percentil 100 es el máximo");
+
+        HistogramaLatencias extremos = new HistogramaLatencias();
+        extremos.registrar(-5);
+        extremos.registrar(Long.MAX_VALUE);
+        assertEquals(0, extremos.getPercentilNanos(50));
+        assertEquals(Long.MAX_VALUE, extremos.getPercentilNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> extremos.getPercentilNanos(101));
+    }
+
+    @Test
+    @DisplayName("Test de registrar una latencia sin reservar memoria")
+    void testRegistroSinReservarMemoria() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        int registros = 100_000;
+        for (int i = 0; i < 10 * registros; i++) {
+            histograma.registrarDesde(System.nanoTime() - (i & 1023)); // Calentamiento, para medir el código compilado
+        }
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long memoriaAntes = hilos.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < registros; i++) {
+            histograma.registrar(i & 1023);
+            histograma.registrarDesde(System.nanoTime() - (i & 1023));
+        }
+        long memoria = hilos.getCurrentThreadAllocatedBytes() - memoriaAntes;
+        assertTrue(memoria < 1_024, "Registrar no debería reservar memoria: " + memoria + " bytes");
+        assertEquals(12L * registros, histograma.getConteo());
+    }
+
+    @Test
+    @DisplayName("Test del formato de texto de Prometheus y del volcado a un archivo")
+    void testFormatoPrometheus() throws Exception {
+        RegistroMetricas registro = new RegistroMetricas();
+        LongAdder ventas = registro.contador("tienda_ventas_total", "Ventas registradas.");
+        AtomicLong cola = new AtomicLong(7);
+        registro.medidor("tienda_cola", "Eventos\nencolados.", cola::get);
+        HistogramaLatencias latencia = registro.histograma("tienda_venta_segundos", "Duración de una venta.");
+        ventas.add(3);
+        latencia.registrar(2_000_000);
+        latencia.registrar(4_000_000);
+
+        String texto = registro.formatoPrometheus();
+        assertTrue(texto.startsWith("# HELP tienda_ventas_total Ventas registradas.\n# TYPE tienda_ventas_total counter\ntienda_ventas_total 3\n"), texto);
+        assertTrue(texto.contains("# HELP tienda_cola Eventos\\nencolados.\n# TYPE tienda_cola gauge\ntienda_cola 7\n"), texto);
+        assertTrue(texto.contains("# TYPE tienda_venta_segundos summary\n"), texto);
+        assertTrue(texto.contains("tienda_venta_segundos{quantile=\"0.5\"} 0.002"), texto);
+        assertTrue(texto.contains("tienda_venta_segundos_sum 0.006\ntienda_venta_segundos_count 2\n"), texto);
+        assertTrue(texto.contains("tienda_venta_segundos_max 0.004\n"), texto);
+
+        Path archivo = directorio.resolve("metricas.prom");
+        assertTrue(registro.volcarPrometheus(archivo).getBytesEscritos() > 0);
+        cola.set(8);
+        registro.volcarPrometheus(archivo);
+        assertEquals(registro.formatoPrometheus(), Files.readString(archivo, StandardCharsets.UTF_8), "El volcado debería reemplazar el anterior");
+        assertFalse(Files.exists(directorio.resolve("metricas.prom.tmp")));
+
+        assertThrows(IllegalArgumentException.class, () -> registro.contador("tienda_ventas_total", "Repetido."));
+        assertThrows(IllegalArgumentException.class, () -> registro.contador("tienda-ventas", "Nombre no válido."));
+    }
+
+    @Test
+    @DisplayName("Test del MBean de JMX: un atributo por valor y retiro")
+    void testJmx() throws Exception {
+        RegistroMetricas registro = new RegistroMetricas();
+        registro.contador("tienda_ventas_total", "Ventas registradas.").increment();
+        registro.histograma("tienda_venta_segundos", "Duración de una venta.").registrar(1_500);
+        ObjectName nombre = new ObjectName("comicgestion:type=Prueba,name=metricas");
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        registro.registrarJmx(nombre);
+        try {
+            assertEquals(1L, servidor.getAttribute(nombre, "tienda_ventas_total"));
+            assertEquals(1L, servidor.getAttribute(nombre, "tienda_venta_segundos_count"));
+            assertEquals(1.5e-6, (Double) servidor.getAttribute(nombre, "tienda_venta_segundos_p99"), 1e-7);
+            assertEquals(8, servidor.getMBeanInfo(nombre).getAttributes().length);
+        } finally {
+            RegistroMetricas.retirarJmx(nombre);
+        }
+        assertFalse(servidor.isRegistered(nombre));
+        RegistroMetricas.retirarJmx(nombre); // Retirar dos veces no falla
+    }
+}
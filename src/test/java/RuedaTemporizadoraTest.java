@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import utilidades.RuedaTemporizadora;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba la rueda de temporización: vencimientos nunca adelantados, cancelación, reprogramación,
+ * vencimientos más lejanos que una vuelta y los lotes de cada tick con un millón de claves. El costo por tick
+ * se mide en {@code RuedaTemporizadoraBenchmark}, en el módulo de benchmarks.
+ */
+@DisplayName("Test de la rueda de temporización")
+class RuedaTemporizadoraTest {
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("Test de vencimiento en el primer tick posterior a la hora indicada")
+    void testVenceSinAdelantarse() {
+        RuedaTemporizadora<String, String> rueda = new RuedaTemporizadora<>(TICK, 8, 1_000);
+        rueda.programar("A", "U001", 1_250);
+        rueda.programar("B", "U002", 1_300);
+        assertEquals(List.of(), rueda.avanzar(1_299), "A vence en el tick de los 1300 ms, no antes");
+        assertEquals(Set.of("A", "B"), new HashSet<>(rueda.avanzar(1_300)));
+        assertEquals(0, rueda.tamano());
+        assertEquals(List.of(), rueda.avanzar(1_300), "Un tick ya procesado no se repite");
+
+        rueda.programar("C", "U003", 0);
+        assertEquals(List.of("C"), rueda.avanzar(1_400), "Un vencimiento pasado se entrega en el siguiente tick");
+    }
+
+    @Test
+    @DisplayName("Test de cancelación y reprogramación")
+    void testCancelarYReprogramar() {
+        RuedaTemporizadora<String, String> rueda = new RuedaTemporizadora<>(TICK, 8, 0);
+        rueda.programar("A", "U001", 200);
+        rueda.programar("B", "U002", 200);
+        assertEquals("U001", rueda.cancelar("A"));
+        assertNull(rueda.cancelar("A"), "Una clave cancelada ya no está programada");
+        rueda.programar("B", "U003", 500);
+        assertEquals("U003", rueda.obtener("B"), "Reprogramar reemplaza el valor y el vencimiento");
+        assertEquals(List.of(), rueda.avanzar(400));
+        assertEquals(List.of("B"), rueda.avanzar(500));
+    }
+
+    @Test
+    @DisplayName("Test de vencimientos más lejanos que una vuelta de la rueda")
+    void testVencimientosDeVariasVueltas() {
+        RuedaTemporizadora<Integer, String> rueda = new RuedaTemporizadora<>(TICK, 4, 0); // Una vuelta = 400 ms
+        rueda.programar(1, null, 100);
+        rueda.programar(2, null, 500); // Misma ranura que 1, una vuelta después
+        rueda.programar(3, null, 2_000);
+        assertEquals(List.of(1), rueda.avanzar(100));
+        assertEquals(List.of(), rueda.avanzar(400));
+        assertEquals(List.of(2), rueda.avanzar(500));
+        assertEquals(List.of(3), rueda.avanzar(10_000), "Un avance de varias vueltas recorre cada ranura una vez");
+    }
+
+    @Test
+    @DisplayName("Test de un millón de claves: cada tick entrega solo sus vencimientos")
+    void testMillonDeClaves() {
+        int claves = 1_000_000;
+        int ticks = 1_000;
+        RuedaTemporizadora<Integer, String> rueda = new RuedaTemporizadora<>(TICK, 1024, 0);
+        for (int i = 0; i < claves; i++) {
+            rueda.programar(i, null, (1 + i % ticks) * TICK);
+        }
+        for (int i = 0; i < claves; i++) {
+            if ((i / ticks) % 2 == 0) {
+                rueda.cancelar(i); // La mitad de las claves de cada tick
+            }
+        }
+        int vencidas = 0;
+        for (int tick = 1; tick <= ticks; tick++) {
+            List<Integer> lote = rueda.avanzar(tick * TICK);
+            assertEquals(claves / ticks / 2, lote.size(), "Cada tick debería entregar solo las claves que vencen en él");
+            vencidas += lote.size();
+        }
+        assertEquals(claves / 2, vencidas);
+        assertEquals(0, rueda.tamano());
+    }
+
+    @Test
+    @DisplayName("Test de parámetros inválidos")
+    void testParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new RuedaTemporizadora<String, String>(0, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RuedaTemporizadora<String, String>(TICK, 6, 0));
+    }
+}
@@ -0,0 +1,221 @@
+import gestores.ComicSistema;
+import gestores.OyenteComicSistema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import servidor.ServidorHttp;
+import utilidades.ConfiguracionPersistencia;
+import utilidades.ModoAlmacenamiento;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba el servidor HTTP/JSON contra localhost: las rutas de cómics, usuarios, ventas y reportes,
+ * y un generador de carga que informa la latencia (p50 y p99) y las peticiones por segundo.
+ */
+@DisplayName("Test del servidor HTTP/JSON")
+class ServidorHttpTest {
+    private static final int COMICS = 200;
+
+    @TempDir
+    Path directorio;
+
+    private ComicSistema sistema;
+    private ServidorHttp servidor;
+    private HttpClient cliente;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StringBuilder comics = new StringBuilder("ID,Titulo,Autor,Estado\n");
+        comics.append("C001,\"Watchmen, Edición \"\"Absoluta\"\"\",Alan Moore,disponible\n");
+        for (int i = 2; i <= COMICS; i++) {
+            comics.append(String.format("C%03d,Cómic %d,Autor %d,disponible%n", i, i, i % 10));
+        }
+        Files.writeString(directorio.resolve("comics.csv"), comics, StandardCharsets.UTF_8);
+        Files.writeString(directorio.resolve("usuarios.csv"),
+                "ID,Nombre,Email\n" +
+                "U001,Clark Kent,clark.kent@dailyplanet.com\n", StandardCharsets.UTF_8);
+        sistema = new ComicSistema(ConfiguracionPersistencia.csv(
+                directorio.resolve("comics.csv").toString(),
+                directorio.resolve("usuarios.csv").toString(),
+                directorio.resolve("ventas_log.txt").toString()), ModoAlmacenamiento.OBJETOS, OyenteComicSistema.SILENCIOSO);
+        servidor = new ServidorHttp(sistema, 0);
+        servidor.iniciar();
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.close();
+        sistema.close();
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String cuerpo) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + servidor.getPuerto() + ruta))
+                .method(metodo, cuerpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(cuerpo))
+                .header("Content-Type", "application/json")
+                .build();
+        return cliente.send(peticion, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test de alta, consulta, venta, devolución y baja de un cómic")
+    void testCicloDeUnComic() throws Exception {
+        HttpResponse<String> respuesta = enviar("GET", "/comics/c001", null);
+        assertEquals(200, respuesta.statusCode());
+        assertEquals("{\"id\":\"C001\",\"titulo\":\"Watchmen, Edición \\\"Absoluta\\\"\",\"autor\":\"Alan Moore\",\"estado\":\"disponible\"}",
+                respuesta.body(), "Las comillas del título deberían escaparse");
+
+        String akira = "{\"id\": \"C999\", \"titulo\": \"Akira\", \"autor\": \"Katsuhiro Otomo\"}";
+        assertEquals(201, enviar("POST", "/comics", akira).statusCode());
+        assertEquals(409, enviar("POST", "/comics", akira).statusCode(), "El ID duplicado debería rechazarse");
+        assertEquals(201, enviar("POST", "/comics/C999/venta", "{\"idUsuario\":\"U001\"}").statusCode());
+        assertTrue(enviar("GET", "/reportes/comics?limite=5", null).body().contains("\"clave\":\"C999\""),
+                "El reporte debería incluir la venta");
+        assertEquals(409, enviar("POST", "/comics/C999/venta", "{\"idUsuario\":\"U001\"}").statusCode(), "Ya está vendido");
+        assertEquals(409, enviar("DELETE", "/comics/C999", null).statusCode(), "No se elimina un cómic vendido");
+        assertEquals(404, enviar("POST", "/comics/C001/venta", "{\"idUsuario\":\"U999\"}").statusCode());
+        assertEquals(200, enviar("POST", "/comics/C999/disponible", null).statusCode());
+        assertEquals(204, enviar("POST", "/comics/C999/disponible", null).statusCode(), "Ya estaba disponible");
+
+        respuesta = enviar("GET", "/ventas?comic=C999", null);
+        assertEquals(200, respuesta.statusCode());
+        assertTrue(respuesta.body().startsWith("[{\"tipo\":\"VENTA\""), respuesta.body());
+        assertTrue(respuesta.body().contains("{\"tipo\":\"DISPONIBLE\""), respuesta.body());
+
+        assertEquals(204, enviar("DELETE", "/comics/C999", null).statusCode());
+        assertEquals(404, enviar("GET", "/comics/C999", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Test de reserva y confirmación de un cómic")
+    void testReservaYConfirmacion() throws Exception {
+        HttpResponse<String> respuesta = enviar("POST", "/comics/C002/reserva", "{\"idUsuario\":\"U001\"}");
+        assertEquals(201, respuesta.statusCode());
+        assertTrue(respuesta.body().startsWith("{\"tipo\":\"RESERVA\""), respuesta.body());
+        assertEquals(409, enviar("POST", "/comics/C002/reserva", "{\"idUsuario\":\"U001\"}").statusCode(), "Ya está reservado");
+        assertEquals(409, enviar("POST", "/comics/C003/confirmacion", "{\"idUsuario\":\"U001\"}").statusCode(), "No está reservado");
+        respuesta = enviar("POST", "/comics/C002/confirmacion", "{\"idUsuario\":\"U001\"}");
+        assertEquals(201, respuesta.statusCode());
+        assertTrue(respuesta.body().startsWith("{\"tipo\":\"VENTA\""), respuesta.body());
+        assertTrue(enviar("GET", "/comics/C002", null).body().contains("\"estado\":\"vendido\""));
+    }
+
+    @Test
+    @DisplayName("Test de listados, usuarios y errores de la petición")
+    void testListadosYErrores() throws Exception {
+        HttpResponse<String> respuesta = enviar("GET", "/comics?autor=autor%203&tamano=5&pagina=2", null);
+        assertEquals(200, respuesta.statusCode());
+        assertTrue(respuesta.body().startsWith("{\"pagina\":2,\"tamanoPagina\":5,\"total\":20,\"totalPaginas\":4,\"elementos\":[{"),
+                respuesta.body());
+        assertTrue(enviar("GET", "/comics?texto=watch", null).body().contains("\"id\":\"C001\""));
+
+        assertEquals(201, enviar("POST", "/usuarios", "{\"id\":\"U002\",\"nombre\":\"Bruce Wayne\",\"email\":null}").statusCode());
+        assertEquals("[{\"id\":\"U002\",\"nombre\":\"Bruce Wayne\",\"email\":null},{\"id\":\"U001\",\"nombre\":\"Clark Kent\","
+                + "\"email\":\"clark.kent@dailyplanet.com\"}]", enviar("GET", "/usuarios?orden=nombre", null).body());
+        assertEquals("{\"pagina\":1,\"tamanoPagina\":1,\"total\":1,\"totalPaginas\":1,\"elementos\":[{\"id\":\"U002\","
+                + "\"nombre\":\"Bruce Wayne\",\"email\":null}]}", enviar("GET", "/usuarios?nombre=br&tamano=1", null).body());
+        assertEquals(204, enviar("DELETE", "/usuarios/U002", null).statusCode());
+        assertEquals(404, enviar("GET", "/usuarios/U002", null).statusCode());
+
+        assertEquals(400, enviar("POST", "/comics", "{\"id\": \"C998\"").statusCode(), "JSON mal formado");
+        assertEquals(400, enviar("POST", "/comics", "{\"id\": \"C998\", \"titulo\": \"X\"}").statusCode(), "Falta el autor");
+        assertEquals(400, enviar("POST", "/comics", "{\"id\": \"C998\", \"titulo\": \"X\", \"autor\": null}").statusCode(),
+                "Un campo obligatorio en null cuenta como faltante");
+        assertEquals(400, enviar("POST", "/comics/C001/venta", "{\"idUsuario\": null}").statusCode());
+        assertEquals(400, enviar("GET", "/comics?estado=roto", null).statusCode());
+        assertEquals(400, enviar("GET", "/comics?tamano=0", null).statusCode());
+        assertEquals(400, enviar("GET", "/ventas?desde=ayer", null).statusCode());
+        assertEquals(405, enviar("PUT", "/comics", "{}").statusCode());
+        respuesta = enviar("GET", "/metricas", null);
+        assertEquals(200, respuesta.statusCode());
+        assertTrue(respuesta.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+        assertTrue(respuesta.body().contains("# TYPE comicgestion_busqueda_id_segundos summary\n"), respuesta.body());
+        respuesta = enviar("GET", "/inexistente", null);
+        assertEquals(404, respuesta.statusCode());
+        assertTrue(respuesta.body().startsWith("{\"error\":"), respuesta.body());
+    }
+
+    @Test
+    @DisplayName("Test de carga: latencia y peticiones por segundo con clientes concurrentes")
+    void testCarga() throws Exception {
+        int clientes = 16;
+        int peticionesPorCliente = 200;
+        for (int i = 0; i < 50; i++) {
+            enviar("GET", "/comics/C001", null); // Calentamiento
+        }
+        ExecutorService hilos = Executors.newFixedThreadPool(clientes);
+        AtomicInteger fallidas = new AtomicInteger();
+        List<Future<long[]>> resultados = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int c = 0; c < clientes; c++) {
+            int cliente = c;
+            resultados.add(hilos.submit(() -> {
+                long[] latencias = new long[peticionesPorCliente];
+                // Cada cliente vende y devuelve su propio cómic, así que solo las lecturas compiten entre clientes
+                String propio = String.format("C%03d", 100 + cliente);
+                for (int i = 0; i < peticionesPorCliente; i++) {
+                    long t0 = System.nanoTime();
+                    HttpResponse<String> respuesta;
+                    switch (i % 10) {
+                        case 0:
+                            respuesta = enviar("POST", "/comics/" + propio + "/venta", "{\"idUsuario\":\"U001\"}");
+                            break;
+                        case 1:
+                            respuesta = enviar("POST", "/comics/" + propio + "/disponible", null);
+                            break;
+                        case 2:
+                            respuesta = enviar("GET", "/comics?autor=autor%20" + (i % 7) + "&tamano=10", null);
+                            break;
+                        default:
+                            respuesta = enviar("GET", String.format("/comics/C%03d", 1 + (i * 31 + cliente) % COMICS), null);
+                            break;
+                    }
+                    latencias[i] = System.nanoTime() - t0;
+                    if (respuesta.statusCode() >= 300) {
+                        fallidas.incrementAndGet();
+                    }
+                }
+                return latencias;
+            }));
+        }
+        long[] todas = new long[clientes * peticionesPorCliente];
+        int n = 0;
+        for (Future<long[]> resultado : resultados) {
+            long[] latencias = resultado.get();
+            System.arraycopy(latencias, 0, todas, n, latencias.length);
+            n += latencias.length;
+        }
+        long duracion = System.nanoTime() - inicio;
+        hilos.shutdown();
+
+        Arrays.sort(todas);
+        double p50 = todas[todas.length / 2] / 1e6;
+        double p99 = todas[(int) (todas.length * 0.99)] / 1e6;
+        double porSegundo = todas.length / (duracion / 1e9);
+        System.out.printf("Carga HTTP (%s): %d peticiones de %d clientes, %.0f pet/s, p50 %.2f ms, p99 %.2f ms%n",
+                servidor.isHilosVirtuales() ? "hilos virtuales" : "grupo de hilos", todas.length, clientes, porSegundo, p50, p99);
+
+        assertEquals(0, fallidas.get(), "Todas las peticiones deberían responderse con éxito");
+        assertEquals(clientes * peticionesPorCliente / 10, sistema.contarComprasUsuario("U001"),
+                "Cada venta debería quedar en el historial");
+    }
+}